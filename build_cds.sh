@@ -0,0 +1,44 @@
+#!/bin/bash
+
+# Advanced Payroll Management System - Fast Startup Build
+# Compiles the system into payroll.jar and records an AppCDS archive (payroll.jsa)
+# from a training run, so short command-line runs skip most class loading.
+#
+# Usage after building:
+#   java -XX:SharedArchiveFile=payroll.jsa -XX:TieredStopAtLevel=1 -cp payroll.jar \
+#        advancepayrollmanagementsystem.Main [--company CODE] totals
+#
+# Rebuild the archive whenever the classes or the JDK change; a stale archive is
+# ignored by the JVM (startup is then simply not accelerated).
+
+echo "=============================================="
+echo "  Payroll Fast Startup Build (AppCDS)"
+echo "=============================================="
+
+rm -rf bin
+mkdir -p bin
+
+echo "Compiling Java source files..."
+javac -encoding UTF-8 -d bin src/advancepayrollmanagementsystem/*.java
+if [ $? -ne 0 ]; then
+    echo "✗ Compilation failed. Please check the source code for errors."
+    exit 1
+fi
+
+# CDS only archives classes loaded from JAR files
+echo "Packaging payroll.jar..."
+jar cf payroll.jar -C bin .
+
+# Training run: a typical batch command, which loads the data file, computes pay and prints
+echo "Recording class list from a training run..."
+rm -f payroll.jsa
+java -XX:ArchiveClassesAtExit=payroll.jsa -cp payroll.jar advancepayrollmanagementsystem.Main totals > /dev/null
+
+if [ -f payroll.jsa ]; then
+    echo "✓ Archive written: payroll.jsa"
+    echo "Run commands with:"
+    echo "  java -XX:SharedArchiveFile=payroll.jsa -XX:TieredStopAtLevel=1 -cp payroll.jar advancepayrollmanagementsystem.Main help"
+else
+    echo "✗ The JVM did not write the archive (JDK 13 or newer is required)."
+    exit 1
+fi
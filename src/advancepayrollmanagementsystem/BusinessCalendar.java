@@ -0,0 +1,250 @@
+package advancepayrollmanagementsystem;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * BusinessCalendar answers the date questions of pay calculations (days elapsed, days left,
+ * full years of service, working days of leave taken) as integer arithmetic on epoch days.
+ *
+ * A calendar is pinned to an "as-of" date. Payroll runs pin the last day of their pay period
+ * for the length of the run, so every employee in the run is paid as of the same day however
+ * long the run takes; outside a run the calendar is as of today. Weekdays are counted with a
+ * closed formula and holidays with a binary search over a sorted array, so no calculation
+ * allocates or walks the days of a range.
+ *
+ * Holidays are read from holidays.txt (or the file named by -Dpayroll.holidays) the first
+ * time they are needed: one yyyy-MM-dd date per line, optionally followed by a name, with
+ * '#' starting a comment. Weekends are Saturday and Sunday.
+ */
+public final class BusinessCalendar {
+    private static final String HOLIDAY_FILE = System.getProperty("payroll.holidays", "holidays.txt");
+
+    private static volatile Holidays holidays;
+    private static volatile BusinessCalendar today;
+    private static volatile BusinessCalendar pinned;
+    private static int pinCount;
+    private static final Object PIN_LOCK = new Object();
+
+    private final LocalDate asOf;
+    private final long asOfDay;
+    // Month and day packed as month * 32 + day, for anniversary comparisons
+    private final int asOfMonthDay;
+    private final Holidays table;
+    // Today's calendar is replaced at the next midnight
+    private final long validUntilMillis;
+
+    private BusinessCalendar(LocalDate asOf, Holidays table, long validUntilMillis) {
+        this.asOf = asOf;
+        this.asOfDay = asOf.toEpochDay();
+        this.asOfMonthDay = asOf.getMonthValue() * 32 + asOf.getDayOfMonth();
+        this.table = table;
+        this.validUntilMillis = validUntilMillis;
+    }
+
+    /**
+     * Get a calendar as of a given date
+     * @param asOf As-of date
+     * @return calendar
+     */
+    public static BusinessCalendar of(LocalDate asOf) {
+        return new BusinessCalendar(asOf, holidays(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Get the calendar pay calculations use: the one pinned by the running payroll, or today's
+     * @return current calendar
+     */
+    public static BusinessCalendar current() {
+        BusinessCalendar calendar = pinned;
+        if (calendar != null) return calendar;
+        calendar = today;
+        if (calendar == null || System.currentTimeMillis() >= calendar.validUntilMillis) {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate date = LocalDate.now(zone);
+            long midnight = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            calendar = new BusinessCalendar(date, holidays(), midnight);
+            today = calendar;
+        }
+        return calendar;
+    }
+
+    /**
+     * Pin the as-of date for a payroll run; close the pin when the run ends.
+     * Runs pinned to the same date share the pin. A run for another date waits until
+     * the pinned runs have finished.
+     * @param asOf As-of date of the run
+     * @return pin to close at the end of the run
+     */
+    public static Pin pin(LocalDate asOf) {
+        synchronized (PIN_LOCK) {
+            while (pinCount > 0 && !pinned.asOf.equals(asOf)) {
+                try {
+                    PIN_LOCK.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for the payroll calendar");
+                }
+            }
+            if (pinCount == 0) {
+                pinned = of(asOf);
+            }
+            pinCount++;
+        }
+        return new Pin();
+    }
+
+    /**
+     * Pin the last day of a pay period
+     * @param period Pay period
+     * @return pin to close at the end of the run
+     */
+    public static Pin pin(YearMonth period) {
+        return pin(period.atEndOfMonth());
+    }
+
+    /**
+     * Replace the holidays
+     * @param dates Holiday dates
+     */
+    public static void setHolidays(Collection<LocalDate> dates) {
+        long[] days = dates.stream().mapToLong(LocalDate::toEpochDay).sorted().distinct().toArray();
+        holidays = new Holidays(days);
+        today = null;
+    }
+
+    /**
+     * Days from the as-of date back to a date
+     * @param date Earlier date
+     * @return days elapsed (negative if the date is after the as-of date)
+     */
+    public long daysSince(LocalDate date) {
+        return asOfDay - date.toEpochDay();
+    }
+
+    /**
+     * Days from the as-of date forward to an epoch day
+     * @param epochDay Later epoch day
+     * @return days remaining (negative if the day has passed)
+     */
+    public long daysUntil(long epochDay) {
+        return epochDay - asOfDay;
+    }
+
+    /**
+     * Full years from a date to the as-of date, counted the way Period.between counts them
+     * @param date Start date, such as the date of joining
+     * @return completed years, never negative
+     */
+    public int yearsSince(LocalDate date) {
+        int years = asOf.getYear() - date.getYear();
+        if (asOfMonthDay < date.getMonthValue() * 32 + date.getDayOfMonth()) years--;
+        return Math.max(0, years);
+    }
+
+    /**
+     * Count working days in [from, to)
+     * @param fromEpochDay First day, inclusive
+     * @param toEpochDay Last day, exclusive
+     * @return working days in the range (0 if it is empty)
+     */
+    public long workingDaysBetween(long fromEpochDay, long toEpochDay) {
+        if (toEpochDay <= fromEpochDay) return 0;
+        long weekdays = weekdaysBefore(toEpochDay) - weekdaysBefore(fromEpochDay);
+        return weekdays - table.weekdayHolidaysBefore(toEpochDay) + table.weekdayHolidaysBefore(fromEpochDay);
+    }
+
+    // Getters
+    public LocalDate getAsOf() { return asOf; }
+    public long getAsOfEpochDay() { return asOfDay; }
+
+    /**
+     * Weekdays in [epoch day 0 shifted to a Monday, day): five per full week plus the
+     * weekdays of the partial week. 1970-01-01 was a Thursday, three days after a Monday.
+     */
+    private static long weekdaysBefore(long epochDay) {
+        long shifted = epochDay + 3;
+        return Math.floorDiv(shifted, 7) * 5 + Math.min(Math.floorMod(shifted, 7), 5);
+    }
+
+    private static Holidays holidays() {
+        Holidays table = holidays;
+        if (table == null) {
+            synchronized (BusinessCalendar.class) {
+                table = holidays;
+                if (table == null) {
+                    table = new Holidays(readHolidayFile(Paths.get(HOLIDAY_FILE)));
+                    holidays = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    private static long[] readHolidayFile(Path file) {
+        if (!Files.exists(file)) return new long[0];
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .map(line -> line.replaceFirst("#.*", "").trim())
+                    .filter(line -> !line.isEmpty())
+                    .mapToLong(line -> LocalDate.parse(line.split("\\s+", 2)[0]).toEpochDay())
+                    .sorted().distinct().toArray();
+        } catch (IOException | DateTimeParseException e) {
+            System.out.println("✗ Error reading holidays from " + file + ": " + e.getMessage());
+            return new long[0];
+        }
+    }
+
+    /**
+     * Releases a pinned as-of date
+     */
+    public static final class Pin implements AutoCloseable {
+        private boolean closed;
+
+        private Pin() {
+        }
+
+        @Override
+        public void close() {
+            synchronized (PIN_LOCK) {
+                if (closed) return;
+                closed = true;
+                if (--pinCount == 0) {
+                    pinned = null;
+                    PIN_LOCK.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorted holiday epoch days, with the weekday holidays counted cumulatively
+     */
+    private static final class Holidays {
+        final long[] days;
+        // weekdayCount[i] = holidays among days[0..i) that fall on a weekday
+        final int[] weekdayCount;
+
+        Holidays(long[] days) {
+            this.days = days;
+            this.weekdayCount = new int[days.length + 1];
+            for (int i = 0; i < days.length; i++) {
+                weekdayCount[i + 1] = weekdayCount[i] + (Math.floorMod(days[i] + 3, 7) < 5 ? 1 : 0);
+            }
+        }
+
+        long weekdayHolidaysBefore(long epochDay) {
+            int index = Arrays.binarySearch(days, epochDay);
+            return weekdayCount[index < 0 ? -index - 1 : index];
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package advancepayrollmanagementsystem;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CompensationScenario is a named set of hypothetical pay adjustments for comp planning,
+ * such as "a 4% raise for Engineering plus a $500 bonus for Finance". Scenarios are evaluated
+ * by the ScenarioEngine without touching the employee records.
+ *
+ * Scenario files list each scenario's name in brackets followed by its adjustments, one
+ * "scope, field, change" line each, applied in order:
+ *
+ *   [Engineering raise]
+ *   department=Engineering, BASE_SALARY, +4%
+ *   department=Finance, MONTHLY_BONUS, =500
+ *
+ * The scope is "all", "department=NAME", "type=TYPE" (e.g. Full-Time) or "employee=ID".
+ * The change is a percentage ("+4%", "-2.5%"), an amount to add ("+200") or a new value
+ * ("=500"). An adjustment only affects employees that have the field, as with RetroChange.
+ * '#' starts a comment.
+ */
+public final class CompensationScenario {
+    /**
+     * Pay fields a scenario can adjust
+     */
+    public enum Field {
+        BASE_SALARY, HOURLY_RATE, BENEFITS, MONTHLY_BONUS, CONTRACT_AMOUNT
+    }
+
+    private final String name;
+    private final List<Adjustment> adjustments;
+
+    /**
+     * Constructor for CompensationScenario
+     * @param name Scenario name
+     * @param adjustments Adjustments, applied in order
+     */
+    public CompensationScenario(String name, List<Adjustment> adjustments) {
+        this.name = name;
+        this.adjustments = Collections.unmodifiableList(new ArrayList<>(adjustments));
+    }
+
+    /**
+     * Parse scenarios
+     * @param text Scenario file contents
+     * @return scenarios in file order
+     * @throws IllegalArgumentException naming the first invalid line
+     */
+    public static List<CompensationScenario> parseAll(String text) {
+        List<CompensationScenario> scenarios = new ArrayList<>();
+        String name = null;
+        List<Adjustment> adjustments = new ArrayList<>();
+        String[] lines = text.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].replaceFirst("#.*", "").trim();
+            if (line.isEmpty()) continue;
+            if (line.startsWith("[") && line.endsWith("]")) {
+                if (name != null) scenarios.add(new CompensationScenario(name, adjustments));
+                name = line.substring(1, line.length() - 1).trim();
+                adjustments = new ArrayList<>();
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("Scenario line " + (i + 1) + ": empty scenario name");
+                }
+            } else if (name == null) {
+                throw new IllegalArgumentException("Scenario line " + (i + 1) + ": expected [scenario name]");
+            } else {
+                try {
+                    adjustments.add(Adjustment.parse(line));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Scenario line " + (i + 1) + ": " + e.getMessage());
+                }
+            }
+        }
+        if (name != null) scenarios.add(new CompensationScenario(name, adjustments));
+        return scenarios;
+    }
+
+    /**
+     * Read a scenario file
+     * @param file Scenario file
+     * @return scenarios in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static List<CompensationScenario> load(Path file) throws IOException {
+        return parseAll(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    // Getters
+    public String getName() { return name; }
+    public List<Adjustment> getAdjustments() { return adjustments; }
+
+    @Override
+    public String toString() {
+        return String.format("CompensationScenario{Name='%s', Adjustments=%s}", name, adjustments);
+    }
+
+    /**
+     * One adjustment: a change to one field for the employees in scope
+     */
+    public static final class Adjustment {
+        private enum Scope { ALL, DEPARTMENT, TYPE, EMPLOYEE }
+        private enum Change { PERCENT, ADD, SET }
+
+        private final Scope scope;
+        private final String target;
+        private final Field field;
+        private final Change change;
+        private final double amount;
+
+        private Adjustment(Scope scope, String target, Field field, Change change, double amount) {
+            this.scope = scope;
+            this.target = target;
+            this.field = field;
+            this.change = change;
+            this.amount = amount;
+        }
+
+        /**
+         * Parse a "scope, field, change" line
+         * @param line Adjustment line
+         * @return adjustment
+         */
+        public static Adjustment parse(String line) {
+            String[] parts = line.split(",", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("expected scope, field, change: " + line);
+            }
+
+            String scopeText = parts[0].trim();
+            Scope scope;
+            String target = null;
+            int equals = scopeText.indexOf('=');
+            if (equals < 0) {
+                if (!"all".equalsIgnoreCase(scopeText)) {
+                    throw new IllegalArgumentException("scope must be all, department=, type= or employee=: " + scopeText);
+                }
+                scope = Scope.ALL;
+            } else {
+                try {
+                    scope = Scope.valueOf(scopeText.substring(0, equals).trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("scope must be all, department=, type= or employee=: " + scopeText);
+                }
+                target = scopeText.substring(equals + 1).trim();
+                if (scope == Scope.ALL || target.isEmpty()) {
+                    throw new IllegalArgumentException("invalid scope: " + scopeText);
+                }
+            }
+
+            Field field;
+            try {
+                field = Field.valueOf(parts[1].trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown field: " + parts[1].trim());
+            }
+
+            String value = parts[2].trim();
+            Change change;
+            if (value.startsWith("=")) {
+                change = Change.SET;
+                value = value.substring(1).trim();
+            } else if (value.endsWith("%")) {
+                change = Change.PERCENT;
+                value = value.substring(0, value.length() - 1).trim();
+            } else {
+                change = Change.ADD;
+            }
+            double amount;
+            try {
+                amount = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid change: " + parts[2].trim());
+            }
+            if (!Double.isFinite(amount) || (change == Change.SET && amount < 0)
+                    || (change == Change.PERCENT && amount <= -100)) {
+                throw new IllegalArgumentException("change out of range: " + parts[2].trim());
+            }
+            return new Adjustment(scope, target, field, change, amount);
+        }
+
+        /**
+         * Check whether this adjustment targets an employee
+         * @param emp Employee to check
+         * @return true if the employee is in scope and has the adjusted field
+         */
+        public boolean appliesTo(Employee emp) {
+            switch (scope) {
+                case DEPARTMENT:
+                    if (!target.equalsIgnoreCase(emp.getDepartment())) return false;
+                    break;
+                case TYPE:
+                    if (!target.equalsIgnoreCase(emp.getEmployeeType())) return false;
+                    break;
+                case EMPLOYEE:
+                    if (!target.equalsIgnoreCase(emp.getEmployeeId())) return false;
+                    break;
+                default:
+                    break;
+            }
+            switch (field) {
+                case BASE_SALARY:
+                case BENEFITS:
+                case MONTHLY_BONUS:
+                    return emp instanceof FullTimeEmployee;
+                case HOURLY_RATE:
+                    return emp instanceof PartTimeEmployee;
+                case CONTRACT_AMOUNT:
+                    return emp instanceof ContractEmployee;
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * Apply the adjustment to an employee record
+         * @param emp Employee to modify (a scenario's copy, never the live record)
+         */
+        public void applyTo(Employee emp) {
+            switch (field) {
+                case BASE_SALARY:
+                    emp.setBaseSalary(newValue(emp.getBaseSalary()));
+                    break;
+                case HOURLY_RATE:
+                    emp.setHourlyRate(newValue(emp.getHourlyRate()));
+                    break;
+                case BENEFITS:
+                    FullTimeEmployee benefitsEmp = (FullTimeEmployee) emp;
+                    benefitsEmp.setBenefits(newValue(benefitsEmp.getBenefits()));
+                    break;
+                case MONTHLY_BONUS:
+                    FullTimeEmployee bonusEmp = (FullTimeEmployee) emp;
+                    bonusEmp.setMonthlyBonus(newValue(bonusEmp.getMonthlyBonus()));
+                    break;
+                case CONTRACT_AMOUNT:
+                    ContractEmployee ctEmp = (ContractEmployee) emp;
+                    ctEmp.setContractAmount(newValue(ctEmp.getContractAmount()));
+                    break;
+            }
+        }
+
+        private double newValue(double current) {
+            switch (change) {
+                case PERCENT:
+                    return current * (1 + amount / 100);
+                case ADD:
+                    return Math.max(0, current + amount);
+                default:
+                    return amount;
+            }
+        }
+
+        // Getters
+        public Field getField() { return field; }
+
+        @Override
+        public String toString() {
+            String scopeText = scope == Scope.ALL ? "all" : scope.name().toLowerCase(Locale.ROOT) + "=" + target;
+            String value = change == Change.PERCENT ? String.format("%+.2f%%", amount)
+                    : change == Change.ADD ? String.format("%+.2f", amount) : String.format("=%.2f", amount);
+            return scopeText + " " + field + " " + value;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package advancepayrollmanagementsystem;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ConsolidatedSummary is the cross-company result of closing a pay period for every company.
+ * It is merged from the totals each company's run returns, so no employee is read twice.
+ */
+public class ConsolidatedSummary {
+    private final YearMonth period;
+    private final Map<String, PayTotals> companyTotals = new TreeMap<>();
+    private final Map<String, String> failures = new TreeMap<>();
+    private final PayTotals totals = new PayTotals();
+    private long elapsedMillis;
+
+    /**
+     * Constructor for ConsolidatedSummary
+     * @param period Pay period
+     */
+    public ConsolidatedSummary(YearMonth period) {
+        this.period = period;
+    }
+
+    /**
+     * Merge the totals of one company's run
+     * @param company Company code
+     * @param companyTotals Totals of the company's run
+     */
+    public synchronized void add(String company, PayTotals companyTotals) {
+        this.companyTotals.put(company, companyTotals);
+        totals.add(companyTotals);
+    }
+
+    /**
+     * Record a company whose run failed; its pay is not part of the totals
+     * @param company Company code
+     * @param message Reason for the failure
+     */
+    public synchronized void fail(String company, String message) {
+        failures.put(company, message);
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Getters
+    public YearMonth getPeriod() { return period; }
+    public synchronized Map<String, PayTotals> getCompanyTotals() { return Collections.unmodifiableMap(new TreeMap<>(companyTotals)); }
+    public synchronized Map<String, String> getFailures() { return Collections.unmodifiableMap(new TreeMap<>(failures)); }
+    public synchronized PayTotals getTotals() { return new PayTotals().add(totals); }
+    public long getElapsedMillis() { return elapsedMillis; }
+}
@@ -9,12 +9,19 @@ package advancepayrollmanagementsystem;
 public class ContractEmployee extends Employee {
     private static final long serialVersionUID = 1L;
     
+    // Flat estimated tax rate, shared with the columnar PayrollKernel
+    static final double TAX_RATE = 0.20;
+    
     private double contractAmount;
     private java.time.LocalDate contractStartDate;
     private java.time.LocalDate contractEndDate;
     private String projectName;
     private boolean isProjectCompleted;
     
+    // Contract dates as epoch days, for pro-ration without date arithmetic
+    private transient long startDay;
+    private transient long endDay;
+    
     /**
      * Constructor for ContractEmployee
      * @param employeeId Unique identifier
@@ -31,10 +38,11 @@ public class ContractEmployee extends Employee {
                            java.time.LocalDate contractEndDate, String projectName) {
         super(employeeId, firstName, lastName, email, department, contractAmount);
         this.contractAmount = contractAmount;
-        this.contractStartDate = java.time.LocalDate.now();
-        this.contractEndDate = contractEndDate;
-        this.projectName = projectName;
+        this.contractStartDate = SharedDictionary.intern(java.time.LocalDate.now());
+        this.contractEndDate = SharedDictionary.intern(contractEndDate);
+        this.projectName = SharedDictionary.intern(projectName);
         this.isProjectCompleted = false;
+        cacheEpochDays();
     }
     
     /**
@@ -43,10 +51,11 @@ public class ContractEmployee extends Employee {
     public ContractEmployee(String employeeId, String name, double hoursWorked, double hourlyRate) {
         super(employeeId, name, hoursWorked, hourlyRate);
         this.contractAmount = hoursWorked * hourlyRate;
-        this.contractStartDate = java.time.LocalDate.now();
-        this.contractEndDate = java.time.LocalDate.now().plusMonths(6); // 6 month default contract
-        this.projectName = "General Contract Work";
+        this.contractStartDate = SharedDictionary.intern(java.time.LocalDate.now());
+        this.contractEndDate = SharedDictionary.intern(java.time.LocalDate.now().plusMonths(6)); // 6 month default contract
+        this.projectName = SharedDictionary.intern("General Contract Work");
         this.isProjectCompleted = false;
+        cacheEpochDays();
     }
     
     @Override
@@ -55,21 +64,25 @@ public class ContractEmployee extends Employee {
             return contractAmount;
         }
         
-        // Calculate pro-rated payment based on time elapsed
-        long totalDays = java.time.Period.between(contractStartDate, contractEndDate).getDays();
-        long daysElapsed = java.time.Period.between(contractStartDate, java.time.LocalDate.now()).getDays();
+        // Calculate pro-rated payment based on the days elapsed as of the payroll calendar
+        long totalDays = endDay - startDay;
+        long daysElapsed = BusinessCalendar.current().getAsOfEpochDay() - startDay;
         
         if (totalDays <= 0) return contractAmount;
         
-        double progressRatio = Math.min(1.0, (double) daysElapsed / totalDays);
+        double progressRatio = Math.max(0.0, Math.min(1.0, (double) daysElapsed / totalDays));
         return contractAmount * progressRatio;
     }
     
     @Override
     public double calculateTax() {
-        double grossSalary = calculateSalary();
+        return calculateTax(calculateSalary(), 1);
+    }
+    
+    @Override
+    public double calculateTax(double grossSalary, int periods) {
         // Contract employees typically handle their own taxes, but we'll calculate estimated tax
-        return grossSalary * 0.20; // Flat 20% for contract work
+        return grossSalary * TAX_RATE; // Flat 20% for contract work
     }
     
     @Override
@@ -89,7 +102,7 @@ public class ContractEmployee extends Employee {
      * @return true if contract has expired
      */
     public boolean isContractExpired() {
-        return java.time.LocalDate.now().isAfter(contractEndDate);
+        return BusinessCalendar.current().daysUntil(endDay) < 0;
     }
     
     /**
@@ -97,8 +110,7 @@ public class ContractEmployee extends Employee {
      * @return days remaining, or 0 if expired
      */
     public long getRemainingDays() {
-        if (isContractExpired()) return 0;
-        return java.time.Period.between(java.time.LocalDate.now(), contractEndDate).getDays();
+        return Math.max(0, BusinessCalendar.current().daysUntil(endDay));
     }
     
     // Getters and Setters
@@ -106,17 +118,36 @@ public class ContractEmployee extends Employee {
     public void setContractAmount(double contractAmount) { this.contractAmount = contractAmount; }
     
     public java.time.LocalDate getContractStartDate() { return contractStartDate; }
-    public void setContractStartDate(java.time.LocalDate contractStartDate) { this.contractStartDate = contractStartDate; }
+    public void setContractStartDate(java.time.LocalDate contractStartDate) { this.contractStartDate = SharedDictionary.intern(contractStartDate); cacheEpochDays(); }
     
     public java.time.LocalDate getContractEndDate() { return contractEndDate; }
-    public void setContractEndDate(java.time.LocalDate contractEndDate) { this.contractEndDate = contractEndDate; }
+    public void setContractEndDate(java.time.LocalDate contractEndDate) { this.contractEndDate = SharedDictionary.intern(contractEndDate); cacheEpochDays(); }
     
     public String getProjectName() { return projectName; }
-    public void setProjectName(String projectName) { this.projectName = projectName; }
+    public void setProjectName(String projectName) { this.projectName = SharedDictionary.intern(projectName); }
     
     public boolean isProjectCompleted() { return isProjectCompleted; }
     public void setProjectCompleted(boolean projectCompleted) { isProjectCompleted = projectCompleted; }
     
+    /**
+     * Re-link project name and contract dates to the shared dictionary after deserialization
+     */
+    private void readObject(java.io.ObjectInputStream in) throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        contractStartDate = SharedDictionary.intern(contractStartDate);
+        contractEndDate = SharedDictionary.intern(contractEndDate);
+        projectName = SharedDictionary.intern(projectName);
+        cacheEpochDays();
+    }
+    
+    /**
+     * Convert the contract dates to epoch days; a missing date counts as a zero-length contract
+     */
+    private void cacheEpochDays() {
+        startDay = contractStartDate != null ? contractStartDate.toEpochDay() : 0;
+        endDay = contractEndDate != null ? contractEndDate.toEpochDay() : startDay;
+    }
+    
     @Override
     public String toString() {
         return String.format("ContractEmployee{ID='%s', Name='%s', Project='%s', Amount=%.2f, Expires=%s}",
@@ -0,0 +1,230 @@
+package advancepayrollmanagementsystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DistributedPayroll computes the payroll of large employee lists on PayrollWorker processes.
+ *
+ * Active employees are sorted by ID and cut into contiguous ID ranges, a few per worker.
+ * One coordinator thread per worker takes partitions from a shared queue, sends them over
+ * a loopback socket and reads the binary results back. Results are stored by position in
+ * the ID order, so the merged list and its totals are the same however the partitions were
+ * scheduled.
+ *
+ * If a worker dies, hangs or cannot be reached, its current partition goes back on the queue
+ * for the remaining workers. Partitions left when no worker is alive, and partitions a worker
+ * reports it could not compute, are computed in this JVM.
+ *
+ * The as-of date and overtime plan in force when a run starts travel with every partition,
+ * and workers and local computation pin them, so all partitions are paid by the same rules
+ * as of the same day.
+ */
+public class DistributedPayroll {
+    private static final int PARTITIONS_PER_WORKER = 4;
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int READ_TIMEOUT_MILLIS = 60_000;
+
+    private final List<InetSocketAddress> workers;
+
+    // Results of the last compute()
+    private int partitions;
+    private final AtomicInteger reassigned = new AtomicInteger();
+    private final AtomicInteger localPartitions = new AtomicInteger();
+    private final List<String> failedWorkers = Collections.synchronizedList(new ArrayList<>());
+    private long elapsedNanos;
+
+    /**
+     * Constructor for DistributedPayroll
+     * @param workers Addresses of the worker processes
+     */
+    public DistributedPayroll(List<InetSocketAddress> workers) {
+        this.workers = new ArrayList<>(workers);
+    }
+
+    /**
+     * Compute the pay of all active employees on the workers
+     * @param employees Employees (inactive employees are skipped)
+     * @return results in employee ID order
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public List<PayrollResult> compute(List<Employee> employees) throws InterruptedException {
+        long start = System.nanoTime();
+        reassigned.set(0);
+        localPartitions.set(0);
+        failedWorkers.clear();
+        LocalDate asOf = BusinessCalendar.current().getAsOf();
+        OvertimePlan plan = OvertimePlan.active();
+
+        List<Employee> active = new ArrayList<>();
+        for (Employee emp : employees) {
+            if (emp.isActive()) active.add(emp);
+        }
+        active.sort(Comparator.comparing(Employee::getEmployeeId));
+        PayrollResult[] results = new PayrollResult[active.size()];
+
+        LinkedBlockingQueue<Partition> pending = new LinkedBlockingQueue<>();
+        int count = Math.max(1, Math.min(active.size(), workers.size() * PARTITIONS_PER_WORKER));
+        for (int i = 0; i < count; i++) {
+            int from = (int) ((long) active.size() * i / count);
+            int to = (int) ((long) active.size() * (i + 1) / count);
+            pending.add(new Partition(i, from, to));
+        }
+        partitions = count;
+        AtomicInteger remaining = new AtomicInteger(count);
+        LinkedBlockingQueue<Partition> local = new LinkedBlockingQueue<>();
+
+        if (!workers.isEmpty() && !active.isEmpty()) {
+            List<Callable<Void>> tasks = new ArrayList<>(workers.size());
+            for (InetSocketAddress worker : workers) {
+                tasks.add(() -> {
+                    drive(worker, asOf, plan, active, results, pending, local, remaining);
+                    return null;
+                });
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(workers.size(), runnable -> {
+                Thread thread = new Thread(runnable, "payroll-coordinator");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                executor.invokeAll(tasks);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // Whatever no worker could finish
+        pending.drainTo(local);
+        if (!local.isEmpty()) {
+            BusinessCalendar.Pin calendar = BusinessCalendar.pin(asOf);
+            OvertimePlan.Pin overtime = OvertimePlan.pin(plan);
+            try {
+                for (Partition partition : local) {
+                    localPartitions.incrementAndGet();
+                    for (int i = partition.from; i < partition.to; i++) {
+                        results[i] = PayrollResult.of(active.get(i));
+                    }
+                }
+            } finally {
+                overtime.close();
+                calendar.close();
+            }
+        }
+
+        elapsedNanos = System.nanoTime() - start;
+        List<PayrollResult> merged = new ArrayList<>(results.length);
+        Collections.addAll(merged, results);
+        return merged;
+    }
+
+    // Results of the last compute()
+    public int getPartitions() { return partitions; }
+    public int getReassigned() { return reassigned.get(); }
+    public int getLocalPartitions() { return localPartitions.get(); }
+    public List<String> getFailedWorkers() { return new ArrayList<>(failedWorkers); }
+    public int getWorkerCount() { return workers.size(); }
+    public double getElapsedSeconds() { return elapsedNanos / 1e9; }
+
+    /**
+     * Feed partitions to one worker until all partitions are done or the worker fails
+     */
+    private void drive(InetSocketAddress worker, LocalDate asOf, OvertimePlan plan, List<Employee> active,
+                       PayrollResult[] results,
+                       LinkedBlockingQueue<Partition> pending, LinkedBlockingQueue<Partition> local,
+                       AtomicInteger remaining) throws InterruptedException {
+        Partition partition = null;
+        try (Socket socket = new Socket()) {
+            socket.connect(worker, CONNECT_TIMEOUT_MILLIS);
+            socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+
+            while (remaining.get() > 0) {
+                // Stay available while other workers still hold partitions that may come back
+                partition = pending.poll(20, TimeUnit.MILLISECONDS);
+                if (partition == null) continue;
+
+                out.writeInt(PayrollWorker.REQUEST_MAGIC);
+                out.writeInt(partition.id);
+                out.writeLong(asOf.toEpochDay());
+                plan.writeTo(out);
+                out.writeObject(new ArrayList<>(active.subList(partition.from, partition.to)));
+                out.flush();
+                out.reset();
+
+                int magic = in.readInt();
+                if (in.readInt() != partition.id) {
+                    throw new IOException("Response for the wrong partition");
+                }
+                if (magic == PayrollWorker.ERROR_MAGIC) {
+                    in.readUTF();
+                    local.add(partition);
+                } else if (magic == PayrollWorker.RESPONSE_MAGIC) {
+                    readResults(in, partition, active, results);
+                } else {
+                    throw new IOException("Bad response header");
+                }
+                partition = null;
+                remaining.decrementAndGet();
+            }
+        } catch (IOException e) {
+            failedWorkers.add(worker.getHostString() + ":" + worker.getPort() + " (" + e.getMessage() + ")");
+            if (partition != null) {
+                reassigned.incrementAndGet();
+                pending.add(partition);
+            }
+        }
+    }
+
+    private static void readResults(DataInputStream in, Partition partition, List<Employee> active,
+                                    PayrollResult[] results) throws IOException {
+        int count = in.readInt();
+        if (count != partition.to - partition.from) {
+            throw new IOException("Response has " + count + " results, expected " + (partition.to - partition.from));
+        }
+        // Read the whole partition before publishing any of it
+        PayrollResult[] received = new PayrollResult[count];
+        for (int i = 0; i < count; i++) {
+            Employee emp = active.get(partition.from + i);
+            double gross = in.readDouble();
+            double tax = in.readDouble();
+            double overtime = in.readDouble();
+            received[i] = new PayrollResult(emp.getEmployeeId(), emp.getDepartment(), emp.getEmployeeType(),
+                    gross, tax, gross - tax, emp.getHoursWorked(), overtime);
+        }
+        System.arraycopy(received, 0, results, partition.from, count);
+    }
+
+    /**
+     * Contiguous range [from, to) of the ID-sorted employees
+     */
+    private static final class Partition {
+        final int id;
+        final int from;
+        final int to;
+
+        Partition(int id, int from, int to) {
+            this.id = id;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package advancepayrollmanagementsystem;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -11,7 +15,7 @@ import java.time.format.DateTimeFormatter;
  * @author Your Name
  * @version 2.0
  */
-public abstract class Employee implements Serializable {
+public abstract class Employee implements Serializable, Cloneable {
     private static final long serialVersionUID = 1L;
     
     // Employee basic information
@@ -19,17 +23,42 @@ public abstract class Employee implements Serializable {
     private String firstName;
     private String lastName;
     private String email;
-    private String phoneNumber;
     private String department;
     private LocalDate dateOfJoining;
-    private LocalDate dateOfBirth;
-    private String address;
     private boolean isActive;
     
+    // Phone, address, date of birth and direct deposit details; null until one is provided
+    private Details details;
+    
     // Salary related fields
     private double baseSalary;
     private double hoursWorked;
     private double hourlyRate;
+    // Hours of the current pay period by day or week; null when only the total is known
+    private Timesheet timesheet;
+    
+    // Cached "first last" name, rebuilt lazily after a name change
+    private transient String fullName;
+    
+    // Serialized form: every detail is its own field, as in data files written before Details
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("employeeId", String.class),
+        new ObjectStreamField("firstName", String.class),
+        new ObjectStreamField("lastName", String.class),
+        new ObjectStreamField("email", String.class),
+        new ObjectStreamField("phoneNumber", String.class),
+        new ObjectStreamField("department", String.class),
+        new ObjectStreamField("dateOfJoining", LocalDate.class),
+        new ObjectStreamField("dateOfBirth", LocalDate.class),
+        new ObjectStreamField("address", String.class),
+        new ObjectStreamField("isActive", boolean.class),
+        new ObjectStreamField("bankRoutingNumber", String.class),
+        new ObjectStreamField("bankAccountNumber", String.class),
+        new ObjectStreamField("baseSalary", double.class),
+        new ObjectStreamField("hoursWorked", double.class),
+        new ObjectStreamField("hourlyRate", double.class),
+        new ObjectStreamField("timesheet", Timesheet.class)
+    };
     
     /**
      * Constructor for Employee
@@ -46,9 +75,9 @@ public abstract class Employee implements Serializable {
         this.firstName = firstName;
         this.lastName = lastName;
         this.email = email;
-        this.department = department;
+        this.department = SharedDictionary.intern(department);
         this.baseSalary = baseSalary;
-        this.dateOfJoining = LocalDate.now();
+        this.dateOfJoining = SharedDictionary.intern(LocalDate.now());
         this.isActive = true;
         this.hoursWorked = 0;
         this.hourlyRate = 0;
@@ -63,28 +92,60 @@ public abstract class Employee implements Serializable {
         this.firstName = nameParts[0];
         this.lastName = nameParts.length > 1 ? nameParts[1] : "";
         this.email = firstName.toLowerCase() + "." + lastName.toLowerCase() + "@company.com";
-        this.department = "General";
+        this.department = SharedDictionary.intern("General");
         this.hoursWorked = hoursWorked;
         this.hourlyRate = hourlyRate;
         this.baseSalary = hourlyRate * 40 * 4; // Assuming 40 hours/week, 4 weeks/month
-        this.dateOfJoining = LocalDate.now();
+        this.dateOfJoining = SharedDictionary.intern(LocalDate.now());
         this.isActive = true;
     }
     
     // Abstract methods to be implemented by subclasses
     public abstract double calculateSalary();
     public abstract double calculateTax();
+    
+    /**
+     * Calculate tax due on gross salary earned over several pay periods.
+     * Bracket limits scale with the number of periods, so for a single period
+     * this matches calculateTax().
+     * @param grossSalary Cumulative gross salary
+     * @param periods Number of pay periods the gross was earned over
+     * @return tax due on the cumulative gross
+     */
+    public abstract double calculateTax(double grossSalary, int periods);
     public abstract String getEmployeeType();
     
     /**
-     * Calculate overtime salary based on hours worked
+     * Calculate overtime salary under the active overtime rules
      * @return overtime amount
      */
     protected double calculateOvertime() {
-        if (hoursWorked <= 40) {
-            return 0;
-        }
-        return (hoursWorked - 40) * hourlyRate * 1.5; // 1.5x rate for overtime
+        return OvertimePlan.active().evaluate(this).getPay();
+    }
+    
+    /**
+     * Get the hourly rate overtime multipliers apply to
+     * @return hourly rate
+     */
+    public double getOvertimeBaseRate() {
+        return hourlyRate;
+    }
+    
+    /**
+     * Get the hours per week the employee is scheduled for; overtime rules marked "schedule"
+     * start counting overtime here when it is below their threshold
+     * @return scheduled weekly hours
+     */
+    public double getScheduledWeeklyHours() {
+        return 40;
+    }
+    
+    /**
+     * Get the portion of calculateSalary() that is paid as overtime
+     * @return overtime pay included in the gross salary
+     */
+    public double getOvertimePay() {
+        return 0;
     }
     
     /**
@@ -100,7 +161,26 @@ public abstract class Employee implements Serializable {
      * @return full name
      */
     public String getFullName() {
-        return firstName + " " + lastName;
+        String name = fullName;
+        if (name == null) {
+            name = firstName + " " + lastName;
+            fullName = name;
+        }
+        return name;
+    }
+    
+    /**
+     * Create an independent copy of this employee. Every field of every employee type is a
+     * primitive or an immutable value (strings, dates, timesheets, details), so a field-by-field
+     * copy is as independent as a serialized one at a fraction of the cost.
+     * @return copy with the same field values
+     */
+    public Employee copy() {
+        try {
+            return (Employee) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Cannot copy employee " + employeeId, e);
+        }
     }
     
     /**
@@ -113,11 +193,10 @@ public abstract class Employee implements Serializable {
     
     /**
      * Get years of service
-     * @return years since joining
+     * @return full years from joining to the payroll calendar's as-of date
      */
     public long getYearsOfService() {
-        return dateOfJoining != null ? 
-            java.time.Period.between(dateOfJoining, LocalDate.now()).getYears() : 0;
+        return dateOfJoining != null ? BusinessCalendar.current().yearsSince(dateOfJoining) : 0;
     }
     
     // Getters and Setters
@@ -125,28 +204,53 @@ public abstract class Employee implements Serializable {
     public void setEmployeeId(String employeeId) { this.employeeId = employeeId; }
     
     public String getFirstName() { return firstName; }
-    public void setFirstName(String firstName) { this.firstName = firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; this.fullName = null; }
     
     public String getLastName() { return lastName; }
-    public void setLastName(String lastName) { this.lastName = lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; this.fullName = null; }
     
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
     
-    public String getPhoneNumber() { return phoneNumber; }
-    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+    public String getPhoneNumber() { return details().phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) {
+        Details d = details();
+        details = Details.of(phoneNumber, d.address, d.dateOfBirth, d.bankRoutingNumber, d.bankAccountNumber);
+    }
     
     public String getDepartment() { return department; }
-    public void setDepartment(String department) { this.department = department; }
+    public void setDepartment(String department) { this.department = SharedDictionary.intern(department); }
     
     public LocalDate getDateOfJoining() { return dateOfJoining; }
-    public void setDateOfJoining(LocalDate dateOfJoining) { this.dateOfJoining = dateOfJoining; }
+    public void setDateOfJoining(LocalDate dateOfJoining) { this.dateOfJoining = SharedDictionary.intern(dateOfJoining); }
     
-    public LocalDate getDateOfBirth() { return dateOfBirth; }
-    public void setDateOfBirth(LocalDate dateOfBirth) { this.dateOfBirth = dateOfBirth; }
+    public LocalDate getDateOfBirth() { return details().dateOfBirth; }
+    public void setDateOfBirth(LocalDate dateOfBirth) {
+        Details d = details();
+        details = Details.of(d.phoneNumber, d.address, SharedDictionary.intern(dateOfBirth), d.bankRoutingNumber, d.bankAccountNumber);
+    }
+    
+    public String getAddress() { return details().address; }
+    public void setAddress(String address) {
+        Details d = details();
+        details = Details.of(d.phoneNumber, address, d.dateOfBirth, d.bankRoutingNumber, d.bankAccountNumber);
+    }
+    
+    public String getBankRoutingNumber() { return details().bankRoutingNumber; }
+    public void setBankRoutingNumber(String bankRoutingNumber) {
+        Details d = details();
+        details = Details.of(d.phoneNumber, d.address, d.dateOfBirth, bankRoutingNumber, d.bankAccountNumber);
+    }
+    
+    public String getBankAccountNumber() { return details().bankAccountNumber; }
+    public void setBankAccountNumber(String bankAccountNumber) {
+        Details d = details();
+        details = Details.of(d.phoneNumber, d.address, d.dateOfBirth, d.bankRoutingNumber, bankAccountNumber);
+    }
     
-    public String getAddress() { return address; }
-    public void setAddress(String address) { this.address = address; }
+    public boolean hasBankAccount() { return getBankRoutingNumber() != null && getBankAccountNumber() != null; }
+    
+    private Details details() { return details != null ? details : Details.NONE; }
     
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
@@ -155,7 +259,10 @@ public abstract class Employee implements Serializable {
     public void setBaseSalary(double baseSalary) { this.baseSalary = baseSalary; }
     
     public double getHoursWorked() { return hoursWorked; }
-    public void setHoursWorked(double hoursWorked) { this.hoursWorked = hoursWorked; }
+    public void setHoursWorked(double hoursWorked) { this.hoursWorked = hoursWorked; this.timesheet = null; }
+    
+    public Timesheet getTimesheet() { return timesheet; }
+    public void setTimesheet(Timesheet timesheet) { this.timesheet = timesheet; this.hoursWorked = timesheet.getTotalHours(); }
     
     public double getHourlyRate() { return hourlyRate; }
     public void setHourlyRate(double hourlyRate) { this.hourlyRate = hourlyRate; }
@@ -166,6 +273,98 @@ public abstract class Employee implements Serializable {
     public double getHours_worked() { return hoursWorked; }
     public double getHourly_rate() { return hourlyRate; }
     
+    /**
+     * Link names and routing numbers to an employee store's dictionary. Called by the store
+     * before the employee is published, as the record may not change afterwards.
+     * @param dictionary Dictionary of the store holding the employee
+     */
+    void shareValues(SharedDictionary dictionary) {
+        firstName = dictionary.share(firstName);
+        lastName = dictionary.share(lastName);
+        if (details != null && details.bankRoutingNumber != null) {
+            details = Details.of(details.phoneNumber, details.address, details.dateOfBirth,
+                    dictionary.share(details.bankRoutingNumber), details.bankAccountNumber);
+        }
+    }
+    
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Details d = details();
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("employeeId", employeeId);
+        fields.put("firstName", firstName);
+        fields.put("lastName", lastName);
+        fields.put("email", email);
+        fields.put("phoneNumber", d.phoneNumber);
+        fields.put("department", department);
+        fields.put("dateOfJoining", dateOfJoining);
+        fields.put("dateOfBirth", d.dateOfBirth);
+        fields.put("address", d.address);
+        fields.put("isActive", isActive);
+        fields.put("bankRoutingNumber", d.bankRoutingNumber);
+        fields.put("bankAccountNumber", d.bankAccountNumber);
+        fields.put("baseSalary", baseSalary);
+        fields.put("hoursWorked", hoursWorked);
+        fields.put("hourlyRate", hourlyRate);
+        fields.put("timesheet", timesheet);
+        out.writeFields();
+    }
+    
+    /**
+     * Read the serialized fields, re-linking low-cardinality values to the shared dictionary
+     * so a loaded data file does not hold one copy per employee
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        employeeId = (String) fields.get("employeeId", null);
+        firstName = (String) fields.get("firstName", null);
+        lastName = (String) fields.get("lastName", null);
+        email = (String) fields.get("email", null);
+        department = SharedDictionary.intern((String) fields.get("department", null));
+        dateOfJoining = SharedDictionary.intern((LocalDate) fields.get("dateOfJoining", null));
+        isActive = fields.get("isActive", false);
+        baseSalary = fields.get("baseSalary", 0.0);
+        hoursWorked = fields.get("hoursWorked", 0.0);
+        hourlyRate = fields.get("hourlyRate", 0.0);
+        timesheet = (Timesheet) fields.get("timesheet", null);
+        details = Details.of((String) fields.get("phoneNumber", null), (String) fields.get("address", null),
+                SharedDictionary.intern((LocalDate) fields.get("dateOfBirth", null)),
+                (String) fields.get("bankRoutingNumber", null), (String) fields.get("bankAccountNumber", null));
+    }
+    
+    /**
+     * Details most employees are created without. Kept out of the employee record until one
+     * is provided, as five empty references would cost every employee 16 bytes. Immutable, so
+     * copies of an employee can share it.
+     */
+    private static final class Details {
+        static final Details NONE = new Details(null, null, null, null, null);
+        
+        final String phoneNumber;
+        final String address;
+        final LocalDate dateOfBirth;
+        final String bankRoutingNumber;
+        final String bankAccountNumber;
+        
+        private Details(String phoneNumber, String address, LocalDate dateOfBirth,
+                        String bankRoutingNumber, String bankAccountNumber) {
+            this.phoneNumber = phoneNumber;
+            this.address = address;
+            this.dateOfBirth = dateOfBirth;
+            this.bankRoutingNumber = bankRoutingNumber;
+            this.bankAccountNumber = bankAccountNumber;
+        }
+        
+        /**
+         * @return the details, or null when there are none
+         */
+        static Details of(String phoneNumber, String address, LocalDate dateOfBirth,
+                          String bankRoutingNumber, String bankAccountNumber) {
+            if (phoneNumber == null && address == null && dateOfBirth == null
+                    && bankRoutingNumber == null && bankAccountNumber == null) return null;
+            return new Details(phoneNumber, address, dateOfBirth, bankRoutingNumber, bankAccountNumber);
+        }
+    }
+    
     @Override
     public String toString() {
         return String.format("Employee{ID='%s', Name='%s', Department='%s', Type='%s', Active=%s}",
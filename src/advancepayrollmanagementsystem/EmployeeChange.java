@@ -0,0 +1,133 @@
+package advancepayrollmanagementsystem;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * EmployeeChange is one change-data-capture event: an employee was added, updated,
+ * activated, deactivated or deleted.
+ *
+ * Events carry the employee's master data before and after the change as field/value
+ * snapshots (no "before" for an addition, no "after" for a deletion), and a sequence
+ * number that increases by one with every event of the company's change log.
+ * Hours worked and timesheets are period data, not master data, and are not captured.
+ */
+public final class EmployeeChange {
+    /**
+     * Kind of change
+     */
+    public enum Type { ADDED, UPDATED, ACTIVATED, DEACTIVATED, DELETED }
+
+    private final long sequence;
+    private final long epochMillis;
+    private final Type type;
+    private final String employeeId;
+    private final Map<String, String> before;
+    private final Map<String, String> after;
+
+    /**
+     * Constructor for EmployeeChange
+     * @param sequence Position in the change log
+     * @param epochMillis Time of the change
+     * @param type Kind of change
+     * @param employeeId Employee ID
+     * @param before Snapshot before the change, or null for an addition
+     * @param after Snapshot after the change, or null for a deletion
+     */
+    public EmployeeChange(long sequence, long epochMillis, Type type, String employeeId,
+                          Map<String, String> before, Map<String, String> after) {
+        this.sequence = sequence;
+        this.epochMillis = epochMillis;
+        this.type = type;
+        this.employeeId = employeeId;
+        this.before = before == null ? null : Collections.unmodifiableMap(before);
+        this.after = after == null ? null : Collections.unmodifiableMap(after);
+    }
+
+    /**
+     * Capture an employee's master data
+     * @param emp Employee
+     * @return field names and values in a fixed order; null values are omitted
+     */
+    public static Map<String, String> snapshot(Employee emp) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        put(fields, "employeeId", emp.getEmployeeId());
+        put(fields, "type", emp.getEmployeeType());
+        put(fields, "firstName", emp.getFirstName());
+        put(fields, "lastName", emp.getLastName());
+        put(fields, "email", emp.getEmail());
+        put(fields, "phoneNumber", emp.getPhoneNumber());
+        put(fields, "address", emp.getAddress());
+        put(fields, "department", emp.getDepartment());
+        put(fields, "dateOfJoining", emp.getDateOfJoining());
+        put(fields, "dateOfBirth", emp.getDateOfBirth());
+        put(fields, "active", emp.isActive());
+        put(fields, "baseSalary", emp.getBaseSalary());
+        put(fields, "hourlyRate", emp.getHourlyRate());
+        put(fields, "bankRoutingNumber", emp.getBankRoutingNumber());
+        if (emp.getBankAccountNumber() != null) {
+            // Only the last four digits leave the payroll system
+            String account = emp.getBankAccountNumber();
+            fields.put("bankAccountNumber", "****" + account.substring(Math.max(0, account.length() - 4)));
+        }
+        if (emp instanceof FullTimeEmployee) {
+            FullTimeEmployee ft = (FullTimeEmployee) emp;
+            put(fields, "benefits", ft.getBenefits());
+            put(fields, "monthlyBonus", ft.getMonthlyBonus());
+            put(fields, "vacationDays", ft.getVacationDays());
+            put(fields, "sickLeaveDays", ft.getSickLeaveDays());
+        } else if (emp instanceof PartTimeEmployee) {
+            put(fields, "maxHoursPerWeek", ((PartTimeEmployee) emp).getMaxHoursPerWeek());
+        } else if (emp instanceof ContractEmployee) {
+            ContractEmployee ct = (ContractEmployee) emp;
+            put(fields, "contractAmount", ct.getContractAmount());
+            put(fields, "contractStartDate", ct.getContractStartDate());
+            put(fields, "contractEndDate", ct.getContractEndDate());
+            put(fields, "projectName", ct.getProjectName());
+        }
+        return fields;
+    }
+
+    private static void put(Map<String, String> fields, String name, Object value) {
+        if (value != null) {
+            fields.put(name, String.valueOf(value));
+        }
+    }
+
+    /**
+     * List the fields whose value differs between the snapshots
+     * @return changed field names; every field for an addition or deletion
+     */
+    public List<String> getChangedFields() {
+        List<String> changed = new ArrayList<>();
+        Map<String, String> empty = Collections.emptyMap();
+        Map<String, String> from = before != null ? before : empty;
+        Map<String, String> to = after != null ? after : empty;
+        for (String field : from.keySet()) {
+            if (!Objects.equals(from.get(field), to.get(field))) changed.add(field);
+        }
+        for (String field : to.keySet()) {
+            if (!from.containsKey(field)) changed.add(field);
+        }
+        return changed;
+    }
+
+    // Getters
+    public long getSequence() { return sequence; }
+    public long getEpochMillis() { return epochMillis; }
+    public Type getType() { return type; }
+    public String getEmployeeId() { return employeeId; }
+    public Map<String, String> getBefore() { return before; }
+    public Map<String, String> getAfter() { return after; }
+
+    @Override
+    public String toString() {
+        return String.format("EmployeeChange{Seq=%d, Time=%s, Type=%s, ID='%s', Changed=%s}",
+                sequence, Instant.ofEpochMilli(epochMillis), type, employeeId, getChangedFields());
+    }
+}
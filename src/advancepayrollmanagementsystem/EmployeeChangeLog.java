@@ -0,0 +1,460 @@
+package advancepayrollmanagementsystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * EmployeeChangeLog is the change-data-capture stream of one company's employees.
+ *
+ * Every change gets the next sequence number and is appended to a durable log file before
+ * it is handed to subscribers:
+ *   record: [RECORD_MAGIC][payload length][sequence, time, type, employee ID, before, after]
+ * A torn record at the end of the file (a crash mid-write) is cut off when the log is opened.
+ * Every INDEX_EVERY-th record's file position is kept in memory, so a replay from any
+ * sequence number seeks close to it instead of scanning the file.
+ *
+ * Each subscriber has its own bounded queue and dispatch thread. Publishing only offers the
+ * event to the queues and never waits, so a slow subscriber adds no latency to employee
+ * updates; when its queue is full the subscriber catches up from the log instead. A named
+ * subscriber's offset (the last sequence it processed) is stored durably, so it resumes, or
+ * replays, from there after a restart. Delivery is at least once: events processed after the
+ * last offset commit are delivered again after a crash.
+ */
+public class EmployeeChangeLog {
+    private static final int RECORD_MAGIC = 0x45434847; // "ECHG"
+    private static final int INDEX_EVERY = 256;
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int REPLAY_BATCH = 512;
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final long RETRY_MILLIS = 1000;
+    private static final String LOG_FILE = "employee-changes.log";
+    private static final String OFFSET_EXTENSION = ".offset";
+
+    private final File directory;
+    private final File logFile;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // Opened on first use; guarded by this
+    private boolean opened;
+    private DataOutputStream out;
+    private volatile long lastSequence;
+    private long size;
+    // positions[i] = file position of the record with sequence i * INDEX_EVERY + 1
+    private long[] positions = new long[16];
+    private int positionCount;
+
+    /**
+     * Constructor for EmployeeChangeLog; nothing is read or created until first use
+     * @param directory Directory of the log file and subscriber offsets
+     */
+    public EmployeeChangeLog(String directory) {
+        this.directory = new File(directory);
+        this.logFile = new File(this.directory, LOG_FILE);
+    }
+
+    /**
+     * Record a change and hand it to the subscribers
+     * @param type Kind of change
+     * @param employeeId Employee ID
+     * @param before Snapshot before the change, or null for an addition
+     * @param after Snapshot after the change, or null for a deletion
+     * @return the event with its sequence number
+     */
+    public EmployeeChange publish(EmployeeChange.Type type, String employeeId,
+                                  Map<String, String> before, Map<String, String> after) {
+        EmployeeChange event;
+        synchronized (this) {
+            try {
+                open();
+                event = new EmployeeChange(lastSequence + 1, System.currentTimeMillis(), type, employeeId, before, after);
+                byte[] payload = encode(event);
+                if (out == null) {
+                    if (!directory.exists() && !directory.mkdirs()) {
+                        throw new IOException("Cannot create change log directory " + directory);
+                    }
+                    out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true), 1 << 14));
+                }
+                out.writeInt(RECORD_MAGIC);
+                out.writeInt(payload.length);
+                out.write(payload);
+                out.flush();
+                index(event.getSequence(), size);
+                size += 8 + payload.length;
+                lastSequence = event.getSequence();
+            } catch (IOException e) {
+                // The change itself has been made; losing its event must not undo it
+                System.out.println("✗ Error writing change log: " + e.getMessage());
+                discardPartialRecord();
+                return null;
+            }
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+        return event;
+    }
+
+    /**
+     * Read logged events in sequence order
+     * @param afterSequence Read events after this sequence number (0 for all)
+     * @param max Maximum number of events
+     * @return events
+     * @throws IOException if the log cannot be read
+     */
+    public List<EmployeeChange> read(long afterSequence, int max) throws IOException {
+        long from;
+        long end;
+        synchronized (this) {
+            open();
+            int slot = (int) Math.min(Math.max(0, afterSequence) / INDEX_EVERY, positionCount - 1);
+            from = positionCount == 0 ? 0 : positions[Math.max(0, slot)];
+            end = size;
+        }
+        List<EmployeeChange> events = new ArrayList<>();
+        if (from >= end) return events;
+
+        // Records before end are complete and never rewritten, so no lock is needed
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile), 1 << 16))) {
+            in.skipNBytes(from);
+            long position = from;
+            while (position < end && events.size() < max) {
+                if (in.readInt() != RECORD_MAGIC) {
+                    throw new IOException("Corrupt change log at byte " + position);
+                }
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                position += 8 + payload.length;
+                EmployeeChange event = decode(payload);
+                if (event.getSequence() > afterSequence) {
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Subscribe to changes. A named subscriber first receives every event after its stored
+     * offset, then new events as they are published.
+     * @param name Subscriber name (letters, digits, '-' and '_'), used for its offset file
+     * @param listener Called on the subscriber's own thread, in sequence order
+     * @return subscription
+     * @throws IOException if the stored offset cannot be read
+     */
+    public Subscription subscribe(String name, Consumer<EmployeeChange> listener) throws IOException {
+        if (name == null || !name.matches("[A-Za-z0-9_-]{1,64}")) {
+            throw new IllegalArgumentException("Invalid subscriber name: " + name);
+        }
+        synchronized (this) {
+            open();
+        }
+        Subscription subscription = new Subscription(name, listener, readOffset(name));
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Get the sequence number of the latest event
+     * @return last sequence, 0 if nothing has been logged
+     * @throws IOException if the log cannot be read
+     */
+    public long getLastSequence() throws IOException {
+        synchronized (this) {
+            open();
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Stop every subscription, committing their offsets, and close the log file
+     */
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+        synchronized (this) {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    System.out.println("✗ Error closing change log: " + e.getMessage());
+                }
+                out = null;
+            }
+        }
+    }
+
+    /**
+     * Cut off whatever part of a failed record reached the file, so the next record follows
+     * the last complete one. The file is reopened by the next publish(). If it cannot be cut
+     * now, the log is scanned again before the next use, which cuts off the torn tail.
+     */
+    private void discardPartialRecord() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // Whatever the buffer still held is cut off below
+            }
+            out = null;
+        }
+        if (!opened) return;
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+            file.setLength(size);
+        } catch (IOException e) {
+            opened = false;
+            positionCount = 0;
+            lastSequence = 0;
+        }
+    }
+
+    /**
+     * Scan the existing log for the last sequence number and the index, cutting off a torn tail
+     */
+    private void open() throws IOException {
+        if (opened) return;
+        long length = logFile.length();
+        long position = 0;
+        if (length > 0) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile), 1 << 16))) {
+                while (position + 8 <= length) {
+                    if (in.readInt() != RECORD_MAGIC) break;
+                    int payloadLength = in.readInt();
+                    if (payloadLength < 8 || position + 8 + payloadLength > length) break;
+                    long sequence = in.readLong();
+                    in.skipNBytes(payloadLength - 8);
+                    index(sequence, position);
+                    lastSequence = sequence;
+                    position += 8 + payloadLength;
+                }
+            } catch (EOFException e) {
+                // Torn record; cut off below
+            }
+            if (position < length) {
+                try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+                    file.setLength(position);
+                }
+            }
+        }
+        size = position;
+        opened = true;
+    }
+
+    private void index(long sequence, long position) {
+        if ((sequence - 1) % INDEX_EVERY != 0) return;
+        if (positionCount == positions.length) {
+            positions = Arrays.copyOf(positions, positionCount * 2);
+        }
+        positions[positionCount++] = position;
+    }
+
+    private static byte[] encode(EmployeeChange event) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeLong(event.getSequence());
+        data.writeLong(event.getEpochMillis());
+        data.writeByte(event.getType().ordinal());
+        data.writeUTF(event.getEmployeeId());
+        writeSnapshot(data, event.getBefore());
+        writeSnapshot(data, event.getAfter());
+        return bytes.toByteArray();
+    }
+
+    private static void writeSnapshot(DataOutputStream data, Map<String, String> snapshot) throws IOException {
+        if (snapshot == null) {
+            data.writeShort(-1);
+            return;
+        }
+        data.writeShort(snapshot.size());
+        for (Map.Entry<String, String> field : snapshot.entrySet()) {
+            data.writeUTF(field.getKey());
+            data.writeUTF(field.getValue());
+        }
+    }
+
+    private static EmployeeChange decode(byte[] payload) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+        long sequence = data.readLong();
+        long epochMillis = data.readLong();
+        EmployeeChange.Type type = EmployeeChange.Type.values()[data.readByte()];
+        String employeeId = data.readUTF();
+        Map<String, String> before = readSnapshot(data);
+        Map<String, String> after = readSnapshot(data);
+        return new EmployeeChange(sequence, epochMillis, type, employeeId, before, after);
+    }
+
+    private static Map<String, String> readSnapshot(DataInputStream data) throws IOException {
+        int count = data.readShort();
+        if (count < 0) return null;
+        Map<String, String> snapshot = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            snapshot.put(data.readUTF(), data.readUTF());
+        }
+        return snapshot;
+    }
+
+    private long readOffset(String name) throws IOException {
+        File file = new File(directory, name + OFFSET_EXTENSION);
+        if (!file.exists()) return 0;
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt offset file " + file);
+        }
+    }
+
+    private void writeOffset(String name, long sequence) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create change log directory " + directory);
+        }
+        File temp = new File(directory, name + OFFSET_EXTENSION + ".tmp");
+        Files.write(temp.toPath(), Long.toString(sequence).getBytes(StandardCharsets.UTF_8));
+        Files.move(temp.toPath(), new File(directory, name + OFFSET_EXTENSION).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * One subscriber's queue, dispatch thread and offset
+     */
+    public final class Subscription {
+        private final String name;
+        private final Consumer<EmployeeChange> listener;
+        private final ArrayBlockingQueue<EmployeeChange> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile long delivered;
+        private long committed;
+        private final AtomicLong overflows = new AtomicLong();
+
+        private Subscription(String name, Consumer<EmployeeChange> listener, long offset) {
+            this.name = name;
+            this.listener = listener;
+            this.delivered = offset;
+            this.committed = offset;
+            this.thread = new Thread(this::dispatch, "change-subscriber-" + name);
+            thread.setDaemon(true);
+        }
+
+        /**
+         * Stop delivering and commit the offset
+         */
+        public void close() {
+            running = false;
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            subscriptions.remove(this);
+        }
+
+        // Getters
+        public String getName() { return name; }
+        public long getDeliveredSequence() { return delivered; }
+        public long getOverflows() { return overflows.get(); }
+
+        private void offer(EmployeeChange event) {
+            if (!queue.offer(event)) {
+                overflows.incrementAndGet();
+            }
+        }
+
+        /**
+         * Deliver events in sequence order, filling any gap (the backlog at start, or events
+         * dropped from a full queue) from the log
+         */
+        private void dispatch() {
+            try {
+                while (running) {
+                    EmployeeChange event = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    long target = event != null ? event.getSequence() - 1 : lastSequence;
+                    if (delivered < target) {
+                        replay(target);
+                    }
+                    if (event != null && event.getSequence() == delivered + 1) {
+                        deliver(event);
+                    }
+                    if (event == null || queue.isEmpty()) {
+                        commit();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Closing
+            } finally {
+                commit();
+            }
+        }
+
+        private void replay(long target) throws InterruptedException {
+            while (running && delivered < target) {
+                List<EmployeeChange> events;
+                try {
+                    events = read(delivered, REPLAY_BATCH);
+                } catch (IOException e) {
+                    System.out.println("✗ Change subscriber " + name + " cannot read the log: " + e.getMessage());
+                    Thread.sleep(RETRY_MILLIS);
+                    continue;
+                }
+                if (events.isEmpty()) return;
+                for (EmployeeChange event : events) {
+                    if (event.getSequence() > target) return;
+                    deliver(event);
+                }
+            }
+        }
+
+        /**
+         * Hand one event to the listener, retrying until it is accepted or the subscription closes
+         */
+        private void deliver(EmployeeChange event) throws InterruptedException {
+            while (running) {
+                try {
+                    listener.accept(event);
+                    delivered = event.getSequence();
+                    return;
+                } catch (RuntimeException e) {
+                    System.out.println("✗ Change subscriber " + name + " failed at sequence "
+                            + event.getSequence() + ": " + e.getMessage());
+                    Thread.sleep(RETRY_MILLIS);
+                }
+            }
+        }
+
+        private void commit() {
+            long sequence = delivered;
+            if (sequence == committed) return;
+            try {
+                writeOffset(name, sequence);
+                committed = sequence;
+            } catch (IOException e) {
+                System.out.println("✗ Change subscriber " + name + " cannot save its offset: " + e.getMessage());
+            }
+        }
+    }
+}
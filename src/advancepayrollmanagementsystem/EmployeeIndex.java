@@ -0,0 +1,91 @@
+package advancepayrollmanagementsystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * EmployeeIndex is an immutable set of lookup indexes over a snapshot of the employees,
+ * used by the query planner to avoid scanning the whole list.
+ *
+ * Indexed attributes: employee ID, department, employee type and active status.
+ * Keys are case-insensitive; each posting list keeps the snapshot order.
+ */
+public class EmployeeIndex {
+    private final List<Employee> all;
+    private final Map<String, Employee> byId;
+    private final Map<String, List<Employee>> byDepartment;
+    private final Map<String, List<Employee>> byType;
+    private final List<Employee> active;
+    private final List<Employee> inactive;
+
+    /**
+     * Constructor for EmployeeIndex
+     * @param employees Snapshot of the employees to index
+     */
+    public EmployeeIndex(List<Employee> employees) {
+        this.all = Collections.unmodifiableList(new ArrayList<>(employees));
+        this.byId = new HashMap<>(employees.size() * 2);
+        this.byDepartment = new HashMap<>();
+        this.byType = new HashMap<>();
+        List<Employee> activeList = new ArrayList<>();
+        List<Employee> inactiveList = new ArrayList<>();
+
+        for (Employee emp : all) {
+            byId.put(key(emp.getEmployeeId()), emp);
+            byDepartment.computeIfAbsent(key(emp.getDepartment()), k -> new ArrayList<>()).add(emp);
+            byType.computeIfAbsent(typeKey(emp.getEmployeeType()), k -> new ArrayList<>()).add(emp);
+            (emp.isActive() ? activeList : inactiveList).add(emp);
+        }
+        byDepartment.replaceAll((k, list) -> Collections.unmodifiableList(list));
+        byType.replaceAll((k, list) -> Collections.unmodifiableList(list));
+        this.active = Collections.unmodifiableList(activeList);
+        this.inactive = Collections.unmodifiableList(inactiveList);
+    }
+
+    /**
+     * Normalize an indexed text value for lookup
+     * @param value Text value (may be null)
+     * @return lower-case key
+     */
+    static String key(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalize an employee type so "Part-Time", "part time" and "parttime" are the same key
+     * @param value Employee type
+     * @return lower-case key without separators
+     */
+    static String typeKey(String value) {
+        StringBuilder key = new StringBuilder();
+        for (char c : key(value).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) key.append(c);
+        }
+        return key.toString();
+    }
+
+    // Lookups
+    public List<Employee> getAll() { return all; }
+    public int size() { return all.size(); }
+
+    public List<Employee> byId(String employeeId) {
+        Employee emp = byId.get(key(employeeId));
+        return emp == null ? Collections.emptyList() : Collections.singletonList(emp);
+    }
+
+    public List<Employee> byDepartment(String department) {
+        return byDepartment.getOrDefault(key(department), Collections.emptyList());
+    }
+
+    public List<Employee> byType(String employeeType) {
+        return byType.getOrDefault(typeKey(employeeType), Collections.emptyList());
+    }
+
+    public List<Employee> byActive(boolean isActive) {
+        return isActive ? active : inactive;
+    }
+}
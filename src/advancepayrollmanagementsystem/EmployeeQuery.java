@@ -0,0 +1,744 @@
+package advancepayrollmanagementsystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * EmployeeQuery is a small filter language over employee fields and computed pay.
+ *
+ * Examples:
+ *   active part-time in Engineering with hours > 120 and net < 2000
+ *   department = "Customer Service" and (gross >= 5000 or overtime > 0)
+ *   name ~ smith and not contract
+ *
+ * Comparisons are field op value, with = != &gt; &gt;= &lt; &lt;= and ~ (contains). Terms
+ * next to each other are combined with AND; "with" is a synonym for AND, "in X" means
+ * department = X, and active, inactive, full-time, part-time and contract are shorthands.
+ * Text comparisons ignore case.
+ *
+ * The planner drives the query from the most selective index lookup (ID, department, type or
+ * active status) and orders the remaining predicates by cost and estimated selectivity, so
+ * cheap field checks reject rows before computed pay (gross, tax, net, overtime) is evaluated.
+ * Pay is computed at most once per row.
+ */
+public class EmployeeQuery {
+    /** Relative cost of a field read and of computing an employee's pay */
+    private static final double CHEAP = 1;
+    private static final double EXPENSIVE = 25;
+
+    private final String source;
+    private final Node root;
+
+    private EmployeeQuery(String source, Node root) {
+        this.source = source;
+        this.root = root;
+    }
+
+    /**
+     * Parse a query
+     * @param source Query text
+     * @return parsed query
+     * @throws IllegalArgumentException if the query is malformed
+     */
+    public static EmployeeQuery parse(String source) {
+        Parser parser = new Parser(tokenize(source));
+        Node root = parser.parseOr();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.peek() + "'");
+        }
+        return new EmployeeQuery(source, root);
+    }
+
+    /**
+     * Plan the query against a set of indexes
+     * @param index Indexes over the employees to query
+     * @return executable plan
+     */
+    public Plan plan(EmployeeIndex index) {
+        List<Node> conjuncts = new ArrayList<>();
+        flattenAnd(root, conjuncts);
+
+        // Drive from the smallest index result among the conjuncts
+        Node driver = null;
+        List<Employee> candidates = index.getAll();
+        for (Node conjunct : conjuncts) {
+            List<Employee> rows = conjunct.lookup(index);
+            if (rows != null && (driver == null || rows.size() < candidates.size())) {
+                driver = conjunct;
+                candidates = rows;
+            }
+        }
+
+        List<Node> filters = new ArrayList<>();
+        for (Node conjunct : conjuncts) {
+            if (conjunct != driver) {
+                filters.add(conjunct.optimize(index));
+            }
+        }
+        filters.sort(Comparator.comparingDouble(node -> andRank(node, index)));
+        return new Plan(driver, candidates, filters, index);
+    }
+
+    /**
+     * Plan and run the query
+     * @param index Indexes over the employees to query
+     * @return matching employees
+     */
+    public List<Employee> execute(EmployeeIndex index) {
+        return plan(index).execute();
+    }
+
+    public String getSource() { return source; }
+
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+
+    private static void flattenAnd(Node node, List<Node> out) {
+        if (node instanceof And) {
+            for (Node child : ((And) node).children) {
+                flattenAnd(child, out);
+            }
+        } else {
+            out.add(node);
+        }
+    }
+
+    /**
+     * Evaluation order for AND: cheap predicates that reject many rows come first
+     */
+    private static double andRank(Node node, EmployeeIndex index) {
+        double rejects = 1 - node.selectivity(index);
+        return rejects <= 0 ? Double.MAX_VALUE : node.cost() / rejects;
+    }
+
+    /**
+     * Evaluation order for OR: cheap predicates that accept many rows come first
+     */
+    private static double orRank(Node node, EmployeeIndex index) {
+        double accepts = node.selectivity(index);
+        return accepts <= 0 ? Double.MAX_VALUE : node.cost() / accepts;
+    }
+
+    /**
+     * An access path plus ordered filters, ready to run
+     */
+    public static final class Plan {
+        private final Node driver;
+        private final List<Employee> candidates;
+        private final List<Node> filters;
+        private final EmployeeIndex index;
+
+        private Plan(Node driver, List<Employee> candidates, List<Node> filters, EmployeeIndex index) {
+            this.driver = driver;
+            this.candidates = candidates;
+            this.filters = filters;
+            this.index = index;
+        }
+
+        /**
+         * Run the plan
+         * @return matching employees
+         */
+        public List<Employee> execute() {
+            Node[] steps = filters.toArray(new Node[0]);
+            List<Employee> results = new ArrayList<>();
+            Row row = new Row();
+            for (Employee emp : candidates) {
+                row.reset(emp);
+                boolean match = true;
+                for (Node step : steps) {
+                    if (!step.test(row)) {
+                        match = false;
+                        break;
+                    }
+                }
+                if (match) results.add(emp);
+            }
+            return results;
+        }
+
+        /**
+         * Describe the chosen access path and filter order
+         * @return one line per plan step
+         */
+        public List<String> explain() {
+            List<String> lines = new ArrayList<>();
+            if (driver == null) {
+                lines.add(String.format("Scan all employees (%,d rows)", index.size()));
+            } else {
+                lines.add(String.format("Index lookup %s (%,d of %,d rows)", driver, candidates.size(), index.size()));
+            }
+            for (Node filter : filters) {
+                lines.add(String.format("Filter %s  [selectivity %.2f, cost %.0f%s]", filter,
+                        filter.selectivity(index), filter.cost(), filter.cost() >= EXPENSIVE ? ", computes pay" : ""));
+            }
+            return lines;
+        }
+
+        public int getCandidateCount() { return candidates.size(); }
+    }
+
+    // Fields
+
+    private enum Kind { TEXT, NUMBER, BOOLEAN }
+
+    private enum Field {
+        ID(Kind.TEXT, CHEAP, row -> row.emp.getEmployeeId(), null),
+        NAME(Kind.TEXT, CHEAP, row -> row.emp.getFullName(), null),
+        FIRST(Kind.TEXT, CHEAP, row -> row.emp.getFirstName(), null),
+        LAST(Kind.TEXT, CHEAP, row -> row.emp.getLastName(), null),
+        EMAIL(Kind.TEXT, CHEAP, row -> row.emp.getEmail(), null),
+        DEPARTMENT(Kind.TEXT, CHEAP, row -> row.emp.getDepartment(), null),
+        TYPE(Kind.TEXT, CHEAP, row -> row.emp.getEmployeeType(), null),
+        PROJECT(Kind.TEXT, CHEAP, row -> row.emp instanceof ContractEmployee
+                ? ((ContractEmployee) row.emp).getProjectName() : null, null),
+        ACTIVE(Kind.BOOLEAN, CHEAP, null, row -> row.emp.isActive() ? 1 : 0),
+        HOURS(Kind.NUMBER, CHEAP, null, row -> row.emp.getHoursWorked()),
+        RATE(Kind.NUMBER, CHEAP, null, row -> row.emp.getHourlyRate()),
+        BASE(Kind.NUMBER, CHEAP, null, row -> row.emp.getBaseSalary()),
+        YEARS(Kind.NUMBER, CHEAP, null, row -> row.emp.getYearsOfService()),
+        GROSS(Kind.NUMBER, EXPENSIVE, null, row -> row.pay().getGrossSalary()),
+        TAX(Kind.NUMBER, EXPENSIVE, null, row -> row.pay().getTax()),
+        NET(Kind.NUMBER, EXPENSIVE, null, row -> row.pay().getNetSalary()),
+        OVERTIME(Kind.NUMBER, EXPENSIVE, null, row -> row.pay().getOvertimePay());
+
+        final Kind kind;
+        final double cost;
+        final Function<Row, String> text;
+        final ToDoubleFunction<Row> number;
+
+        Field(Kind kind, double cost, Function<Row, String> text, ToDoubleFunction<Row> number) {
+            this.kind = kind;
+            this.cost = cost;
+            this.text = text;
+            this.number = number;
+        }
+
+        static Field of(String name) {
+            switch (name) {
+                case "dept": return DEPARTMENT;
+                case "salary": return BASE;
+                case "net_salary": case "netsalary": return NET;
+                case "gross_salary": case "grosssalary": return GROSS;
+                default:
+                    for (Field field : values()) {
+                        if (field.name().equalsIgnoreCase(name)) return field;
+                    }
+                    return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private enum Op {
+        EQ("="), NE("!="), GT(">"), GE(">="), LT("<"), LE("<="), CONTAINS("~");
+
+        final String symbol;
+
+        Op(String symbol) {
+            this.symbol = symbol;
+        }
+
+        static Op of(String token) {
+            for (Op op : values()) {
+                if (op.symbol.equals(token)) return op;
+            }
+            if ("contains".equalsIgnoreCase(token)) return CONTAINS;
+            if ("==".equals(token)) return EQ;
+            if ("<>".equals(token)) return NE;
+            return null;
+        }
+    }
+
+    /**
+     * One employee under evaluation; pay is computed on first use
+     */
+    private static final class Row {
+        Employee emp;
+        private PayrollResult pay;
+
+        void reset(Employee emp) {
+            this.emp = emp;
+            this.pay = null;
+        }
+
+        PayrollResult pay() {
+            if (pay == null) pay = PayrollResult.of(emp);
+            return pay;
+        }
+    }
+
+    // Predicate tree
+
+    private interface Node {
+        boolean test(Row row);
+
+        /** Estimated fraction of rows that pass */
+        double selectivity(EmployeeIndex index);
+
+        /** Relative cost of one evaluation */
+        double cost();
+
+        /** Rows matching this predicate from an index, or null if no index applies */
+        List<Employee> lookup(EmployeeIndex index);
+
+        /** Same predicate with its children put in evaluation order */
+        Node optimize(EmployeeIndex index);
+    }
+
+    private static final class Comparison implements Node {
+        private final Field field;
+        private final Op op;
+        private final String text;
+        private final double number;
+
+        Comparison(Field field, Op op, String value) {
+            this.field = field;
+            this.op = op;
+            if (field.kind == Kind.TEXT) {
+                if (op != Op.EQ && op != Op.NE && op != Op.CONTAINS) {
+                    throw new IllegalArgumentException("Operator " + op.symbol + " is not valid for " + field);
+                }
+                this.text = field == Field.TYPE ? EmployeeIndex.typeKey(value) : EmployeeIndex.key(value);
+                this.number = 0;
+            } else if (field.kind == Kind.BOOLEAN) {
+                if (op != Op.EQ && op != Op.NE) {
+                    throw new IllegalArgumentException("Operator " + op.symbol + " is not valid for " + field);
+                }
+                String flag = EmployeeIndex.key(value);
+                if (!flag.equals("true") && !flag.equals("false") && !flag.equals("yes") && !flag.equals("no")) {
+                    throw new IllegalArgumentException("Expected true or false for " + field + ", got '" + value + "'");
+                }
+                this.text = null;
+                this.number = flag.equals("true") || flag.equals("yes") ? 1 : 0;
+            } else {
+                if (op == Op.CONTAINS) {
+                    throw new IllegalArgumentException("Operator ~ is not valid for " + field);
+                }
+                try {
+                    this.number = Double.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Expected a number for " + field + ", got '" + value + "'");
+                }
+                this.text = null;
+            }
+        }
+
+        @Override
+        public boolean test(Row row) {
+            if (field.kind == Kind.TEXT) {
+                String value = field.text.apply(row);
+                if (value == null) value = "";
+                boolean match;
+                if (op == Op.CONTAINS) {
+                    match = containsIgnoreCase(value, text);
+                } else if (field == Field.TYPE) {
+                    match = typeEquals(value, text);
+                } else {
+                    match = value.trim().equalsIgnoreCase(text);
+                }
+                return op == Op.NE ? !match : match;
+            }
+            double actual = field.number.applyAsDouble(row);
+            switch (op) {
+                case EQ: return actual == number;
+                case NE: return actual != number;
+                case GT: return actual > number;
+                case GE: return actual >= number;
+                case LT: return actual < number;
+                case LE: return actual <= number;
+                default: return false;
+            }
+        }
+
+        @Override
+        public double selectivity(EmployeeIndex index) {
+            List<Employee> rows = lookup(index);
+            if (rows != null) {
+                return index.size() == 0 ? 0 : (double) rows.size() / index.size();
+            }
+            if (op == Op.NE) {
+                Comparison equal = new Comparison(field, Op.EQ, field.kind == Kind.NUMBER ? String.valueOf(number) :
+                        field.kind == Kind.BOOLEAN ? String.valueOf(number == 1) : text);
+                return 1 - equal.selectivity(index);
+            }
+            switch (op) {
+                case EQ: return field == Field.ID ? 1.0 / Math.max(1, index.size()) : 0.1;
+                case CONTAINS: return 0.25;
+                default: return 1.0 / 3;
+            }
+        }
+
+        @Override
+        public double cost() {
+            return field.cost;
+        }
+
+        @Override
+        public List<Employee> lookup(EmployeeIndex index) {
+            if (op != Op.EQ) return null;
+            switch (field) {
+                case ID: return index.byId(text);
+                case DEPARTMENT: return index.byDepartment(text);
+                case TYPE: return index.byType(text);
+                case ACTIVE: return index.byActive(number == 1);
+                default: return null;
+            }
+        }
+
+        @Override
+        public Node optimize(EmployeeIndex index) {
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            String value;
+            if (field.kind == Kind.TEXT) value = "'" + text + "'";
+            else if (field.kind == Kind.BOOLEAN) value = number == 1 ? "true" : "false";
+            else value = number == Math.rint(number) ? String.valueOf((long) number) : String.valueOf(number);
+            return field + " " + op.symbol + " " + value;
+        }
+    }
+
+    private static final class Not implements Node {
+        private final Node child;
+
+        Not(Node child) {
+            this.child = child;
+        }
+
+        @Override
+        public boolean test(Row row) {
+            return !child.test(row);
+        }
+
+        @Override
+        public double selectivity(EmployeeIndex index) {
+            return 1 - child.selectivity(index);
+        }
+
+        @Override
+        public double cost() {
+            return child.cost();
+        }
+
+        @Override
+        public List<Employee> lookup(EmployeeIndex index) {
+            return null;
+        }
+
+        @Override
+        public Node optimize(EmployeeIndex index) {
+            return new Not(child.optimize(index));
+        }
+
+        @Override
+        public String toString() {
+            return "not " + child;
+        }
+    }
+
+    private static final class And implements Node {
+        private final Node[] children;
+
+        And(List<Node> children) {
+            this.children = children.toArray(new Node[0]);
+        }
+
+        @Override
+        public boolean test(Row row) {
+            for (Node child : children) {
+                if (!child.test(row)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public double selectivity(EmployeeIndex index) {
+            double selectivity = 1;
+            for (Node child : children) {
+                selectivity *= child.selectivity(index);
+            }
+            return selectivity;
+        }
+
+        @Override
+        public double cost() {
+            return maxCost(children);
+        }
+
+        /**
+         * A child's lookup would only be a superset, so a nested And is never an access path
+         */
+        @Override
+        public List<Employee> lookup(EmployeeIndex index) {
+            return null;
+        }
+
+        @Override
+        public Node optimize(EmployeeIndex index) {
+            List<Node> ordered = new ArrayList<>();
+            for (Node child : children) ordered.add(child.optimize(index));
+            ordered.sort(Comparator.comparingDouble(node -> andRank(node, index)));
+            return new And(ordered);
+        }
+
+        @Override
+        public String toString() {
+            return join(children, " and ");
+        }
+    }
+
+    private static final class Or implements Node {
+        private final Node[] children;
+
+        Or(List<Node> children) {
+            this.children = children.toArray(new Node[0]);
+        }
+
+        @Override
+        public boolean test(Row row) {
+            for (Node child : children) {
+                if (child.test(row)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public double selectivity(EmployeeIndex index) {
+            double rejected = 1;
+            for (Node child : children) {
+                rejected *= 1 - child.selectivity(index);
+            }
+            return 1 - rejected;
+        }
+
+        @Override
+        public double cost() {
+            return maxCost(children);
+        }
+
+        /**
+         * Union of the children's index lookups, when every child has one
+         */
+        @Override
+        public List<Employee> lookup(EmployeeIndex index) {
+            Map<Employee, Boolean> union = new IdentityHashMap<>();
+            List<Employee> rows = new ArrayList<>();
+            for (Node child : children) {
+                List<Employee> childRows = child.lookup(index);
+                if (childRows == null) return null;
+                for (Employee emp : childRows) {
+                    if (union.put(emp, Boolean.TRUE) == null) rows.add(emp);
+                }
+            }
+            return Collections.unmodifiableList(rows);
+        }
+
+        @Override
+        public Node optimize(EmployeeIndex index) {
+            List<Node> ordered = new ArrayList<>();
+            for (Node child : children) ordered.add(child.optimize(index));
+            ordered.sort(Comparator.comparingDouble(node -> orRank(node, index)));
+            return new Or(ordered);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + join(children, " or ") + ")";
+        }
+    }
+
+    /**
+     * Cost of a compound predicate: pay is computed once per row, so the most
+     * expensive child dominates
+     */
+    private static double maxCost(Node[] children) {
+        double cost = 0;
+        for (Node child : children) cost = Math.max(cost, child.cost());
+        return cost + children.length - 1;
+    }
+
+    /**
+     * Case-insensitive substring test without lower-casing a copy of the value
+     * @param key Lower-case search text
+     */
+    private static boolean containsIgnoreCase(String value, String key) {
+        int last = value.length() - key.length();
+        for (int i = 0; i <= last; i++) {
+            if (value.regionMatches(true, i, key, 0, key.length())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compare an employee type with a key from EmployeeIndex.typeKey, ignoring case and separators
+     */
+    private static boolean typeEquals(String value, String key) {
+        int k = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isLetterOrDigit(c)) continue;
+            if (k == key.length() || Character.toLowerCase(c) != key.charAt(k++)) return false;
+        }
+        return k == key.length();
+    }
+
+    private static String join(Node[] nodes, String separator) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < nodes.length; i++) {
+            if (i > 0) text.append(separator);
+            text.append(nodes[i]);
+        }
+        return text.toString();
+    }
+
+    // Parsing
+
+    private static List<String> tokenize(String source) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '"' || c == '\'') {
+                int end = source.indexOf(c, i + 1);
+                if (end < 0) throw new IllegalArgumentException("Unclosed quote at position " + (i + 1));
+                // Quoted values keep a leading quote so they are never taken as keywords
+                tokens.add("\"" + source.substring(i + 1, end));
+                i = end + 1;
+            } else if ("=!<>~".indexOf(c) >= 0) {
+                int end = i + 1;
+                if (end < source.length() && source.charAt(end) == '=' || c == '<' && end < source.length() && source.charAt(end) == '>') {
+                    end++;
+                }
+                tokens.add(source.substring(i, end));
+                i = end;
+            } else {
+                int end = i;
+                while (end < source.length() && !Character.isWhitespace(source.charAt(end))
+                        && "()=!<>~\"'".indexOf(source.charAt(end)) < 0) {
+                    end++;
+                }
+                tokens.add(source.substring(i, end));
+                i = end;
+            }
+        }
+        if (tokens.isEmpty()) throw new IllegalArgumentException("Empty query");
+        return tokens;
+    }
+
+    private static final class Parser {
+        private final List<String> tokens;
+        private int position;
+
+        Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        boolean atEnd() {
+            return position >= tokens.size();
+        }
+
+        String peek() {
+            return atEnd() ? null : tokens.get(position);
+        }
+
+        private boolean peekKeyword(String keyword) {
+            return !atEnd() && tokens.get(position).equalsIgnoreCase(keyword);
+        }
+
+        private String next(String expected) {
+            if (atEnd()) throw new IllegalArgumentException("Expected " + expected + " at end of query");
+            return tokens.get(position++);
+        }
+
+        Node parseOr() {
+            List<Node> children = new ArrayList<>();
+            children.add(parseAnd());
+            while (peekKeyword("or")) {
+                position++;
+                children.add(parseAnd());
+            }
+            return children.size() == 1 ? children.get(0) : new Or(children);
+        }
+
+        private Node parseAnd() {
+            List<Node> children = new ArrayList<>();
+            children.add(parseNot());
+            while (!atEnd() && !peekKeyword("or") && !")".equals(peek())) {
+                if (peekKeyword("and") || peekKeyword("with")) position++;
+                children.add(parseNot());
+            }
+            return children.size() == 1 ? children.get(0) : new And(children);
+        }
+
+        private Node parseNot() {
+            if (peekKeyword("not")) {
+                position++;
+                return new Not(parseNot());
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() {
+            String token = next("a condition");
+            if ("(".equals(token)) {
+                Node inner = parseOr();
+                if (!")".equals(next("')'"))) throw new IllegalArgumentException("Expected ')'");
+                return inner;
+            }
+
+            String word = token.toLowerCase(Locale.ROOT);
+            switch (word) {
+                case "active":
+                case "inactive":
+                    if (Op.of(String.valueOf(peek())) == null) {
+                        return new Comparison(Field.ACTIVE, Op.EQ, String.valueOf(word.equals("active")));
+                    }
+                    break;
+                case "in":
+                    return new Comparison(Field.DEPARTMENT, Op.EQ, value(next("a department")));
+                case "full-time":
+                case "fulltime":
+                case "part-time":
+                case "parttime":
+                case "contract":
+                    return new Comparison(Field.TYPE, Op.EQ, word);
+                default:
+                    break;
+            }
+
+            Field field = Field.of(word);
+            if (field == null || token.startsWith("\"")) {
+                throw new IllegalArgumentException("Unknown field '" + value(token) + "'");
+            }
+            String opToken = next("an operator after " + field);
+            Op op = Op.of(opToken);
+            if (op == null) throw new IllegalArgumentException("Unknown operator '" + opToken + "'");
+            return new Comparison(field, op, value(next("a value after " + field + " " + op.symbol)));
+        }
+
+        private static String value(String token) {
+            return token.startsWith("\"") ? token.substring(1) : token;
+        }
+    }
+}
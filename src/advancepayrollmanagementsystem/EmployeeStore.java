@@ -0,0 +1,326 @@
+package advancepayrollmanagementsystem;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EmployeeStore keeps multiple versions of the employee list, so that long reports and
+ * exports read one consistent version while edits carry on.
+ *
+ * Every change publishes a new immutable version. A version is a directory of fixed-size
+ * chunks of employee references, and a new version copies only the directory and the chunks
+ * it changes; the rest are shared with the previous version. Employee records are never
+ * changed once published: writers edit a copy (Employee.copy()) and replace the record with
+ * it. Appends write past the end of the newest version, which no older version can see, so
+ * adding an employee copies nothing.
+ *
+ * A reader pins the newest version with snapshot(), which costs one reference count
+ * increment, and reads it until the snapshot is closed. A version is reclaimed once it has
+ * been superseded and the last snapshot pinning it is closed; records and chunks it shared
+ * with newer versions stay in use.
+ *
+ * Writers are serialized by the store; readers never lock.
+ */
+public final class EmployeeStore {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile Version head;
+    // Writer state, guarded by this: position of every record in the head version
+    private final Map<Employee, Integer> positions = new IdentityHashMap<>();
+    private final AtomicInteger liveVersions = new AtomicInteger();
+    private final AtomicLong reclaimedVersions = new AtomicLong();
+
+    /**
+     * Constructor for EmployeeStore; starts with no employees
+     */
+    public EmployeeStore() {
+        this.head = new Version(this, 0, new Employee[0][], 0);
+    }
+
+    /**
+     * Pin the newest version
+     * @return snapshot of the employees; close it when done reading
+     */
+    public Snapshot snapshot() {
+        while (true) {
+            Version version = head;
+            // Fails only if a writer superseded and reclaimed the version since it was read
+            if (version.retain()) return new Snapshot(version);
+        }
+    }
+
+    /**
+     * Add an employee at the end
+     * @param emp Employee record
+     */
+    public synchronized void add(Employee emp) {
+        Version current = head;
+        int size = current.size;
+        Employee[][] chunks = current.chunks;
+        int chunk = size >>> CHUNK_BITS;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(4, chunks.length * 2));
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Employee[CHUNK_SIZE];
+        }
+        chunks[chunk][size & CHUNK_MASK] = emp;
+        positions.put(emp, size);
+        publish(chunks, size + 1);
+    }
+
+    /**
+     * Replace one record with an edited copy
+     * @param current Record in the newest version
+     * @param updated Record to publish in its place
+     * @return false if current is no longer in the newest version (another writer replaced
+     *         or removed it), in which case nothing changes
+     */
+    public synchronized boolean replace(Employee current, Employee updated) {
+        Map<Employee, Employee> updates = new IdentityHashMap<>(2);
+        updates.put(current, updated);
+        return replaceAll(updates);
+    }
+
+    /**
+     * Replace records with edited copies, all in one version
+     * @param updates Records in the newest version and the records to publish in their place
+     * @return false if any record is no longer in the newest version, in which case nothing changes
+     */
+    public synchronized boolean replaceAll(Map<Employee, Employee> updates) {
+        if (updates.isEmpty()) return true;
+        for (Employee current : updates.keySet()) {
+            if (!positions.containsKey(current)) return false;
+        }
+        Version version = head;
+        Employee[][] chunks = version.chunks.clone();
+        boolean[] copied = new boolean[chunks.length];
+        for (Map.Entry<Employee, Employee> entry : updates.entrySet()) {
+            int position = positions.remove(entry.getKey());
+            int chunk = position >>> CHUNK_BITS;
+            if (!copied[chunk]) {
+                chunks[chunk] = chunks[chunk].clone();
+                copied[chunk] = true;
+            }
+            chunks[chunk][position & CHUNK_MASK] = entry.getValue();
+            positions.put(entry.getValue(), position);
+        }
+        publish(chunks, version.size);
+        return true;
+    }
+
+    /**
+     * Remove an employee
+     * @param emp Record in the newest version
+     * @return false if the record is not in the newest version
+     */
+    public synchronized boolean remove(Employee emp) {
+        Integer position = positions.remove(emp);
+        if (position == null) return false;
+        Version version = head;
+        int size = version.size - 1;
+        // The records after the removed one move down; their chunks are copied, the ones before are shared
+        Employee[][] chunks = Arrays.copyOf(version.chunks, version.chunks.length);
+        int first = position >>> CHUNK_BITS;
+        for (int chunk = first; chunk < chunks.length && chunks[chunk] != null; chunk++) {
+            chunks[chunk] = chunk << CHUNK_BITS < size ? chunks[chunk].clone() : null;
+        }
+        for (int i = position; i < size; i++) {
+            Employee moved = version.get(i + 1);
+            chunks[i >>> CHUNK_BITS][i & CHUNK_MASK] = moved;
+            positions.put(moved, i);
+        }
+        if (size >>> CHUNK_BITS < chunks.length && chunks[size >>> CHUNK_BITS] != null) {
+            chunks[size >>> CHUNK_BITS][size & CHUNK_MASK] = null;
+        }
+        publish(chunks, size);
+        return true;
+    }
+
+    /**
+     * Replace the whole employee list
+     * @param employees New records
+     */
+    public synchronized void reset(List<Employee> employees) {
+        int size = employees.size();
+        Employee[][] chunks = new Employee[Math.max(4, (size + CHUNK_SIZE - 1) >>> CHUNK_BITS)][];
+        positions.clear();
+        for (int i = 0; i < size; i++) {
+            int chunk = i >>> CHUNK_BITS;
+            if (chunks[chunk] == null) chunks[chunk] = new Employee[CHUNK_SIZE];
+            Employee emp = employees.get(i);
+            chunks[chunk][i & CHUNK_MASK] = emp;
+            positions.put(emp, i);
+        }
+        publish(chunks, size);
+    }
+
+    /**
+     * Make a new version the newest and release the store's pin on the previous one
+     */
+    private void publish(Employee[][] chunks, int size) {
+        Version previous = head;
+        head = new Version(this, previous.number + 1, chunks, size);
+        previous.release();
+    }
+
+    // Getters
+    public int size() { return head.size; }
+    public long getVersion() { return head.number; }
+    public int getLiveVersions() { return liveVersions.get(); }
+    public long getReclaimedVersions() { return reclaimedVersions.get(); }
+
+    /**
+     * One immutable version of the employee list, pinned by the store while it is the newest
+     * and by every open snapshot of it
+     */
+    private static final class Version {
+        private final EmployeeStore store;
+        private final long number;
+        private final int size;
+        private final AtomicInteger pins = new AtomicInteger(1);
+        private Employee[][] chunks;
+
+        Version(EmployeeStore store, long number, Employee[][] chunks, int size) {
+            this.store = store;
+            this.number = number;
+            this.chunks = chunks;
+            this.size = size;
+            store.liveVersions.incrementAndGet();
+        }
+
+        /**
+         * Add a pin unless the version has been reclaimed
+         */
+        boolean retain() {
+            while (true) {
+                int count = pins.get();
+                if (count == 0) return false;
+                if (pins.compareAndSet(count, count + 1)) return true;
+            }
+        }
+
+        void release() {
+            if (pins.decrementAndGet() == 0) {
+                chunks = null;
+                store.liveVersions.decrementAndGet();
+                store.reclaimedVersions.incrementAndGet();
+            }
+        }
+
+        Employee get(int index) {
+            return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+        }
+    }
+
+    /**
+     * A pinned version of the employee list. Reading a closed snapshot throws
+     * IllegalStateException.
+     */
+    public static final class Snapshot implements AutoCloseable {
+        private final Version version;
+        private final List<Employee> employees;
+        private volatile boolean closed;
+
+        private Snapshot(Version version) {
+            this.version = version;
+            this.employees = new Employees();
+        }
+
+        /**
+         * Get the employees of the pinned version
+         * @return read-only list, valid until the snapshot is closed
+         */
+        public List<Employee> getEmployees() {
+            return employees;
+        }
+
+        /**
+         * Release the pin; closing twice has no effect
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+            }
+            version.release();
+        }
+
+        // Getters
+        public long getVersion() { return version.number; }
+        public int size() { return version.size; }
+
+        private void checkOpen() {
+            if (closed) throw new IllegalStateException("Snapshot is closed");
+        }
+
+        /**
+         * Read-only view of the pinned version; iteration and toArray() walk the chunks directly
+         */
+        private final class Employees extends AbstractList<Employee> implements RandomAccess {
+            @Override
+            public Employee get(int index) {
+                checkOpen();
+                if (index < 0 || index >= version.size) {
+                    throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + version.size);
+                }
+                return version.get(index);
+            }
+
+            @Override
+            public int size() {
+                return version.size;
+            }
+
+            @Override
+            public Iterator<Employee> iterator() {
+                return new Records();
+            }
+
+            @Override
+            public Object[] toArray() {
+                checkOpen();
+                int size = version.size;
+                Object[] array = new Object[size];
+                for (int from = 0; from < size; from += CHUNK_SIZE) {
+                    System.arraycopy(version.chunks[from >>> CHUNK_BITS], 0, array, from, Math.min(CHUNK_SIZE, size - from));
+                }
+                return array;
+            }
+        }
+
+        /**
+         * Iterator over the pinned version, one chunk at a time
+         */
+        private final class Records implements Iterator<Employee> {
+            private int index;
+            private Employee[] chunk;
+
+            @Override
+            public boolean hasNext() {
+                return index < version.size;
+            }
+
+            @Override
+            public Employee next() {
+                if (index >= version.size) throw new NoSuchElementException();
+                if ((index & CHUNK_MASK) == 0 || chunk == null) {
+                    checkOpen();
+                    chunk = version.chunks[index >>> CHUNK_BITS];
+                }
+                return chunk[index++ & CHUNK_MASK];
+            }
+        }
+    }
+}
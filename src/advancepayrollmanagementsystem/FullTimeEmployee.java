@@ -1,18 +1,45 @@
 package advancepayrollmanagementsystem;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+
 /**
  * FullTimeEmployee class representing a full-time employee with fixed salary and benefits.
  * Full-time employees receive a monthly salary regardless of hours worked, with overtime pay
- * for hours exceeding 160 per month.
+ * under the overtime rules at the hourly equivalent of the salary (160 hours a month).
 
  */
 public class FullTimeEmployee extends Employee {
     private static final long serialVersionUID = 1L;
     
+    // Monthly tax brackets, shared with the columnar PayrollKernel
+    static final double FIRST_BRACKET = 50000.0;
+    static final double SECOND_BRACKET = 100000.0;
+    static final double FIRST_RATE = 0.05;
+    static final double SECOND_RATE = 0.10;
+    static final double TOP_RATE = 0.15;
+    
     private double monthlyBonus;
     private double benefits; // Health insurance, retirement contributions, etc.
-    private int sickLeaveDays;
-    private int vacationDays;
+    private int sickLeaveDays;   // Annual entitlement
+    private int vacationDays;    // Annual entitlement
+    
+    // Leave balances, maintained by the LeaveAccrual batch; null before the first accrual
+    private Leave leave;
+    
+    // Serialized form: the leave fields are individual fields, as in data files written before Leave
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("monthlyBonus", double.class),
+        new ObjectStreamField("benefits", double.class),
+        new ObjectStreamField("sickLeaveDays", int.class),
+        new ObjectStreamField("vacationDays", int.class),
+        new ObjectStreamField("sickLeaveBalance", double.class),
+        new ObjectStreamField("vacationBalance", double.class),
+        new ObjectStreamField("leaveAccruedThrough", int.class),
+        new ObjectStreamField("leaveDeductedThrough", int.class)
+    };
     
     /**
      * Constructor for FullTimeEmployee
@@ -46,30 +73,47 @@ public class FullTimeEmployee extends Employee {
     
     @Override
     public double calculateSalary() {
-        double totalSalary = getBaseSalary() + monthlyBonus + benefits;
-        
-        // Add overtime pay if worked more than 160 hours (40 hours/week * 4 weeks)
-        if (getHoursWorked() > 160) {
-            double overtimeHours = getHoursWorked() - 160;
-            double hourlyEquivalent = getBaseSalary() / 160;
-            totalSalary += overtimeHours * hourlyEquivalent * 1.5; // 1.5x for overtime
-        }
-        
-        return totalSalary;
+        return calculateSalary(getOvertimePay());
+    }
+    
+    /**
+     * Calculate the salary with the overtime pay already evaluated
+     * @param overtimePay Overtime pay for the period
+     * @return gross salary
+     */
+    double calculateSalary(double overtimePay) {
+        return getBaseSalary() + monthlyBonus + benefits + overtimePay;
+    }
+    
+    @Override
+    public double getOvertimePay() {
+        return OvertimePlan.active().evaluate(this).getPay();
+    }
+    
+    @Override
+    public double getOvertimeBaseRate() {
+        return getBaseSalary() / 160; // 40 hours/week * 4 weeks
     }
     
     @Override
     public double calculateTax() {
-        double grossSalary = calculateSalary();
+        return calculateTax(calculateSalary(), 1);
+    }
+    
+    @Override
+    public double calculateTax(double grossSalary, int periods) {
+        double firstBracket = FIRST_BRACKET * periods;
+        double secondBracket = SECOND_BRACKET * periods;
         double tax = 0;
         
         // Progressive tax calculation
-        if (grossSalary <= 50000) {
-            tax = grossSalary * 0.05; // 5% tax
-        } else if (grossSalary <= 100000) {
-            tax = 50000 * 0.05 + (grossSalary - 50000) * 0.10; // 5% + 10%
+        if (grossSalary <= firstBracket) {
+            tax = grossSalary * FIRST_RATE; // 5% tax
+        } else if (grossSalary <= secondBracket) {
+            tax = firstBracket * FIRST_RATE + (grossSalary - firstBracket) * SECOND_RATE; // 5% + 10%
         } else {
-            tax = 50000 * 0.05 + 50000 * 0.10 + (grossSalary - 100000) * 0.15; // 5% + 10% + 15%
+            tax = firstBracket * FIRST_RATE + (secondBracket - firstBracket) * SECOND_RATE
+                    + (grossSalary - secondBracket) * TOP_RATE; // 5% + 10% + 15%
         }
         
         return tax;
@@ -88,6 +132,20 @@ public class FullTimeEmployee extends Employee {
         return calculateSalary() * 12;
     }
     
+    /**
+     * Calculate annual salary from recorded payroll history.
+     * Months with a recorded run use the stored footer totals; months without
+     * one are projected from the current monthly salary.
+     * @param history Payroll history store
+     * @param year Calendar year
+     * @return annual salary
+     * @throws java.io.IOException if the history cannot be read
+     */
+    public double getAnnualSalary(PayrollHistoryStore history, int year) throws java.io.IOException {
+        PayTotals recorded = history.getYearToDate(getEmployeeId(), java.time.YearMonth.of(year, 12));
+        return recorded.getGrossSalary() + calculateSalary() * (12 - recorded.getCount());
+    }
+    
     // Getters and Setters
     public double getMonthlyBonus() { return monthlyBonus; }
     public void setMonthlyBonus(double monthlyBonus) { this.monthlyBonus = monthlyBonus; }
@@ -101,6 +159,74 @@ public class FullTimeEmployee extends Employee {
     public int getVacationDays() { return vacationDays; }
     public void setVacationDays(int vacationDays) { this.vacationDays = vacationDays; }
     
+    public double getSickLeaveBalance() { return leave().sickBalance; }
+    public double getVacationBalance() { return leave().vacationBalance; }
+    
+    // Leave bookkeeping for LeaveAccrual
+    void setLeaveBalances(double vacationBalance, double sickLeaveBalance) {
+        Leave l = leave();
+        leave = new Leave(vacationBalance, sickLeaveBalance, l.accruedThrough, l.deductedThrough);
+    }
+    int getLeaveAccruedThrough() { return leave().accruedThrough; }
+    void accrueLeave(double vacationBalance, double sickLeaveBalance, int period) {
+        leave = new Leave(vacationBalance, sickLeaveBalance, period, leave().deductedThrough);
+    }
+    int getLeaveDeductedThrough() { return leave().deductedThrough; }
+    void setLeaveDeductedThrough(int period) {
+        Leave l = leave();
+        leave = new Leave(l.vacationBalance, l.sickBalance, l.accruedThrough, period);
+    }
+    
+    private Leave leave() { return leave != null ? leave : Leave.NONE; }
+    
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Leave l = leave();
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("monthlyBonus", monthlyBonus);
+        fields.put("benefits", benefits);
+        fields.put("sickLeaveDays", sickLeaveDays);
+        fields.put("vacationDays", vacationDays);
+        fields.put("sickLeaveBalance", l.sickBalance);
+        fields.put("vacationBalance", l.vacationBalance);
+        fields.put("leaveAccruedThrough", l.accruedThrough);
+        fields.put("leaveDeductedThrough", l.deductedThrough);
+        out.writeFields();
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        monthlyBonus = fields.get("monthlyBonus", 0.0);
+        benefits = fields.get("benefits", 0.0);
+        sickLeaveDays = fields.get("sickLeaveDays", 0);
+        vacationDays = fields.get("vacationDays", 0);
+        Leave l = new Leave(fields.get("vacationBalance", 0.0), fields.get("sickLeaveBalance", 0.0),
+                fields.get("leaveAccruedThrough", 0), fields.get("leaveDeductedThrough", 0));
+        if (l.vacationBalance != 0 || l.sickBalance != 0 || l.accruedThrough != 0 || l.deductedThrough != 0) {
+            leave = l;
+        }
+    }
+    
+    /**
+     * Leave balances and the last periods accrued and deducted, as year * 12 + month - 1
+     * (0 before the first). Held apart from the employee record, which stays small for
+     * employees never accrued, and immutable, so copies of an employee can share it.
+     */
+    private static final class Leave {
+        static final Leave NONE = new Leave(0, 0, 0, 0);
+        
+        final double vacationBalance;
+        final double sickBalance;
+        final int accruedThrough;
+        final int deductedThrough;
+        
+        Leave(double vacationBalance, double sickBalance, int accruedThrough, int deductedThrough) {
+            this.vacationBalance = vacationBalance;
+            this.sickBalance = sickBalance;
+            this.accruedThrough = accruedThrough;
+            this.deductedThrough = deductedThrough;
+        }
+    }
+    
     @Override
     public String toString() {
         return String.format("FullTimeEmployee{ID='%s', Name='%s', Department='%s', MonthlySalary=%.2f, Benefits=%.2f}",
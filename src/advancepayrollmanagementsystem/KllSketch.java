@@ -0,0 +1,193 @@
+package advancepayrollmanagementsystem;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * KllSketch estimates quantiles (median, p90, p99, ...) of a stream of values in bounded memory.
+ *
+ * Values enter level 0. When the sketch outgrows its capacity, the lowest full level is sorted
+ * and every other value (random offset) is promoted to the next level, where each value stands
+ * for twice as many inputs. Capacities shrink geometrically towards the lower levels, so the
+ * sketch holds O(k) values however long the stream is, with a rank error of roughly 1.7/k
+ * (about 1% for the default k of 200).
+ *
+ * Sketches built over separate partitions can be merged, which gives the same accuracy as one
+ * sketch over the whole stream. Count, minimum and maximum are exact.
+ */
+public class KllSketch {
+    public static final int DEFAULT_K = 200;
+
+    private static final double DECAY = 2.0 / 3.0;
+    private static final int MIN_WIDTH = 8;
+
+    private final int k;
+    private double[][] levels = new double[0][];
+    private int[] sizes = new int[0];
+    private final SplittableRandom random;
+    private int retained;
+    private int capacity;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    // Sorted, weighted view for queries, rebuilt after updates
+    private double[] sortedValues;
+    private long[] cumulativeWeights;
+
+    /**
+     * Constructor for KllSketch with the default accuracy
+     */
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Constructor for KllSketch
+     * @param k Accuracy parameter; larger is more accurate and uses more memory
+     */
+    public KllSketch(int k) {
+        if (k < MIN_WIDTH) throw new IllegalArgumentException("k must be at least " + MIN_WIDTH);
+        this.k = k;
+        this.random = new SplittableRandom(k);
+        addLevel();
+    }
+
+    /**
+     * Add a value to the sketch
+     * @param value Value to add (NaN is ignored)
+     */
+    public void update(double value) {
+        if (Double.isNaN(value)) return;
+        if (count == 0 || value < min) min = value;
+        if (count == 0 || value > max) max = value;
+        count++;
+        append(0, value);
+        if (retained > capacity) {
+            compress();
+        }
+        sortedValues = null;
+    }
+
+    /**
+     * Merge another sketch into this one
+     * @param other Sketch over another partition of the stream
+     */
+    public void merge(KllSketch other) {
+        if (other.count == 0) return;
+        if (count == 0 || other.min < min) min = other.min;
+        if (count == 0 || other.max > max) max = other.max;
+        count += other.count;
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        while (retained > capacity) {
+            compress();
+        }
+        sortedValues = null;
+    }
+
+    /**
+     * Estimate a quantile
+     * @param q Quantile between 0 and 1 (0.5 for the median)
+     * @return estimated value at that rank, or NaN if the sketch is empty
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        if (count == 0) return Double.NaN;
+        if (q == 0) return min;
+        if (q == 1) return max;
+        buildSortedView();
+
+        long rank = (long) Math.ceil(q * count);
+        int index = Arrays.binarySearch(cumulativeWeights, rank);
+        if (index < 0) index = -index - 1;
+        return sortedValues[Math.min(index, sortedValues.length - 1)];
+    }
+
+    public long getCount() { return count; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public int getRetained() { return retained; }
+
+    /**
+     * Sort the lowest level that is at capacity and promote half of it one level up
+     */
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            int size = sizes[h];
+            if (size < levelCapacity(h)) continue;
+            if (h + 1 == levels.length) addLevel();
+
+            double[] values = levels[h];
+            Arrays.sort(values, 0, size);
+            int pairs = size & ~1;
+            for (int i = random.nextInt(2); i < pairs; i += 2) {
+                append(h + 1, values[i]);
+            }
+            // An odd value out stays behind at this level
+            if (pairs < size) {
+                values[0] = values[size - 1];
+            }
+            sizes[h] = size - pairs;
+            retained -= pairs;
+            return;
+        }
+    }
+
+    private void append(int level, double value) {
+        while (level >= levels.length) addLevel();
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+        retained++;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = new double[MIN_WIDTH];
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        capacity = 0;
+        for (int h = 0; h < levels.length; h++) capacity += levelCapacity(h);
+    }
+
+    /**
+     * Capacity of a level: k at the top, shrinking by DECAY per level below it
+     */
+    private int levelCapacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_WIDTH, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+    }
+
+    private void buildSortedView() {
+        if (sortedValues != null) return;
+        int total = retained;
+        double[] values = new double[total];
+        int[] levelOf = new int[total];
+        int n = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                levelOf[n] = h;
+                n++;
+            }
+        }
+        // Sort indices by value, then accumulate the weight 2^level of each value
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        sortedValues = new double[total];
+        cumulativeWeights = new long[total];
+        long cumulative = 0;
+        for (int i = 0; i < total; i++) {
+            int source = order[i];
+            sortedValues[i] = values[source];
+            cumulative += 1L << levelOf[source];
+            cumulativeWeights[i] = cumulative;
+        }
+    }
+}
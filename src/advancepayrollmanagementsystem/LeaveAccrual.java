@@ -0,0 +1,239 @@
+package advancepayrollmanagementsystem;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * LeaveAccrual is the monthly leave batch for full-time employees.
+ *
+ * One run accrues a pay period's leave for every active full-time employee from the
+ * compiled LeavePolicy, forfeits balances above the carryover caps at the start of a leave
+ * year, and then applies the leave taken in the period. Each employee records the last period
+ * accrued and the last period whose leave taken was deducted, so running a period twice
+ * neither accrues nor deducts it twice. Years of service are counted as of the end of the
+ * period.
+ *
+ * Balances live in a small immutable record held by the employee, so reading one is a field
+ * read after the usual ID lookup and an accrual swaps in one new record.
+ */
+public class LeaveAccrual {
+    /**
+     * Kind of leave a deduction is taken from
+     */
+    public enum LeaveType { VACATION, SICK }
+
+    private final LeavePolicy policy;
+
+    // Results of the last run()
+    private int employeesAccrued;
+    private int alreadyAccrued;
+    private double vacationAccrued;
+    private double sickAccrued;
+    private double vacationForfeited;
+    private double sickForfeited;
+    private int deductionsApplied;
+    private int alreadyDeducted;
+    private final List<String> rejectedDeductions = new ArrayList<>();
+    private long elapsedNanos;
+
+    /**
+     * Constructor for LeaveAccrual
+     * @param policy Compiled accrual policy
+     */
+    public LeaveAccrual(LeavePolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Accrue a period's leave and apply its deductions
+     * @param period Pay period
+     * @param employees Employees (only active full-time employees accrue)
+     * @param lookup Employee lookup by ID, for the deductions
+     * @param deductions Leave taken in the period, applied after the accrual
+     */
+    public void run(YearMonth period, List<Employee> employees, Function<String, Employee> lookup,
+                    List<Deduction> deductions) {
+        long start = System.nanoTime();
+        employeesAccrued = 0;
+        alreadyAccrued = 0;
+        vacationAccrued = 0;
+        sickAccrued = 0;
+        vacationForfeited = 0;
+        sickForfeited = 0;
+        deductionsApplied = 0;
+        alreadyDeducted = 0;
+        rejectedDeductions.clear();
+
+        int periodKey = period.getYear() * 12 + period.getMonthValue() - 1;
+        BusinessCalendar.Pin pin = BusinessCalendar.pin(period);
+        try {
+            for (Employee emp : employees) {
+                if (emp instanceof FullTimeEmployee && emp.isActive()) {
+                    accrue((FullTimeEmployee) emp, periodKey);
+                }
+            }
+        } finally {
+            pin.close();
+        }
+
+        // An employee's deductions are applied together, and marked once all have been tried
+        Set<FullTimeEmployee> deducted = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Deduction deduction : deductions) {
+            deduct(lookup.apply(deduction.getEmployeeId()), deduction, periodKey, deducted);
+        }
+        for (FullTimeEmployee emp : deducted) {
+            emp.setLeaveDeductedThrough(periodKey);
+        }
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    private void accrue(FullTimeEmployee emp, int periodKey) {
+        int last = emp.getLeaveAccruedThrough();
+        if (last >= periodKey) {
+            alreadyAccrued++;
+            return;
+        }
+        int band = policy.band(emp.getYearsOfService());
+        double vacation = emp.getVacationBalance();
+        double sick = emp.getSickLeaveBalance();
+
+        // First accrual of a new leave year: carry over at most the caps
+        if (last != 0 && last / 12 < periodKey / 12) {
+            double vacationCap = policy.getVacationCarryover(band);
+            double sickCap = policy.getSickCarryover(band);
+            if (vacation > vacationCap) {
+                vacationForfeited += vacation - vacationCap;
+                vacation = vacationCap;
+            }
+            if (sick > sickCap) {
+                sickForfeited += sick - sickCap;
+                sick = sickCap;
+            }
+        }
+
+        double vacationMonth = (emp.getVacationDays() + policy.getExtraVacation(band)) / 12;
+        double sickMonth = (emp.getSickLeaveDays() + policy.getExtraSick(band)) / 12;
+        emp.accrueLeave(vacation + vacationMonth, sick + sickMonth, periodKey);
+        vacationAccrued += vacationMonth;
+        sickAccrued += sickMonth;
+        employeesAccrued++;
+    }
+
+    private void deduct(Employee emp, Deduction deduction, int periodKey, Set<FullTimeEmployee> deducted) {
+        if (!(emp instanceof FullTimeEmployee)) {
+            rejectedDeductions.add(deduction + ": " + (emp == null ? "employee not found" : "not a full-time employee"));
+            return;
+        }
+        FullTimeEmployee ft = (FullTimeEmployee) emp;
+        if (!deducted.contains(ft)) {
+            if (ft.getLeaveDeductedThrough() >= periodKey) {
+                alreadyDeducted++;
+                return;
+            }
+            deducted.add(ft);
+        }
+        boolean vacation = deduction.getType() == LeaveType.VACATION;
+        double balance = vacation ? ft.getVacationBalance() : ft.getSickLeaveBalance();
+        if (deduction.getDays() > balance + 1e-9) {
+            rejectedDeductions.add(deduction + String.format(": only %.2f days available", balance));
+            return;
+        }
+        if (vacation) {
+            ft.setLeaveBalances(balance - deduction.getDays(), ft.getSickLeaveBalance());
+        } else {
+            ft.setLeaveBalances(ft.getVacationBalance(), balance - deduction.getDays());
+        }
+        deductionsApplied++;
+    }
+
+    // Results of the last run()
+    public int getEmployeesAccrued() { return employeesAccrued; }
+    public int getAlreadyAccrued() { return alreadyAccrued; }
+    public double getVacationAccrued() { return vacationAccrued; }
+    public double getSickAccrued() { return sickAccrued; }
+    public double getVacationForfeited() { return vacationForfeited; }
+    public double getSickForfeited() { return sickForfeited; }
+    public int getDeductionsApplied() { return deductionsApplied; }
+    public int getAlreadyDeducted() { return alreadyDeducted; }
+    public List<String> getRejectedDeductions() { return new ArrayList<>(rejectedDeductions); }
+    public double getElapsedSeconds() { return elapsedNanos / 1e9; }
+
+    /**
+     * Leave taken by one employee
+     */
+    public static final class Deduction {
+        private final String employeeId;
+        private final LeaveType type;
+        private final double days;
+
+        /**
+         * Constructor for Deduction
+         * @param employeeId Employee ID
+         * @param type Kind of leave
+         * @param days Days taken, more than zero
+         */
+        public Deduction(String employeeId, LeaveType type, double days) {
+            if (!(days > 0 && days <= 366)) {
+                throw new IllegalArgumentException("Leave days must be more than 0, got " + days);
+            }
+            this.employeeId = employeeId;
+            this.type = type;
+            this.days = days;
+        }
+
+        /**
+         * Parse an "employeeId,VACATION|SICK,days" line. Days are a number, or a date range
+         * "yyyy-MM-dd..yyyy-MM-dd" (both days included) charged as the working days in it,
+         * so weekends and the BusinessCalendar holidays are not taken from the balance.
+         * @param line Deduction line
+         * @return deduction
+         */
+        public static Deduction parse(String line) {
+            String[] fields = line.split(",", -1);
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Expected employeeId,VACATION|SICK,days: " + line);
+            }
+            try {
+                String days = fields[2].trim();
+                int range = days.indexOf("..");
+                return new Deduction(fields[0].trim(), LeaveType.valueOf(fields[1].trim().toUpperCase(Locale.ROOT)),
+                        range < 0 ? Double.parseDouble(days)
+                                : workingDays(LocalDate.parse(days.substring(0, range).trim()),
+                                        LocalDate.parse(days.substring(range + 2).trim())));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid days: " + line);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid leave line '" + line + "': " + e.getMessage());
+            }
+        }
+
+        private static double workingDays(LocalDate first, LocalDate last) {
+            if (last.isBefore(first)) {
+                throw new IllegalArgumentException("Leave ends before it starts: " + first + ".." + last);
+            }
+            long days = BusinessCalendar.current().workingDaysBetween(first.toEpochDay(), last.toEpochDay() + 1);
+            if (days == 0) {
+                throw new IllegalArgumentException("No working days in " + first + ".." + last);
+            }
+            return days;
+        }
+
+        // Getters
+        public String getEmployeeId() { return employeeId; }
+        public LeaveType getType() { return type; }
+        public double getDays() { return days; }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s %.2f days", employeeId, type, days);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package advancepayrollmanagementsystem;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * LeavePolicy is the leave accrual table for full-time employees, one band of years of
+ * service per line:
+ *
+ *   # years  extra vacation  extra sick  vacation carryover  sick carryover
+ *   0        0               0           5                   30
+ *   5        5               0           10                  30
+ *
+ * A band applies from its years of service until the next band. Each month an employee
+ * accrues a twelfth of their annual entitlement (vacationDays and sickLeaveDays) plus the
+ * band's extra days. At the start of each leave year (January) balances above the band's
+ * carryover caps are forfeited.
+ *
+ * The table is read from leave_policy.txt (or the file named by -Dpayroll.leavePolicy) if it
+ * exists, and otherwise is the STANDARD table. It is compiled into arrays indexed directly by
+ * years of service, so finding an employee's band is one array read.
+ */
+public final class LeavePolicy {
+    /**
+     * Extra vacation after 3, 5 and 10 years, with larger carryover for longer service
+     */
+    public static final String STANDARD =
+            "# years  extra-vacation  extra-sick  vacation-carryover  sick-carryover\n" +
+            "0   0  0   5  30\n" +
+            "3   2  0  10  30\n" +
+            "5   5  0  10  30\n" +
+            "10  8  0  15  30\n";
+
+    private static final String POLICY_FILE = System.getProperty("payroll.leavePolicy", "leave_policy.txt");
+
+    // bandByYears[y] = band for y years of service; longer service uses the last band
+    private final int[] bandByYears;
+    private final double[] extraVacation;
+    private final double[] extraSick;
+    private final double[] vacationCarryover;
+    private final double[] sickCarryover;
+
+    private LeavePolicy(TreeMap<Integer, double[]> bands) {
+        int count = bands.size();
+        this.extraVacation = new double[count];
+        this.extraSick = new double[count];
+        this.vacationCarryover = new double[count];
+        this.sickCarryover = new double[count];
+        this.bandByYears = new int[bands.lastKey() + 1];
+
+        int band = 0;
+        for (Map.Entry<Integer, double[]> entry : bands.entrySet()) {
+            double[] row = entry.getValue();
+            extraVacation[band] = row[0];
+            extraSick[band] = row[1];
+            vacationCarryover[band] = row[2];
+            sickCarryover[band] = row[3];
+            Integer next = bands.higherKey(entry.getKey());
+            int to = next != null ? next : bandByYears.length;
+            for (int years = entry.getKey(); years < to; years++) {
+                bandByYears[years] = band;
+            }
+            band++;
+        }
+    }
+
+    /**
+     * Parse and compile a policy table
+     * @param text Table, one band per line
+     * @return policy
+     * @throws IllegalArgumentException naming the first invalid line
+     */
+    public static LeavePolicy parse(String text) {
+        TreeMap<Integer, double[]> bands = new TreeMap<>();
+        String[] lines = text.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].replaceFirst("#.*", "").trim();
+            if (line.isEmpty()) continue;
+            String[] words = line.split("\\s+");
+            try {
+                if (words.length != 5) throw new IllegalArgumentException("expected 5 columns");
+                int years = Integer.parseInt(words[0]);
+                if (years < 0 || years > 100) throw new IllegalArgumentException("years must be 0 to 100");
+                double[] row = new double[4];
+                for (int c = 0; c < row.length; c++) {
+                    row[c] = Double.parseDouble(words[c + 1]);
+                    if (!(row[c] >= 0 && row[c] <= 366)) throw new IllegalArgumentException("days must be 0 to 366");
+                }
+                if (bands.put(years, row) != null) throw new IllegalArgumentException("duplicate band");
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Leave policy line " + (i + 1) + ": not a number");
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Leave policy line " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        if (!bands.containsKey(0)) {
+            throw new IllegalArgumentException("Leave policy needs a band starting at 0 years");
+        }
+        return new LeavePolicy(bands);
+    }
+
+    /**
+     * Read the policy file, or the STANDARD table if there is none
+     * @return policy
+     */
+    public static LeavePolicy load() {
+        Path file = Paths.get(POLICY_FILE);
+        if (Files.exists(file)) {
+            try {
+                return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("✗ Error reading leave policy from " + file + ": " + e.getMessage());
+            }
+        }
+        return parse(STANDARD);
+    }
+
+    /**
+     * Find the band for a length of service
+     * @param yearsOfService Completed years of service
+     * @return band index for the per-band getters
+     */
+    public int band(long yearsOfService) {
+        return yearsOfService >= bandByYears.length ? bandByYears[bandByYears.length - 1]
+                : bandByYears[(int) Math.max(0, yearsOfService)];
+    }
+
+    // Per-band values
+    public double getExtraVacation(int band) { return extraVacation[band]; }
+    public double getExtraSick(int band) { return extraSick[band]; }
+    public double getVacationCarryover(int band) { return vacationCarryover[band]; }
+    public double getSickCarryover(int band) { return sickCarryover[band]; }
+    public int getBandCount() { return extraVacation.length; }
+}
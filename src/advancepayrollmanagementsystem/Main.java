@@ -1,8 +1,14 @@
 package advancepayrollmanagementsystem;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -30,10 +36,45 @@ public class Main {
     private static final String ANSI_WHITE = "\u001B[37m";
     private static final String ANSI_BOLD = "\u001B[1m";
     
-    private static Scanner input = new Scanner(System.in);
-    private static PayrollSystem payroll = new PayrollSystem();
+    private static Scanner input;
+    private static PayrollCompanies companies = new PayrollCompanies();
+    private static PayrollSystem payroll;
 
     public static void main(String[] args) {
+        // --company CODE selects the company to work on; it may precede --serve or a command
+        String company = PayrollSystem.DEFAULT_COMPANY;
+        int next = 0;
+        if (args.length > 1 && "--company".equals(args[0])) {
+            company = args[1];
+            next = 2;
+        }
+        try {
+            PayrollSystem.normalizeCompany(company);
+        } catch (IllegalArgumentException e) {
+            System.out.println(ANSI_RED + "✗ " + e.getMessage() + ANSI_RESET);
+            return;
+        }
+        
+        if (args.length > 0 && "--worker".equals(args[0])) {
+            work(args.length > 1 ? Integer.parseInt(args[1]) : 0);
+            return;
+        }
+        
+        if (args.length > next && "--serve".equals(args[next])) {
+            payroll = companies.get(company);
+            serve(args.length > next + 1 ? Integer.parseInt(args[next + 1]) : 8080,
+                    args.length > next + 2 ? args[next + 2] : null);
+            return;
+        }
+        
+        if (args.length > next) {
+            int status = runCommand(company, java.util.Arrays.copyOfRange(args, next, args.length));
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
+        
         System.out.println(ANSI_CYAN + ANSI_BOLD + 
             "╔══════════════════════════════════════════════════════════════╗\n" +
             "║            ADVANCED PAYROLL MANAGEMENT SYSTEM               ║\n" +
@@ -42,7 +83,7 @@ public class Main {
             ANSI_RESET);
         
         // Load existing data
-        payroll.loadData();
+        payroll = companies.get(company);
         
         int choice;
         do {
@@ -51,12 +92,134 @@ public class Main {
         } while (choice != 0);
         
         // Save data before exit
-        payroll.saveData();
-        input.close();
+        companies.saveAll();
+        if (input != null) {
+            input.close();
+        }
         
         System.out.println(ANSI_GREEN + "\n✓ Thank you for using Advanced Payroll Management System!" + ANSI_RESET);
     }
     
+    /**
+     * Run one command and exit, for scripts and batch jobs. There is no menu and no console
+     * input, and the company's data is only loaded by commands that use it. A command that
+     * changes the data saves it before returning, as leaving the menu does.
+     * @param company Company code
+     * @param command Command name and its arguments
+     * @return process exit status, 2 if the command or the save failed
+     */
+    private static int runCommand(String company, String[] command) {
+        try {
+            switch (command[0]) {
+                case "totals":
+                    PayTotals totals = companies.get(company).getPayrollTotals();
+                    System.out.printf("Employees: %d  Gross: $%.2f  Tax: $%.2f  Net: $%.2f%n",
+                            totals.getCount(), totals.getGrossSalary(), totals.getTax(), totals.getNetSalary());
+                    return 0;
+                case "employee":
+                    return status(companies.get(company).monthlySalaryIndividual(argument(command, 1)));
+                case "close":
+                    // Closing rolls the timesheets on and pays the punches still buffered in the clock
+                    boolean closed = companies.get(company).closePayPeriod(YearMonth.parse(argument(command, 1)));
+                    return status(companies.saveAll() && closed);
+                case "payments":
+                    return status(companies.get(company).generatePaymentFile(LocalDate.parse(argument(command, 1))));
+                case "payslips":
+                    boolean zip = command.length < 3 || !"folders".equals(command[2]);
+                    return status(companies.get(company).generatePayslips(YearMonth.parse(argument(command, 1)), zip));
+                case "export":
+                    return status(companies.get(company).exportReports());
+                case "leave":
+                    // Saves the balances itself
+                    return status(companies.get(company).runLeaveAccrual(YearMonth.parse(argument(command, 1)),
+                            command.length > 2 ? command[2] : null));
+                case "whatif":
+                    return status(companies.get(company).runScenarios(argument(command, 1)));
+                case "changes":
+                    companies.get(company).displayChanges(command.length > 1 ? Long.parseLong(command[1]) : 0);
+                    return 0;
+                case "companies":
+                    companies.getCompanies().forEach(System.out::println);
+                    return 0;
+                case "help":
+                    printUsage();
+                    return 0;
+                default:
+                    System.out.println(ANSI_RED + "✗ Unknown command: " + command[0] + ANSI_RESET);
+                    printUsage();
+                    return 2;
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.out.println(ANSI_RED + "✗ " + e.getMessage() + ANSI_RESET);
+            return 2;
+        }
+    }
+    
+    private static int status(boolean succeeded) {
+        return succeeded ? 0 : 2;
+    }
+    
+    private static String argument(String[] command, int index) {
+        if (index >= command.length) {
+            throw new IllegalArgumentException("Missing argument for " + command[0]);
+        }
+        return command[index];
+    }
+    
+    private static void printUsage() {
+        System.out.println("Usage: Main [--company CODE] [command]");
+        System.out.println("  (no command)                  interactive menu");
+        System.out.println("  --serve [port [address]]      JSON API server on localhost, or on address (0.0.0.0 for all)");
+        System.out.println("  --worker [port]               distributed payroll worker");
+        System.out.println("  totals                        payroll totals of active employees");
+        System.out.println("  employee ID                   salary breakdown of one employee");
+        System.out.println("  close YYYY-MM                 close a pay period");
+        System.out.println("  payments YYYY-MM-DD           bank payment file for an effective date");
+        System.out.println("  payslips YYYY-MM [folders]    payslips as a zip, or folders per department");
+        System.out.println("  export                        export all reports");
+        System.out.println("  leave YYYY-MM [file]          leave accrual, with leave taken from a file");
+        System.out.println("  whatif FILE                   price what-if compensation scenarios");
+        System.out.println("  changes [sequence]            employee changes after a change sequence number");
+        System.out.println("  companies                     list companies");
+    }
+    
+    /**
+     * Run the JSON API server until the process is stopped
+     * @param port TCP port to listen on
+     * @param address Address to listen on, or null for the loopback interface
+     */
+    private static void serve(int port, String address) {
+        try {
+            PayrollHttpServer server = address == null ? new PayrollHttpServer(payroll, port)
+                    : new PayrollHttpServer(payroll, java.net.InetAddress.getByName(address), port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                companies.saveAll();
+            }));
+            server.start();
+            String host = server.getAddress().getHostAddress();
+            if (host.indexOf(':') >= 0) host = "[" + host + "]";
+            System.out.println(ANSI_GREEN + "✓ Payroll API listening on http://" + host + ":" + server.getPort() + "/api/" + ANSI_RESET);
+            System.out.println(ANSI_CYAN + "Press Ctrl+C to stop." + ANSI_RESET);
+        } catch (java.io.IOException e) {
+            System.out.println(ANSI_RED + "✗ Cannot start API server: " + e.getMessage() + ANSI_RESET);
+        }
+    }
+    
+    /**
+     * Run a payroll worker process until it is stopped
+     * @param port Loopback TCP port to listen on, 0 for any free port
+     */
+    private static void work(int port) {
+        try {
+            PayrollWorker worker = new PayrollWorker(port);
+            System.out.println(ANSI_GREEN + "✓ Payroll worker listening on 127.0.0.1:" + worker.getPort() + ANSI_RESET);
+            worker.run();
+        } catch (java.io.IOException e) {
+            System.out.println(ANSI_RED + "✗ Cannot start payroll worker: " + e.getMessage() + ANSI_RESET);
+        }
+    }
+    
     /**
      * Display the main menu and get user choice
      */
@@ -157,7 +320,7 @@ public class Main {
             
             // Common information
             System.out.print(ANSI_WHITE + "\nEmployee ID: " + ANSI_RESET);
-            String employeeId = input.nextLine().trim();
+            String employeeId = console().nextLine().trim();
             
             if (payroll.employeeExists(employeeId)) {
                 System.out.println(ANSI_RED + "Error: Employee with ID " + employeeId + " already exists!" + ANSI_RESET);
@@ -165,16 +328,16 @@ public class Main {
             }
             
             System.out.print(ANSI_WHITE + "First Name: " + ANSI_RESET);
-            String firstName = input.nextLine().trim();
+            String firstName = console().nextLine().trim();
             
             System.out.print(ANSI_WHITE + "Last Name: " + ANSI_RESET);
-            String lastName = input.nextLine().trim();
+            String lastName = console().nextLine().trim();
             
             System.out.print(ANSI_WHITE + "Email: " + ANSI_RESET);
-            String email = input.nextLine().trim();
+            String email = console().nextLine().trim();
             
             System.out.print(ANSI_WHITE + "Department: " + ANSI_RESET);
-            String department = input.nextLine().trim();
+            String department = console().nextLine().trim();
             
             Employee employee = null;
             
@@ -194,9 +357,9 @@ public class Main {
                 case 3: // Contract
                     double contractAmount = getValidDouble("Contract Amount", 1000, 10000000);
                     System.out.print(ANSI_WHITE + "Contract End Date (YYYY-MM-DD): " + ANSI_RESET);
-                    LocalDate endDate = parseDate(input.nextLine().trim());
+                    LocalDate endDate = parseDate(console().nextLine().trim());
                     System.out.print(ANSI_WHITE + "Project Name: " + ANSI_RESET);
-                    String projectName = input.nextLine().trim();
+                    String projectName = console().nextLine().trim();
                     employee = new ContractEmployee(employeeId, firstName, lastName, email, department, contractAmount, endDate, projectName);
                     break;
             }
@@ -217,10 +380,10 @@ public class Main {
      */
     private static void addLegacyEmployee() {
         System.out.print("Please Enter Employee ID: ");
-        String employeeId = input.nextLine();
+        String employeeId = console().nextLine();
 
         System.out.print("Please Enter Employee Name: ");
-        String name = input.nextLine();
+        String name = console().nextLine();
 
         double hoursWorked = getValidDouble("Hours Worked", 0, 168);
         double hourlyRate = getValidDouble("Hourly Rate", 0, 1000);
@@ -237,11 +400,16 @@ public class Main {
         System.out.println(ANSI_CYAN + "\nSearch Options:");
         System.out.println("1. Search by ID");
         System.out.println("2. Search by Name");
-        System.out.println("3. Search by Department" + ANSI_RESET);
+        System.out.println("3. Search by Department");
+        System.out.println("4. Advanced Query" + ANSI_RESET);
         
-        int searchType = getValidChoice(1, 3, "\nSearch Type");
-        System.out.print(ANSI_WHITE + "Enter search term: " + ANSI_RESET);
-        String searchTerm = input.nextLine().trim();
+        int searchType = getValidChoice(1, 4, "\nSearch Type");
+        if (searchType == 4) {
+            System.out.println(ANSI_WHITE + "Example: active part-time in Engineering with hours > 120 and net < 2000");
+            System.out.println("Fields: id name department type active hours rate base years gross tax net overtime" + ANSI_RESET);
+        }
+        System.out.print(ANSI_WHITE + (searchType == 4 ? "Enter query: " : "Enter search term: ") + ANSI_RESET);
+        String searchTerm = console().nextLine().trim();
         
         payroll.searchEmployees(searchType, searchTerm);
     }
@@ -251,7 +419,7 @@ public class Main {
      */
     private static void updateEmployee() {
         System.out.print(ANSI_WHITE + "\nEnter Employee ID to update: " + ANSI_RESET);
-        String empId = input.nextLine().trim();
+        String empId = console().nextLine().trim();
         payroll.updateEmployee(empId);
     }
     
@@ -260,7 +428,7 @@ public class Main {
      */
     private static void deleteEmployee() {
         System.out.print(ANSI_WHITE + "\nEnter Employee ID to delete: " + ANSI_RESET);
-        String empId = input.nextLine().trim();
+        String empId = console().nextLine().trim();
         payroll.deleteEmployee(empId);
     }
     
@@ -278,9 +446,19 @@ public class Main {
             System.out.println(ANSI_WHITE + "2. " + ANSI_CYAN + "Individual Employee Salary");
             System.out.println(ANSI_WHITE + "3. " + ANSI_CYAN + "Update Hours Worked");
             System.out.println(ANSI_WHITE + "4. " + ANSI_CYAN + "Process Overtime");
+            System.out.println(ANSI_WHITE + "5. " + ANSI_GREEN + "Close Pay Period");
+            System.out.println(ANSI_WHITE + "6. " + ANSI_CYAN + "Year-to-Date Summary");
+            System.out.println(ANSI_WHITE + "7. " + ANSI_YELLOW + "Retroactive Pay Change");
+            System.out.println(ANSI_WHITE + "8. " + ANSI_GREEN + "Run Month-End Pipeline");
+            System.out.println(ANSI_WHITE + "9. " + ANSI_GREEN + "Generate Bank Payment File");
+            System.out.println(ANSI_WHITE + "10. " + ANSI_GREEN + "Generate Payslips");
+            System.out.println(ANSI_WHITE + "11. " + ANSI_GREEN + "Close Pay Period (All Companies)");
+            System.out.println(ANSI_WHITE + "12. " + ANSI_CYAN + "Distributed Payroll Run");
+            System.out.println(ANSI_WHITE + "13. " + ANSI_GREEN + "Run Leave Accrual");
+            System.out.println(ANSI_WHITE + "14. " + ANSI_CYAN + "What-If Compensation Scenarios");
             System.out.println(ANSI_WHITE + "0. " + ANSI_WHITE + "Back to Main Menu" + ANSI_RESET);
             
-            choice = getValidChoice(0, 4, "\nSelect an option");
+            choice = getValidChoice(0, 14, "\nSelect an option");
             
             switch (choice) {
                 case 1:
@@ -288,7 +466,7 @@ public class Main {
                     break;
                 case 2:
                     System.out.print(ANSI_WHITE + "\nEnter Employee ID: " + ANSI_RESET);
-                    String empId = input.nextLine().trim();
+                    String empId = console().nextLine().trim();
                     payroll.monthlySalaryIndividual(empId);
                     break;
                 case 3:
@@ -297,6 +475,45 @@ public class Main {
                 case 4:
                     payroll.processOvertime();
                     break;
+                case 5:
+                    payroll.closePayPeriod(readPeriod());
+                    break;
+                case 6:
+                    System.out.print(ANSI_WHITE + "\nEnter Employee ID: " + ANSI_RESET);
+                    String ytdId = console().nextLine().trim();
+                    payroll.displayYearToDate(ytdId, readPeriod());
+                    break;
+                case 7:
+                    retroactivePayChange();
+                    break;
+                case 8:
+                    payroll.runMonthEndPipeline(readPeriod());
+                    break;
+                case 9:
+                    payroll.generatePaymentFile(readEffectiveDate());
+                    break;
+                case 10:
+                    YearMonth payslipPeriod = readPeriod();
+                    System.out.println(ANSI_CYAN + "\n1. Zip archive");
+                    System.out.println("2. Folder per department" + ANSI_RESET);
+                    payroll.generatePayslips(payslipPeriod, getValidChoice(1, 2, "\nOutput") == 1);
+                    break;
+                case 11:
+                    closePayPeriodAllCompanies(readPeriod());
+                    break;
+                case 12:
+                    distributedPayroll();
+                    break;
+                case 13:
+                    YearMonth leavePeriod = readPeriod();
+                    System.out.print(ANSI_WHITE + "Leave taken file (Enter for none): " + ANSI_RESET);
+                    String leaveFile = console().nextLine().trim();
+                    payroll.runLeaveAccrual(leavePeriod, leaveFile.isEmpty() ? null : leaveFile);
+                    break;
+                case 14:
+                    System.out.print(ANSI_WHITE + "Scenario file: " + ANSI_RESET);
+                    payroll.runScenarios(console().nextLine().trim());
+                    break;
             }
         } while (choice != 0);
     }
@@ -306,9 +523,54 @@ public class Main {
      */
     private static void updateHoursWorked() {
         System.out.print(ANSI_WHITE + "\nEnter Employee ID: " + ANSI_RESET);
-        String empId = input.nextLine().trim();
-        double hours = getValidDouble("Hours Worked", 0, 200);
-        payroll.updateEmployeeHours(empId, hours);
+        String empId = console().nextLine().trim();
+        System.out.println(ANSI_CYAN + "\nEnter hours as:");
+        System.out.println("1. Monthly Total");
+        System.out.println("2. Weekly Timesheet" + ANSI_RESET);
+        if (getValidChoice(1, 2, "\nEntry") == 1) {
+            double hours = getValidDouble("Hours Worked", 0, 200);
+            payroll.updateEmployeeHours(empId, hours);
+        } else {
+            YearMonth period = readPeriod();
+            double[] weeks = new double[Timesheet.weeksIn(period)];
+            for (int i = 0; i < weeks.length; i++) {
+                weeks[i] = getValidDouble("Week " + (i + 1) + " Hours", 0, 168);
+            }
+            payroll.updateEmployeeTimesheet(empId, Timesheet.ofWeeks(period, weeks));
+        }
+    }
+    
+    /**
+     * Enter a back-dated pay change for an employee or a department
+     */
+    private static void retroactivePayChange() {
+        System.out.println(ANSI_CYAN + "\nApply change to:");
+        System.out.println("1. One Employee (new value)");
+        System.out.println("2. Whole Department (percentage raise)" + ANSI_RESET);
+        int scope = getValidChoice(1, 2, "\nScope");
+        
+        System.out.print(ANSI_WHITE + (scope == 1 ? "Employee ID: " : "Department: ") + ANSI_RESET);
+        String target = console().nextLine().trim();
+        
+        System.out.println(ANSI_CYAN + "\nField to change:");
+        System.out.println("1. Base Salary");
+        System.out.println("2. Hourly Rate");
+        System.out.println("3. Benefits");
+        System.out.println("4. Contract Amount" + ANSI_RESET);
+        RetroChange.Field field = RetroChange.Field.values()[getValidChoice(1, 4, "\nField") - 1];
+        
+        System.out.println(ANSI_WHITE + "Effective from:" + ANSI_RESET);
+        YearMonth effective = readPeriod();
+        
+        RetroChange change;
+        if (scope == 1) {
+            double value = getValidDouble("New Value", 0, 10000000);
+            change = RetroChange.forEmployee(target, field, value, effective);
+        } else {
+            double percent = getValidDouble("Raise (%)", -100, 100);
+            change = RetroChange.forDepartment(target, field, percent, effective);
+        }
+        payroll.applyRetroChange(change);
     }
     
     /**
@@ -326,9 +588,10 @@ public class Main {
             System.out.println(ANSI_WHITE + "3. " + ANSI_CYAN + "Salary Statistics");
             System.out.println(ANSI_WHITE + "4. " + ANSI_CYAN + "Tax Summary Report");
             System.out.println(ANSI_WHITE + "5. " + ANSI_CYAN + "Export Reports");
+            System.out.println(ANSI_WHITE + "6. " + ANSI_CYAN + "Department × Type × Period Breakdown");
             System.out.println(ANSI_WHITE + "0. " + ANSI_WHITE + "Back to Main Menu" + ANSI_RESET);
             
-            choice = getValidChoice(0, 5, "\nSelect an option");
+            choice = getValidChoice(0, 6, "\nSelect an option");
             
             switch (choice) {
                 case 1:
@@ -346,6 +609,15 @@ public class Main {
                 case 5:
                     payroll.exportReports();
                     break;
+                case 6:
+                    System.out.print(ANSI_WHITE + "Pay Period (YYYY-MM, Enter for all periods): " + ANSI_RESET);
+                    String cubePeriod = console().nextLine().trim();
+                    try {
+                        payroll.generateCubeReport(cubePeriod.isEmpty() ? null : YearMonth.parse(cubePeriod));
+                    } catch (DateTimeParseException e) {
+                        System.out.println(ANSI_RED + "Invalid period format!" + ANSI_RESET);
+                    }
+                    break;
             }
         } while (choice != 0);
     }
@@ -364,9 +636,10 @@ public class Main {
             System.out.println(ANSI_WHITE + "2. " + ANSI_CYAN + "Restore Data");
             System.out.println(ANSI_WHITE + "3. " + ANSI_CYAN + "System Information");
             System.out.println(ANSI_WHITE + "4. " + ANSI_YELLOW + "Reset All Data");
+            System.out.println(ANSI_WHITE + "5. " + ANSI_CYAN + "Switch Company");
             System.out.println(ANSI_WHITE + "0. " + ANSI_WHITE + "Back to Main Menu" + ANSI_RESET);
             
-            choice = getValidChoice(0, 4, "\nSelect an option");
+            choice = getValidChoice(0, 5, "\nSelect an option");
             
             switch (choice) {
                 case 1:
@@ -381,6 +654,9 @@ public class Main {
                 case 4:
                     resetAllData();
                     break;
+                case 5:
+                    switchCompany();
+                    break;
             }
         } while (choice != 0);
     }
@@ -395,19 +671,102 @@ public class Main {
         
         System.out.println(ANSI_WHITE + "System Name: " + ANSI_CYAN + "Advanced Payroll Management System");
         System.out.println(ANSI_WHITE + "Version: " + ANSI_CYAN + "2.0");
+        System.out.println(ANSI_WHITE + "Company: " + ANSI_CYAN + payroll.getCompany());
         System.out.println(ANSI_WHITE + "Total Employees: " + ANSI_CYAN + payroll.getTotalEmployees());
         System.out.println(ANSI_WHITE + "Active Employees: " + ANSI_CYAN + payroll.getActiveEmployees());
         System.out.println(ANSI_WHITE + "Current Date: " + ANSI_CYAN + LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
         System.out.println(ANSI_WHITE + "Java Version: " + ANSI_CYAN + System.getProperty("java.version") + ANSI_RESET);
     }
     
+    /**
+     * Switch to another company, or create a new one; its data is loaded on first use
+     */
+    private static void switchCompany() {
+        System.out.println(ANSI_CYAN + "\nCompanies:" + ANSI_RESET);
+        for (String company : companies.getCompanies()) {
+            System.out.println(ANSI_WHITE + "  " + company +
+                    (company.equals(payroll.getCompany()) ? ANSI_GREEN + " (current)" : "") + ANSI_RESET);
+        }
+        System.out.print(ANSI_WHITE + "Company code (new codes create a company): " + ANSI_RESET);
+        String code = console().nextLine().trim();
+        if (code.isEmpty()) {
+            return;
+        }
+        
+        try {
+            payroll = companies.get(code);
+            System.out.println(ANSI_GREEN + "✓ Now working on company " + payroll.getCompany() +
+                    " (" + payroll.getTotalEmployees() + " employees)" + ANSI_RESET);
+        } catch (IllegalArgumentException e) {
+            System.out.println(ANSI_RED + "✗ " + e.getMessage() + ANSI_RESET);
+        }
+    }
+    
+    /**
+     * Run the payroll on worker processes started with --worker PORT
+     */
+    private static void distributedPayroll() {
+        System.out.print(ANSI_WHITE + "\nWorker ports (comma-separated): " + ANSI_RESET);
+        List<InetSocketAddress> workers = new ArrayList<>();
+        for (String port : console().nextLine().split(",")) {
+            if (port.isBlank()) continue;
+            try {
+                workers.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(port.trim())));
+            } catch (IllegalArgumentException e) {
+                System.out.println(ANSI_RED + "✗ Invalid port: " + port.trim() + ANSI_RESET);
+                return;
+            }
+        }
+        if (workers.isEmpty()) {
+            System.out.println(ANSI_YELLOW + "No workers given; the payroll will be computed locally." + ANSI_RESET);
+        }
+        payroll.calculateDistributedPayroll(workers);
+    }
+    
+    /**
+     * Close a pay period for every company in parallel and show the consolidated totals
+     */
+    private static void closePayPeriodAllCompanies(YearMonth period) {
+        ConsolidatedSummary summary;
+        try {
+            summary = companies.closePayPeriod(period);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println(ANSI_RED + "✗ Payroll run interrupted." + ANSI_RESET);
+            return;
+        }
+        
+        System.out.println(ANSI_CYAN + "\n" + "═".repeat(80));
+        System.out.println(ANSI_BOLD + "            CONSOLIDATED PAYROLL (" + period + ", all companies)" + ANSI_RESET);
+        System.out.println(ANSI_CYAN + "═".repeat(80) + ANSI_RESET);
+        System.out.printf(ANSI_BOLD + "%-20s %-10s %-16s %-16s %-16s%n" + ANSI_RESET,
+                "Company", "Employees", "Gross", "Tax", "Net");
+        System.out.println(ANSI_BLUE + "-".repeat(80) + ANSI_RESET);
+        
+        for (Map.Entry<String, PayTotals> entry : summary.getCompanyTotals().entrySet()) {
+            PayTotals totals = entry.getValue();
+            System.out.printf(ANSI_WHITE + "%-20s %-10d $%-15.2f $%-15.2f $%-15.2f%n" + ANSI_RESET,
+                    entry.getKey(), totals.getCount(), totals.getGrossSalary(), totals.getTax(), totals.getNetSalary());
+        }
+        
+        PayTotals all = summary.getTotals();
+        System.out.println(ANSI_BLUE + "-".repeat(80) + ANSI_RESET);
+        System.out.printf(ANSI_BOLD + ANSI_GREEN + "%-20s %-10d $%-15.2f $%-15.2f $%-15.2f%n" + ANSI_RESET,
+                "TOTAL", all.getCount(), all.getGrossSalary(), all.getTax(), all.getNetSalary());
+        
+        for (Map.Entry<String, String> failure : summary.getFailures().entrySet()) {
+            System.out.println(ANSI_RED + "✗ " + failure.getKey() + ": " + failure.getValue() + ANSI_RESET);
+        }
+        System.out.println(ANSI_WHITE + "Completed in " + summary.getElapsedMillis() + " ms" + ANSI_RESET);
+    }
+    
     /**
      * Reset all data with confirmation
      */
     private static void resetAllData() {
         System.out.println(ANSI_RED + "\n⚠️  WARNING: This will delete ALL employee data!" + ANSI_RESET);
         System.out.print(ANSI_YELLOW + "Type 'CONFIRM' to proceed: " + ANSI_RESET);
-        String confirmation = input.nextLine().trim();
+        String confirmation = console().nextLine().trim();
         
         if ("CONFIRM".equals(confirmation)) {
             payroll.resetAllData();
@@ -419,6 +778,16 @@ public class Main {
     
     // Utility Methods
     
+    /**
+     * Console input, created on first use so commands and servers never open System.in
+     */
+    private static Scanner console() {
+        if (input == null) {
+            input = new Scanner(System.in);
+        }
+        return input;
+    }
+    
     /**
      * Get valid integer choice within range
      */
@@ -429,15 +798,15 @@ public class Main {
         do {
             try {
                 System.out.print(ANSI_WHITE + prompt + " (" + min + "-" + max + "): " + ANSI_RESET);
-                choice = input.nextInt();
-                input.nextLine(); // consume newline
+                choice = console().nextInt();
+                console().nextLine(); // consume newline
                 valid = choice >= min && choice <= max;
                 
                 if (!valid) {
                     System.out.println(ANSI_RED + "Invalid choice! Please enter a number between " + min + " and " + max + ANSI_RESET);
                 }
             } catch (Exception e) {
-                input.nextLine(); // consume invalid input
+                console().nextLine(); // consume invalid input
                 System.out.println(ANSI_RED + "Invalid input! Please enter a valid number." + ANSI_RESET);
                 choice = -1;
                 valid = false;
@@ -457,15 +826,15 @@ public class Main {
         do {
             try {
                 System.out.print(ANSI_WHITE + fieldName + " (Min: " + min + ", Max: " + max + "): " + ANSI_RESET);
-                value = input.nextDouble();
-                input.nextLine(); // consume newline
+                value = console().nextDouble();
+                console().nextLine(); // consume newline
                 valid = value >= min && value <= max;
                 
                 if (!valid) {
                     System.out.println(ANSI_RED + "Invalid value! Please enter a number between " + min + " and " + max + ANSI_RESET);
                 }
             } catch (Exception e) {
-                input.nextLine(); // consume invalid input
+                console().nextLine(); // consume invalid input
                 System.out.println(ANSI_RED + "Invalid input! Please enter a valid number." + ANSI_RESET);
                 value = -1;
                 valid = false;
@@ -475,6 +844,42 @@ public class Main {
         return value;
     }
     
+    /**
+     * Read a pay period, defaulting to the current month
+     */
+    private static YearMonth readPeriod() {
+        YearMonth current = YearMonth.now();
+        System.out.print(ANSI_WHITE + "Pay Period (YYYY-MM, Enter for " + current + "): " + ANSI_RESET);
+        String text = console().nextLine().trim();
+        if (text.isEmpty()) {
+            return current;
+        }
+        try {
+            return YearMonth.parse(text);
+        } catch (DateTimeParseException e) {
+            System.out.println(ANSI_YELLOW + "Invalid period format. Using " + current + "." + ANSI_RESET);
+            return current;
+        }
+    }
+    
+    /**
+     * Read a payment effective date, defaulting to tomorrow
+     */
+    private static LocalDate readEffectiveDate() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        System.out.print(ANSI_WHITE + "Effective Date (YYYY-MM-DD, Enter for " + tomorrow + "): " + ANSI_RESET);
+        String text = console().nextLine().trim();
+        if (text.isEmpty()) {
+            return tomorrow;
+        }
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            System.out.println(ANSI_YELLOW + "Invalid date format. Using " + tomorrow + "." + ANSI_RESET);
+            return tomorrow;
+        }
+    }
+    
     /**
      * Parse date string to LocalDate
      */
@@ -0,0 +1,362 @@
+package advancepayrollmanagementsystem;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OffHeapEmployeeStore keeps the payroll fields of millions of employees outside the Java
+ * heap, so month-end runs over them put no pressure on the garbage collector.
+ *
+ * Each employee is one fixed-width record in direct memory, in chunks of CHUNK_RECORDS:
+ *
+ *   offset  0  type (byte), flags (byte: active, project completed)
+ *           8  employee ID, 16 first name, 24 last name, 32 department (string references)
+ *          40  hours worked
+ *          48  base salary / hourly rate / contract amount
+ *          56  monthly bonus (full-time) / contract start epoch day (contract)
+ *          64  benefits (full-time) / contract end epoch day (contract)
+ *          72  overtime hours, 80 overtime pay
+ *
+ * Strings are UTF-8 bytes in an arena of direct pages; a string reference packs the arena
+ * offset and the length into one long. Repeated departments share one copy.
+ *
+ * Records are read through a View, a flyweight moved from record to record, so a pass over
+ * the store creates no object per employee. Overtime is evaluated under the active overtime
+ * plan when an employee is stored. Contract pay is pro-rated as of the payroll calendar when
+ * it is read, as it is for ContractEmployee.
+ *
+ * PayrollSystem loads its employees into a store and totals payroll over it when run with
+ * -Dpayroll.offHeapStore=true, reloading the store after the employee list changes.
+ *
+ * The store is written by one thread and then read by any number of threads, each with its
+ * own View. close() releases the memory: every view fails from then on, and the direct
+ * buffers are returned when the collector next finds them unreachable.
+ */
+public final class OffHeapEmployeeStore implements AutoCloseable {
+    private static final int RECORD_BYTES = 88;
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+    private static final int PAGE_BYTES = 1 << 20;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private static final byte FULL_TIME = 0;
+    private static final byte PART_TIME = 1;
+    private static final byte CONTRACT = 2;
+    private static final byte ACTIVE = 1;
+    private static final byte COMPLETED = 2;
+
+    // Record field offsets
+    private static final int TYPE = 0;
+    private static final int FLAGS = 1;
+    private static final int EMPLOYEE_ID = 8;
+    private static final int FIRST_NAME = 16;
+    private static final int LAST_NAME = 24;
+    private static final int DEPARTMENT = 32;
+    private static final int HOURS = 40;
+    private static final int AMOUNT = 48;
+    private static final int EXTRA_1 = 56;
+    private static final int EXTRA_2 = 64;
+    private static final int OVERTIME_HOURS = 72;
+    private static final int OVERTIME_PAY = 80;
+
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private ByteBuffer[] pages = new ByteBuffer[4];
+    private int pageCount;
+    private int pagePosition = PAGE_BYTES;
+    private int size;
+    private final Map<String, Long> departments = new HashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Store employees
+     * @param employees Full-time, part-time and contract employees
+     * @return store holding them in the same order
+     */
+    public static OffHeapEmployeeStore of(Iterable<Employee> employees) {
+        OffHeapEmployeeStore store = new OffHeapEmployeeStore();
+        for (Employee emp : employees) {
+            store.add(emp);
+        }
+        return store;
+    }
+
+    /**
+     * Append an employee's payroll fields
+     * @param emp Full-time, part-time or contract employee
+     * @return index of the employee's record
+     */
+    public int add(Employee emp) {
+        checkOpen();
+        // Exact classes only: a subclass may calculate its pay differently
+        byte type;
+        if (emp.getClass() == FullTimeEmployee.class) {
+            type = FULL_TIME;
+        } else if (emp.getClass() == PartTimeEmployee.class) {
+            type = PART_TIME;
+        } else if (emp.getClass() == ContractEmployee.class) {
+            type = CONTRACT;
+        } else {
+            throw new IllegalArgumentException("Unsupported employee type: " + emp.getEmployeeType());
+        }
+
+        int index = size;
+        int chunk = index >>> CHUNK_SHIFT;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_BYTES).order(ByteOrder.nativeOrder());
+        }
+        ByteBuffer records = chunks[chunk];
+        int at = (index & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+
+        byte flags = emp.isActive() ? ACTIVE : 0;
+        records.put(at + TYPE, type);
+        records.putLong(at + EMPLOYEE_ID, putString(emp.getEmployeeId()));
+        records.putLong(at + FIRST_NAME, putString(emp.getFirstName()));
+        records.putLong(at + LAST_NAME, putString(emp.getLastName()));
+        String department = emp.getDepartment() != null ? emp.getDepartment() : "";
+        Long departmentRef = departments.get(department);
+        if (departmentRef == null) {
+            departmentRef = putString(department);
+            departments.put(department, departmentRef);
+        }
+        records.putLong(at + DEPARTMENT, departmentRef);
+        records.putDouble(at + HOURS, emp.getHoursWorked());
+
+        if (type == CONTRACT) {
+            ContractEmployee ct = (ContractEmployee) emp;
+            if (ct.isProjectCompleted()) flags |= COMPLETED;
+            long startDay = ct.getContractStartDate() != null ? ct.getContractStartDate().toEpochDay() : 0;
+            long endDay = ct.getContractEndDate() != null ? ct.getContractEndDate().toEpochDay() : startDay;
+            records.putDouble(at + AMOUNT, ct.getContractAmount());
+            records.putLong(at + EXTRA_1, startDay);
+            records.putLong(at + EXTRA_2, endDay);
+        } else {
+            OvertimePlan.Result overtime = OvertimePlan.active().evaluate(emp);
+            if (type == FULL_TIME) {
+                FullTimeEmployee ft = (FullTimeEmployee) emp;
+                records.putDouble(at + AMOUNT, ft.getBaseSalary());
+                records.putDouble(at + EXTRA_1, ft.getMonthlyBonus());
+                records.putDouble(at + EXTRA_2, ft.getBenefits());
+            } else {
+                records.putDouble(at + AMOUNT, emp.getHourlyRate());
+            }
+            records.putDouble(at + OVERTIME_HOURS, overtime.getHours());
+            records.putDouble(at + OVERTIME_PAY, overtime.getPay());
+        }
+        records.put(at + FLAGS, flags);
+        size++;
+        return index;
+    }
+
+    /**
+     * Copy a string into the arena
+     * @return packed reference: arena offset << 16 | byte length
+     */
+    private long putString(String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String too long for the employee store: " + bytes.length + " bytes");
+        }
+        if (pagePosition + bytes.length > PAGE_BYTES) {
+            if (pageCount == pages.length) {
+                pages = Arrays.copyOf(pages, pages.length * 2);
+            }
+            pages[pageCount++] = ByteBuffer.allocateDirect(PAGE_BYTES);
+            pagePosition = 0;
+        }
+        long offset = (long) (pageCount - 1) * PAGE_BYTES + pagePosition;
+        pages[pageCount - 1].put(pagePosition, bytes);
+        pagePosition += bytes.length;
+        return offset << 16 | bytes.length;
+    }
+
+    private String getString(long reference) {
+        long offset = reference >>> 16;
+        byte[] bytes = new byte[(int) (reference & 0xFFFF)];
+        pages[(int) (offset / PAGE_BYTES)].get((int) (offset % PAGE_BYTES), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get a view for reading records; each thread needs its own
+     * @return view positioned at the first record
+     */
+    public View view() {
+        checkOpen();
+        return new View();
+    }
+
+    /**
+     * Total the pay of the active employees, reading the records in place
+     * @return totals of gross, tax, net, hours and overtime, equal to PayrollSystem.getPayrollTotals()
+     */
+    public PayTotals getPayrollTotals() {
+        View view = view();
+        int count = 0;
+        double gross = 0, tax = 0, net = 0, hours = 0, overtime = 0;
+        for (int i = 0; i < size; i++) {
+            view.moveTo(i);
+            if (!view.isActive()) continue;
+            double salary = view.calculateSalary();
+            double withheld = view.calculateTax(salary);
+            count++;
+            gross += salary;
+            tax += withheld;
+            net += salary - withheld;
+            hours += view.getHoursWorked();
+            overtime += view.getOvertimePay();
+        }
+        return new PayTotals(count, gross, tax, net, hours, overtime);
+    }
+
+    /**
+     * Release the off-heap memory; every view fails after this
+     */
+    @Override
+    public void close() {
+        closed = true;
+        chunks = null;
+        pages = null;
+        departments.clear();
+    }
+
+    // Getters
+    public int size() { return size; }
+    public boolean isClosed() { return closed; }
+    public long getOffHeapBytes() {
+        checkOpen();
+        long bytes = (long) pageCount * PAGE_BYTES;
+        for (ByteBuffer chunk : chunks) {
+            if (chunk != null) bytes += chunk.capacity();
+        }
+        return bytes;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Employee store is closed");
+        }
+    }
+
+    /**
+     * Flyweight over one record at a time. Numeric getters read the record in place; string
+     * getters decode a new String.
+     */
+    public final class View {
+        private ByteBuffer records;
+        private int at;
+        private int index = -1;
+
+        private View() {
+        }
+
+        /**
+         * Position the view on a record
+         * @param index Record index
+         * @return this view
+         */
+        public View moveTo(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Record " + index + " of " + size);
+            }
+            ByteBuffer[] current = chunks;
+            if (current == null) {
+                throw new IllegalStateException("Employee store is closed");
+            }
+            this.records = current[index >>> CHUNK_SHIFT];
+            this.at = (index & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+            this.index = index;
+            return this;
+        }
+
+        private ByteBuffer records() {
+            if (closed) {
+                records = null;
+                throw new IllegalStateException("Employee store is closed");
+            }
+            if (records == null) {
+                throw new IllegalStateException("View is not positioned on a record");
+            }
+            return records;
+        }
+
+        public double calculateSalary() {
+            ByteBuffer r = records();
+            switch (r.get(at + TYPE)) {
+                case FULL_TIME:
+                    return r.getDouble(at + AMOUNT) + r.getDouble(at + EXTRA_1) + r.getDouble(at + EXTRA_2)
+                            + r.getDouble(at + OVERTIME_PAY);
+                case PART_TIME:
+                    return (r.getDouble(at + HOURS) - r.getDouble(at + OVERTIME_HOURS)) * r.getDouble(at + AMOUNT)
+                            + r.getDouble(at + OVERTIME_PAY);
+                default:
+                    double amount = r.getDouble(at + AMOUNT);
+                    if ((r.get(at + FLAGS) & COMPLETED) != 0) return amount;
+                    long startDay = r.getLong(at + EXTRA_1);
+                    long totalDays = r.getLong(at + EXTRA_2) - startDay;
+                    long daysElapsed = BusinessCalendar.current().getAsOfEpochDay() - startDay;
+                    if (totalDays <= 0) return amount;
+                    return amount * Math.max(0.0, Math.min(1.0, (double) daysElapsed / totalDays));
+            }
+        }
+
+        public double calculateTax() {
+            return calculateTax(calculateSalary());
+        }
+
+        /**
+         * Tax on a monthly gross salary, with the brackets of the employee's type
+         */
+        public double calculateTax(double grossSalary) {
+            switch (records().get(at + TYPE)) {
+                case FULL_TIME:
+                    return bracketTax(grossSalary, FullTimeEmployee.FIRST_BRACKET, FullTimeEmployee.SECOND_BRACKET,
+                            FullTimeEmployee.FIRST_RATE, FullTimeEmployee.SECOND_RATE, FullTimeEmployee.TOP_RATE);
+                case PART_TIME:
+                    return bracketTax(grossSalary, PartTimeEmployee.FIRST_BRACKET, PartTimeEmployee.SECOND_BRACKET,
+                            PartTimeEmployee.FIRST_RATE, PartTimeEmployee.SECOND_RATE, PartTimeEmployee.TOP_RATE);
+                default:
+                    return grossSalary * ContractEmployee.TAX_RATE;
+            }
+        }
+
+        public double calculateNetSalary() {
+            double gross = calculateSalary();
+            return gross - calculateTax(gross);
+        }
+
+        // Getters
+        public int getIndex() { return index; }
+        public boolean isActive() { return (records().get(at + FLAGS) & ACTIVE) != 0; }
+        public String getEmployeeType() {
+            byte type = records().get(at + TYPE);
+            return type == FULL_TIME ? "Full-Time" : type == PART_TIME ? "Part-Time" : "Contract";
+        }
+        public String getEmployeeId() { return getString(records().getLong(at + EMPLOYEE_ID)); }
+        public String getFirstName() { return getString(records().getLong(at + FIRST_NAME)); }
+        public String getLastName() { return getString(records().getLong(at + LAST_NAME)); }
+        public String getDepartment() { return getString(records().getLong(at + DEPARTMENT)); }
+        public double getHoursWorked() { return records().getDouble(at + HOURS); }
+        public double getOvertimePay() { return records().getDouble(at + OVERTIME_PAY); }
+    }
+
+    /**
+     * Progressive tax, with the same operations in the same order as the employee classes
+     */
+    private static double bracketTax(double grossSalary, double firstBracket, double secondBracket,
+                                     double firstRate, double secondRate, double topRate) {
+        if (grossSalary <= firstBracket) {
+            return grossSalary * firstRate;
+        } else if (grossSalary <= secondBracket) {
+            return firstBracket * firstRate + (grossSalary - firstBracket) * secondRate;
+        }
+        return firstBracket * firstRate + (secondBracket - firstBracket) * secondRate
+                + (grossSalary - secondBracket) * topRate;
+    }
+}
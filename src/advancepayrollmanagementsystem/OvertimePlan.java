@@ -0,0 +1,332 @@
+package advancepayrollmanagementsystem;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * OvertimePlan is a compiled OvertimeRules: the rules of every employee type laid out in
+ * flat arrays indexed by type, with each type's weekly tiers stored contiguously in ascending
+ * threshold order. Evaluating an employee finds the type's slot and makes one pass over the
+ * timesheet's weeks (or days), producing overtime hours and pay together.
+ *
+ * An employee without a timesheet is evaluated as four equal weeks of their monthly hours,
+ * the 40-hour week times four behind the 160-hour month.
+ *
+ * A week that starts in the previous month is evaluated as the whole week: the timesheet's
+ * prior week hours fill the tiers first, and this month is paid the overtime of the hours
+ * above them. Over two months the week pays what it would inside one month. Daily overtime
+ * needs no carrying, as each day belongs to one month.
+ *
+ * Plans are immutable and shared by all threads. The active plan is compiled from the rules
+ * file the first time pay is calculated. A run computed for another process, such as a
+ * distributed payroll partition, pins that process's plan for its length instead.
+ */
+public final class OvertimePlan {
+    private static final int WEEKS_WITHOUT_TIMESHEET = 4;
+
+    private static volatile OvertimePlan active;
+    private static volatile OvertimePlan pinned;
+    private static int pinCount;
+    private static final Object PIN_LOCK = new Object();
+
+    // Interned employee types; slot t of every per-type array belongs to types[t]
+    private final String[] types;
+    // Weekly tiers of type t are [tierStart[t], tierStart[t + 1])
+    private final int[] tierStart;
+    private final double[] tierThreshold;
+    private final double[] tierMultiplier;
+    private final boolean[] limitToSchedule;
+    private final double[] dailyThreshold;
+    private final double[] dailyMultiplier;
+    private final double[] weeklyCap;
+
+    OvertimePlan(String[] types, int[] tierStart, double[] tierThreshold, double[] tierMultiplier,
+                 boolean[] limitToSchedule, double[] dailyThreshold, double[] dailyMultiplier, double[] weeklyCap) {
+        this.types = types;
+        this.tierStart = tierStart;
+        this.tierThreshold = tierThreshold;
+        this.tierMultiplier = tierMultiplier;
+        this.limitToSchedule = limitToSchedule;
+        this.dailyThreshold = dailyThreshold;
+        this.dailyMultiplier = dailyMultiplier;
+        this.weeklyCap = weeklyCap;
+    }
+
+    /**
+     * Get the plan pay calculations use: the one pinned by the running payroll, or the active one
+     * @return current plan
+     */
+    public static OvertimePlan active() {
+        OvertimePlan plan = pinned;
+        if (plan != null) return plan;
+        plan = active;
+        if (plan == null) {
+            synchronized (OvertimePlan.class) {
+                plan = active;
+                if (plan == null) {
+                    plan = OvertimeRules.load().compile();
+                    active = plan;
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Replace the active plan
+     * @param plan Compiled rules
+     */
+    public static void setActive(OvertimePlan plan) {
+        active = plan;
+    }
+
+    /**
+     * Pin the plan for a payroll run; close the pin when the run ends.
+     * Runs pinned to equal plans share the pin. A run with another plan waits until
+     * the pinned runs have finished.
+     * @param plan Plan of the run
+     * @return pin to close at the end of the run
+     */
+    public static Pin pin(OvertimePlan plan) {
+        synchronized (PIN_LOCK) {
+            while (pinCount > 0 && !pinned.equals(plan)) {
+                try {
+                    PIN_LOCK.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for the overtime plan");
+                }
+            }
+            if (pinCount == 0) {
+                pinned = plan;
+            }
+            pinCount++;
+        }
+        return new Pin();
+    }
+
+    /**
+     * Write the plan, for a process that has to pay by the same rules
+     * @param out Stream to write to
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(types.length);
+        for (int t = 0; t < types.length; t++) {
+            out.writeUTF(types[t]);
+            out.writeBoolean(limitToSchedule[t]);
+            out.writeDouble(dailyThreshold[t]);
+            out.writeDouble(dailyMultiplier[t]);
+            out.writeDouble(weeklyCap[t]);
+            out.writeInt(tierStart[t + 1] - tierStart[t]);
+            for (int k = tierStart[t]; k < tierStart[t + 1]; k++) {
+                out.writeDouble(tierThreshold[k]);
+                out.writeDouble(tierMultiplier[k]);
+            }
+        }
+    }
+
+    /**
+     * Read a plan written by writeTo()
+     * @param in Stream to read from
+     * @return plan
+     * @throws IOException if the stream fails or does not hold a plan
+     */
+    public static OvertimePlan readFrom(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > 1024) {
+            throw new IOException("Bad overtime plan");
+        }
+        String[] types = new String[count];
+        int[] tierStart = new int[count + 1];
+        boolean[] limitToSchedule = new boolean[count];
+        double[] dailyThreshold = new double[count];
+        double[] dailyMultiplier = new double[count];
+        double[] weeklyCap = new double[count];
+        double[] tierThreshold = new double[0];
+        double[] tierMultiplier = new double[0];
+        for (int t = 0; t < count; t++) {
+            types[t] = in.readUTF().intern();
+            limitToSchedule[t] = in.readBoolean();
+            dailyThreshold[t] = in.readDouble();
+            dailyMultiplier[t] = in.readDouble();
+            weeklyCap[t] = in.readDouble();
+            int tiers = in.readInt();
+            if (tiers < 0 || tiers > 1024) {
+                throw new IOException("Bad overtime plan");
+            }
+            int k = tierStart[t];
+            tierStart[t + 1] = k + tiers;
+            tierThreshold = Arrays.copyOf(tierThreshold, k + tiers);
+            tierMultiplier = Arrays.copyOf(tierMultiplier, k + tiers);
+            for (; k < tierStart[t + 1]; k++) {
+                tierThreshold[k] = in.readDouble();
+                tierMultiplier[k] = in.readDouble();
+            }
+        }
+        return new OvertimePlan(types, tierStart, tierThreshold, tierMultiplier, limitToSchedule,
+                dailyThreshold, dailyMultiplier, weeklyCap);
+    }
+
+    /**
+     * Evaluate an employee's overtime for the current pay period
+     * @param emp Employee
+     * @return overtime hours and pay
+     */
+    public Result evaluate(Employee emp) {
+        int t = typeIndex(emp.getEmployeeType());
+        if (t < 0) return Result.NONE;
+
+        Result result = new Result();
+        double rate = emp.getOvertimeBaseRate();
+        double schedule = emp.getScheduledWeeklyHours();
+        Timesheet sheet = emp.getTimesheet();
+
+        if (sheet == null) {
+            evaluateWeek(t, 0, emp.getHoursWorked() / WEEKS_WITHOUT_TIMESHEET, 0, schedule, rate, result);
+            result.hours *= WEEKS_WITHOUT_TIMESHEET;
+            result.pay *= WEEKS_WITHOUT_TIMESHEET;
+        } else if (!sheet.hasDailyHours() || dailyThreshold[t] == Double.POSITIVE_INFINITY) {
+            double prior = sheet.getPriorWeekHours();
+            for (double week : sheet.weeklyHours()) {
+                evaluateWeek(t, prior, week, 0, schedule, rate, result);
+                prior = 0;
+            }
+        } else {
+            double[] days = sheet.dailyHours();
+            double threshold = dailyThreshold[t];
+            int dayOfWeek = Timesheet.firstWeekOffset(sheet.getPeriod());
+            double prior = sheet.getPriorWeekHours();
+            double week = 0;
+            double dailyExcess = 0;
+            for (double day : days) {
+                week += day;
+                if (day > threshold) dailyExcess += day - threshold;
+                if (++dayOfWeek == 7) {
+                    evaluateWeek(t, prior, week, dailyExcess, schedule, rate, result);
+                    prior = 0;
+                    dayOfWeek = 0;
+                    week = 0;
+                    dailyExcess = 0;
+                }
+            }
+            if (dayOfWeek != 0) {
+                evaluateWeek(t, prior, week, dailyExcess, schedule, rate, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add one week's overtime: tier by tier up to the weekly cap, or the daily overtime if it pays more.
+     * The week's hours follow the prior hours worked in it in the previous month, which were paid there.
+     */
+    private void evaluateWeek(int t, double prior, double hours, double dailyExcess, double schedule, double rate,
+                              Result result) {
+        double total = prior + hours;
+        double weeklyHours = 0;
+        double weeklyPay = 0;
+        int end = tierStart[t + 1];
+        if (end > tierStart[t]) {
+            // The tiers are contiguous, so the cap ends overtime at a fixed hour of the week
+            double first = tierThreshold[tierStart[t]];
+            if (limitToSchedule[t]) first = Math.min(first, schedule);
+            double capEnd = first + weeklyCap[t];
+            for (int k = tierStart[t]; k < end; k++) {
+                double from = k == tierStart[t] ? first : tierThreshold[k];
+                double to = k + 1 < end ? tierThreshold[k + 1] : Double.POSITIVE_INFINITY;
+                double band = Math.min(Math.min(total, to), capEnd) - Math.max(from, prior);
+                if (band > 0) {
+                    weeklyHours += band;
+                    weeklyPay += band * rate * tierMultiplier[k];
+                }
+            }
+        }
+
+        double dailyHours = Math.min(dailyExcess, weeklyCap[t]);
+        double dailyPay = dailyHours * rate * dailyMultiplier[t];
+        if (dailyPay > weeklyPay) {
+            result.hours += dailyHours;
+            result.pay += dailyPay;
+        } else {
+            result.hours += weeklyHours;
+            result.pay += weeklyPay;
+        }
+    }
+
+    // Compiled rules of type t, for the columnar PayrollKernel
+    int tierCount(int t) { return tierStart[t + 1] - tierStart[t]; }
+    double tierThreshold(int t, int k) { return tierThreshold[tierStart[t] + k]; }
+    double tierMultiplier(int t, int k) { return tierMultiplier[tierStart[t] + k]; }
+    boolean limitsToSchedule(int t) { return limitToSchedule[t]; }
+    double weeklyCap(int t) { return weeklyCap[t]; }
+    static int weeksWithoutTimesheet() { return WEEKS_WITHOUT_TIMESHEET; }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof OvertimePlan)) return false;
+        OvertimePlan plan = (OvertimePlan) other;
+        return Arrays.equals(types, plan.types) && Arrays.equals(tierStart, plan.tierStart)
+                && Arrays.equals(tierThreshold, plan.tierThreshold) && Arrays.equals(tierMultiplier, plan.tierMultiplier)
+                && Arrays.equals(limitToSchedule, plan.limitToSchedule) && Arrays.equals(dailyThreshold, plan.dailyThreshold)
+                && Arrays.equals(dailyMultiplier, plan.dailyMultiplier) && Arrays.equals(weeklyCap, plan.weeklyCap);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(types) + Arrays.hashCode(tierThreshold);
+    }
+
+    int typeIndex(String type) {
+        for (int t = 0; t < types.length; t++) {
+            if (types[t] == type) return t;
+        }
+        for (int t = 0; t < types.length; t++) {
+            if (types[t].equals(type)) return t;
+        }
+        return -1;
+    }
+
+    /**
+     * Releases a pinned plan
+     */
+    public static final class Pin implements AutoCloseable {
+        private boolean closed;
+
+        private Pin() {
+        }
+
+        @Override
+        public void close() {
+            synchronized (PIN_LOCK) {
+                if (closed) return;
+                closed = true;
+                if (--pinCount == 0) {
+                    pinned = null;
+                    PIN_LOCK.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Overtime hours and pay of one employee for one pay period
+     */
+    public static final class Result {
+        static final Result NONE = new Result();
+
+        private double hours;
+        private double pay;
+
+        private Result() {
+        }
+
+        // Getters
+        public double getHours() { return hours; }
+        public double getPay() { return pay; }
+        public boolean hasOvertime() { return hours > 0; }
+    }
+}
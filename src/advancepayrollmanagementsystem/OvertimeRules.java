@@ -0,0 +1,193 @@
+package advancepayrollmanagementsystem;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * OvertimeRules is the declarative overtime policy, one rule per line:
+ *
+ *   Full-Time  weekly > 40 x1.5             hours over 40 in a week are paid at 1.5 times the rate
+ *   Full-Time  weekly > 60 x2.0             ... and hours over 60 at twice the rate
+ *   Part-Time  weekly > 40 x1.5 schedule    the threshold is lowered to the employee's scheduled weekly hours
+ *   Full-Time  daily > 10 x1.5              hours over 10 in a day (timesheets entered by day only)
+ *   Part-Time  cap 20                       at most 20 overtime hours are paid per week
+ *
+ * The first word is the employee type as reported by getEmployeeType(); types without rules
+ * earn no overtime. '#' starts a comment. The rate is the employee's overtime base rate:
+ * the hourly rate, or for salaried employees the monthly salary over 160 hours. When both
+ * daily and weekly rules apply to a week, the week is paid by whichever gives more, never both.
+ *
+ * Rules are read from overtime_rules.txt (or the file named by -Dpayroll.overtimeRules) if it
+ * exists, and otherwise are the STANDARD rules. They are compiled once into an OvertimePlan,
+ * which is what pay calculations evaluate.
+ */
+public final class OvertimeRules {
+    /**
+     * The policy the employee classes have always applied: 40 hours a week at time and a half
+     */
+    public static final String STANDARD =
+            "Full-Time  weekly > 40 x1.5\n" +
+            "Part-Time  weekly > 40 x1.5 schedule\n";
+
+    private static final String RULES_FILE = System.getProperty("payroll.overtimeRules", "overtime_rules.txt");
+
+    private final Map<String, TypeRules> types = new LinkedHashMap<>();
+
+    private OvertimeRules() {
+    }
+
+    /**
+     * Parse a rule set
+     * @param text Rules, one per line
+     * @return rules
+     * @throws IllegalArgumentException naming the first line that is not a valid rule
+     */
+    public static OvertimeRules parse(String text) {
+        OvertimeRules rules = new OvertimeRules();
+        String[] lines = text.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].replaceFirst("#.*", "").trim();
+            if (line.isEmpty()) continue;
+            try {
+                rules.add(line.split("\\s+"));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Overtime rule line " + (i + 1) + " '" + line + "': " + e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Read the rules file, or the STANDARD rules if there is none
+     * @return rules
+     */
+    public static OvertimeRules load() {
+        Path file = Paths.get(RULES_FILE);
+        if (Files.exists(file)) {
+            try {
+                return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("✗ Error reading overtime rules from " + file + ": " + e.getMessage());
+            }
+        }
+        return parse(STANDARD);
+    }
+
+    /**
+     * Compile the rules into a flat evaluation plan
+     * @return plan
+     */
+    public OvertimePlan compile() {
+        int count = types.size();
+        String[] names = new String[count];
+        int[] tierStart = new int[count + 1];
+        boolean[] limitToSchedule = new boolean[count];
+        double[] dailyThreshold = new double[count];
+        double[] dailyMultiplier = new double[count];
+        double[] weeklyCap = new double[count];
+
+        int tiers = 0;
+        for (TypeRules rules : types.values()) tiers += rules.weekly.size();
+        double[] tierThreshold = new double[tiers];
+        double[] tierMultiplier = new double[tiers];
+
+        int t = 0;
+        int k = 0;
+        for (Map.Entry<String, TypeRules> entry : types.entrySet()) {
+            TypeRules rules = entry.getValue();
+            names[t] = entry.getKey().intern();
+            tierStart[t] = k;
+            for (Map.Entry<Double, Double> tier : rules.weekly.entrySet()) {
+                tierThreshold[k] = tier.getKey();
+                tierMultiplier[k] = tier.getValue();
+                k++;
+            }
+            limitToSchedule[t] = rules.limitToSchedule;
+            dailyThreshold[t] = rules.dailyThreshold;
+            dailyMultiplier[t] = rules.dailyMultiplier;
+            weeklyCap[t] = rules.weeklyCap;
+            t++;
+        }
+        tierStart[count] = k;
+        return new OvertimePlan(names, tierStart, tierThreshold, tierMultiplier, limitToSchedule,
+                dailyThreshold, dailyMultiplier, weeklyCap);
+    }
+
+    private void add(String[] words) {
+        if (words.length < 3) throw new IllegalArgumentException("incomplete rule");
+        TypeRules rules = types.computeIfAbsent(words[0], type -> new TypeRules());
+        String kind = words[1].toLowerCase(Locale.ROOT);
+        switch (kind) {
+            case "cap":
+                if (words.length != 3) throw new IllegalArgumentException("expected: <type> cap <hours>");
+                rules.weeklyCap = hours(words[2]);
+                break;
+            case "weekly":
+            case "daily":
+                if (words.length < 5 || !words[2].equals(">") || !words[4].toLowerCase(Locale.ROOT).startsWith("x")) {
+                    throw new IllegalArgumentException("expected: <type> " + kind + " > <hours> x<multiplier>");
+                }
+                double threshold = hours(words[3]);
+                double multiplier = multiplier(words[4].substring(1));
+                boolean schedule = words.length == 6 && words[5].equalsIgnoreCase("schedule");
+                if (words.length > 6 || (words.length == 6 && !schedule) || (schedule && kind.equals("daily"))) {
+                    throw new IllegalArgumentException("unexpected '" + words[words.length - 1] + "'");
+                }
+                if (kind.equals("daily")) {
+                    if (rules.dailyThreshold != Double.POSITIVE_INFINITY) {
+                        throw new IllegalArgumentException("only one daily rule per type");
+                    }
+                    rules.dailyThreshold = threshold;
+                    rules.dailyMultiplier = multiplier;
+                } else {
+                    if (rules.weekly.put(threshold, multiplier) != null) {
+                        throw new IllegalArgumentException("duplicate weekly threshold");
+                    }
+                    rules.limitToSchedule |= schedule;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown rule '" + words[1] + "'");
+        }
+    }
+
+    private static double hours(String word) {
+        double hours = number(word);
+        if (hours < 0) throw new IllegalArgumentException("hours must not be negative");
+        return hours;
+    }
+
+    private static double multiplier(String word) {
+        double multiplier = number(word);
+        if (multiplier < 1) throw new IllegalArgumentException("multiplier must be at least 1");
+        return multiplier;
+    }
+
+    private static double number(String word) {
+        try {
+            double value = Double.parseDouble(word);
+            if (Double.isNaN(value) || Double.isInfinite(value)) throw new NumberFormatException();
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + word + "' is not a number");
+        }
+    }
+
+    /**
+     * Rules of one employee type as written, before compilation
+     */
+    private static final class TypeRules {
+        final TreeMap<Double, Double> weekly = new TreeMap<>();
+        boolean limitToSchedule;
+        double dailyThreshold = Double.POSITIVE_INFINITY;
+        double dailyMultiplier = 1;
+        double weeklyCap = Double.POSITIVE_INFINITY;
+    }
+}
@@ -7,6 +7,13 @@ package advancepayrollmanagementsystem;
 public class PartTimeEmployee extends Employee {
     private static final long serialVersionUID = 1L;
     
+    // Monthly tax brackets, shared with the columnar PayrollKernel
+    static final double FIRST_BRACKET = 30000.0;
+    static final double SECOND_BRACKET = 60000.0;
+    static final double FIRST_RATE = 0.03;
+    static final double SECOND_RATE = 0.08;
+    static final double TOP_RATE = 0.12;
+    
     private double maxHoursPerWeek;
     private boolean eligibleForBenefits;
     
@@ -39,33 +46,47 @@ public class PartTimeEmployee extends Employee {
     
     @Override
     public double calculateSalary() {
-        double totalHours = getHoursWorked();
-        double regularPay = 0;
-        double overtimePay = 0;
-        
-        // Regular hours (up to 40 hours per week or maxHoursPerWeek * 4)
-        double maxRegularHours = Math.min(40 * 4, maxHoursPerWeek * 4); // Monthly limit
-        
-        if (totalHours <= maxRegularHours) {
-            regularPay = totalHours * getHourlyRate();
-        } else {
-            regularPay = maxRegularHours * getHourlyRate();
-            overtimePay = (totalHours - maxRegularHours) * getHourlyRate() * 1.5;
-        }
-        
-        return regularPay + overtimePay;
+        return calculateSalary(OvertimePlan.active().evaluate(this));
+    }
+    
+    /**
+     * Calculate the salary with the overtime already evaluated
+     * @param overtime Overtime hours and pay for the period
+     * @return gross salary
+     */
+    double calculateSalary(OvertimePlan.Result overtime) {
+        // Regular hours at the hourly rate, overtime hours as the overtime rules pay them
+        double regularPay = (getHoursWorked() - overtime.getHours()) * getHourlyRate();
+        return regularPay + overtime.getPay();
+    }
+    
+    @Override
+    public double getOvertimePay() {
+        return OvertimePlan.active().evaluate(this).getPay();
+    }
+    
+    @Override
+    public double getScheduledWeeklyHours() {
+        return maxHoursPerWeek;
     }
     
     @Override
     public double calculateTax() {
-        double grossSalary = calculateSalary();
+        return calculateTax(calculateSalary(), 1);
+    }
+    
+    @Override
+    public double calculateTax(double grossSalary, int periods) {
+        double firstBracket = FIRST_BRACKET * periods;
+        double secondBracket = SECOND_BRACKET * periods;
         // Part-time employees typically have lower tax rates
-        if (grossSalary <= 30000) {
-            return grossSalary * 0.03; // 3% tax
-        } else if (grossSalary <= 60000) {
-            return 30000 * 0.03 + (grossSalary - 30000) * 0.08; // 3% + 8%
+        if (grossSalary <= firstBracket) {
+            return grossSalary * FIRST_RATE; // 3% tax
+        } else if (grossSalary <= secondBracket) {
+            return firstBracket * FIRST_RATE + (grossSalary - firstBracket) * SECOND_RATE; // 3% + 8%
         } else {
-            return 30000 * 0.03 + 30000 * 0.08 + (grossSalary - 60000) * 0.12; // 3% + 8% + 12%
+            return firstBracket * FIRST_RATE + (secondBracket - firstBracket) * SECOND_RATE
+                    + (grossSalary - secondBracket) * TOP_RATE; // 3% + 8% + 12%
         }
     }
     
@@ -0,0 +1,74 @@
+package advancepayrollmanagementsystem;
+
+/**
+ * PayTotals accumulates gross, tax, net, hours and overtime over one or more pay periods.
+ * It is used for period footers, year-to-date figures and report totals.
+ */
+public class PayTotals {
+    private int count;
+    private double grossSalary;
+    private double tax;
+    private double netSalary;
+    private double hoursWorked;
+    private double overtimePay;
+    
+    public PayTotals() {
+    }
+    
+    /**
+     * Constructor for PayTotals with existing values
+     */
+    public PayTotals(int count, double grossSalary, double tax, double netSalary,
+                     double hoursWorked, double overtimePay) {
+        this.count = count;
+        this.grossSalary = grossSalary;
+        this.tax = tax;
+        this.netSalary = netSalary;
+        this.hoursWorked = hoursWorked;
+        this.overtimePay = overtimePay;
+    }
+    
+    /**
+     * Add a single payroll result
+     * @param result Result to add
+     * @return this accumulator
+     */
+    public PayTotals add(PayrollResult result) {
+        count++;
+        grossSalary += result.getGrossSalary();
+        tax += result.getTax();
+        netSalary += result.getNetSalary();
+        hoursWorked += result.getHoursWorked();
+        overtimePay += result.getOvertimePay();
+        return this;
+    }
+    
+    /**
+     * Add another set of totals
+     * @param other Totals to add
+     * @return this accumulator
+     */
+    public PayTotals add(PayTotals other) {
+        count += other.count;
+        grossSalary += other.grossSalary;
+        tax += other.tax;
+        netSalary += other.netSalary;
+        hoursWorked += other.hoursWorked;
+        overtimePay += other.overtimePay;
+        return this;
+    }
+    
+    // Getters
+    public int getCount() { return count; }
+    public double getGrossSalary() { return grossSalary; }
+    public double getTax() { return tax; }
+    public double getNetSalary() { return netSalary; }
+    public double getHoursWorked() { return hoursWorked; }
+    public double getOvertimePay() { return overtimePay; }
+    
+    @Override
+    public String toString() {
+        return String.format("PayTotals{Count=%d, Gross=%.2f, Tax=%.2f, Net=%.2f}",
+                count, grossSalary, tax, netSalary);
+    }
+}
@@ -0,0 +1,374 @@
+package advancepayrollmanagementsystem;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * PaymentFileGenerator writes the direct-deposit file for a payroll in the NACHA (ACH) layout:
+ * fixed-width 94-character records, blocked in tens.
+ *
+ *   1  File Header
+ *   5  Batch Header          one batch per department
+ *   6  Entry Detail          one credit per active employee with bank details
+ *   8  Batch Control         entry count, entry hash and credit total of the batch
+ *   9  File Control          batch, block and entry counts, hash and totals of the file
+ *   9999...                  padding to a full block
+ *
+ * Control totals and hash counts are accumulated while the entries are written, so the file
+ * is produced in a single pass. Fields are encoded straight into a reusable byte buffer,
+ * without building a String per record.
+ */
+public class PaymentFileGenerator {
+    public static final int RECORD_LENGTH = 94;
+
+    private static final int BLOCKING_FACTOR = 10;
+    private static final int SERVICE_CLASS_CREDITS = 220;
+    private static final int CHECKING_CREDIT = 22;
+    private static final long ENTRY_HASH_MODULUS = 10_000_000_000L;
+    private static final long MAX_AMOUNT_CENTS = 9_999_999_999L;
+
+    private final String companyName;
+    private final String companyId;
+    private final String originRouting;
+    private final String destinationRouting;
+    private final String destinationName;
+
+    // Results of the last generate()
+    private int batchCount;
+    private int entryCount;
+    private int skipped;
+    private long totalCreditCents;
+    private long entryHash;
+    private long recordCount;
+
+    /**
+     * Constructor for PaymentFileGenerator
+     * @param companyName Originating company name
+     * @param companyId Company identification (10 characters)
+     * @param originRouting Routing number of the originating bank (ODFI)
+     * @param destinationRouting Routing number of the receiving ACH operator
+     * @param destinationName Name of the receiving ACH operator
+     */
+    public PaymentFileGenerator(String companyName, String companyId, String originRouting,
+                                String destinationRouting, String destinationName) {
+        if (!isValidRoutingNumber(originRouting) || !isValidRoutingNumber(destinationRouting)) {
+            throw new IllegalArgumentException("Invalid routing number");
+        }
+        this.companyName = companyName;
+        this.companyId = companyId;
+        this.originRouting = originRouting;
+        this.destinationRouting = destinationRouting;
+        this.destinationName = destinationName;
+    }
+
+    /**
+     * Write the payment file for all active employees.
+     * Employees without bank details or without positive net pay are skipped.
+     * The file is written to a temporary file first and moved into place when complete.
+     * @param employees Employees to pay
+     * @param effectiveDate Date the credits should settle
+     * @param file Destination file
+     * @throws IOException if the file cannot be written
+     */
+    public void generate(List<Employee> employees, LocalDate effectiveDate, File file) throws IOException {
+        batchCount = 0;
+        entryCount = 0;
+        skipped = 0;
+        totalCreditCents = 0;
+        entryHash = 0;
+        recordCount = 0;
+
+        // Batches are per department, so group the references (not the data) first
+        List<Employee> payees = new ArrayList<>(employees.size());
+        for (Employee emp : employees) {
+            if (emp.isActive()) payees.add(emp);
+        }
+        payees.sort(Comparator.comparing(Employee::getDepartment));
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (RecordWriter out = new RecordWriter(new FileOutputStream(temp))) {
+            writeFileHeader(out, LocalDateTime.now());
+
+            String department = null;
+            int batchEntries = 0;
+            long batchHash = 0;
+            long batchCredit = 0;
+            for (Employee emp : payees) {
+                long cents = Math.round(emp.calculateNetSalary() * 100);
+                if (!emp.hasBankAccount() || cents <= 0 || cents > MAX_AMOUNT_CENTS) {
+                    skipped++;
+                    continue;
+                }
+
+                if (!emp.getDepartment().equals(department)) {
+                    if (department != null) {
+                        writeBatchControl(out, batchEntries, batchHash, batchCredit);
+                    }
+                    department = emp.getDepartment();
+                    batchCount++;
+                    batchEntries = 0;
+                    batchHash = 0;
+                    batchCredit = 0;
+                    writeBatchHeader(out, department, effectiveDate);
+                }
+
+                entryCount++;
+                batchEntries++;
+                batchHash += routingPrefix(emp.getBankRoutingNumber());
+                batchCredit += cents;
+                writeEntry(out, emp, cents);
+            }
+            if (department != null) {
+                writeBatchControl(out, batchEntries, batchHash, batchCredit);
+            }
+
+            writeFileControl(out);
+            while (out.getRecords() % BLOCKING_FACTOR != 0) {
+                out.begin('9');
+                out.fill(2, RECORD_LENGTH - 1, (byte) '9');
+                out.end();
+            }
+            recordCount = out.getRecords();
+        }
+
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeFileHeader(RecordWriter out, LocalDateTime now) throws IOException {
+        out.begin('1');
+        out.text(2, 2, "01");                         // priority code
+        out.text(5, 9, destinationRouting);           // immediate destination (position 4 blank)
+        out.text(15, 9, originRouting);               // immediate origin (position 14 blank)
+        out.date(24, now.toLocalDate());              // file creation date
+        out.number(30, 2, now.getHour());             // file creation time
+        out.number(32, 2, now.getMinute());
+        out.text(34, 1, "A");                         // file ID modifier
+        out.number(35, 3, RECORD_LENGTH);             // record size
+        out.number(38, 2, BLOCKING_FACTOR);
+        out.text(40, 1, "1");                         // format code
+        out.text(41, 23, destinationName);
+        out.text(64, 23, companyName);
+        out.end();
+    }
+
+    private void writeBatchHeader(RecordWriter out, String department, LocalDate effectiveDate) throws IOException {
+        out.begin('5');
+        out.number(2, 3, SERVICE_CLASS_CREDITS);
+        out.text(5, 16, companyName);
+        out.text(21, 20, department);                 // company discretionary data
+        out.text(41, 10, companyId);
+        out.text(51, 3, "PPD");                       // standard entry class
+        out.text(54, 10, "PAYROLL");                  // company entry description
+        out.date(64, effectiveDate);                  // company descriptive date
+        out.date(70, effectiveDate);                  // effective entry date
+        out.text(79, 1, "1");                         // originator status code
+        out.text(80, 8, originRouting);               // originating DFI (first 8 digits)
+        out.number(88, 7, batchCount);
+        out.end();
+    }
+
+    private void writeEntry(RecordWriter out, Employee emp, long cents) throws IOException {
+        String routing = emp.getBankRoutingNumber();
+        out.begin('6');
+        out.number(2, 2, CHECKING_CREDIT);
+        out.text(4, 9, routing);                      // receiving DFI + check digit
+        out.text(13, 17, emp.getBankAccountNumber());
+        out.number(30, 10, cents);
+        out.text(40, 15, emp.getEmployeeId());
+        out.text(55, 22, emp.getFullName());
+        out.number(79, 1, 0);                         // addenda record indicator
+        out.text(80, 8, originRouting);               // trace number: ODFI + sequence
+        out.number(88, 7, entryCount);
+        out.end();
+    }
+
+    private void writeBatchControl(RecordWriter out, int entries, long hash, long credit) throws IOException {
+        out.begin('8');
+        out.number(2, 3, SERVICE_CLASS_CREDITS);
+        out.number(5, 6, entries);
+        out.number(11, 10, hash % ENTRY_HASH_MODULUS);
+        out.number(21, 12, 0);                        // total debits
+        out.number(33, 12, credit);
+        out.text(45, 10, companyId);
+        out.text(80, 8, originRouting);
+        out.number(88, 7, batchCount);
+        out.end();
+
+        entryHash += hash;
+        totalCreditCents += credit;
+    }
+
+    private void writeFileControl(RecordWriter out) throws IOException {
+        long records = out.getRecords() + 1;
+        out.begin('9');
+        out.number(2, 6, batchCount);
+        out.number(8, 6, (records + BLOCKING_FACTOR - 1) / BLOCKING_FACTOR);
+        out.number(14, 8, entryCount);
+        out.number(22, 10, entryHash % ENTRY_HASH_MODULUS);
+        out.number(32, 12, 0);
+        out.number(44, 12, totalCreditCents);
+        out.end();
+    }
+
+    /**
+     * Check a 9-digit ABA routing number against its check digit
+     * @param routing Routing number
+     * @return true if the routing number is well formed
+     */
+    public static boolean isValidRoutingNumber(String routing) {
+        if (routing == null || routing.length() != 9) return false;
+        int[] weights = { 3, 7, 1 };
+        int sum = 0;
+        for (int i = 0; i < 9; i++) {
+            char c = routing.charAt(i);
+            if (c < '0' || c > '9') return false;
+            sum += (c - '0') * weights[i % 3];
+        }
+        return sum % 10 == 0;
+    }
+
+    /**
+     * Check that an account number fits the 17-character DFI account field
+     * @param account Account number
+     * @return true if the account number can be used
+     */
+    public static boolean isValidAccountNumber(String account) {
+        if (account == null || account.isEmpty() || account.length() > 17) return false;
+        for (int i = 0; i < account.length(); i++) {
+            char c = account.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'A' && c <= 'Z') && !(c >= 'a' && c <= 'z') && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Numeric value of the first 8 digits of a routing number, as added to the entry hash
+     */
+    private static long routingPrefix(String routing) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value * 10 + (routing.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    // Results of the last generate()
+    public int getBatchCount() { return batchCount; }
+    public int getEntryCount() { return entryCount; }
+    public int getSkipped() { return skipped; }
+    public long getTotalCreditCents() { return totalCreditCents; }
+    public double getTotalCredit() { return totalCreditCents / 100.0; }
+    public long getEntryHash() { return entryHash % ENTRY_HASH_MODULUS; }
+    public long getRecordCount() { return recordCount; }
+
+    /**
+     * Encodes fixed-width records directly into a byte buffer.
+     * Positions are 1-based, as in the NACHA record layouts.
+     */
+    private static final class RecordWriter implements AutoCloseable {
+        private static final int LINE = RECORD_LENGTH + 1;
+
+        private final OutputStream out;
+        private final byte[] buffer = new byte[LINE * 2048];
+        private int start;
+        private long records;
+
+        RecordWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        /**
+         * Start a blank record of the given type
+         */
+        void begin(char recordType) throws IOException {
+            if (start + LINE > buffer.length) {
+                flush();
+            }
+            fill(1, RECORD_LENGTH, (byte) ' ');
+            buffer[start] = (byte) recordType;
+        }
+
+        /**
+         * Finish the current record
+         */
+        void end() {
+            buffer[start + RECORD_LENGTH] = '\n';
+            start += LINE;
+            records++;
+        }
+
+        void fill(int position, int width, byte value) {
+            int offset = start + position - 1;
+            for (int i = 0; i < width; i++) {
+                buffer[offset + i] = value;
+            }
+        }
+
+        /**
+         * Alphanumeric field: upper case, left justified, blank filled, truncated to width
+         */
+        void text(int position, int width, String value) {
+            if (value == null) return;
+            int offset = start + position - 1;
+            int length = Math.min(width, value.length());
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 'a' && c <= 'z') {
+                    c -= 'a' - 'A';
+                } else if (c < ' ' || c > '~') {
+                    c = ' ';
+                }
+                buffer[offset + i] = (byte) c;
+            }
+        }
+
+        /**
+         * Numeric field: right justified, zero filled
+         */
+        void number(int position, int width, long value) {
+            int offset = start + position - 1;
+            for (int i = width - 1; i >= 0; i--) {
+                buffer[offset + i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+
+        /**
+         * Date field in YYMMDD form
+         */
+        void date(int position, LocalDate date) {
+            number(position, 2, date.getYear() % 100);
+            number(position + 2, 2, date.getMonthValue());
+            number(position + 4, 2, date.getDayOfMonth());
+        }
+
+        long getRecords() {
+            return records;
+        }
+
+        private void flush() throws IOException {
+            out.write(buffer, 0, start);
+            start = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package advancepayrollmanagementsystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PayrollBatch computes the pay of a mixed list of employees one employee type at a time.
+ *
+ * A loop over a list that mixes full-time, part-time and contract employees calls
+ * calculateSalary() and calculateTax() through call sites that see all three classes, so the
+ * JIT can inline none of them. A batch keeps the employees partitioned by concrete class,
+ * each in an array of that class, and runs a separate loop per class. Every call site in a
+ * loop sees exactly one class, so the calls and the overtime evaluation behind them are
+ * inlined. Knowing the class also lets each loop evaluate an employee's overtime once, where
+ * calculateSalary(), calculateTax() and getOvertimePay() each evaluate it again; the results
+ * are the same. Results go into arrays shared by all the loops, indexed by the employee's
+ * position in the original list, so they come out in the original order.
+ *
+ * The partitions hold references only; pay, hours and status are read when compute() runs.
+ * Rebuild the batch when employees are added or removed.
+ */
+public final class PayrollBatch {
+    private final Employee[] employees;
+    private final FullTimeEmployee[] fullTime;
+    private final int[] fullTimePosition;
+    private final PartTimeEmployee[] partTime;
+    private final int[] partTimePosition;
+    private final ContractEmployee[] contract;
+    private final int[] contractPosition;
+    // Subclasses of the standard types, through the general call sites
+    private final Employee[] other;
+    private final int[] otherPosition;
+
+    private PayrollBatch(List<Employee> employees) {
+        this.employees = employees.toArray(new Employee[0]);
+        int n = this.employees.length;
+        FullTimeEmployee[] ft = new FullTimeEmployee[n];
+        PartTimeEmployee[] pt = new PartTimeEmployee[n];
+        ContractEmployee[] ct = new ContractEmployee[n];
+        Employee[] others = new Employee[n];
+        int[] ftAt = new int[n], ptAt = new int[n], ctAt = new int[n], othersAt = new int[n];
+        int fts = 0, pts = 0, cts = 0, otherCount = 0;
+        for (int i = 0; i < n; i++) {
+            Employee emp = this.employees[i];
+            Class<?> type = emp.getClass();
+            if (type == FullTimeEmployee.class) {
+                ftAt[fts] = i;
+                ft[fts++] = (FullTimeEmployee) emp;
+            } else if (type == PartTimeEmployee.class) {
+                ptAt[pts] = i;
+                pt[pts++] = (PartTimeEmployee) emp;
+            } else if (type == ContractEmployee.class) {
+                ctAt[cts] = i;
+                ct[cts++] = (ContractEmployee) emp;
+            } else {
+                othersAt[otherCount] = i;
+                others[otherCount++] = emp;
+            }
+        }
+        this.fullTime = Arrays.copyOf(ft, fts);
+        this.fullTimePosition = Arrays.copyOf(ftAt, fts);
+        this.partTime = Arrays.copyOf(pt, pts);
+        this.partTimePosition = Arrays.copyOf(ptAt, pts);
+        this.contract = Arrays.copyOf(ct, cts);
+        this.contractPosition = Arrays.copyOf(ctAt, cts);
+        this.other = Arrays.copyOf(others, otherCount);
+        this.otherPosition = Arrays.copyOf(othersAt, otherCount);
+    }
+
+    /**
+     * Partition employees by concrete class
+     * @param employees Employees, active or not
+     * @return batch over the employees
+     */
+    public static PayrollBatch partition(List<Employee> employees) {
+        return new PayrollBatch(employees);
+    }
+
+    /**
+     * Compute the pay of every active employee
+     * @return results in the order of the employees
+     */
+    public Results compute() {
+        Results results = new Results(employees);
+        OvertimePlan plan = OvertimePlan.active();
+        computeFullTime(plan, results);
+        computePartTime(plan, results);
+        computeContract(results);
+        computeOther(results);
+        return results;
+    }
+
+    // The four loops are deliberately separate: each call site must see a single class
+
+    private void computeFullTime(OvertimePlan plan, Results results) {
+        FullTimeEmployee[] batch = fullTime;
+        int[] position = fullTimePosition;
+        for (int j = 0; j < batch.length; j++) {
+            FullTimeEmployee emp = batch[j];
+            if (!emp.isActive()) continue;
+            double overtimePay = plan.evaluate(emp).getPay();
+            double gross = emp.calculateSalary(overtimePay);
+            results.set(position[j], emp, gross, emp.calculateTax(gross, 1), overtimePay);
+        }
+    }
+
+    private void computePartTime(OvertimePlan plan, Results results) {
+        PartTimeEmployee[] batch = partTime;
+        int[] position = partTimePosition;
+        for (int j = 0; j < batch.length; j++) {
+            PartTimeEmployee emp = batch[j];
+            if (!emp.isActive()) continue;
+            OvertimePlan.Result overtime = plan.evaluate(emp);
+            double gross = emp.calculateSalary(overtime);
+            results.set(position[j], emp, gross, emp.calculateTax(gross, 1), overtime.getPay());
+        }
+    }
+
+    private void computeContract(Results results) {
+        ContractEmployee[] batch = contract;
+        int[] position = contractPosition;
+        for (int j = 0; j < batch.length; j++) {
+            ContractEmployee emp = batch[j];
+            if (!emp.isActive()) continue;
+            double gross = emp.calculateSalary();
+            results.set(position[j], emp, gross, emp.calculateTax(gross, 1), 0); // contracts pay no overtime
+        }
+    }
+
+    private void computeOther(Results results) {
+        for (int j = 0; j < other.length; j++) {
+            Employee emp = other[j];
+            if (!emp.isActive()) continue;
+            // A subclass may override calculateTax() alone, so it is called as PayrollResult.of does
+            results.set(otherPosition[j], emp, emp.calculateSalary(), emp.calculateTax(), emp.getOvertimePay());
+        }
+    }
+
+    // Getters
+    public int size() { return employees.length; }
+    public int getFullTimeCount() { return fullTime.length; }
+    public int getPartTimeCount() { return partTime.length; }
+    public int getContractCount() { return contract.length; }
+
+    /**
+     * Pay of one compute(), by position in the batch's employee list
+     */
+    public static final class Results {
+        private final Employee[] employees;
+        private final boolean[] computed;
+        private final double[] gross;
+        private final double[] tax;
+        private final double[] overtime;
+        // Read while the employee is at hand, so totalling does not visit the employees again
+        private final double[] hours;
+
+        private Results(Employee[] employees) {
+            int n = employees.length;
+            this.employees = employees;
+            this.computed = new boolean[n];
+            this.gross = new double[n];
+            this.tax = new double[n];
+            this.overtime = new double[n];
+            this.hours = new double[n];
+        }
+
+        private void set(int i, Employee emp, double grossSalary, double taxes, double overtimePay) {
+            computed[i] = true;
+            gross[i] = grossSalary;
+            tax[i] = taxes;
+            overtime[i] = overtimePay;
+            hours[i] = emp.getHoursWorked();
+        }
+
+        /**
+         * Total the active employees' pay in list order, as PayTotals.add(PayrollResult) does
+         * @return totals of gross, tax, net, hours and overtime
+         */
+        public PayTotals getTotals() {
+            int count = 0;
+            double grossTotal = 0, taxTotal = 0, net = 0, hoursTotal = 0, overtimeTotal = 0;
+            for (int i = 0; i < employees.length; i++) {
+                if (!computed[i]) continue;
+                count++;
+                grossTotal += gross[i];
+                taxTotal += tax[i];
+                net += gross[i] - tax[i];
+                hoursTotal += hours[i];
+                overtimeTotal += overtime[i];
+            }
+            return new PayTotals(count, grossTotal, taxTotal, net, hoursTotal, overtimeTotal);
+        }
+
+        /**
+         * Get the results of the active employees
+         * @return one result per active employee, in list order, equal to PayrollResult.of()
+         */
+        public List<PayrollResult> toPayrollResults() {
+            List<PayrollResult> results = new ArrayList<>();
+            for (int i = 0; i < employees.length; i++) {
+                if (!computed[i]) continue;
+                Employee emp = employees[i];
+                results.add(new PayrollResult(emp.getEmployeeId(), emp.getDepartment(), emp.getEmployeeType(),
+                        gross[i], tax[i], gross[i] - tax[i], hours[i], overtime[i]));
+            }
+            return results;
+        }
+
+        // Getters, by position in the batch
+        public boolean isComputed(int i) { return computed[i]; }
+        public double getGrossSalary(int i) { return gross[i]; }
+        public double getTax(int i) { return tax[i]; }
+        public double getOvertimePay(int i) { return overtime[i]; }
+        public double getHoursWorked(int i) { return hours[i]; }
+    }
+}
@@ -0,0 +1,879 @@
+package advancepayrollmanagementsystem;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PayrollBenchmark provides repeatable measurements for large synthetic payrolls.
+ * It is run from the command line and is not part of the interactive application.
+ *
+ * Usage:
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark heap [employees]
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark payments [employees]
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark payslips [employees]
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark distributed [employees] [workers]
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark startup [employees]
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark timeclock [employees]
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark kernel [employees]
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark offheap [employees]
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark batch [employees]
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark snapshots [employees]
+ *   java -cp bin advancepayrollmanagementsystem.PayrollBenchmark leave [employees]
+ */
+public class PayrollBenchmark {
+    /** Target retained heap per employee (object, strings and list slot) */
+    public static final long TARGET_HEAP_BYTES_PER_EMPLOYEE = 300;
+    /** Target time to write the payment file for one million payees */
+    public static final long TARGET_PAYMENT_FILE_MILLIS_PER_MILLION = 3000;
+    /** Target time from JVM launch to the first line of "totals" for 1,000 employees, with the CDS archive */
+    public static final long TARGET_STARTUP_MILLIS = 250;
+    /** Target rate of time-clock punches ingested, paired and applied */
+    public static final long TARGET_PUNCHES_PER_SECOND = 1_000_000;
+    private static final int PUNCH_READERS = 4;
+    /** Target speed-up of the columnar PayrollKernel over per-employee pay calculation */
+    public static final double TARGET_KERNEL_SPEEDUP = 3.0;
+    /**
+     * Target heap retained per employee held in an OffHeapEmployeeStore. The store keeps no
+     * object per employee, only a buffer per 65,536 records, string pages and the department
+     * map, so the figure falls as the employee count grows.
+     */
+    public static final long TARGET_OFF_HEAP_HEAP_BYTES_PER_EMPLOYEE = 8;
+    /** Target speed-up of a type-partitioned PayrollBatch over one loop across the mixed employee list */
+    public static final double TARGET_BATCH_SPEEDUP = 1.5;
+    /** Target cost to pin and release a snapshot of the employee list, whatever its size */
+    public static final long TARGET_SNAPSHOT_PIN_NANOS = 500;
+
+    private static final String[] DEPARTMENTS = {
+        "Engineering", "Finance", "Marketing", "Sales", "HR", "Customer Service", "IT Support", "Consulting"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Alice", "Bob", "Carol", "David", "Emma", "Frank", "Grace", "Henry", "Ivy", "Jack"
+    };
+    private static final String[] LAST_NAMES = {
+        "Johnson", "Smith", "Davis", "Wilson", "Brown", "Miller", "Taylor", "Anderson", "Thomas", "White"
+    };
+    private static final String[] PROJECTS = {
+        "ERP Implementation", "Mobile App Development", "Staff Training Program"
+    };
+    private static final String[] ROUTING_NUMBERS = {
+        "011000015", "021000021", "026009593", "121000248", "111000025"
+    };
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "heap";
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        switch (mode) {
+            case "heap":
+                measureHeap(count);
+                break;
+            case "payments":
+                measurePaymentFile(count);
+                break;
+            case "payslips":
+                measurePayslips(count);
+                break;
+            case "startup":
+                measureStartup(args.length > 1 ? count : 1_000);
+                break;
+            case "timeclock":
+                measureTimeClock(args.length > 1 ? count : 100_000);
+                break;
+            case "kernel":
+                measureKernel(count);
+                break;
+            case "offheap":
+                measureOffHeap(count);
+                break;
+            case "batch":
+                measureBatch(count);
+                break;
+            case "snapshots":
+                measureSnapshots(count);
+                break;
+            case "distributed":
+                measureDistributed(count, args.length > 2 ? Integer.parseInt(args[2]) : 4);
+                break;
+            case "leave":
+                measureLeave(count);
+                break;
+            default:
+                System.out.println("Unknown benchmark: " + mode);
+        }
+    }
+
+    /**
+     * Create a synthetic employee population with a realistic type mix.
+     * Repeated values are built as fresh String instances, the way they arrive
+     * from a data file or console input, and names are shared through a store
+     * dictionary as PayrollSystem does on load, so deduplication is actually exercised.
+     * @param count Number of employees to create
+     * @return list of employees
+     */
+    public static List<Employee> generateEmployees(int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        SharedDictionary dictionary = new SharedDictionary();
+        LocalDate contractEnd = LocalDate.now().plusMonths(6);
+
+        for (int i = 0; i < count; i++) {
+            String first = copyOf(FIRST_NAMES[i % FIRST_NAMES.length]);
+            String last = copyOf(LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length]);
+            String department = copyOf(DEPARTMENTS[i % DEPARTMENTS.length]);
+            String email = first.toLowerCase() + "." + last.toLowerCase() + i + "@company.com";
+            Employee emp;
+
+            switch (i % 10) {
+                case 7:
+                case 8:
+                    emp = new PartTimeEmployee(String.format("PT%07d", i), first, last, email, department,
+                            15 + (i % 20), 20 + (i % 20));
+                    emp.setHoursWorked(60 + (i % 120));
+                    break;
+                case 9:
+                    emp = new ContractEmployee(String.format("CT%07d", i), first, last, email, department,
+                            5000 + (i % 50) * 100, LocalDate.from(contractEnd),
+                            copyOf(PROJECTS[i % PROJECTS.length]));
+                    break;
+                default:
+                    emp = new FullTimeEmployee(String.format("FT%07d", i), first, last, email, department,
+                            3000 + (i % 70) * 100, 450 + (i % 70) * 15);
+                    emp.setHoursWorked(150 + (i % 30));
+            }
+            emp.shareValues(dictionary);
+            employees.add(emp);
+        }
+        return employees;
+    }
+
+    /**
+     * Copy a string including its backing array, as deserialization would
+     */
+    private static String copyOf(String value) {
+        return new String(value.toCharArray());
+    }
+
+    /**
+     * Measure retained heap per employee and compare it with the target
+     * @param count Number of employees to load
+     */
+    private static void measureHeap(int count) {
+        long before = usedHeap();
+        List<Employee> employees = generateEmployees(count);
+        // Touch the cached full name the way report loops do
+        for (Employee emp : employees) {
+            emp.getFullName();
+        }
+        long after = usedHeap();
+
+        double perEmployee = (double) (after - before) / employees.size();
+        System.out.printf("Employees loaded:       %,d%n", employees.size());
+        System.out.printf("Retained heap:          %,d bytes%n", after - before);
+        System.out.printf("Heap per employee:      %.1f bytes (target %d)%n", perEmployee, TARGET_HEAP_BYTES_PER_EMPLOYEE);
+        System.out.printf("Shared dictionary size: %d values%n", SharedDictionary.size());
+        System.out.println(perEmployee <= TARGET_HEAP_BYTES_PER_EMPLOYEE ? "✓ Within target" : "✗ Above target");
+    }
+
+    /**
+     * Measure the time to write the NACHA payment file and compare it with the target
+     * @param count Number of payees
+     */
+    private static void measurePaymentFile(int count) {
+        List<Employee> employees = generateEmployees(count);
+        for (int i = 0; i < employees.size(); i++) {
+            Employee emp = employees.get(i);
+            emp.setBankRoutingNumber(ROUTING_NUMBERS[i % ROUTING_NUMBERS.length]);
+            emp.setBankAccountNumber(Long.toString(100_000_000L + i * 7L));
+        }
+        PaymentFileGenerator generator = new PaymentFileGenerator("BENCHMARK CO", "1000000001",
+                "011000015", "011000015", "FEDERAL RESERVE BANK");
+
+        try {
+            File file = File.createTempFile("payments", ".ach");
+            file.deleteOnExit();
+            // Warm-up pass so the timed pass measures compiled code
+            generator.generate(employees, LocalDate.now().plusDays(1), file);
+            long start = System.nanoTime();
+            generator.generate(employees, LocalDate.now().plusDays(1), file);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            long target = TARGET_PAYMENT_FILE_MILLIS_PER_MILLION * count / 1_000_000;
+
+            System.out.printf("Payees written:         %,d in %d batches%n", generator.getEntryCount(), generator.getBatchCount());
+            System.out.printf("File size:              %,d bytes (%,d records)%n", file.length(), generator.getRecordCount());
+            System.out.printf("Total credit:           $%,.2f%n", generator.getTotalCredit());
+            System.out.printf("Write time:             %d ms (target %d ms)%n", millis, target);
+            System.out.printf("Throughput:             %,.0f payees/s%n", generator.getEntryCount() * 1000.0 / Math.max(1, millis));
+            System.out.println(millis <= target ? "✓ Within target" : "✗ Above target");
+        } catch (IOException e) {
+            System.out.println("✗ Error writing payment file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Measure payslip rendering throughput into a zip archive and into department directories
+     * @param count Number of employees
+     */
+    private static void measurePayslips(int count) {
+        List<Employee> employees = generateEmployees(count);
+        PayslipGenerator generator = new PayslipGenerator(PayslipTemplate.compile(PayslipTemplate.DEFAULT_TEXT, false));
+        YearMonth period = YearMonth.now();
+
+        try {
+            Path directory = Files.createTempDirectory("payslips");
+            for (PayslipGenerator.Output output : PayslipGenerator.Output.values()) {
+                Path target = directory.resolve(output == PayslipGenerator.Output.ZIP ? "payslips.zip" : output.name());
+                generator.generate(employees, period, output, target);
+                System.out.printf("%-24s%,d payslips, %,d bytes in %.2f s (%,.0f payslips/s)%n",
+                        output + ":", generator.getPayslips(), generator.getBytesWritten(),
+                        generator.getElapsedSeconds(), generator.getPayslipsPerSecond());
+            }
+            System.out.println("Output left in " + directory);
+        } catch (IOException e) {
+            System.out.println("✗ Error writing payslips: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Compare a local payroll run with one on worker processes started on this host, then
+     * kill a worker during a run and check that the merged results are unchanged
+     * @param count Number of employees
+     * @param workerCount Number of worker processes
+     */
+    private static void measureDistributed(int count, int workerCount) {
+        List<Employee> employees = generateEmployees(count);
+        List<Process> processes = new ArrayList<>();
+        try {
+            List<InetSocketAddress> workers = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                Process process = startWorker();
+                processes.add(process);
+                workers.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), readWorkerPort(process)));
+            }
+
+            long start = System.nanoTime();
+            List<Employee> sorted = new ArrayList<>(employees);
+            sorted.sort(Comparator.comparing(Employee::getEmployeeId));
+            List<PayrollResult> expected = new ArrayList<>(sorted.size());
+            for (Employee emp : sorted) {
+                if (emp.isActive()) expected.add(PayrollResult.of(emp));
+            }
+            double localSeconds = (System.nanoTime() - start) / 1e9;
+
+            DistributedPayroll coordinator = new DistributedPayroll(workers);
+            coordinator.compute(employees); // warm-up
+            List<PayrollResult> results = coordinator.compute(employees);
+            System.out.printf("Local run:              %,d employees in %.2f s%n", expected.size(), localSeconds);
+            System.out.printf("Distributed run:        %,d employees in %.2f s (%d workers, %d partitions)%n",
+                    results.size(), coordinator.getElapsedSeconds(), workerCount, coordinator.getPartitions());
+            System.out.println(sameResults(expected, results) ? "✓ Results match the local run" : "✗ Results differ from the local run");
+
+            // Kill one worker part way through the next run
+            long killAfter = (long) (coordinator.getElapsedSeconds() * 1000 / 3);
+            Thread killer = new Thread(() -> {
+                try {
+                    Thread.sleep(killAfter);
+                    processes.get(0).destroyForcibly();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            killer.start();
+            results = coordinator.compute(employees);
+            killer.join();
+            System.out.printf("Run with a killed worker: %.2f s, %d failed worker(s), %d partition(s) reassigned, %d local%n",
+                    coordinator.getElapsedSeconds(), coordinator.getFailedWorkers().size(),
+                    coordinator.getReassigned(), coordinator.getLocalPartitions());
+            System.out.println(sameResults(expected, results) ? "✓ Results match the local run" : "✗ Results differ from the local run");
+        } catch (IOException e) {
+            System.out.println("✗ Error starting workers: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Measure time-clock ingestion: badge readers on several threads punch every employee in
+     * and out for each weekday of the month, then the hours applied are checked
+     * @param count Number of employees
+     */
+    private static void measureTimeClock(int count) {
+        List<Employee> employees = generateEmployees(count);
+        java.util.Map<String, Employee> byId = new java.util.HashMap<>();
+        for (Employee emp : employees) {
+            byId.put(emp.getEmployeeId(), emp);
+        }
+        YearMonth period = YearMonth.now();
+        java.time.ZoneId zone = java.time.ZoneId.systemDefault();
+        List<LocalDate> weekdays = new ArrayList<>();
+        for (int day = 1; day <= period.lengthOfMonth(); day++) {
+            LocalDate date = period.atDay(day);
+            if (date.getDayOfWeek().getValue() <= 5) weekdays.add(date);
+        }
+
+        TimeClock clock = new TimeClock(byId::get, period, zone);
+        Thread[] readers = new Thread[PUNCH_READERS];
+        long start = System.nanoTime();
+        for (int r = 0; r < readers.length; r++) {
+            int reader = r;
+            readers[r] = new Thread(() -> {
+                // Each reader serves its own employees, so an employee's punches stay in order
+                for (LocalDate date : weekdays) {
+                    long shiftStart = date.atTime(8, 0).atZone(zone).toInstant().toEpochMilli();
+                    long shiftEnd = date.atTime(16, 30).atZone(zone).toInstant().toEpochMilli();
+                    for (int i = reader; i < employees.size(); i += readers.length) {
+                        clock.punch(employees.get(i).getEmployeeId(), shiftStart, true);
+                    }
+                    for (int i = reader; i < employees.size(); i += readers.length) {
+                        clock.punch(employees.get(i).getEmployeeId(), shiftEnd, false);
+                    }
+                }
+            }, "badge-reader");
+            readers[r].start();
+        }
+        try {
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        clock.flush();
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        clock.close();
+
+        long punches = 2L * count * weekdays.size();
+        double expected = 8.5 * weekdays.size();
+        int wrong = 0;
+        for (Employee emp : employees) {
+            if (Math.abs(emp.getHoursWorked() - expected) > 1e-6) wrong++;
+        }
+        long rate = punches * 1000 / millis;
+        System.out.printf("Punches ingested:       %,d from %d readers%n", punches, readers.length);
+        System.out.printf("Shifts paired:          %,d (unpaired %d)%n", clock.getPairedShifts(), clock.getUnpairedPunches());
+        System.out.printf("Ingest time:            %d ms%n", millis);
+        System.out.printf("Throughput:             %,d punches/s (target %,d)%n", rate, TARGET_PUNCHES_PER_SECOND);
+        System.out.printf("Hours applied:          %s (%.1f h each)%n",
+                wrong == 0 ? "all correct" : wrong + " employees wrong", expected);
+        System.out.println(rate >= TARGET_PUNCHES_PER_SECOND && wrong == 0 ? "✓ Within target" : "✗ Above target");
+    }
+
+    /**
+     * Time the monthly leave batch, then run the same period again with the same leave taken
+     * and check that no balance changes: a rerun neither accrues nor deducts twice
+     * @param count Number of employees
+     */
+    private static void measureLeave(int count) {
+        List<Employee> employees = generateEmployees(count);
+        java.util.Map<String, Employee> byId = new java.util.HashMap<>();
+        List<LeaveAccrual.Deduction> deductions = new ArrayList<>();
+        for (Employee emp : employees) {
+            byId.put(emp.getEmployeeId(), emp);
+            if (emp instanceof FullTimeEmployee && byId.size() % 3 == 0) {
+                deductions.add(new LeaveAccrual.Deduction(emp.getEmployeeId(), LeaveAccrual.LeaveType.VACATION, 0.5));
+                deductions.add(new LeaveAccrual.Deduction(emp.getEmployeeId(), LeaveAccrual.LeaveType.SICK, 0.25));
+            }
+        }
+        YearMonth period = YearMonth.now();
+        LeaveAccrual accrual = new LeaveAccrual(LeavePolicy.parse(LeavePolicy.STANDARD));
+        accrual.run(period, employees, byId::get, deductions);
+        int accrued = accrual.getEmployeesAccrued();
+        int applied = accrual.getDeductionsApplied();
+        double seconds = accrual.getElapsedSeconds();
+
+        double[] balances = new double[employees.size() * 2];
+        for (int i = 0; i < employees.size(); i++) {
+            if (employees.get(i) instanceof FullTimeEmployee) {
+                FullTimeEmployee ft = (FullTimeEmployee) employees.get(i);
+                balances[2 * i] = ft.getVacationBalance();
+                balances[2 * i + 1] = ft.getSickLeaveBalance();
+            }
+        }
+        accrual.run(period, employees, byId::get, deductions);
+        int changed = 0;
+        for (int i = 0; i < employees.size(); i++) {
+            if (employees.get(i) instanceof FullTimeEmployee) {
+                FullTimeEmployee ft = (FullTimeEmployee) employees.get(i);
+                if (ft.getVacationBalance() != balances[2 * i] || ft.getSickLeaveBalance() != balances[2 * i + 1]) changed++;
+            }
+        }
+
+        System.out.printf("Employees accrued:      %,d in %.3f s%n", accrued, seconds);
+        System.out.printf("Deductions applied:     %,d (%d rejected)%n", applied, deductions.size() - applied);
+        System.out.printf("Rerun of %s:       %,d accrued, %,d deducted, %,d balances changed%n", period,
+                accrual.getEmployeesAccrued(), accrual.getDeductionsApplied(), changed);
+        System.out.println(accrued > 0 && applied == deductions.size() && changed == 0
+                && accrual.getEmployeesAccrued() == 0 && accrual.getDeductionsApplied() == 0
+                ? "✓ Rerun changed nothing" : "✗ Rerun changed balances");
+    }
+
+    /**
+     * Compare per-employee pay calculation with the columnar PayrollKernel, after warming
+     * both up, and check that they agree on every employee and on the totals
+     * @param count Number of employees
+     */
+    private static void measureKernel(int count) {
+        List<Employee> employees = generateEmployees(count);
+        final int rounds = 10;
+        long scalarNanos = Long.MAX_VALUE;
+        long kernelNanos = Long.MAX_VALUE;
+        long gatherNanos = Long.MAX_VALUE;
+        PayTotals scalar = null;
+        PayrollKernel kernel = null;
+        int mismatches = 0;
+
+        BusinessCalendar.Pin pin = BusinessCalendar.pin(YearMonth.now());
+        try {
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                PayTotals totals = new PayTotals();
+                for (Employee emp : employees) {
+                    if (emp.isActive()) totals.add(PayrollResult.of(emp));
+                }
+                scalarNanos = Math.min(scalarNanos, System.nanoTime() - start);
+                scalar = totals;
+
+                start = System.nanoTime();
+                kernel = PayrollKernel.gather(employees);
+                gatherNanos = Math.min(gatherNanos, System.nanoTime() - start);
+                kernel.compute();
+                kernelNanos = Math.min(kernelNanos, (long) (kernel.getComputeSeconds() * 1e9));
+            }
+
+            int i = 0;
+            for (Employee emp : employees) {
+                if (!emp.isActive()) continue;
+                PayrollResult expected = PayrollResult.of(emp);
+                if (expected.getGrossSalary() != kernel.getGrossSalary(i) || expected.getTax() != kernel.getTax(i)
+                        || expected.getOvertimePay() != kernel.getOvertimePay(i)) {
+                    mismatches++;
+                }
+                i++;
+            }
+        } finally {
+            pin.close();
+        }
+
+        PayTotals columnar = kernel.getTotals();
+        boolean sameTotals = scalar.getGrossSalary() == columnar.getGrossSalary() && scalar.getTax() == columnar.getTax()
+                && scalar.getNetSalary() == columnar.getNetSalary() && scalar.getOvertimePay() == columnar.getOvertimePay();
+        double speedup = (double) scalarNanos / Math.max(1, kernelNanos);
+
+        System.out.printf("Employees:              %,d (%,d computed per employee)%n", kernel.getCount(), kernel.getScalarCount());
+        System.out.printf("Per-employee pay:       %.1f ms%n", scalarNanos / 1e6);
+        System.out.printf("Columnar kernel:        %.1f ms (+ %.1f ms to gather the columns)%n", kernelNanos / 1e6, gatherNanos / 1e6);
+        System.out.printf("Speed-up:               %.1fx (target %.1fx)%n", speedup, TARGET_KERNEL_SPEEDUP);
+        System.out.printf("Results:                %s, totals %s%n",
+                mismatches == 0 ? "identical" : mismatches + " employees differ", sameTotals ? "identical" : "differ");
+        System.out.println(speedup >= TARGET_KERNEL_SPEEDUP && mismatches == 0 && sameTotals ? "✓ Within target" : "✗ Above target");
+    }
+
+    /**
+     * Compare per-employee pay calculation over the mixed employee list with a PayrollBatch,
+     * which runs one loop per employee type, after warming both up. The population is measured
+     * in the order it was generated, where neighbouring employees sit near each other in
+     * memory, and shuffled. Checks that the batch agrees with per-employee calculation on every
+     * employee and on the totals.
+     * @param count Number of employees
+     */
+    private static void measureBatch(int count) {
+        List<Employee> employees = generateEmployees(count);
+        boolean within = true;
+        for (String order : new String[] {"generated", "shuffled"}) {
+            if (order.equals("shuffled")) Collections.shuffle(employees, new Random(42));
+            final int rounds = 10;
+            long scalarNanos = Long.MAX_VALUE;
+            long batchNanos = Long.MAX_VALUE;
+            long partitionNanos = Long.MAX_VALUE;
+            PayTotals scalar = null;
+            PayTotals partitioned = null;
+            PayrollBatch batch = null;
+            PayrollBatch.Results results = null;
+            int mismatches = 0;
+
+            BusinessCalendar.Pin pin = BusinessCalendar.pin(YearMonth.now());
+            try {
+                for (int round = 0; round < rounds; round++) {
+                    long start = System.nanoTime();
+                    PayTotals totals = new PayTotals();
+                    for (Employee emp : employees) {
+                        if (emp.isActive()) totals.add(PayrollResult.of(emp));
+                    }
+                    scalarNanos = Math.min(scalarNanos, System.nanoTime() - start);
+                    scalar = totals;
+
+                    start = System.nanoTime();
+                    batch = PayrollBatch.partition(employees);
+                    partitionNanos = Math.min(partitionNanos, System.nanoTime() - start);
+                    start = System.nanoTime();
+                    results = batch.compute();
+                    partitioned = results.getTotals();
+                    batchNanos = Math.min(batchNanos, System.nanoTime() - start);
+                }
+
+                for (int i = 0; i < employees.size(); i++) {
+                    Employee emp = employees.get(i);
+                    if (!emp.isActive()) continue;
+                    PayrollResult expected = PayrollResult.of(emp);
+                    if (!results.isComputed(i) || expected.getGrossSalary() != results.getGrossSalary(i)
+                            || expected.getTax() != results.getTax(i) || expected.getOvertimePay() != results.getOvertimePay(i)) {
+                        mismatches++;
+                    }
+                }
+            } finally {
+                pin.close();
+            }
+
+            boolean sameTotals = scalar.getGrossSalary() == partitioned.getGrossSalary() && scalar.getTax() == partitioned.getTax()
+                    && scalar.getNetSalary() == partitioned.getNetSalary() && scalar.getHoursWorked() == partitioned.getHoursWorked()
+                    && scalar.getOvertimePay() == partitioned.getOvertimePay();
+            double speedup = (double) scalarNanos / Math.max(1, batchNanos);
+            within &= speedup >= TARGET_BATCH_SPEEDUP && mismatches == 0 && sameTotals;
+
+            System.out.printf("Employees, %-10s    %,d (%,d full-time, %,d part-time, %,d contract)%n", order + ":",
+                    batch.size(), batch.getFullTimeCount(), batch.getPartTimeCount(), batch.getContractCount());
+            System.out.printf("  Per-employee pay:     %.1f ms%n", scalarNanos / 1e6);
+            System.out.printf("  Partitioned batch:    %.1f ms (+ %.1f ms to partition)%n", batchNanos / 1e6, partitionNanos / 1e6);
+            System.out.printf("  Speed-up:             %.1fx (target %.1fx)%n", speedup, TARGET_BATCH_SPEEDUP);
+            System.out.printf("  Results:              %s, totals %s%n",
+                    mismatches == 0 ? "identical" : mismatches + " employees differ", sameTotals ? "identical" : "differ");
+        }
+        System.out.println(within ? "✓ Within target" : "✗ Above target");
+    }
+
+    /**
+     * Measure EmployeeStore snapshots: the cost to pin one, and report passes over a snapshot
+     * while a writer keeps editing pairs of employees. Each edit moves hours from one employee
+     * to another, so every consistent version has the same total hours.
+     * @param count Number of employees
+     */
+    private static void measureSnapshots(int count) {
+        List<Employee> employees = generateEmployees(count);
+        EmployeeStore store = new EmployeeStore();
+        store.reset(employees);
+        double expectedHours = 0;
+        for (Employee emp : employees) expectedHours += emp.getHoursWorked();
+
+        final int pins = 1_000_000;
+        long pinNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < pins; i++) {
+                store.snapshot().close();
+            }
+            pinNanos = Math.min(pinNanos, (System.nanoTime() - start) / pins);
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong edits = new AtomicLong();
+        AtomicLong editNanos = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(42);
+            while (!stop.get()) {
+                EmployeeStore.Snapshot snapshot = store.snapshot();
+                Employee from = snapshot.getEmployees().get(random.nextInt(snapshot.size()));
+                Employee to = snapshot.getEmployees().get(random.nextInt(snapshot.size()));
+                snapshot.close();
+                if (from == to) continue;
+                long start = System.nanoTime();
+                Employee fromCopy = from.copy();
+                Employee toCopy = to.copy();
+                fromCopy.setHoursWorked(from.getHoursWorked() - 1);
+                toCopy.setHoursWorked(to.getHoursWorked() + 1);
+                Map<Employee, Employee> updates = new IdentityHashMap<>();
+                updates.put(from, fromCopy);
+                updates.put(to, toCopy);
+                store.replaceAll(updates);
+                editNanos.addAndGet(System.nanoTime() - start);
+                edits.incrementAndGet();
+            }
+        }, "snapshot-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        final int passes = 5;
+        long reportNanos = 0;
+        int inconsistent = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            long start = System.nanoTime();
+            EmployeeStore.Snapshot snapshot = store.snapshot();
+            try {
+                double hours = 0;
+                for (Employee emp : snapshot.getEmployees()) {
+                    hours += emp.getHoursWorked();
+                    emp.calculateSalary();
+                }
+                if (Math.abs(hours - expectedHours) > 1e-6 * expectedHours) inconsistent++;
+            } finally {
+                snapshot.close();
+            }
+            reportNanos += System.nanoTime() - start;
+        }
+        stop.set(true);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long editCount = edits.get();
+        System.out.printf("Employees:              %,d%n", store.size());
+        System.out.printf("Pin and release:        %d ns (target %d ns)%n", pinNanos, TARGET_SNAPSHOT_PIN_NANOS);
+        System.out.printf("Report pass:            %.1f ms average over %d passes%n", reportNanos / 1e6 / passes, passes);
+        System.out.printf("Edits during reports:   %,d (%.1f µs each)%n", editCount,
+                editCount == 0 ? 0.0 : editNanos.get() / 1e3 / editCount);
+        System.out.printf("Versions:               %,d published, %d still live%n", store.getVersion(), store.getLiveVersions());
+        System.out.printf("Report passes:          %s%n", inconsistent == 0 ? "all consistent" : inconsistent + " inconsistent");
+        System.out.println(pinNanos <= TARGET_SNAPSHOT_PIN_NANOS && inconsistent == 0 && store.getLiveVersions() == 1
+                ? "✓ Within target" : "✗ Above target");
+    }
+
+    /**
+     * Compare heap use, allocation and payroll totals time of employees on the heap and in
+     * an OffHeapEmployeeStore, and check that both give the same totals
+     * @param count Number of employees
+     */
+    private static void measureOffHeap(int count) {
+        final int rounds = 5;
+        BusinessCalendar.Pin pin = BusinessCalendar.pin(YearMonth.now());
+        try {
+            // Baseline after what the benchmark keeps for the whole run (calendar pin, overtime
+            // plan, allocation counter), so the store's figure is the store's alone
+            OvertimePlan.active();
+            allocatedBytes();
+            long before = usedHeap();
+            List<Employee> employees = generateEmployees(count);
+            long onHeap = usedHeap() - before;
+
+            PayTotals expected = null;
+            long heapNanos = Long.MAX_VALUE;
+            long heapAllocated = 0;
+            for (int round = 0; round < rounds; round++) {
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                PayTotals totals = new PayTotals();
+                for (Employee emp : employees) {
+                    if (emp.isActive()) totals.add(PayrollResult.of(emp));
+                }
+                heapNanos = Math.min(heapNanos, System.nanoTime() - start);
+                heapAllocated = allocatedBytes() - allocated;
+                expected = totals;
+            }
+
+            OffHeapEmployeeStore store = OffHeapEmployeeStore.of(employees);
+            employees = null;
+            long storeHeap = usedHeap() - before;
+
+            PayTotals actual = null;
+            long storeNanos = Long.MAX_VALUE;
+            long storeAllocated = 0;
+            for (int round = 0; round < rounds; round++) {
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                actual = store.getPayrollTotals();
+                storeNanos = Math.min(storeNanos, System.nanoTime() - start);
+                storeAllocated = allocatedBytes() - allocated;
+            }
+            long offHeap = store.getOffHeapBytes();
+            store.close();
+
+            boolean same = expected.getCount() == actual.getCount()
+                    && expected.getGrossSalary() == actual.getGrossSalary() && expected.getTax() == actual.getTax()
+                    && expected.getNetSalary() == actual.getNetSalary() && expected.getOvertimePay() == actual.getOvertimePay();
+            double heapPerEmployee = (double) storeHeap / count;
+            System.out.printf("Employees:              %,d%n", count);
+            System.out.printf("Heap, employee objects: %,d bytes (%.1f per employee)%n", onHeap, (double) onHeap / count);
+            System.out.printf("Heap, off-heap store:   %,d bytes (%.1f per employee, target %d)%n",
+                    storeHeap, heapPerEmployee, TARGET_OFF_HEAP_HEAP_BYTES_PER_EMPLOYEE);
+            System.out.printf("Off-heap memory:        %,d bytes (%.1f per employee)%n", offHeap, (double) offHeap / count);
+            System.out.printf("Totals, on heap:        %.1f ms, %,d bytes allocated%n", heapNanos / 1e6, heapAllocated);
+            System.out.printf("Totals, off heap:       %.1f ms, %,d bytes allocated%n", storeNanos / 1e6, storeAllocated);
+            System.out.printf("Results:                %s%n", same ? "identical" : "differ");
+            System.out.println(heapPerEmployee <= TARGET_OFF_HEAP_HEAP_BYTES_PER_EMPLOYEE && same
+                    ? "✓ Within target" : "✗ Above target");
+        } finally {
+            pin.close();
+        }
+    }
+
+    /**
+     * Bytes allocated by the current thread so far
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean())
+                .getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Measure the time to first result of a short command ("totals") in fresh JVMs, without
+     * and with an AppCDS archive recorded the way build_cds.sh does it
+     * @param count Number of employees in the data file
+     */
+    private static void measureStartup(int count) {
+        final int runs = 10;
+        try {
+            Path directory = Files.createTempDirectory("startup");
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(directory.resolve("payroll_data.ser").toFile())))) {
+                out.writeObject(new ArrayList<>(generateEmployees(count)));
+            }
+            Path jar = directory.resolve("payroll.jar");
+            writeClassJar(jar);
+            Path archive = directory.resolve("payroll.jsa");
+            runCommand(directory, "-XX:ArchiveClassesAtExit=" + archive, "-cp", jar.toString());
+
+            long plain = medianStartupMillis(directory, runs, "-cp", jar.toString());
+            long cds = Files.exists(archive)
+                    ? medianStartupMillis(directory, runs, "-XX:SharedArchiveFile=" + archive,
+                            "-XX:TieredStopAtLevel=1", "-cp", jar.toString())
+                    : -1;
+
+            System.out.printf("Data file:              %,d employees%n", count);
+            System.out.printf("Without archive:        %d ms to first result (median of %d)%n", plain, runs);
+            if (cds < 0) {
+                System.out.println("✗ The JVM did not write the CDS archive");
+                return;
+            }
+            System.out.printf("With AppCDS archive:    %d ms to first result (target %d ms)%n", cds, TARGET_STARTUP_MILLIS);
+            System.out.println(cds <= TARGET_STARTUP_MILLIS ? "✓ Within target" : "✗ Above target");
+        } catch (IOException e) {
+            System.out.println("✗ Error measuring startup: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long medianStartupMillis(Path directory, int runs, String... options)
+            throws IOException, InterruptedException {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = runCommand(directory, options);
+        }
+        java.util.Arrays.sort(millis);
+        return millis[runs / 2];
+    }
+
+    /**
+     * Run "Main totals" in a fresh JVM and return the milliseconds until its first line of output
+     */
+    private static long runCommand(Path directory, String... options) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        Collections.addAll(command, options);
+        command.add(Main.class.getName());
+        command.add("totals");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(directory.toFile()).redirectErrorStream(true).start();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        while (reader.readLine() != null) {
+            // Drain the rest of the output
+        }
+        if (process.waitFor() != 0 || line == null) {
+            throw new IOException("Command failed: " + line);
+        }
+        return millis;
+    }
+
+    /**
+     * Package the class directories of this JVM's class path into a jar, since CDS only
+     * archives classes loaded from jar files
+     */
+    private static void writeClassJar(Path jar) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(jar.toFile())))) {
+            for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+                Path root = Path.of(entry);
+                if (!Files.isDirectory(root)) continue;
+                List<Path> files;
+                try (java.util.stream.Stream<Path> walk = Files.walk(root)) {
+                    files = walk.filter(Files::isRegularFile).collect(java.util.stream.Collectors.toList());
+                }
+                for (Path file : files) {
+                    out.putNextEntry(new JarEntry(root.relativize(file).toString().replace(File.separatorChar, '/')));
+                    Files.copy(file, out);
+                    out.closeEntry();
+                }
+            }
+        }
+    }
+
+    /**
+     * Start a worker JVM with this JVM's class path on a free loopback port
+     */
+    private static Process startWorker() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                Main.class.getName(), "--worker", "0")
+                .redirectErrorStream(true)
+                .start();
+    }
+
+    /**
+     * Read the port from the worker's start-up line
+     */
+    private static int readWorkerPort(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        Matcher matcher = line == null ? null : Pattern.compile("127\\.0\\.0\\.1:(\\d+)").matcher(line);
+        if (matcher == null || !matcher.find()) {
+            throw new IOException("Worker did not start: " + line);
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static boolean sameResults(List<PayrollResult> expected, List<PayrollResult> actual) {
+        if (expected.size() != actual.size()) return false;
+        for (int i = 0; i < expected.size(); i++) {
+            PayrollResult a = expected.get(i);
+            PayrollResult b = actual.get(i);
+            if (!a.getEmployeeId().equals(b.getEmployeeId())
+                    || a.getGrossSalary() != b.getGrossSalary()
+                    || a.getTax() != b.getTax()
+                    || a.getNetSalary() != b.getNetSalary()
+                    || a.getOvertimePay() != b.getOvertimePay()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,142 @@
+package advancepayrollmanagementsystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * PayrollCompanies shards the payroll by company (legal entity).
+ *
+ * Each company is its own PayrollSystem, with its own employee store, indexes, pay-period
+ * history and reports in its own directory. A shard is loaded the first time it is used, so
+ * working on one company never reads the others. Closing a pay period for all companies runs
+ * one task per shard in parallel, and the consolidated summary is merged from the totals each
+ * shard returns.
+ */
+public class PayrollCompanies {
+    private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+
+    /**
+     * Get a company's payroll, loading its data on first use
+     * @param company Company code (case-insensitive)
+     * @return the company's payroll system
+     */
+    public PayrollSystem get(String company) {
+        return shards.computeIfAbsent(PayrollSystem.normalizeCompany(company), Shard::new).load();
+    }
+
+    /**
+     * Check whether a company's data has been loaded
+     * @param company Company code
+     * @return true if the shard is loaded
+     */
+    public boolean isLoaded(String company) {
+        Shard shard = shards.get(PayrollSystem.normalizeCompany(company));
+        return shard != null && shard.loaded;
+    }
+
+    /**
+     * List the known companies: the default company, every company directory and
+     * every company opened in this session
+     * @return company codes in order
+     */
+    public List<String> getCompanies() {
+        TreeSet<String> companies = new TreeSet<>(shards.keySet());
+        companies.add(PayrollSystem.DEFAULT_COMPANY);
+        File[] directories = new File(PayrollSystem.COMPANIES_DIR).listFiles(File::isDirectory);
+        if (directories != null) {
+            for (File directory : directories) {
+                try {
+                    companies.add(PayrollSystem.normalizeCompany(directory.getName()));
+                } catch (IllegalArgumentException e) {
+                    // Not a company directory
+                }
+            }
+        }
+        return new ArrayList<>(companies);
+    }
+
+    /**
+     * Close a pay period for every company, one shard per task in parallel.
+     * A company that fails is reported in the summary and does not stop the others.
+     * @param period Pay period to close
+     * @return cross-company summary merged from the per-company totals
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public ConsolidatedSummary closePayPeriod(YearMonth period) throws InterruptedException {
+        long start = System.nanoTime();
+        List<String> companies = getCompanies();
+        ConsolidatedSummary summary = new ConsolidatedSummary(period);
+
+        List<Callable<Void>> tasks = new ArrayList<>(companies.size());
+        for (String company : companies) {
+            tasks.add(() -> {
+                try {
+                    PayrollRun run = get(company).runPayPeriod(period);
+                    if (!run.getResults().isEmpty()) {
+                        summary.add(company, run.getTotals());
+                    }
+                } catch (IOException | RuntimeException e) {
+                    summary.fail(company, e.getMessage());
+                }
+                return null;
+            });
+        }
+
+        int threads = Math.min(companies.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "company-payroll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            executor.invokeAll(tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+        summary.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return summary;
+    }
+
+    /**
+     * Save every company whose data has been loaded
+     * @return true if every loaded company was saved
+     */
+    public boolean saveAll() {
+        boolean saved = true;
+        for (Shard shard : shards.values()) {
+            if (shard.loaded) {
+                saved &= shard.payroll.saveData();
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * One company's payroll, loaded at most once
+     */
+    private static final class Shard {
+        private final PayrollSystem payroll;
+        private volatile boolean loaded;
+
+        Shard(String company) {
+            this.payroll = new PayrollSystem(company);
+        }
+
+        synchronized PayrollSystem load() {
+            if (!loaded) {
+                payroll.loadData();
+                loaded = true;
+            }
+            return payroll;
+        }
+    }
+}
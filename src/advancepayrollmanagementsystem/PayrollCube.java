@@ -0,0 +1,187 @@
+package advancepayrollmanagementsystem;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * PayrollCube pre-aggregates payroll results over three dimensions:
+ * department, employee type and pay period.
+ *
+ * Every dimension has an extra ALL member, and each result is added to all eight
+ * combinations of its members and ALL when the cube is built. Any slice or rollup, such as
+ * "Engineering, all types, 2024-03" or "all departments, Part-Time, all periods", is then a
+ * single array lookup, and a breakdown along one dimension is one lookup per member.
+ * Measures are stored column-wise in flat arrays indexed by (period, department, type).
+ *
+ * A cube is an immutable snapshot of the runs it was built from.
+ */
+public class PayrollCube {
+    private final List<String> departments;
+    private final List<String> types;
+    private final List<YearMonth> periods;
+    private final Map<String, Integer> departmentIds = new HashMap<>();
+    private final Map<String, Integer> typeIds = new HashMap<>();
+    private final Map<YearMonth, Integer> periodIds = new HashMap<>();
+
+    // Sizes including the ALL member, which is the last index of each dimension
+    private final int departmentSize;
+    private final int typeSize;
+
+    private final int[] count;
+    private final double[] gross;
+    private final double[] tax;
+    private final double[] net;
+    private final double[] hours;
+    private final double[] overtime;
+
+    private PayrollCube(List<String> departments, List<String> types, List<YearMonth> periods) {
+        this.departments = Collections.unmodifiableList(departments);
+        this.types = Collections.unmodifiableList(types);
+        this.periods = Collections.unmodifiableList(periods);
+        for (int i = 0; i < departments.size(); i++) departmentIds.put(departments.get(i), i);
+        for (int i = 0; i < types.size(); i++) typeIds.put(types.get(i), i);
+        for (int i = 0; i < periods.size(); i++) periodIds.put(periods.get(i), i);
+
+        this.departmentSize = departments.size() + 1;
+        this.typeSize = types.size() + 1;
+        int cells = (periods.size() + 1) * departmentSize * typeSize;
+        this.count = new int[cells];
+        this.gross = new double[cells];
+        this.tax = new double[cells];
+        this.net = new double[cells];
+        this.hours = new double[cells];
+        this.overtime = new double[cells];
+    }
+
+    /**
+     * Build a cube from payroll runs
+     * @param runs Runs to aggregate, at most one per period
+     * @return cube over the runs
+     */
+    public static PayrollCube build(Collection<PayrollRun> runs) {
+        TreeSet<String> departments = new TreeSet<>();
+        TreeSet<String> types = new TreeSet<>();
+        TreeSet<YearMonth> periods = new TreeSet<>();
+        for (PayrollRun run : runs) {
+            periods.add(run.getPeriod());
+            for (PayrollResult result : run.getResults()) {
+                departments.add(result.getDepartment());
+                types.add(result.getEmployeeType());
+            }
+        }
+
+        PayrollCube cube = new PayrollCube(new ArrayList<>(departments), new ArrayList<>(types), new ArrayList<>(periods));
+        int allPeriods = cube.periods.size();
+        for (PayrollRun run : runs) {
+            int p = cube.periodIds.get(run.getPeriod());
+            for (PayrollResult result : run.getResults()) {
+                int d = cube.departmentIds.get(result.getDepartment());
+                int t = cube.typeIds.get(result.getEmployeeType());
+                cube.addWithRollups(p, d, t, result);
+                cube.addWithRollups(allPeriods, d, t, result);
+            }
+        }
+        return cube;
+    }
+
+    /**
+     * Get the totals of one cell; null for a dimension means all of its members
+     * @param department Department, or null for all departments
+     * @param type Employee type, or null for all types
+     * @param period Pay period, or null for all periods
+     * @return aggregated totals (empty if a member is not in the cube)
+     */
+    public PayTotals get(String department, String type, YearMonth period) {
+        int d = department == null ? departmentSize - 1 : departmentIds.getOrDefault(department, -1);
+        int t = type == null ? typeSize - 1 : typeIds.getOrDefault(type, -1);
+        int p = period == null ? periods.size() : periodIds.getOrDefault(period, -1);
+        if (d < 0 || t < 0 || p < 0) return new PayTotals();
+        return totals(cell(p, d, t));
+    }
+
+    /**
+     * Break the cube down by department within a slice of the other dimensions
+     * @param type Employee type, or null for all types
+     * @param period Pay period, or null for all periods
+     * @return totals per department, in department order (departments with no pay omitted)
+     */
+    public Map<String, PayTotals> byDepartment(String type, YearMonth period) {
+        Map<String, PayTotals> result = new LinkedHashMap<>();
+        for (String department : departments) {
+            PayTotals totals = get(department, type, period);
+            if (totals.getCount() > 0) result.put(department, totals);
+        }
+        return result;
+    }
+
+    /**
+     * Break the cube down by employee type within a slice of the other dimensions
+     * @param department Department, or null for all departments
+     * @param period Pay period, or null for all periods
+     * @return totals per employee type (types with no pay omitted)
+     */
+    public Map<String, PayTotals> byType(String department, YearMonth period) {
+        Map<String, PayTotals> result = new LinkedHashMap<>();
+        for (String type : types) {
+            PayTotals totals = get(department, type, period);
+            if (totals.getCount() > 0) result.put(type, totals);
+        }
+        return result;
+    }
+
+    /**
+     * Break the cube down by pay period within a slice of the other dimensions
+     * @param department Department, or null for all departments
+     * @param type Employee type, or null for all types
+     * @return totals per period, in chronological order (periods with no pay omitted)
+     */
+    public Map<YearMonth, PayTotals> byPeriod(String department, String type) {
+        Map<YearMonth, PayTotals> result = new LinkedHashMap<>();
+        for (YearMonth period : periods) {
+            PayTotals totals = get(department, type, period);
+            if (totals.getCount() > 0) result.put(period, totals);
+        }
+        return result;
+    }
+
+    // Dimension members
+    public List<String> getDepartments() { return departments; }
+    public List<String> getTypes() { return types; }
+    public List<YearMonth> getPeriods() { return periods; }
+
+    private int cell(int period, int department, int type) {
+        return (period * departmentSize + department) * typeSize + type;
+    }
+
+    /**
+     * Add a result to its cell and to the department and type ALL cells of a period
+     */
+    private void addWithRollups(int period, int department, int type, PayrollResult result) {
+        int allDepartments = departmentSize - 1;
+        int allTypes = typeSize - 1;
+        add(cell(period, department, type), result);
+        add(cell(period, department, allTypes), result);
+        add(cell(period, allDepartments, type), result);
+        add(cell(period, allDepartments, allTypes), result);
+    }
+
+    private void add(int cell, PayrollResult result) {
+        count[cell]++;
+        gross[cell] += result.getGrossSalary();
+        tax[cell] += result.getTax();
+        net[cell] += result.getNetSalary();
+        hours[cell] += result.getHoursWorked();
+        overtime[cell] += result.getOvertimePay();
+    }
+
+    private PayTotals totals(int cell) {
+        return new PayTotals(count[cell], gross[cell], tax[cell], net[cell], hours[cell], overtime[cell]);
+    }
+}
@@ -0,0 +1,379 @@
+package advancepayrollmanagementsystem;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PayrollHistoryStore keeps the results of every payroll run, partitioned by pay period.
+ *
+ * Each period (year/month) has its own append-only segment file. Every run appends one block:
+ *   [detail rows][summary footer][trailer]
+ * The fixed-size trailer at the end of the file points at the latest footer, so period
+ * totals and per-employee totals are read with one seek instead of a scan of the detail rows.
+ * Re-running a period appends a new block that supersedes the earlier one; older blocks
+ * stay in the file as an audit trail.
+ *
+ * A block is synced to disk before its trailer is written, so after a crash the file ends in
+ * either a complete block or a torn one. A torn block (a crash or write error mid-append) is
+ * cut off back to the last valid trailer when the segment is first opened, or at once when
+ * the append fails.
+ */
+public class PayrollHistoryStore {
+    private static final int BLOCK_MAGIC = 0x5052554E;   // "PRUN"
+    private static final int FOOTER_MAGIC = 0x5053554D;  // "PSUM"
+    private static final int TRAILER_MAGIC = 0x50454E44; // "PEND"
+    private static final int TRAILER_SIZE = 8 + 8 + 4;
+    private static final byte FORMAT_VERSION = 1;
+    private static final String SEGMENT_EXTENSION = ".seg";
+
+    private final File directory;
+    private final Map<YearMonth, PeriodSummary> summaryCache = new ConcurrentHashMap<>();
+    // Periods whose segment has been checked for a torn block since the store was created
+    private final Set<YearMonth> recovered = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor for PayrollHistoryStore
+     * @param directory Directory holding the segment files
+     */
+    public PayrollHistoryStore(String directory) {
+        this.directory = new File(directory);
+    }
+
+    /**
+     * Append a payroll run to its period's segment file
+     * @param run Payroll run to record
+     * @throws IOException if the segment cannot be written
+     */
+    public synchronized void append(PayrollRun run) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create history directory " + directory);
+        }
+
+        File segment = segmentFile(run.getPeriod());
+        recover(run.getPeriod());
+        long blockOffset = segment.length();
+        Map<String, PayTotals> employeeTotals = new LinkedHashMap<>();
+        PayTotals totals = new PayTotals();
+
+        try (FileOutputStream file = new FileOutputStream(segment, true);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            // Detail rows
+            out.writeInt(BLOCK_MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(run.getRunAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(run.getResults().size());
+            for (PayrollResult result : run.getResults()) {
+                out.writeUTF(result.getEmployeeId());
+                out.writeUTF(result.getDepartment());
+                out.writeUTF(result.getEmployeeType());
+                out.writeDouble(result.getGrossSalary());
+                out.writeDouble(result.getTax());
+                out.writeDouble(result.getNetSalary());
+                out.writeDouble(result.getHoursWorked());
+                out.writeDouble(result.getOvertimePay());
+
+                totals.add(result);
+                employeeTotals.computeIfAbsent(result.getEmployeeId(), id -> new PayTotals()).add(result);
+            }
+
+            // Summary footer; offsets come from the channel, as out.size() stops at 2 GB
+            out.flush();
+            long footerOffset = file.getChannel().position();
+            out.writeInt(FOOTER_MAGIC);
+            out.writeLong(run.getRunAt().toEpochSecond(ZoneOffset.UTC));
+            writeTotals(out, totals);
+            out.writeInt(employeeTotals.size());
+            for (Map.Entry<String, PayTotals> entry : employeeTotals.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeTotals(out, entry.getValue());
+            }
+
+            // Trailer, once the block is on disk
+            out.flush();
+            file.getFD().sync();
+            out.writeLong(footerOffset);
+            out.writeLong(blockOffset);
+            out.writeInt(TRAILER_MAGIC);
+            out.flush();
+            file.getFD().sync();
+        } catch (IOException e) {
+            // Leave no torn block behind for the next append or read to trip over
+            try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+                file.setLength(blockOffset);
+            } catch (IOException truncateError) {
+                e.addSuppressed(truncateError);
+            }
+            throw e;
+        }
+
+        summaryCache.put(run.getPeriod(),
+                new PeriodSummary(run.getPeriod(), run.getRunAt(), totals, employeeTotals));
+    }
+
+    /**
+     * Read the summary footer of a period
+     * @param period Pay period
+     * @return period summary, or null if no payroll was recorded for the period
+     * @throws IOException if the segment is unreadable or corrupt
+     */
+    public PeriodSummary readSummary(YearMonth period) throws IOException {
+        PeriodSummary cached = summaryCache.get(period);
+        if (cached != null) return cached;
+
+        File segment = segmentFile(period);
+        if (!segment.exists()) return null;
+        recover(period);
+        if (segment.length() == 0) return null; // held only a torn block
+
+        try (RandomAccessFile file = new RandomAccessFile(segment, "r")) {
+            long[] trailer = readTrailer(file, segment);
+            DataInputStream in = openAt(file, trailer[0]);
+            expectMagic(in.readInt(), FOOTER_MAGIC, segment);
+            LocalDateTime runAt = toDateTime(in.readLong());
+            PayTotals totals = readTotals(in);
+            int entries = in.readInt();
+            Map<String, PayTotals> employeeTotals = new LinkedHashMap<>(entries * 2);
+            for (int i = 0; i < entries; i++) {
+                employeeTotals.put(in.readUTF(), readTotals(in));
+            }
+
+            PeriodSummary summary = new PeriodSummary(period, runAt, totals, employeeTotals);
+            summaryCache.put(period, summary);
+            return summary;
+        }
+    }
+
+    /**
+     * Read the detail rows of the latest run of a period
+     * @param period Pay period
+     * @return payroll run, or null if no payroll was recorded for the period
+     * @throws IOException if the segment is unreadable or corrupt
+     */
+    public PayrollRun readRun(YearMonth period) throws IOException {
+        File segment = segmentFile(period);
+        if (!segment.exists()) return null;
+        recover(period);
+        if (segment.length() == 0) return null; // held only a torn block
+
+        try (RandomAccessFile file = new RandomAccessFile(segment, "r")) {
+            long[] trailer = readTrailer(file, segment);
+            DataInputStream in = openAt(file, trailer[1]);
+            expectMagic(in.readInt(), BLOCK_MAGIC, segment);
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported history format " + version + " in " + segment);
+            }
+            LocalDateTime runAt = toDateTime(in.readLong());
+            int count = in.readInt();
+            List<PayrollResult> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                results.add(new PayrollResult(in.readUTF(), in.readUTF(), in.readUTF(),
+                        in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble()));
+            }
+            return new PayrollRun(period, runAt, results);
+        }
+    }
+
+    /**
+     * List all periods that have recorded payroll
+     * @return periods in chronological order
+     */
+    public List<YearMonth> getPeriods() {
+        List<YearMonth> periods = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_EXTENSION));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    periods.add(YearMonth.parse(name.substring(0, name.length() - SEGMENT_EXTENSION.length())));
+                } catch (java.time.format.DateTimeParseException e) {
+                    // Not a segment file
+                }
+            }
+        }
+        Collections.sort(periods);
+        return periods;
+    }
+
+    /**
+     * Get year-to-date totals for one employee, from January through the given period
+     * @param employeeId Employee ID
+     * @param through Last period to include
+     * @return accumulated totals (count is the number of paid periods)
+     * @throws IOException if a segment is unreadable
+     */
+    public PayTotals getYearToDate(String employeeId, YearMonth through) throws IOException {
+        PayTotals ytd = new PayTotals();
+        for (int month = 1; month <= through.getMonthValue(); month++) {
+            PeriodSummary summary = readSummary(YearMonth.of(through.getYear(), month));
+            if (summary != null) {
+                PayTotals periodTotals = summary.getEmployeeTotals(employeeId);
+                if (periodTotals != null) {
+                    ytd.add(periodTotals);
+                }
+            }
+        }
+        return ytd;
+    }
+
+    /**
+     * Get company totals for a whole year
+     * @param year Calendar year
+     * @return accumulated totals over all recorded periods of the year
+     * @throws IOException if a segment is unreadable
+     */
+    public PayTotals getAnnualTotals(int year) throws IOException {
+        PayTotals annual = new PayTotals();
+        for (int month = 1; month <= 12; month++) {
+            PeriodSummary summary = readSummary(YearMonth.of(year, month));
+            if (summary != null) {
+                annual.add(summary.getTotals());
+            }
+        }
+        return annual;
+    }
+
+    /**
+     * Delete all recorded history
+     */
+    public synchronized void clear() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_EXTENSION));
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        summaryCache.clear();
+        recovered.clear();
+    }
+
+    private File segmentFile(YearMonth period) {
+        return new File(directory, period + SEGMENT_EXTENSION);
+    }
+
+    /**
+     * On first use of a segment, cut off a torn block after its last valid trailer. A segment
+     * with no valid trailer at all held no complete run and is emptied.
+     */
+    private void recover(YearMonth period) throws IOException {
+        if (recovered.contains(period)) return;
+        synchronized (this) {
+            if (recovered.contains(period)) return;
+            File segment = segmentFile(period);
+            if (segment.exists()) {
+                try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+                    long length = file.length();
+                    if (!isTrailerEnd(file, length)) {
+                        file.setLength(lastTrailerEnd(file, length));
+                        file.getFD().sync();
+                        summaryCache.remove(period);
+                    }
+                }
+            }
+            recovered.add(period);
+        }
+    }
+
+    /**
+     * Scan back from the end of a segment for the last valid trailer
+     * @return file position just after it, or 0 if there is none
+     */
+    private long lastTrailerEnd(RandomAccessFile file, long length) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        long end = length;
+        while (end >= 4) {
+            long from = Math.max(0, end - buffer.length);
+            int count = (int) (end - from);
+            file.seek(from);
+            file.readFully(buffer, 0, count);
+            for (int i = count - 4; i >= 0; i--) {
+                int value = (buffer[i] & 0xFF) << 24 | (buffer[i + 1] & 0xFF) << 16
+                        | (buffer[i + 2] & 0xFF) << 8 | (buffer[i + 3] & 0xFF);
+                if (value == TRAILER_MAGIC && isTrailerEnd(file, from + i + 4)) {
+                    return from + i + 4;
+                }
+            }
+            if (from == 0) break;
+            // Overlap the next buffer so a magic number across the boundary is seen
+            end = from + 3;
+        }
+        return 0;
+    }
+
+    /**
+     * Check that a valid trailer ends at a file position: its magic number, and offsets
+     * pointing back at a footer and a block of this segment
+     */
+    private boolean isTrailerEnd(RandomAccessFile file, long end) throws IOException {
+        if (end < TRAILER_SIZE) return false;
+        long trailerStart = end - TRAILER_SIZE;
+        file.seek(trailerStart);
+        long footerOffset = file.readLong();
+        long blockOffset = file.readLong();
+        if (file.readInt() != TRAILER_MAGIC) return false;
+        if (blockOffset < 0 || footerOffset <= blockOffset || footerOffset + 4 > trailerStart) return false;
+        file.seek(blockOffset);
+        if (file.readInt() != BLOCK_MAGIC) return false;
+        file.seek(footerOffset);
+        return file.readInt() == FOOTER_MAGIC;
+    }
+
+    /**
+     * Read the trailer at the end of a segment
+     * @return {footerOffset, blockOffset}
+     */
+    private long[] readTrailer(RandomAccessFile file, File segment) throws IOException {
+        long length = file.length();
+        if (length < TRAILER_SIZE) {
+            throw new IOException("Truncated history segment " + segment);
+        }
+        file.seek(length - TRAILER_SIZE);
+        long footerOffset = file.readLong();
+        long blockOffset = file.readLong();
+        expectMagic(file.readInt(), TRAILER_MAGIC, segment);
+        if (footerOffset < 0 || footerOffset >= length || blockOffset < 0 || blockOffset > footerOffset) {
+            throw new IOException("Corrupt history segment " + segment);
+        }
+        return new long[] { footerOffset, blockOffset };
+    }
+
+    private DataInputStream openAt(RandomAccessFile file, long offset) throws IOException {
+        file.seek(offset);
+        return new DataInputStream(new BufferedInputStream(Channels.newInputStream(file.getChannel()), 1 << 16));
+    }
+
+    private void expectMagic(int actual, int expected, File segment) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Corrupt history segment " + segment);
+        }
+    }
+
+    private void writeTotals(DataOutputStream out, PayTotals totals) throws IOException {
+        out.writeInt(totals.getCount());
+        out.writeDouble(totals.getGrossSalary());
+        out.writeDouble(totals.getTax());
+        out.writeDouble(totals.getNetSalary());
+        out.writeDouble(totals.getHoursWorked());
+        out.writeDouble(totals.getOvertimePay());
+    }
+
+    private PayTotals readTotals(DataInputStream in) throws IOException {
+        return new PayTotals(in.readInt(), in.readDouble(), in.readDouble(), in.readDouble(),
+                in.readDouble(), in.readDouble());
+    }
+
+    private LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC);
+    }
+}
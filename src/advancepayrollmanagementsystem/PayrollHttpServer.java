@@ -0,0 +1,646 @@
+package advancepayrollmanagementsystem;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+
+/**
+ * PayrollHttpServer exposes the payroll system as a JSON API over HTTP.
+ *
+ * Endpoints:
+ *   GET  /api/employees/{id}                  employee lookup
+ *   GET  /api/employees?by=id|name|department|query&q=term  search (streamed)
+ *   POST /api/employees/{id}/hours?value=N    update hours worked
+ *   GET  /api/payroll                         per-employee payroll (streamed)
+ *   GET  /api/payroll/summary                 payroll totals
+ *   GET  /api/reports/departments?type=&period=   totals per department
+ *   GET  /api/reports/types?department=&period=   totals per employee type
+ *   POST /api/punches                         time-clock punches, one "id,time,IN|OUT" line each
+ *   GET  /api/punches                         time-clock counters
+ *   GET  /api/changes?after=N&limit=M         employee change events after sequence N
+ *
+ * The API has no authentication, so the server listens on the loopback interface unless it
+ * is given another address explicitly.
+ *
+ * Connections are accepted by the JDK's non-blocking HTTP server and each request is
+ * handled on its own thread: a virtual thread on JDK 21+, otherwise a thread from a fixed
+ * pool of REQUEST_THREADS (-Dpayroll.http.threads), where further requests wait their turn.
+ * List endpoints stream their JSON with chunked encoding instead of building it in memory.
+ */
+public class PayrollHttpServer {
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final int REQUEST_THREADS = Integer.getInteger("payroll.http.threads", 64);
+
+    static {
+        // Small JSON responses otherwise wait on Nagle + delayed ACK (~40 ms per request).
+        // Must be set before the JDK server reads its configuration.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final PayrollSystem payroll;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor for PayrollHttpServer listening on the loopback interface
+     * @param payroll Payroll system to serve
+     * @param port TCP port to listen on
+     * @throws IOException if the port cannot be bound
+     */
+    public PayrollHttpServer(PayrollSystem payroll, int port) throws IOException {
+        this(payroll, InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Constructor for PayrollHttpServer listening on a given address
+     * @param payroll Payroll system to serve
+     * @param address Address to listen on; the wildcard address exposes the API on every interface
+     * @param port TCP port to listen on
+     * @throws IOException if the port cannot be bound
+     */
+    public PayrollHttpServer(PayrollSystem payroll, InetAddress address, int port) throws IOException {
+        this.payroll = payroll;
+        this.server = HttpServer.create(new InetSocketAddress(address, port), 1024);
+        this.executor = newRequestExecutor();
+
+        server.createContext("/api/employees", this::handleEmployees);
+        server.createContext("/api/payroll", this::handlePayroll);
+        server.createContext("/api/reports", this::handleReports);
+        server.createContext("/api/punches", this::handlePunches);
+        server.createContext("/api/changes", this::handleChanges);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Start serving requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop the server, waiting up to a second for requests in flight
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public InetAddress getAddress() {
+        return server.getAddress().getAddress();
+    }
+
+    // Handlers
+
+    private void handleEmployees(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = pathSegments(exchange, "/api/employees");
+            Map<String, String> query = queryParameters(exchange);
+            String method = exchange.getRequestMethod();
+
+            if (path.length == 0 && "GET".equals(method)) {
+                searchEmployees(exchange, query);
+            } else if (path.length == 1 && "GET".equals(method)) {
+                Employee emp = payroll.findEmployee(path[0]);
+                if (emp == null) {
+                    sendError(exchange, 404, "Employee not found: " + path[0]);
+                } else {
+                    StringBuilder json = new StringBuilder(256);
+                    appendEmployee(json, emp);
+                    send(exchange, 200, json.toString());
+                }
+            } else if (path.length == 2 && "hours".equals(path[1])
+                    && ("POST".equals(method) || "PUT".equals(method))) {
+                updateHours(exchange, path[0], query.get("value"));
+            } else {
+                sendError(exchange, 404, "Unknown endpoint");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handlePayroll(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = pathSegments(exchange, "/api/payroll");
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+            } else if (path.length == 0) {
+                streamPayroll(exchange);
+            } else if (path.length == 1 && "summary".equals(path[0])) {
+                PayTotals totals = payroll.getPayrollTotals();
+                StringBuilder json = new StringBuilder(256);
+                json.append("{\"totalEmployees\":").append(payroll.getTotalEmployees()).append(',');
+                json.append("\"activeEmployees\":").append(totals.getCount()).append(',');
+                appendTotals(json, totals);
+                json.append('}');
+                send(exchange, 200, json.toString());
+            } else {
+                sendError(exchange, 404, "Unknown endpoint");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleReports(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = pathSegments(exchange, "/api/reports");
+            if (!"GET".equals(exchange.getRequestMethod()) || path.length != 1) {
+                sendError(exchange, 404, "Unknown endpoint");
+                return;
+            }
+
+            boolean byDepartment = "departments".equals(path[0]);
+            if (!byDepartment && !"types".equals(path[0])) {
+                sendError(exchange, 404, "Unknown report: " + path[0]);
+                return;
+            }
+
+            // Optional slice: ?period=yyyy-MM reads closed periods from the history,
+            // ?type= narrows the department report, ?department= the type report
+            Map<String, String> query = queryParameters(exchange);
+            YearMonth period = null;
+            PayrollCube cube;
+            if (query.containsKey("period")) {
+                try {
+                    period = YearMonth.parse(query.get("period"));
+                } catch (DateTimeParseException e) {
+                    sendError(exchange, 400, "Query parameter 'period' must be yyyy-MM");
+                    return;
+                }
+                cube = payroll.buildPayrollCube();
+            } else {
+                cube = payroll.currentPayrollCube();
+            }
+            Map<String, PayTotals> groups = byDepartment
+                    ? cube.byDepartment(query.get("type"), period)
+                    : cube.byType(query.get("department"), period);
+
+            StringBuilder json = new StringBuilder(256);
+            json.append('[');
+            boolean first = true;
+            for (Map.Entry<String, PayTotals> entry : groups.entrySet()) {
+                if (!first) json.append(',');
+                first = false;
+                json.append("{\"").append(byDepartment ? "department" : "type").append("\":");
+                appendString(json, entry.getKey());
+                json.append(",\"employees\":").append(entry.getValue().getCount()).append(',');
+                appendTotals(json, entry.getValue());
+                json.append(",\"averageSalary\":")
+                        .append(entry.getValue().getGrossSalary() / entry.getValue().getCount()).append('}');
+            }
+            json.append(']');
+            send(exchange, 200, json.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handlePunches(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (pathSegments(exchange, "/api/punches").length != 0) {
+                sendError(exchange, 404, "Unknown endpoint");
+            } else if ("POST".equals(method)) {
+                acceptPunches(exchange);
+            } else if ("GET".equals(method)) {
+                TimeClock clock = payroll.getTimeClock();
+                StringBuilder json = new StringBuilder(256);
+                json.append("{\"period\":");
+                appendString(json, clock.getLatestPeriod().toString());
+                json.append(",\"pairedShifts\":").append(clock.getPairedShifts());
+                json.append(",\"unpairedPunches\":").append(clock.getUnpairedPunches());
+                json.append(",\"unknownPunches\":").append(clock.getUnknownPunches());
+                json.append(",\"outsidePeriodHours\":").append(clock.getOutsidePeriodHours());
+                json.append(",\"pendingPunches\":").append(clock.getPendingPunches());
+                json.append(",\"employeesUpdated\":").append(clock.getEmployeesUpdated()).append('}');
+                send(exchange, 200, json.toString());
+            } else {
+                sendError(exchange, 405, "Method not allowed");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleChanges(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) || pathSegments(exchange, "/api/changes").length != 0) {
+                sendError(exchange, 404, "Unknown endpoint");
+                return;
+            }
+            Map<String, String> query = queryParameters(exchange);
+            long after;
+            int limit;
+            try {
+                after = Long.parseLong(query.getOrDefault("after", "0"));
+                limit = Integer.parseInt(query.getOrDefault("limit", "100"));
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Query parameters 'after' and 'limit' must be numbers");
+                return;
+            }
+            if (after < 0 || limit < 1 || limit > 10_000) {
+                sendError(exchange, 400, "'after' must be 0 or more and 'limit' 1 to 10000");
+                return;
+            }
+
+            List<EmployeeChange> changes = payroll.getChangeLog().read(after, limit);
+            try (Writer out = startStream(exchange)) {
+                StringBuilder json = new StringBuilder(512);
+                out.write('[');
+                for (int i = 0; i < changes.size(); i++) {
+                    EmployeeChange change = changes.get(i);
+                    json.setLength(0);
+                    if (i > 0) json.append(',');
+                    json.append("{\"sequence\":").append(change.getSequence());
+                    json.append(",\"time\":");
+                    appendString(json, Instant.ofEpochMilli(change.getEpochMillis()).toString());
+                    json.append(",\"type\":");
+                    appendString(json, change.getType().name());
+                    json.append(",\"employeeId\":");
+                    appendString(json, change.getEmployeeId());
+                    json.append(",\"before\":");
+                    appendFields(json, change.getBefore());
+                    json.append(",\"after\":");
+                    appendFields(json, change.getAfter());
+                    json.append('}');
+                    out.append(json);
+                }
+                out.write(']');
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Read a batch of punches, one "employeeId,time,IN|OUT" line each, where the time is an
+     * ISO-8601 instant or epoch milliseconds. The batch is rejected whole if any line is invalid.
+     */
+    private void acceptPunches(HttpExchange exchange) throws IOException {
+        String[] ids = new String[256];
+        long[] times = new long[256];
+        boolean[] clockIns = new boolean[256];
+        int count = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                String[] fields = line.split(",", -1);
+                if (fields.length != 3) {
+                    sendError(exchange, 400, "Line " + lineNumber + ": expected employeeId,time,IN|OUT");
+                    return;
+                }
+                String kind = fields[2].trim();
+                if (!"IN".equalsIgnoreCase(kind) && !"OUT".equalsIgnoreCase(kind)) {
+                    sendError(exchange, 400, "Line " + lineNumber + ": punch must be IN or OUT");
+                    return;
+                }
+                long time;
+                try {
+                    String value = fields[1].trim();
+                    time = !value.isEmpty() && value.chars().allMatch(Character::isDigit)
+                            ? Long.parseLong(value) : Instant.parse(value).toEpochMilli();
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    sendError(exchange, 400, "Line " + lineNumber + ": invalid time '" + fields[1].trim() + "'");
+                    return;
+                }
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                    times = Arrays.copyOf(times, count * 2);
+                    clockIns = Arrays.copyOf(clockIns, count * 2);
+                }
+                ids[count] = fields[0].trim();
+                times[count] = time;
+                clockIns[count] = "IN".equalsIgnoreCase(kind);
+                count++;
+            }
+        }
+
+        TimeClock clock = payroll.getTimeClock();
+        for (int i = 0; i < count; i++) {
+            if (!clock.punch(ids[i], times[i], clockIns[i])) {
+                sendError(exchange, 503, "Time clock closed after " + i + " punches");
+                return;
+            }
+        }
+        send(exchange, 202, "{\"accepted\":" + count + "}");
+    }
+
+    private void searchEmployees(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String term = query.getOrDefault("q", "");
+        String by = query.getOrDefault("by", "name");
+        int searchType;
+        switch (by) {
+            case "id":
+                searchType = 1;
+                break;
+            case "name":
+                searchType = 2;
+                break;
+            case "department":
+                searchType = 3;
+                break;
+            case "query":
+                searchType = 4;
+                break;
+            default:
+                sendError(exchange, 400, "Unknown search field: " + by);
+                return;
+        }
+
+        List<Employee> results;
+        try {
+            results = payroll.findEmployees(searchType, term);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, "Invalid query: " + e.getMessage());
+            return;
+        }
+        try (Writer out = startStream(exchange)) {
+            StringBuilder json = new StringBuilder(256);
+            out.write('[');
+            for (int i = 0; i < results.size(); i++) {
+                json.setLength(0);
+                if (i > 0) json.append(',');
+                appendEmployee(json, results.get(i));
+                out.append(json);
+            }
+            out.write(']');
+        }
+    }
+
+    private void updateHours(HttpExchange exchange, String employeeId, String value) throws IOException {
+        double hours;
+        try {
+            hours = Double.parseDouble(value);
+        } catch (NullPointerException | NumberFormatException e) {
+            sendError(exchange, 400, "Query parameter 'value' must be a number");
+            return;
+        }
+        if (hours < 0 || hours > 744) {
+            sendError(exchange, 400, "Hours must be between 0 and 744");
+            return;
+        }
+
+        Employee emp = payroll.setEmployeeHours(employeeId, hours);
+        if (emp == null) {
+            sendError(exchange, 404, "Employee not found: " + employeeId);
+            return;
+        }
+        StringBuilder json = new StringBuilder(256);
+        appendEmployee(json, emp);
+        send(exchange, 200, json.toString());
+    }
+
+    private void streamPayroll(HttpExchange exchange) throws IOException {
+        try (Writer out = startStream(exchange)) {
+            out.write('[');
+            JsonResultWriter writer = new JsonResultWriter(out);
+            // Results are pulled a batch at a time on this thread, so a slow client
+            // holds back the computation rather than buffering the whole payroll
+            payroll.publishPayroll().subscribe(writer);
+            writer.rethrow();
+            out.write(']');
+        }
+    }
+
+    /**
+     * Subscriber that writes payroll results as a JSON array body
+     */
+    private static final class JsonResultWriter implements Flow.Subscriber<PayrollResult> {
+        private static final int BATCH = 256;
+
+        private final Writer out;
+        private final StringBuilder json = new StringBuilder(256);
+        private Flow.Subscription subscription;
+        private int received;
+        private boolean first = true;
+        private IOException failure;
+
+        JsonResultWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(BATCH);
+        }
+
+        @Override
+        public void onNext(PayrollResult result) {
+            json.setLength(0);
+            if (!first) json.append(',');
+            first = false;
+            json.append("{\"id\":");
+            appendString(json, result.getEmployeeId());
+            json.append(",\"department\":");
+            appendString(json, result.getDepartment());
+            json.append(",\"type\":");
+            appendString(json, result.getEmployeeType());
+            json.append(",\"grossSalary\":").append(result.getGrossSalary());
+            json.append(",\"tax\":").append(result.getTax());
+            json.append(",\"netSalary\":").append(result.getNetSalary());
+            json.append(",\"overtimePay\":").append(result.getOvertimePay()).append('}');
+            try {
+                out.append(json);
+            } catch (IOException e) {
+                failure = e;
+                subscription.cancel();
+                return;
+            }
+            if (++received == BATCH) {
+                received = 0;
+                subscription.request(BATCH);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            failure = new IOException("Payroll stream failed", throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void rethrow() throws IOException {
+            if (failure != null) throw failure;
+        }
+    }
+
+    // JSON helpers
+
+    private static void appendEmployee(StringBuilder json, Employee emp) {
+        double gross = emp.calculateSalary();
+        double tax = emp.calculateTax();
+        json.append("{\"id\":");
+        appendString(json, emp.getEmployeeId());
+        json.append(",\"name\":");
+        appendString(json, emp.getFullName());
+        json.append(",\"type\":");
+        appendString(json, emp.getEmployeeType());
+        json.append(",\"department\":");
+        appendString(json, emp.getDepartment());
+        json.append(",\"email\":");
+        appendString(json, emp.getEmail());
+        json.append(",\"active\":").append(emp.isActive());
+        json.append(",\"hoursWorked\":").append(emp.getHoursWorked());
+        json.append(",\"hourlyRate\":").append(emp.getHourlyRate());
+        json.append(",\"baseSalary\":").append(emp.getBaseSalary());
+        json.append(",\"grossSalary\":").append(gross);
+        json.append(",\"tax\":").append(tax);
+        json.append(",\"netSalary\":").append(gross - tax).append('}');
+    }
+
+    private static void appendTotals(StringBuilder json, PayTotals totals) {
+        json.append("\"grossSalary\":").append(totals.getGrossSalary());
+        json.append(",\"tax\":").append(totals.getTax());
+        json.append(",\"netSalary\":").append(totals.getNetSalary());
+        json.append(",\"hoursWorked\":").append(totals.getHoursWorked());
+        json.append(",\"overtimePay\":").append(totals.getOvertimePay());
+    }
+
+    private static void appendFields(StringBuilder json, Map<String, String> fields) {
+        if (fields == null) {
+            json.append("null");
+            return;
+        }
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            appendString(json, field.getKey());
+            json.append(':');
+            appendString(json, field.getValue());
+        }
+        json.append('}');
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    // HTTP helpers
+
+    private static String[] pathSegments(HttpExchange exchange, String prefix) {
+        String rest = exchange.getRequestURI().getPath().substring(prefix.length());
+        if (rest.startsWith("/")) rest = rest.substring(1);
+        if (rest.endsWith("/")) rest = rest.substring(0, rest.length() - 1);
+        return rest.isEmpty() ? new String[0] : rest.split("/");
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return params;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendString(json, message);
+        send(exchange, status, json.append('}').toString());
+    }
+
+    /**
+     * Start a chunked 200 response whose body is written incrementally
+     */
+    private static Writer startStream(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 1 << 14);
+    }
+
+    /**
+     * Use one virtual thread per request when the runtime supports it (JDK 21+),
+     * otherwise fall back to a fixed pool of REQUEST_THREADS platform threads, with
+     * further requests queued until a thread is free
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(REQUEST_THREADS);
+        }
+    }
+}
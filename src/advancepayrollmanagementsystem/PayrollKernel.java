@@ -0,0 +1,317 @@
+package advancepayrollmanagementsystem;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PayrollKernel computes the gross, tax and net pay of a whole payroll column by column.
+ *
+ * The active employees are gathered once into primitive arrays, one set per employee type
+ * (salary, bonus and benefits for full-time employees, rates and hours for part-time
+ * employees, the pro-rated amount for contractors). Each type's overtime, bracketed tax and
+ * net pay are then computed in straight loops over those arrays with no branches, calls or
+ * object reads, the form the JIT compiles to SIMD instructions (AVX2/AVX-512 where present).
+ * Tax brackets are evaluated as min/max bands instead of if/else, and overtime tiers are the
+ * outer loop so every inner loop is a single pass over the columns.
+ *
+ * Results are identical to the per-employee calculations: every value is computed with the
+ * same operations in the same order, and totals are summed in the employees' order.
+ * Employees the columns cannot describe (anyone with a timesheet, or a subclass of the
+ * standard types) are computed by their own methods, the scalar fallback.
+ */
+public final class PayrollKernel {
+    private static final int FULL_TIME = 0;
+    private static final int PART_TIME = 1;
+    private static final int CONTRACT = 2;
+    private static final int SCALAR = 3;
+
+    private final int count;
+    private final double[] hoursWorked;
+    private final FullTimeColumns fullTime;
+    private final PartTimeColumns partTime;
+    private final ContractColumns contract;
+    private final Employee[] scalar;
+    private final int[] scalarPosition;
+
+    // Outputs, in the order of the employees gathered
+    private final double[] grossSalary;
+    private final double[] tax;
+    private final double[] overtimePay;
+    private long computeNanos;
+
+    private PayrollKernel(List<Employee> employees) {
+        int[] sizes = new int[4];
+        for (Employee emp : employees) {
+            if (emp.isActive()) sizes[kind(emp)]++;
+        }
+        this.count = sizes[FULL_TIME] + sizes[PART_TIME] + sizes[CONTRACT] + sizes[SCALAR];
+        this.hoursWorked = new double[count];
+        this.fullTime = new FullTimeColumns(sizes[FULL_TIME]);
+        this.partTime = new PartTimeColumns(sizes[PART_TIME]);
+        this.contract = new ContractColumns(sizes[CONTRACT]);
+        this.scalar = new Employee[sizes[SCALAR]];
+        this.scalarPosition = new int[sizes[SCALAR]];
+
+        int i = 0;
+        int scalarCount = 0;
+        for (Employee emp : employees) {
+            if (!emp.isActive()) continue;
+            hoursWorked[i] = emp.getHoursWorked();
+            switch (kind(emp)) {
+                case FULL_TIME:
+                    fullTime.add(i, (FullTimeEmployee) emp);
+                    break;
+                case PART_TIME:
+                    partTime.add(i, (PartTimeEmployee) emp);
+                    break;
+                case CONTRACT:
+                    contract.add(i, (ContractEmployee) emp);
+                    break;
+                default:
+                    scalar[scalarCount] = emp;
+                    scalarPosition[scalarCount++] = i;
+            }
+            i++;
+        }
+        this.grossSalary = new double[count];
+        this.tax = new double[count];
+        this.overtimePay = new double[count];
+    }
+
+    /**
+     * Which columns describe an employee; SCALAR for a timesheet or a non-standard type
+     */
+    private static int kind(Employee emp) {
+        if (emp.getTimesheet() != null) return SCALAR;
+        Class<?> type = emp.getClass();
+        if (type == FullTimeEmployee.class) return FULL_TIME;
+        if (type == PartTimeEmployee.class) return PART_TIME;
+        if (type == ContractEmployee.class) return CONTRACT;
+        return SCALAR;
+    }
+
+    /**
+     * Gather the active employees into columns. Contract amounts are pro-rated as of the
+     * current calendar, so pin the pay period first when computing one.
+     * @param employees Employees (only active employees are paid)
+     * @return kernel ready to compute
+     */
+    public static PayrollKernel gather(List<Employee> employees) {
+        return new PayrollKernel(employees);
+    }
+
+    /**
+     * Compute every employee's pay under the active overtime plan
+     */
+    public void compute() {
+        long start = System.nanoTime();
+        OvertimePlan plan = OvertimePlan.active();
+        computeFullTime(plan);
+        computePartTime(plan);
+        computeContract();
+        for (int j = 0; j < scalar.length; j++) {
+            Employee emp = scalar[j];
+            int i = scalarPosition[j];
+            grossSalary[i] = emp.calculateSalary();
+            tax[i] = emp.calculateTax();
+            overtimePay[i] = emp.getOvertimePay();
+        }
+        computeNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Total the computed pay, adding the employees in order as PayTotals.add(PayrollResult) does
+     * @return totals of gross, tax, net, hours and overtime
+     */
+    public PayTotals getTotals() {
+        double gross = 0, taxes = 0, net = 0, hours = 0, overtime = 0;
+        for (int i = 0; i < count; i++) {
+            gross += grossSalary[i];
+            taxes += tax[i];
+            net += grossSalary[i] - tax[i];
+            hours += hoursWorked[i];
+            overtime += overtimePay[i];
+        }
+        return new PayTotals(count, gross, taxes, net, hours, overtime);
+    }
+
+    // Results of the last compute(), by position among the active employees
+    public int getCount() { return count; }
+    public double getGrossSalary(int i) { return grossSalary[i]; }
+    public double getTax(int i) { return tax[i]; }
+    public double getNetSalary(int i) { return grossSalary[i] - tax[i]; }
+    public double getOvertimePay(int i) { return overtimePay[i]; }
+    public int getScalarCount() { return scalar.length; }
+    public double getComputeSeconds() { return computeNanos / 1e9; }
+
+    private void computeFullTime(OvertimePlan plan) {
+        FullTimeColumns c = fullTime;
+        int n = c.size;
+        overtime(plan, "Full-Time", n, c.hours, c.rate, c.schedule, c.overtimeHours, c.overtimePay);
+        double[] base = c.base, bonus = c.bonus, benefits = c.benefits, otPay = c.overtimePay;
+        double[] gross = c.gross, taxes = c.tax;
+        for (int j = 0; j < n; j++) {
+            double g = base[j] + bonus[j] + benefits[j] + otPay[j];
+            gross[j] = g;
+            taxes[j] = Math.min(g, FullTimeEmployee.FIRST_BRACKET) * FullTimeEmployee.FIRST_RATE
+                    + Math.max(0, Math.min(g, FullTimeEmployee.SECOND_BRACKET) - FullTimeEmployee.FIRST_BRACKET)
+                    * FullTimeEmployee.SECOND_RATE
+                    + Math.max(0, g - FullTimeEmployee.SECOND_BRACKET) * FullTimeEmployee.TOP_RATE;
+        }
+        scatter(n, c.position, gross, taxes, otPay);
+    }
+
+    private void computePartTime(OvertimePlan plan) {
+        PartTimeColumns c = partTime;
+        int n = c.size;
+        overtime(plan, "Part-Time", n, c.hours, c.rate, c.schedule, c.overtimeHours, c.overtimePay);
+        double[] hours = c.hours, hourlyRate = c.hourlyRate, otHours = c.overtimeHours, otPay = c.overtimePay;
+        double[] gross = c.gross, taxes = c.tax;
+        for (int j = 0; j < n; j++) {
+            double g = (hours[j] - otHours[j]) * hourlyRate[j] + otPay[j];
+            gross[j] = g;
+            taxes[j] = Math.min(g, PartTimeEmployee.FIRST_BRACKET) * PartTimeEmployee.FIRST_RATE
+                    + Math.max(0, Math.min(g, PartTimeEmployee.SECOND_BRACKET) - PartTimeEmployee.FIRST_BRACKET)
+                    * PartTimeEmployee.SECOND_RATE
+                    + Math.max(0, g - PartTimeEmployee.SECOND_BRACKET) * PartTimeEmployee.TOP_RATE;
+        }
+        scatter(n, c.position, gross, taxes, otPay);
+    }
+
+    private void computeContract() {
+        ContractColumns c = contract;
+        int n = c.size;
+        double[] gross = c.gross, taxes = c.tax;
+        for (int j = 0; j < n; j++) {
+            taxes[j] = gross[j] * ContractEmployee.TAX_RATE;
+        }
+        scatter(n, c.position, gross, taxes, c.overtimePay);
+    }
+
+    /**
+     * Weekly overtime tiers of employees without a timesheet: four equal weeks of the monthly
+     * hours, as OvertimePlan.evaluate() does. A tier that does not apply to an employee (hours
+     * below its threshold, or the weekly cap reached) adds a band of exactly zero.
+     */
+    private static void overtime(OvertimePlan plan, String type, int n, double[] hours, double[] rate,
+                                 double[] schedule, double[] otHours, double[] otPay) {
+        Arrays.fill(otHours, 0, n, 0);
+        Arrays.fill(otPay, 0, n, 0);
+        int t = plan.typeIndex(type);
+        if (t < 0) return;
+        double weeks = OvertimePlan.weeksWithoutTimesheet();
+        double cap = plan.weeklyCap(t);
+        int tiers = plan.tierCount(t);
+        for (int k = 0; k < tiers; k++) {
+            double threshold = plan.tierThreshold(t, k);
+            double to = k + 1 < tiers ? plan.tierThreshold(t, k + 1) : Double.POSITIVE_INFINITY;
+            double multiplier = plan.tierMultiplier(t, k);
+            if (k == 0 && plan.limitsToSchedule(t)) {
+                for (int j = 0; j < n; j++) {
+                    double from = Math.min(threshold, schedule[j]);
+                    double band = Math.max(0, Math.min(Math.min(hours[j] / weeks, to) - from, cap - otHours[j]));
+                    otHours[j] += band;
+                    otPay[j] += band * rate[j] * multiplier;
+                }
+            } else {
+                for (int j = 0; j < n; j++) {
+                    double band = Math.max(0, Math.min(Math.min(hours[j] / weeks, to) - threshold, cap - otHours[j]));
+                    otHours[j] += band;
+                    otPay[j] += band * rate[j] * multiplier;
+                }
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            otHours[j] *= weeks;
+            otPay[j] *= weeks;
+        }
+    }
+
+    private void scatter(int n, int[] position, double[] gross, double[] taxes, double[] otPay) {
+        for (int j = 0; j < n; j++) {
+            int i = position[j];
+            grossSalary[i] = gross[j];
+            tax[i] = taxes[j];
+            overtimePay[i] = otPay[j];
+        }
+    }
+
+    /**
+     * Columns shared by every employee type: position among the gathered employees and results
+     */
+    private static class Columns {
+        int size;
+        final int[] position;
+        final double[] gross;
+        final double[] tax;
+        final double[] overtimePay;
+
+        Columns(int capacity) {
+            this.position = new int[capacity];
+            this.gross = new double[capacity];
+            this.tax = new double[capacity];
+            this.overtimePay = new double[capacity];
+        }
+    }
+
+    private static final class FullTimeColumns extends Columns {
+        final double[] base, bonus, benefits, hours, rate, schedule, overtimeHours;
+
+        FullTimeColumns(int capacity) {
+            super(capacity);
+            base = new double[capacity];
+            bonus = new double[capacity];
+            benefits = new double[capacity];
+            hours = new double[capacity];
+            rate = new double[capacity];
+            schedule = new double[capacity];
+            overtimeHours = new double[capacity];
+        }
+
+        void add(int i, FullTimeEmployee emp) {
+            int j = size++;
+            position[j] = i;
+            base[j] = emp.getBaseSalary();
+            bonus[j] = emp.getMonthlyBonus();
+            benefits[j] = emp.getBenefits();
+            hours[j] = emp.getHoursWorked();
+            rate[j] = emp.getOvertimeBaseRate();
+            schedule[j] = emp.getScheduledWeeklyHours();
+        }
+    }
+
+    private static final class PartTimeColumns extends Columns {
+        final double[] hourlyRate, hours, rate, schedule, overtimeHours;
+
+        PartTimeColumns(int capacity) {
+            super(capacity);
+            hourlyRate = new double[capacity];
+            hours = new double[capacity];
+            rate = new double[capacity];
+            schedule = new double[capacity];
+            overtimeHours = new double[capacity];
+        }
+
+        void add(int i, PartTimeEmployee emp) {
+            int j = size++;
+            position[j] = i;
+            hourlyRate[j] = emp.getHourlyRate();
+            hours[j] = emp.getHoursWorked();
+            rate[j] = emp.getOvertimeBaseRate();
+            schedule[j] = emp.getScheduledWeeklyHours();
+        }
+    }
+
+    private static final class ContractColumns extends Columns {
+        ContractColumns(int capacity) {
+            super(capacity);
+        }
+
+        void add(int i, ContractEmployee emp) {
+            int j = size++;
+            position[j] = i;
+            // Pro-rating is date arithmetic per contract; only the tax is columnar
+            gross[j] = emp.calculateSalary();
+        }
+    }
+}
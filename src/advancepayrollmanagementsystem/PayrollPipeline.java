@@ -0,0 +1,422 @@
+package advancepayrollmanagementsystem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PayrollPipeline runs month-end payroll as a chain of stages:
+ *   ingest → validate → compute → aggregate → export → persist
+ *
+ * Each stage runs on its own thread and hands batches of employees to the next stage
+ * through a bounded queue, so the stages overlap while memory stays bounded.
+ * After every exported batch a checkpoint file records how far each stage got and how
+ * long the export file was; if the run fails, running the pipeline again for the same period
+ * and the same employees resumes after the last exported batch instead of starting from
+ * scratch. Anything written to the export file after that batch is cut off first, so no row
+ * is exported twice. The checkpoint holds a fingerprint of the ordered employee IDs, and a
+ * resume over a different list starts from scratch.
+ */
+public class PayrollPipeline {
+    /**
+     * Pipeline stages in execution order
+     */
+    public enum Stage {
+        INGEST, VALIDATE, COMPUTE, AGGREGATE, EXPORT, PERSIST
+    }
+
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final Batch END = new Batch(-1, new ArrayList<>());
+
+    private final YearMonth period;
+    private final List<Employee> employees;
+    private final YtdLedger ledger;
+    private final PayrollHistoryStore history;
+    private final File exportFile;
+    private final File checkpointFile;
+    private final Runnable afterPersist;
+    private final int batchSize;
+
+    private final long[] stageItems = new long[Stage.values().length];
+    private final long[] stageNanos = new long[Stage.values().length];
+    private final int[] stageLastBatch = new int[Stage.values().length];
+    private PayTotals totals;   // totals of exported batches
+    private int rejected;
+    private String fingerprint;
+    private long exportBytes;   // length of the export file after the last exported batch
+
+    /**
+     * Constructor for PayrollPipeline
+     * @param period Pay period to run
+     * @param employees Employees to pay (the list is copied)
+     * @param ledger Year-to-date ledger used for tax withholding
+     * @param history History store the run is persisted to
+     * @param workDir Directory for the export and checkpoint files
+     * @param afterPersist Action run once the payroll has been persisted (may be null)
+     */
+    public PayrollPipeline(YearMonth period, List<Employee> employees, YtdLedger ledger,
+                           PayrollHistoryStore history, String workDir, Runnable afterPersist) {
+        this(period, employees, ledger, history, workDir, afterPersist, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor for PayrollPipeline with a custom batch size
+     */
+    public PayrollPipeline(YearMonth period, List<Employee> employees, YtdLedger ledger,
+                           PayrollHistoryStore history, String workDir, Runnable afterPersist, int batchSize) {
+        this.period = period;
+        this.employees = new ArrayList<>(employees);
+        this.ledger = ledger;
+        this.history = history;
+        this.exportFile = new File(workDir, "payroll_" + period + ".tsv");
+        this.checkpointFile = new File(workDir, "payroll_" + period + ".ckpt");
+        this.afterPersist = afterPersist;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Run the pipeline, resuming from a checkpoint if one exists for this period
+     * @return true if the run completed, false if a stage failed (the run can be resumed)
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public boolean run() throws InterruptedException {
+        java.util.Arrays.fill(stageItems, 0);
+        java.util.Arrays.fill(stageNanos, 0);
+        java.util.Arrays.fill(stageLastBatch, -1);
+        totals = new PayTotals();
+        rejected = 0;
+        exportBytes = 0;
+        fingerprint = fingerprint(employees);
+        int resumeAfter = loadCheckpoint();
+        int batchCount = (employees.size() + batchSize - 1) / batchSize;
+
+        BlockingQueue<Batch> validateQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Batch> computeQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Batch> aggregateQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Batch> exportQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<Batch> persistQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        // Every stage computes as of the last day of the period
+        BusinessCalendar.Pin pin = BusinessCalendar.pin(period);
+        ExecutorService executor = Executors.newFixedThreadPool(Stage.values().length);
+
+        executor.submit(guard(failure, executor, () -> ingest(resumeAfter + 1, batchCount, validateQueue)));
+        executor.submit(guard(failure, executor, () -> pass(Stage.VALIDATE, validateQueue, computeQueue)));
+        executor.submit(guard(failure, executor, () -> pass(Stage.COMPUTE, computeQueue, aggregateQueue)));
+        executor.submit(guard(failure, executor, () -> pass(Stage.AGGREGATE, aggregateQueue, exportQueue)));
+        executor.submit(guard(failure, executor, () -> export(exportQueue, persistQueue)));
+        executor.submit(guard(failure, executor, () -> persist(persistQueue)));
+
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            pin.close();
+        }
+
+        Exception error = failure.get();
+        if (error != null) {
+            System.out.println("✗ Pipeline failed: " + error.getMessage());
+            System.out.println("  Completed batches are checkpointed; run again to resume.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Print per-stage throughput for the last run
+     */
+    public void printMetrics() {
+        System.out.printf("%-12s %-12s %-12s %-15s%n", "Stage", "Employees", "Busy (ms)", "Employees/sec");
+        System.out.println("-".repeat(55));
+        for (Stage stage : Stage.values()) {
+            int i = stage.ordinal();
+            double seconds = stageNanos[i] / 1e9;
+            System.out.printf("%-12s %-12d %-12.1f %-15.0f%n", stage, stageItems[i], stageNanos[i] / 1e6,
+                    seconds > 0 ? stageItems[i] / seconds : 0);
+        }
+    }
+
+    // Getters
+    public PayTotals getTotals() { return totals; }
+    public int getRejected() { return rejected; }
+    public File getExportFile() { return exportFile; }
+
+    // Stages
+
+    private void ingest(int firstBatch, int batchCount, BlockingQueue<Batch> out) throws InterruptedException {
+        for (int b = firstBatch; b < batchCount; b++) {
+            long start = System.nanoTime();
+            int from = b * batchSize;
+            int to = Math.min(from + batchSize, employees.size());
+            Batch batch = new Batch(b, employees.subList(from, to));
+            record(Stage.INGEST, batch, start);
+            out.put(batch);
+        }
+        out.put(END);
+    }
+
+    /**
+     * Run one of the in-memory stages over every batch
+     */
+    private void pass(Stage stage, BlockingQueue<Batch> in, BlockingQueue<Batch> out) throws Exception {
+        Batch batch;
+        while ((batch = in.take()) != END) {
+            long start = System.nanoTime();
+            switch (stage) {
+                case VALIDATE:
+                    validate(batch);
+                    break;
+                case COMPUTE:
+                    compute(batch);
+                    break;
+                case AGGREGATE:
+                    for (PayrollResult result : batch.results) {
+                        batch.totals.add(result);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Not an in-memory stage: " + stage);
+            }
+            record(stage, batch, start);
+            out.put(batch);
+        }
+        out.put(END);
+    }
+
+    private void validate(Batch batch) {
+        List<Employee> valid = new ArrayList<>(batch.employees.size());
+        for (Employee emp : batch.employees) {
+            if (!emp.isActive()) continue;
+            // Hours of another period are not paid as this period's
+            if (emp.getEmployeeId() == null || emp.getEmployeeId().isEmpty()
+                    || emp.getBaseSalary() < 0 || emp.getHoursWorked() < 0 || emp.getHourlyRate() < 0
+                    || (emp.getTimesheet() != null && !emp.getTimesheet().getPeriod().equals(period))) {
+                batch.rejected++;
+            } else {
+                valid.add(emp);
+            }
+        }
+        batch.employees = valid;
+    }
+
+    private void compute(Batch batch) throws IOException {
+        List<PayrollResult> results = new ArrayList<>(batch.employees.size());
+        for (Employee emp : batch.employees) {
+            results.add(ledger.accumulatorFor(emp.getEmployeeId(), period).post(emp, period));
+        }
+        batch.results = results;
+    }
+
+    private void export(BlockingQueue<Batch> in, BlockingQueue<Batch> out) throws Exception {
+        try (FileOutputStream file = new FileOutputStream(exportFile, true);
+             PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(file), 1 << 16))) {
+            // Cut off rows (or a torn line) a failed run wrote after its last checkpoint
+            file.getChannel().truncate(exportBytes);
+            Batch batch;
+            while ((batch = in.take()) != END) {
+                long start = System.nanoTime();
+                // Amounts are written at full precision so the persisted run matches the computed one
+                StringBuilder line = new StringBuilder(128);
+                for (PayrollResult r : batch.results) {
+                    line.setLength(0);
+                    line.append(clean(r.getEmployeeId())).append('\t')
+                            .append(clean(r.getDepartment())).append('\t')
+                            .append(clean(r.getEmployeeType())).append('\t')
+                            .append(r.getGrossSalary()).append('\t')
+                            .append(r.getTax()).append('\t')
+                            .append(r.getNetSalary()).append('\t')
+                            .append(r.getHoursWorked()).append('\t')
+                            .append(r.getOvertimePay());
+                    writer.println(line);
+                }
+                writer.flush();
+                if (writer.checkError()) {
+                    throw new IOException("Error writing " + exportFile);
+                }
+                rejected += batch.rejected;
+                totals.add(batch.totals);
+                exportBytes = file.getChannel().position();
+                record(Stage.EXPORT, batch, start);
+                saveCheckpoint(false);
+            }
+        }
+        out.put(END);
+    }
+
+    private void persist(BlockingQueue<Batch> in) throws Exception {
+        in.take(); // wait until every batch has been exported
+        long start = System.nanoTime();
+
+        List<PayrollResult> results = new ArrayList<>(employees.size());
+        try (BufferedReader reader = new BufferedReader(new FileReader(exportFile), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] f = line.split("\t");
+                results.add(new PayrollResult(f[0], f[1], f[2], Double.parseDouble(f[3]), Double.parseDouble(f[4]),
+                        Double.parseDouble(f[5]), Double.parseDouble(f[6]), Double.parseDouble(f[7])));
+            }
+        }
+        history.append(new PayrollRun(period, LocalDateTime.now(), results));
+        if (afterPersist != null) {
+            afterPersist.run();
+        }
+
+        stageItems[Stage.PERSIST.ordinal()] += results.size();
+        stageNanos[Stage.PERSIST.ordinal()] += System.nanoTime() - start;
+        saveCheckpoint(true);
+        checkpointFile.delete();
+    }
+
+    // Checkpointing
+
+    /**
+     * Load the checkpoint for this period
+     * @return index of the last exported batch, or -1 to start from scratch
+     */
+    private int loadCheckpoint() {
+        if (!checkpointFile.exists()) return -1;
+
+        Properties checkpoint = new Properties();
+        try (Reader reader = new FileReader(checkpointFile)) {
+            checkpoint.load(reader);
+        } catch (IOException e) {
+            return -1;
+        }
+
+        // A checkpoint is only valid for the same input, and an export file at least as long as it recorded
+        long bytes = Long.parseLong(checkpoint.getProperty("exportBytes", "-1"));
+        if (!String.valueOf(employees.size()).equals(checkpoint.getProperty("employees"))
+                || !String.valueOf(batchSize).equals(checkpoint.getProperty("batchSize"))
+                || !fingerprint.equals(checkpoint.getProperty("fingerprint"))
+                || bytes < 0 || exportFile.length() < bytes) {
+            return -1;
+        }
+
+        exportBytes = bytes;
+        int lastBatch = Integer.parseInt(checkpoint.getProperty("stage.EXPORT.lastBatch", "-1"));
+        rejected = Integer.parseInt(checkpoint.getProperty("rejected", "0"));
+        totals.add(new PayTotals(Integer.parseInt(checkpoint.getProperty("count", "0")),
+                Double.parseDouble(checkpoint.getProperty("gross", "0")),
+                Double.parseDouble(checkpoint.getProperty("tax", "0")),
+                Double.parseDouble(checkpoint.getProperty("net", "0")),
+                Double.parseDouble(checkpoint.getProperty("hours", "0")),
+                Double.parseDouble(checkpoint.getProperty("overtime", "0"))));
+        return lastBatch;
+    }
+
+    /**
+     * Write the checkpoint atomically (temp file + rename)
+     */
+    private void saveCheckpoint(boolean persisted) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("period", period.toString());
+        checkpoint.setProperty("employees", String.valueOf(employees.size()));
+        checkpoint.setProperty("batchSize", String.valueOf(batchSize));
+        checkpoint.setProperty("fingerprint", fingerprint);
+        checkpoint.setProperty("exportBytes", String.valueOf(exportBytes));
+        checkpoint.setProperty("rejected", String.valueOf(rejected));
+        checkpoint.setProperty("persisted", String.valueOf(persisted));
+        checkpoint.setProperty("count", String.valueOf(totals.getCount()));
+        checkpoint.setProperty("gross", String.valueOf(totals.getGrossSalary()));
+        checkpoint.setProperty("tax", String.valueOf(totals.getTax()));
+        checkpoint.setProperty("net", String.valueOf(totals.getNetSalary()));
+        checkpoint.setProperty("hours", String.valueOf(totals.getHoursWorked()));
+        checkpoint.setProperty("overtime", String.valueOf(totals.getOvertimePay()));
+        for (Stage stage : Stage.values()) {
+            checkpoint.setProperty("stage." + stage + ".lastBatch", String.valueOf(stageLastBatch[stage.ordinal()]));
+        }
+
+        File temp = new File(checkpointFile.getPath() + ".tmp");
+        try (Writer writer = new FileWriter(temp)) {
+            checkpoint.store(writer, "Payroll pipeline checkpoint");
+        }
+        Files.move(temp.toPath(), checkpointFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Helpers
+
+    private void record(Stage stage, Batch batch, long start) {
+        int i = stage.ordinal();
+        stageNanos[i] += System.nanoTime() - start;
+        stageItems[i] += stage == Stage.INGEST || stage == Stage.VALIDATE ? batch.size : batch.results.size();
+        stageLastBatch[i] = batch.index;
+    }
+
+    /**
+     * SHA-256 of the employee IDs in list order
+     */
+    private static String fingerprint(List<Employee> employees) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Employee emp : employees) {
+                digest.update(String.valueOf(emp.getEmployeeId()).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ');
+    }
+
+    /**
+     * Wrap a stage so that a failure stops the whole pipeline
+     */
+    private static Runnable guard(AtomicReference<Exception> failure, ExecutorService executor, StageBody body) {
+        return () -> {
+            try {
+                body.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                if (failure.compareAndSet(null, e)) {
+                    executor.shutdownNow();
+                }
+            }
+        };
+    }
+
+    private interface StageBody {
+        void run() throws Exception;
+    }
+
+    /**
+     * A batch of employees travelling through the stages
+     */
+    private static class Batch {
+        final int index;
+        final int size;
+        List<Employee> employees;
+        List<PayrollResult> results = new ArrayList<>();
+        final PayTotals totals = new PayTotals();
+        int rejected;
+
+        Batch(int index, List<Employee> employees) {
+            this.index = index;
+            this.size = employees.size();
+            this.employees = employees;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package advancepayrollmanagementsystem;
+
+/**
+ * PayrollResult holds the computed pay of one employee for one pay period.
+ * Results are immutable so they can be stored, streamed and aggregated safely.
+ */
+public class PayrollResult {
+    private final String employeeId;
+    private final String department;
+    private final String employeeType;
+    private final double grossSalary;
+    private final double tax;
+    private final double netSalary;
+    private final double hoursWorked;
+    private final double overtimePay;
+    
+    /**
+     * Constructor for PayrollResult
+     * @param employeeId Employee ID
+     * @param department Department at the time of the run
+     * @param employeeType Employee type at the time of the run
+     * @param grossSalary Gross salary
+     * @param tax Tax deduction
+     * @param netSalary Net salary
+     * @param hoursWorked Hours worked in the period
+     * @param overtimePay Overtime portion of the gross salary
+     */
+    public PayrollResult(String employeeId, String department, String employeeType, double grossSalary,
+                         double tax, double netSalary, double hoursWorked, double overtimePay) {
+        this.employeeId = employeeId;
+        this.department = SharedDictionary.intern(department);
+        this.employeeType = SharedDictionary.intern(employeeType);
+        this.grossSalary = grossSalary;
+        this.tax = tax;
+        this.netSalary = netSalary;
+        this.hoursWorked = hoursWorked;
+        this.overtimePay = overtimePay;
+    }
+    
+    /**
+     * Compute the current pay of an employee
+     * @param emp Employee to compute
+     * @return payroll result for the employee
+     */
+    public static PayrollResult of(Employee emp) {
+        double gross = emp.calculateSalary();
+        double tax = emp.calculateTax();
+        return new PayrollResult(emp.getEmployeeId(), emp.getDepartment(), emp.getEmployeeType(),
+                gross, tax, gross - tax, emp.getHoursWorked(), emp.getOvertimePay());
+    }
+    
+    // Getters
+    public String getEmployeeId() { return employeeId; }
+    public String getDepartment() { return department; }
+    public String getEmployeeType() { return employeeType; }
+    public double getGrossSalary() { return grossSalary; }
+    public double getTax() { return tax; }
+    public double getNetSalary() { return netSalary; }
+    public double getHoursWorked() { return hoursWorked; }
+    public double getOvertimePay() { return overtimePay; }
+    
+    @Override
+    public String toString() {
+        return String.format("PayrollResult{ID='%s', Gross=%.2f, Tax=%.2f, Net=%.2f}",
+                employeeId, grossSalary, tax, netSalary);
+    }
+}
@@ -0,0 +1,157 @@
+package advancepayrollmanagementsystem;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PayrollResultPublisher streams the payroll of active employees as a Flow publisher.
+ *
+ * Results are computed lazily, one per unit of demand: nothing is buffered, so memory stays
+ * bounded by what the subscriber has requested, and a slow subscriber throttles the computation
+ * instead of letting results pile up. Every subscriber gets its own pass over the employees.
+ *
+ * Signals for one subscription are delivered serially on the publisher's executor. With the
+ * direct executor (the default) they run on the thread that calls request(), which suits
+ * blocking sinks such as files and HTTP responses.
+ */
+public class PayrollResultPublisher implements Flow.Publisher<PayrollResult> {
+    private final List<Employee> employees;
+    private final Executor executor;
+
+    /**
+     * Constructor for PayrollResultPublisher, delivering on the requesting thread
+     * @param employees Employees to compute (inactive employees are skipped)
+     */
+    public PayrollResultPublisher(List<Employee> employees) {
+        this(employees, Runnable::run);
+    }
+
+    /**
+     * Constructor for PayrollResultPublisher
+     * @param employees Employees to compute (inactive employees are skipped)
+     * @param executor Executor that computes and delivers results
+     */
+    public PayrollResultPublisher(List<Employee> employees, Executor executor) {
+        this.employees = Objects.requireNonNull(employees);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super PayrollResult> subscriber) {
+        Objects.requireNonNull(subscriber);
+        ResultSubscription subscription = new ResultSubscription(subscriber, employees.iterator());
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * One subscriber's pass over the employees
+     */
+    private final class ResultSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super PayrollResult> subscriber;
+        private final Iterator<Employee> employees;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private volatile Throwable invalidRequest;
+
+        ResultSubscription(Flow.Subscriber<? super PayrollResult> subscriber, Iterator<Employee> employees) {
+            this.subscriber = subscriber;
+            this.employees = employees;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Demand must be positive: " + n);
+            } else {
+                demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        private void schedule() {
+            // Only the caller that moves pending from 0 starts a drain; nested or concurrent
+            // requests just record demand for the running drain to pick up
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException e) {
+                    cancelled.set(true);
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (drain()) return;
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Deliver results while there is demand
+         * @return true if the subscription has terminated
+         */
+        private boolean drain() {
+            if (cancelled.get()) return true;
+            if (invalidRequest != null) {
+                cancelled.set(true);
+                subscriber.onError(invalidRequest);
+                return true;
+            }
+
+            try {
+                long emitted = 0;
+                long requested = demand.get();
+                while (emitted < requested) {
+                    if (cancelled.get()) return true;
+                    Employee emp = nextActive();
+                    if (emp == null) {
+                        cancelled.set(true);
+                        subscriber.onComplete();
+                        return true;
+                    }
+                    subscriber.onNext(PayrollResult.of(emp));
+                    emitted++;
+                    if (emitted == requested) {
+                        requested = demand.addAndGet(-emitted);
+                        emitted = 0;
+                    }
+                }
+                // Complete without waiting for more demand once the employees are exhausted
+                if (!cancelled.get() && !employees.hasNext()) {
+                    cancelled.set(true);
+                    subscriber.onComplete();
+                    return true;
+                }
+            } catch (RuntimeException e) {
+                cancelled.set(true);
+                subscriber.onError(e);
+                return true;
+            }
+            return false;
+        }
+
+        private Employee nextActive() {
+            while (employees.hasNext()) {
+                Employee emp = employees.next();
+                if (emp.isActive()) return emp;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package advancepayrollmanagementsystem;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PayrollRun is the set of payroll results computed for one pay period.
+ */
+public class PayrollRun {
+    private final YearMonth period;
+    private final LocalDateTime runAt;
+    private final List<PayrollResult> results;
+    
+    /**
+     * Constructor for PayrollRun
+     * @param period Pay period (year and month)
+     * @param runAt Time the payroll was computed
+     * @param results Per-employee results
+     */
+    public PayrollRun(YearMonth period, LocalDateTime runAt, List<PayrollResult> results) {
+        this.period = period;
+        this.runAt = runAt;
+        this.results = Collections.unmodifiableList(new ArrayList<>(results));
+    }
+    
+    /**
+     * Compute a payroll run for all active employees
+     * @param period Pay period
+     * @param employees Employees to include (inactive employees are skipped)
+     * @return computed payroll run
+     */
+    public static PayrollRun compute(YearMonth period, List<Employee> employees) {
+        return compute(period, PayrollBatch.partition(employees));
+    }
+    
+    /**
+     * Compute a payroll run for the active employees of a partitioned batch
+     * @param period Pay period
+     * @param batch Employees partitioned by type (inactive employees are skipped)
+     * @return computed payroll run
+     */
+    public static PayrollRun compute(YearMonth period, PayrollBatch batch) {
+        return new PayrollRun(period, LocalDateTime.now(), batch.compute().toPayrollResults());
+    }
+    
+    /**
+     * Get the totals of all results in this run
+     * @return totals
+     */
+    public PayTotals getTotals() {
+        PayTotals totals = new PayTotals();
+        for (PayrollResult result : results) {
+            totals.add(result);
+        }
+        return totals;
+    }
+    
+    // Getters
+    public YearMonth getPeriod() { return period; }
+    public LocalDateTime getRunAt() { return runAt; }
+    public List<PayrollResult> getResults() { return results; }
+}
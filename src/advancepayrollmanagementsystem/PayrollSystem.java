@@ -1,12 +1,22 @@
 package advancepayrollmanagementsystem;
 
 import java.io.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -33,31 +43,168 @@ public class PayrollSystem {
     private static final String ANSI_WHITE = "\u001B[37m";
     private static final String ANSI_BOLD = "\u001B[1m";
     
+    public static final String DEFAULT_COMPANY = "DEFAULT";
+    static final String COMPANIES_DIR = "companies/";
     private static final String DATA_FILE = "payroll_data.ser";
     private static final String BACKUP_FILE = "payroll_backup.ser";
+    private static final String TIMESHEETS_FILE = "payroll_timesheets.ser";
     private static final String EXPORT_DIR = "reports/";
+    private static final String HISTORY_DIR = "history/";
+    private static final String TEMPLATE_DIR = "templates/";
+    private static final String CHANGES_DIR = "changes/";
     
-    private ArrayList<Employee> employeeList;
-    private Scanner input = new Scanner(System.in);
+    // Compute payroll totals with the columnar PayrollKernel (-Dpayroll.columnarKernel=true)
+    private static final boolean COLUMNAR_KERNEL = Boolean.getBoolean("payroll.columnarKernel");
+    // Load the employees into an OffHeapEmployeeStore and compute payroll totals over it
+    // (-Dpayroll.offHeapStore=true)
+    private static final boolean OFF_HEAP_STORE = Boolean.getBoolean("payroll.offHeapStore");
+    
+    // Direct deposit origin; override with -Dpayroll.bank.* for the company's bank agreement
+    private static final String BANK_COMPANY_NAME = System.getProperty("payroll.bank.companyName", "ADVANCE PAYROLL");
+    private static final String BANK_COMPANY_ID = System.getProperty("payroll.bank.companyId", "1000000001");
+    private static final String BANK_ORIGIN_ROUTING = System.getProperty("payroll.bank.originRouting", "011000015");
+    private static final String BANK_DESTINATION_ROUTING = System.getProperty("payroll.bank.destinationRouting", "011000015");
+    private static final String BANK_DESTINATION_NAME = System.getProperty("payroll.bank.destinationName", "FEDERAL RESERVE BANK");
+    
+    // Company served by this system; its files live under the company's root directory
+    private final String company;
+    private final String dataFile;
+    private final String backupFile;
+    private final String timesheetsFile;
+    private final String exportDir;
+    
+    // Versioned employee list: reads pin a snapshot, edits publish copy-on-write versions
+    private final EmployeeStore employeeStore = new EmployeeStore();
+    private final Map<String, Employee> employeeIndex = new ConcurrentHashMap<>();
+    // Names and routing numbers of the employees, rebuilt whenever the list is replaced
+    private SharedDictionary dictionary = new SharedDictionary();
+    private volatile EmployeeIndex queryIndex;
+    // Employees partitioned by type for payroll computation, rebuilt like queryIndex
+    private volatile PayrollBatch payrollBatch;
+    // Off-heap copy of the employees for payroll totals, with the list version and overtime plan
+    // it was loaded from; null once loaded if an employee's type cannot be stored off the heap
+    private OffHeapEmployeeStore offHeapStore;
+    private long offHeapVersion = -1;
+    private OvertimePlan offHeapPlan;
+    private Scanner input;
+    private final PayrollHistoryStore historyStore;
+    private final YtdLedger ytdLedger;
+    // Change-data-capture stream of employee additions, updates and deletions
+    private final EmployeeChangeLog changeLog;
+    // Started by the first punch; credits hours to the period of the day worked
+    private TimeClock timeClock;
+    // Timesheets of periods after an employee's open one, applied once that period is recorded
+    private final ConcurrentSkipListMap<YearMonth, Map<String, Timesheet>> pendingTimesheets = new ConcurrentSkipListMap<>();
+    // Compiled on the first leave accrual
+    private LeavePolicy leavePolicy;
     
     /**
      * Constructor initializes the employee list and creates necessary directories
+     * for the default company
      */
     public PayrollSystem() {
-        this.employeeList = new ArrayList<>();
-        createDirectories();
+        this(DEFAULT_COMPANY);
+    }
+    
+    /**
+     * Constructor for the payroll of one company. Each company has its own employee data,
+     * backup, pay-period history and reports under companies/<code>/. The default company
+     * keeps them in the working directory, as single-company installations always have.
+     * @param company Company code (letters, digits, '-' and '_')
+     */
+    public PayrollSystem(String company) {
+        this.company = normalizeCompany(company);
+        String root = DEFAULT_COMPANY.equals(this.company) ? "" : COMPANIES_DIR + this.company + "/";
+        this.dataFile = root + DATA_FILE;
+        this.backupFile = root + BACKUP_FILE;
+        this.timesheetsFile = root + TIMESHEETS_FILE;
+        this.exportDir = root + EXPORT_DIR;
+        this.historyStore = new PayrollHistoryStore(root + HISTORY_DIR);
+        this.ytdLedger = new YtdLedger(historyStore);
+        this.changeLog = new EmployeeChangeLog(root + CHANGES_DIR);
+    }
+    
+    /**
+     * Get the time clock, starting it on first use. One clock serves every month: hours are
+     * credited to the period of the day worked, and clock-ins stay open across month end.
+     * @return time clock accepting punches from the previous month on
+     */
+    public synchronized TimeClock getTimeClock() {
+        if (timeClock == null) {
+            timeClock = new TimeClock(this::findEmployee, this::applyTimesheets, this::openingTimesheet,
+                    YearMonth.now().minusMonths(1), java.time.ZoneId.systemDefault());
+        }
+        return timeClock;
+    }
+    
+    /**
+     * Get the timesheet the time clock starts an employee's hours of a period from
+     */
+    private Timesheet openingTimesheet(String employeeId, YearMonth period) {
+        Map<String, Timesheet> pending = pendingTimesheets.get(period);
+        Timesheet sheet = pending != null ? pending.get(employeeId) : null;
+        if (sheet != null) return sheet;
+        Employee emp = findEmployee(employeeId);
+        return emp != null ? emp.getTimesheet() : null;
+    }
+    
+    /**
+     * Apply punches still waiting in the time clock to the employees
+     */
+    private void flushTimeClock() {
+        TimeClock clock;
+        synchronized (this) {
+            clock = timeClock;
+        }
+        if (clock != null) {
+            clock.flush();
+        }
     }
     
     /**
-     * Create necessary directories for the system
+     * Validate a company code; codes are case-insensitive
+     * @param company Company code
+     * @return the code in upper case
+     */
+    public static String normalizeCompany(String company) {
+        String code = company == null ? "" : company.trim().toUpperCase(Locale.ROOT);
+        if (!code.matches("[A-Z0-9_-]{1,32}")) {
+            throw new IllegalArgumentException("Invalid company code: " + company);
+        }
+        return code;
+    }
+    
+    /**
+     * Create necessary directories for the system; called before writing reports,
+     * so runs that only read never touch the file system
      */
     private void createDirectories() {
-        File reportsDir = new File(EXPORT_DIR);
+        File reportsDir = new File(exportDir);
         if (!reportsDir.exists()) {
             reportsDir.mkdirs();
         }
     }
     
+    /**
+     * Console input, created on first use so headless runs never open System.in
+     */
+    private Scanner console() {
+        if (input == null) {
+            input = new Scanner(System.in);
+        }
+        return input;
+    }
+    
+    /**
+     * Create the directory holding a data file, for companies saved for the first time
+     */
+    private static void createParentDirectory(String file) {
+        File parent = new File(file).getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+    }
+    
     // Employee Management Methods
     
     /**
@@ -65,8 +212,20 @@ public class PayrollSystem {
      * @param employee Employee to add
      */
     public void addEmployee(Employee employee) {
-        if (employee != null && !employeeExists(employee.getEmployeeId())) {
-            employeeList.add(employee);
+        boolean added = false;
+        synchronized (this) {
+            if (employee != null && !employeeExists(employee.getEmployeeId())) {
+                employee.shareValues(dictionary);
+                employeeStore.add(employee);
+                employeeIndex.put(indexKey(employee.getEmployeeId()), employee);
+                queryIndex = null;
+                payrollBatch = null;
+                added = true;
+            }
+        }
+        
+        if (added) {
+            publishChange(EmployeeChange.Type.ADDED, employee.getEmployeeId(), null, EmployeeChange.snapshot(employee));
             System.out.println(ANSI_GREEN + "✓ Employee added successfully!" + ANSI_RESET);
         } else {
             System.out.println(ANSI_RED + "✗ Employee already exists or invalid data!" + ANSI_RESET);
@@ -79,8 +238,7 @@ public class PayrollSystem {
      * @return true if employee exists, false otherwise
      */
     public boolean employeeExists(String employeeId) {
-        return employeeList.stream()
-                .anyMatch(emp -> emp.getEmployeeId().equalsIgnoreCase(employeeId));
+        return employeeId != null && employeeIndex.containsKey(indexKey(employeeId));
     }
     
     /**
@@ -89,16 +247,51 @@ public class PayrollSystem {
      * @return Employee object if found, null otherwise
      */
     public Employee findEmployee(String employeeId) {
-        return employeeList.stream()
-                .filter(emp -> emp.getEmployeeId().equalsIgnoreCase(employeeId))
-                .findFirst()
-                .orElse(null);
+        return employeeId != null ? employeeIndex.get(indexKey(employeeId)) : null;
+    }
+    
+    /**
+     * Get a consistent copy of the employee list, safe to iterate while the system is being edited
+     * @return copy of all employees
+     */
+    public List<Employee> getEmployees() {
+        EmployeeStore.Snapshot snapshot = employeeStore.snapshot();
+        try {
+            return new ArrayList<>(snapshot.getEmployees());
+        } finally {
+            snapshot.close();
+        }
+    }
+    
+    /**
+     * Pin the current version of the employee list for a long read; edits made while it is
+     * open publish new versions and are not seen by it
+     * @return snapshot to read, closed by the caller
+     */
+    public EmployeeStore.Snapshot snapshotEmployees() {
+        return employeeStore.snapshot();
+    }
+    
+    /**
+     * Run a read over a pinned snapshot of the employees
+     */
+    private void readSnapshot(Consumer<List<Employee>> reader) {
+        EmployeeStore.Snapshot snapshot = employeeStore.snapshot();
+        try {
+            reader.accept(snapshot.getEmployees());
+        } finally {
+            snapshot.close();
+        }
     }
     
     /**
      * Display all employees in a formatted table
      */
     public void displayAllEmployees() {
+        readSnapshot(this::displayAllEmployees);
+    }
+    
+    private void displayAllEmployees(List<Employee> employeeList) {
         if (employeeList.isEmpty()) {
             System.out.println(ANSI_YELLOW + "\nNo employees found in the system." + ANSI_RESET);
             return;
@@ -136,7 +329,39 @@ public class PayrollSystem {
      * @param searchTerm Search term
      */
     public void searchEmployees(int searchType, String searchTerm) {
+        List<Employee> results;
+        try {
+            results = findEmployees(searchType, searchTerm);
+        } catch (IllegalArgumentException e) {
+            System.out.println(ANSI_RED + "✗ Invalid query: " + e.getMessage() + ANSI_RESET);
+            return;
+        }
+        
+        if (searchType == 4) {
+            System.out.println(ANSI_CYAN + "\nQuery plan:" + ANSI_RESET);
+            for (String step : EmployeeQuery.parse(searchTerm).plan(getQueryIndex()).explain()) {
+                System.out.println(ANSI_WHITE + "  " + step + ANSI_RESET);
+            }
+        }
+        
+        if (results.isEmpty()) {
+            System.out.println(ANSI_YELLOW + "\nNo employees found matching: " + searchTerm + ANSI_RESET);
+        } else {
+            System.out.println(ANSI_GREEN + "\n✓ Found " + results.size() + " employee(s):" + ANSI_RESET);
+            displayEmployeeList(results);
+        }
+    }
+    
+    /**
+     * Find employees by different criteria
+     * @param searchType 1=ID, 2=Name, 3=Department, 4=Query (see EmployeeQuery)
+     * @param searchTerm Search term
+     * @return matching employees
+     * @throws IllegalArgumentException if a query is malformed
+     */
+    public List<Employee> findEmployees(int searchType, String searchTerm) {
         List<Employee> results = new ArrayList<>();
+        String term = searchTerm.toLowerCase();
         
         switch (searchType) {
             case 1: // Search by ID
@@ -144,23 +369,20 @@ public class PayrollSystem {
                 if (emp != null) results.add(emp);
                 break;
             case 2: // Search by Name
-                results = employeeList.stream()
-                        .filter(e -> e.getFullName().toLowerCase().contains(searchTerm.toLowerCase()))
+                results = getEmployees().stream()
+                        .filter(e -> e.getFullName().toLowerCase().contains(term))
                         .collect(Collectors.toList());
                 break;
             case 3: // Search by Department
-                results = employeeList.stream()
-                        .filter(e -> e.getDepartment().toLowerCase().contains(searchTerm.toLowerCase()))
+                results = getEmployees().stream()
+                        .filter(e -> e.getDepartment().toLowerCase().contains(term))
                         .collect(Collectors.toList());
                 break;
+            case 4: // Query
+                results = EmployeeQuery.parse(searchTerm).execute(getQueryIndex());
+                break;
         }
-        
-        if (results.isEmpty()) {
-            System.out.println(ANSI_YELLOW + "\nNo employees found matching: " + searchTerm + ANSI_RESET);
-        } else {
-            System.out.println(ANSI_GREEN + "\n✓ Found " + results.size() + " employee(s):" + ANSI_RESET);
-            displayEmployeeList(results);
-        }
+        return results;
     }
     
     /**
@@ -168,11 +390,13 @@ public class PayrollSystem {
      * @param employeeId Employee ID to update
      */
     public void updateEmployee(String employeeId) {
-        Employee emp = findEmployee(employeeId);
-        if (emp == null) {
+        Employee current = findEmployee(employeeId);
+        if (current == null) {
             System.out.println(ANSI_RED + "✗ Employee not found!" + ANSI_RESET);
             return;
         }
+        // Edits go to a copy, published when complete
+        Employee emp = current.copy();
         
         System.out.println(ANSI_CYAN + "\nCurrent Employee Information:");
         displayEmployeeDetails(emp);
@@ -182,12 +406,14 @@ public class PayrollSystem {
         System.out.println("2. Salary/Rate Information");
         System.out.println("3. Hours Worked");
         System.out.println("4. Department");
-        System.out.println("5. Status (Active/Inactive)" + ANSI_RESET);
+        System.out.println("5. Status (Active/Inactive)");
+        System.out.println("6. Bank Details" + ANSI_RESET);
         
-        System.out.print(ANSI_WHITE + "Choice (1-5): " + ANSI_RESET);
-        int choice = input.nextInt();
-        input.nextLine(); // consume newline
+        System.out.print(ANSI_WHITE + "Choice (1-6): " + ANSI_RESET);
+        int choice = console().nextInt();
+        console().nextLine(); // consume newline
         
+        Map<String, String> before = EmployeeChange.snapshot(emp);
         switch (choice) {
             case 1:
                 updateBasicInfo(emp);
@@ -197,12 +423,12 @@ public class PayrollSystem {
                 break;
             case 3:
                 System.out.print(ANSI_WHITE + "New Hours Worked: " + ANSI_RESET);
-                double hours = input.nextDouble();
+                double hours = console().nextDouble();
                 emp.setHoursWorked(hours);
                 break;
             case 4:
                 System.out.print(ANSI_WHITE + "New Department: " + ANSI_RESET);
-                String dept = input.nextLine();
+                String dept = console().nextLine();
                 emp.setDepartment(dept);
                 break;
             case 5:
@@ -210,11 +436,21 @@ public class PayrollSystem {
                 System.out.println(ANSI_GREEN + "✓ Status changed to: " + 
                         (emp.isActive() ? "Active" : "Inactive") + ANSI_RESET);
                 break;
+            case 6:
+                if (!updateBankDetails(emp)) return;
+                break;
             default:
                 System.out.println(ANSI_RED + "Invalid choice!" + ANSI_RESET);
                 return;
         }
         
+        if (!commitEdit(current, emp)) {
+            System.out.println(ANSI_RED + "✗ Employee was changed or deleted while you were editing; update not saved!" + ANSI_RESET);
+            return;
+        }
+        EmployeeChange.Type type = choice != 5 ? EmployeeChange.Type.UPDATED
+                : emp.isActive() ? EmployeeChange.Type.ACTIVATED : EmployeeChange.Type.DEACTIVATED;
+        publishChange(type, emp.getEmployeeId(), before, EmployeeChange.snapshot(emp));
         System.out.println(ANSI_GREEN + "✓ Employee updated successfully!" + ANSI_RESET);
     }
     
@@ -223,18 +459,42 @@ public class PayrollSystem {
      */
     private void updateBasicInfo(Employee emp) {
         System.out.print(ANSI_WHITE + "New First Name (current: " + emp.getFirstName() + "): " + ANSI_RESET);
-        String firstName = input.nextLine().trim();
+        String firstName = console().nextLine().trim();
         if (!firstName.isEmpty()) emp.setFirstName(firstName);
         
         System.out.print(ANSI_WHITE + "New Last Name (current: " + emp.getLastName() + "): " + ANSI_RESET);
-        String lastName = input.nextLine().trim();
+        String lastName = console().nextLine().trim();
         if (!lastName.isEmpty()) emp.setLastName(lastName);
         
         System.out.print(ANSI_WHITE + "New Email (current: " + emp.getEmail() + "): " + ANSI_RESET);
-        String email = input.nextLine().trim();
+        String email = console().nextLine().trim();
         if (!email.isEmpty()) emp.setEmail(email);
     }
     
+    /**
+     * Update direct deposit details
+     * @return true if the details were valid and saved
+     */
+    private boolean updateBankDetails(Employee emp) {
+        System.out.print(ANSI_WHITE + "Routing Number (9 digits): " + ANSI_RESET);
+        String routing = console().nextLine().trim();
+        if (!PaymentFileGenerator.isValidRoutingNumber(routing)) {
+            System.out.println(ANSI_RED + "✗ Invalid routing number!" + ANSI_RESET);
+            return false;
+        }
+        
+        System.out.print(ANSI_WHITE + "Account Number: " + ANSI_RESET);
+        String account = console().nextLine().trim();
+        if (!PaymentFileGenerator.isValidAccountNumber(account)) {
+            System.out.println(ANSI_RED + "✗ Invalid account number!" + ANSI_RESET);
+            return false;
+        }
+        
+        emp.setBankRoutingNumber(routing);
+        emp.setBankAccountNumber(account);
+        return true;
+    }
+    
     /**
      * Update salary/rate information
      */
@@ -242,20 +502,20 @@ public class PayrollSystem {
         if (emp instanceof FullTimeEmployee) {
             FullTimeEmployee ftEmp = (FullTimeEmployee) emp;
             System.out.print(ANSI_WHITE + "New Monthly Salary (current: " + emp.getBaseSalary() + "): " + ANSI_RESET);
-            double salary = input.nextDouble();
+            double salary = console().nextDouble();
             emp.setBaseSalary(salary);
             
             System.out.print(ANSI_WHITE + "New Benefits (current: " + ftEmp.getBenefits() + "): " + ANSI_RESET);
-            double benefits = input.nextDouble();
+            double benefits = console().nextDouble();
             ftEmp.setBenefits(benefits);
         } else if (emp instanceof PartTimeEmployee) {
             System.out.print(ANSI_WHITE + "New Hourly Rate (current: " + emp.getHourlyRate() + "): " + ANSI_RESET);
-            double rate = input.nextDouble();
+            double rate = console().nextDouble();
             emp.setHourlyRate(rate);
         } else if (emp instanceof ContractEmployee) {
             ContractEmployee ctEmp = (ContractEmployee) emp;
             System.out.print(ANSI_WHITE + "New Contract Amount (current: " + ctEmp.getContractAmount() + "): " + ANSI_RESET);
-            double amount = input.nextDouble();
+            double amount = console().nextDouble();
             ctEmp.setContractAmount(amount);
         }
     }
@@ -275,10 +535,12 @@ public class PayrollSystem {
         displayEmployeeDetails(emp);
         
         System.out.print(ANSI_RED + "\nAre you sure you want to delete this employee? (yes/no): " + ANSI_RESET);
-        String confirmation = input.nextLine().trim();
+        String confirmation = console().nextLine().trim();
         
         if ("yes".equalsIgnoreCase(confirmation)) {
-            employeeList.remove(emp);
+            Map<String, String> before = EmployeeChange.snapshot(emp);
+            removeEmployee(emp);
+            publishChange(EmployeeChange.Type.DELETED, emp.getEmployeeId(), before, null);
             System.out.println(ANSI_GREEN + "✓ Employee deleted successfully!" + ANSI_RESET);
         } else {
             System.out.println(ANSI_CYAN + "Operation cancelled." + ANSI_RESET);
@@ -291,6 +553,10 @@ public class PayrollSystem {
      * Calculate and display monthly salary for all employees
      */
     public void calculateMonthlySalary() {
+        readSnapshot(this::calculateMonthlySalary);
+    }
+    
+    private void calculateMonthlySalary(List<Employee> employeeList) {
         if (employeeList.isEmpty()) {
             System.out.println(ANSI_YELLOW + "\nNo employees found in the system." + ANSI_RESET);
             return;
@@ -348,12 +614,13 @@ public class PayrollSystem {
     /**
      * Display individual employee salary details
      * @param employeeId Employee ID
+     * @return false if there is no such employee
      */
-    public void monthlySalaryIndividual(String employeeId) {
+    public boolean monthlySalaryIndividual(String employeeId) {
         Employee emp = findEmployee(employeeId);
         if (emp == null) {
             System.out.println(ANSI_RED + "✗ Employee not found!" + ANSI_RESET);
-            return;
+            return false;
         }
         
         System.out.println(ANSI_CYAN + "\n" + "═".repeat(80));
@@ -362,6 +629,7 @@ public class PayrollSystem {
         
         displayEmployeeDetails(emp);
         displaySalaryBreakdown(emp);
+        return true;
     }
     
     /**
@@ -376,6 +644,13 @@ public class PayrollSystem {
         System.out.println(ANSI_WHITE + "Status: " + (emp.isActive() ? ANSI_GREEN + "Active" : ANSI_RED + "Inactive"));
         System.out.println(ANSI_WHITE + "Date of Joining: " + ANSI_CYAN + emp.getFormattedDateOfJoining());
         System.out.println(ANSI_WHITE + "Years of Service: " + ANSI_CYAN + emp.getYearsOfService() + " years" + ANSI_RESET);
+        if (emp instanceof FullTimeEmployee) {
+            FullTimeEmployee ftEmp = (FullTimeEmployee) emp;
+            System.out.println(ANSI_WHITE + "Vacation Balance: " + ANSI_CYAN + String.format("%.2f days (%d per year)",
+                    ftEmp.getVacationBalance(), ftEmp.getVacationDays()));
+            System.out.println(ANSI_WHITE + "Sick Leave Balance: " + ANSI_CYAN + String.format("%.2f days (%d per year)",
+                    ftEmp.getSickLeaveBalance(), ftEmp.getSickLeaveDays()) + ANSI_RESET);
+        }
     }
     
     /**
@@ -383,18 +658,24 @@ public class PayrollSystem {
      */
     private void displaySalaryBreakdown(Employee emp) {
         System.out.println(ANSI_YELLOW + "\n--- SALARY BREAKDOWN ---" + ANSI_RESET);
+        OvertimePlan.Result overtime = OvertimePlan.active().evaluate(emp);
         
         if (emp instanceof FullTimeEmployee) {
             FullTimeEmployee ftEmp = (FullTimeEmployee) emp;
             System.out.println(ANSI_WHITE + "Base Salary: " + ANSI_GREEN + "$" + String.format("%.2f", emp.getBaseSalary()));
             System.out.println(ANSI_WHITE + "Benefits: " + ANSI_GREEN + "$" + String.format("%.2f", ftEmp.getBenefits()));
             System.out.println(ANSI_WHITE + "Monthly Bonus: " + ANSI_GREEN + "$" + String.format("%.2f", ftEmp.getMonthlyBonus()));
+            if (overtime.hasOvertime()) {
+                System.out.println(ANSI_WHITE + "Overtime Hours: " + ANSI_CYAN + String.format("%.1f", overtime.getHours()));
+                System.out.println(ANSI_WHITE + "Overtime Pay: " + ANSI_GREEN + "$" + String.format("%.2f", overtime.getPay()));
+            }
         } else if (emp instanceof PartTimeEmployee) {
             System.out.println(ANSI_WHITE + "Hourly Rate: " + ANSI_GREEN + "$" + String.format("%.2f", emp.getHourlyRate()));
             System.out.println(ANSI_WHITE + "Hours Worked: " + ANSI_CYAN + String.format("%.1f", emp.getHoursWorked()));
-            System.out.println(ANSI_WHITE + "Regular Pay: " + ANSI_GREEN + "$" + String.format("%.2f", emp.getHoursWorked() * emp.getHourlyRate()));
-            if (emp.getHoursWorked() > 40) {
-                System.out.println(ANSI_WHITE + "Overtime Pay: " + ANSI_GREEN + "$" + String.format("%.2f", emp.calculateOvertime()));
+            System.out.println(ANSI_WHITE + "Regular Pay: " + ANSI_GREEN + "$" + String.format("%.2f", (emp.getHoursWorked() - overtime.getHours()) * emp.getHourlyRate()));
+            if (overtime.hasOvertime()) {
+                System.out.println(ANSI_WHITE + "Overtime Hours: " + ANSI_CYAN + String.format("%.1f", overtime.getHours()));
+                System.out.println(ANSI_WHITE + "Overtime Pay: " + ANSI_GREEN + "$" + String.format("%.2f", overtime.getPay()));
             }
         } else if (emp instanceof ContractEmployee) {
             ContractEmployee ctEmp = (ContractEmployee) emp;
@@ -415,13 +696,12 @@ public class PayrollSystem {
      * Update hours worked for an employee
      */
     public void updateEmployeeHours(String employeeId, double hours) {
-        Employee emp = findEmployee(employeeId);
+        Employee emp = setEmployeeHours(employeeId, hours);
         if (emp == null) {
             System.out.println(ANSI_RED + "✗ Employee not found!" + ANSI_RESET);
             return;
         }
         
-        emp.setHoursWorked(hours);
         System.out.println(ANSI_GREEN + "✓ Hours updated successfully!" + ANSI_RESET);
         
         // Show updated salary
@@ -430,17 +710,582 @@ public class PayrollSystem {
     }
     
     /**
-     * Process overtime for all eligible employees
+     * Record an employee's timesheet; the hours worked become the timesheet total
+     * @param employeeId Employee ID
+     * @param timesheet Hours by week or by day
+     */
+    public void updateEmployeeTimesheet(String employeeId, Timesheet timesheet) {
+        Employee emp;
+        synchronized (this) {
+            Employee current = findEmployee(employeeId);
+            if (current == null) {
+                System.out.println(ANSI_RED + "✗ Employee not found!" + ANSI_RESET);
+                return;
+            }
+            emp = current.copy();
+            emp.setTimesheet(timesheet.continuing(current.getTimesheet()));
+            commitEdit(current, emp);
+        }
+        
+        System.out.println(ANSI_GREEN + "✓ Timesheet recorded: " + String.format("%.1f", timesheet.getTotalHours()) + " hours" + ANSI_RESET);
+        System.out.println(ANSI_CYAN + "\nUpdated Salary Information:");
+        displaySalaryBreakdown(emp);
+    }
+    
+    /**
+     * Set hours worked for an employee without console output
+     * @param employeeId Employee ID
+     * @param hours Hours worked
+     * @return updated employee, or null if not found
+     */
+    public synchronized Employee setEmployeeHours(String employeeId, double hours) {
+        Employee current = findEmployee(employeeId);
+        if (current == null) return null;
+        Employee emp = current.copy();
+        emp.setHoursWorked(hours);
+        commitEdit(current, emp);
+        return emp;
+    }
+    
+    /**
+     * Give employees new timesheets, all in one version; employees deleted meanwhile are skipped.
+     * A timesheet never replaces one of an earlier period that has not been recorded yet, so
+     * that period is still paid its own hours: it is held back until the period is recorded.
+     * Timesheets of a period before the employee's current one are dropped.
+     * @param timesheets Timesheet by employee ID
+     */
+    public synchronized void applyTimesheets(Map<String, Timesheet> timesheets) {
+        Map<Employee, Employee> edits = new IdentityHashMap<>(timesheets.size() * 2);
+        Map<YearMonth, Boolean> recorded = new TreeMap<>();
+        for (Map.Entry<String, Timesheet> entry : timesheets.entrySet()) {
+            Employee current = findEmployee(entry.getKey());
+            if (current == null) continue;
+            Timesheet sheet = entry.getValue();
+            Timesheet open = current.getTimesheet();
+            if (open != null && !open.getPeriod().equals(sheet.getPeriod())) {
+                if (open.getPeriod().isAfter(sheet.getPeriod())) continue;
+                if (!recorded.computeIfAbsent(open.getPeriod(), this::isRecorded)) {
+                    pendingTimesheets.computeIfAbsent(sheet.getPeriod(), p -> new ConcurrentHashMap<>())
+                            .put(current.getEmployeeId(), sheet);
+                    continue;
+                }
+            }
+            Employee emp = current.copy();
+            emp.setTimesheet(sheet.continuing(open));
+            edits.put(current, emp);
+        }
+        commitEdits(edits);
+    }
+    
+    /**
+     * Move employees on from a period that has just been recorded: apply the timesheets held
+     * back for them, oldest period first, and give everyone still on a timesheet of the
+     * recorded period (or an earlier one) an empty timesheet of the next period
+     * @param recorded Period just recorded
+     */
+    private synchronized void rollTimesheets(YearMonth recorded) {
+        for (YearMonth period : new ArrayList<>(pendingTimesheets.keySet())) {
+            Map<String, Timesheet> pending = pendingTimesheets.remove(period);
+            if (pending != null) {
+                applyTimesheets(pending);
+            }
+        }
+        YearMonth next = recorded.plusMonths(1);
+        Map<Employee, Employee> edits = new IdentityHashMap<>();
+        for (Employee current : getEmployees()) {
+            Timesheet sheet = current.getTimesheet();
+            if (sheet == null || sheet.getPeriod().isAfter(recorded)) continue;
+            Employee emp = current.copy();
+            emp.setTimesheet(Timesheet.ofDays(next, new double[next.lengthOfMonth()]).continuing(sheet));
+            edits.put(current, emp);
+        }
+        commitEdits(edits);
+    }
+    
+    private boolean isRecorded(YearMonth period) {
+        try {
+            return historyStore.readSummary(period) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Stream the payroll of all active employees with backpressure.
+     * Results are computed as the subscriber requests them, on the requesting thread.
+     * @return publisher of payroll results
+     */
+    public PayrollResultPublisher publishPayroll() {
+        return new PayrollResultPublisher(getEmployees());
+    }
+    
+    /**
+     * Compute the payroll of all active employees on worker processes and display the totals
+     * @param workers Loopback addresses of running PayrollWorker processes
+     */
+    public void calculateDistributedPayroll(List<java.net.InetSocketAddress> workers) {
+        DistributedPayroll coordinator = new DistributedPayroll(workers);
+        try {
+            PayTotals totals = new PayTotals();
+            for (PayrollResult result : coordinator.compute(getEmployees())) {
+                totals.add(result);
+            }
+            
+            System.out.println(ANSI_CYAN + "\n" + "═".repeat(60));
+            System.out.println(ANSI_BOLD + "          DISTRIBUTED PAYROLL RUN" + ANSI_RESET);
+            System.out.println(ANSI_CYAN + "═".repeat(60) + ANSI_RESET);
+            System.out.println(ANSI_WHITE + "Employees Paid: " + ANSI_CYAN + totals.getCount());
+            System.out.println(ANSI_WHITE + "Total Gross: " + ANSI_GREEN + "$" + String.format("%.2f", totals.getGrossSalary()));
+            System.out.println(ANSI_WHITE + "Total Tax: " + ANSI_RED + "$" + String.format("%.2f", totals.getTax()));
+            System.out.println(ANSI_WHITE + "Total Net: " + ANSI_GREEN + "$" + String.format("%.2f", totals.getNetSalary()));
+            System.out.println(ANSI_WHITE + "Workers: " + ANSI_CYAN + coordinator.getWorkerCount() +
+                    "  Partitions: " + coordinator.getPartitions() +
+                    "  Time: " + String.format("%.2f s", coordinator.getElapsedSeconds()) + ANSI_RESET);
+            
+            for (String failed : coordinator.getFailedWorkers()) {
+                System.out.println(ANSI_YELLOW + "Worker failed: " + failed + ANSI_RESET);
+            }
+            if (coordinator.getReassigned() > 0) {
+                System.out.println(ANSI_YELLOW + coordinator.getReassigned() + " partition(s) reassigned to other workers" + ANSI_RESET);
+            }
+            if (coordinator.getLocalPartitions() > 0) {
+                System.out.println(ANSI_YELLOW + coordinator.getLocalPartitions() + " partition(s) computed locally" + ANSI_RESET);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println(ANSI_RED + "✗ Distributed payroll interrupted." + ANSI_RESET);
+        }
+    }
+    
+    /**
+     * Write the NACHA direct-deposit file paying the net salary of all active employees
+     * @param effectiveDate Date the credits should settle
+     * @return true if the file was written
+     */
+    public boolean generatePaymentFile(LocalDate effectiveDate) {
+        createDirectories();
+        File file = new File(exportDir + "payments_" + effectiveDate + ".ach");
+        PaymentFileGenerator generator = new PaymentFileGenerator(BANK_COMPANY_NAME, BANK_COMPANY_ID,
+                BANK_ORIGIN_ROUTING, BANK_DESTINATION_ROUTING, BANK_DESTINATION_NAME);
+        
+        try {
+            generator.generate(getEmployees(), effectiveDate, file);
+            System.out.println(ANSI_GREEN + "✓ Payment file generated: " + file.getPath() + ANSI_RESET);
+            System.out.println(ANSI_WHITE + "Batches: " + generator.getBatchCount() +
+                    "  Entries: " + generator.getEntryCount() +
+                    "  Entry Hash: " + generator.getEntryHash());
+            System.out.println("Total Credit: " + ANSI_GREEN + "$" + String.format("%.2f", generator.getTotalCredit()) + ANSI_RESET);
+            if (generator.getSkipped() > 0) {
+                System.out.println(ANSI_YELLOW + generator.getSkipped() +
+                        " active employee(s) skipped (no bank details or no net pay)" + ANSI_RESET);
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println(ANSI_RED + "✗ Error generating payment file: " + e.getMessage() + ANSI_RESET);
+            return false;
+        }
+    }
+    
+    /**
+     * Render a payslip for every active employee, or for a closed period for every employee
+     * paid in it, with the pay recorded when it was closed.
+     * Uses templates/payslip.html or templates/payslip.txt when present, otherwise the built-in layout.
+     * @param period Pay period printed on the payslips
+     * @param zip true for a single zip archive, false for one directory per department
+     * @return true if the payslips were written
+     */
+    public boolean generatePayslips(YearMonth period, boolean zip) {
+        createDirectories();
+        try {
+            PayslipTemplate template = loadPayslipTemplate();
+            PayslipGenerator generator = new PayslipGenerator(template);
+            java.nio.file.Path target = java.nio.file.Paths.get(exportDir,
+                    "payslips_" + period + (zip ? ".zip" : ""));
+            PayrollRun recorded = historyStore.readRun(period);
+            generator.generate(getEmployees(), period, recorded,
+                    zip ? PayslipGenerator.Output.ZIP : PayslipGenerator.Output.DEPARTMENT_DIRECTORIES, target);
+            
+            System.out.println(ANSI_GREEN + "✓ " + generator.getPayslips() + " payslips written to " + target + ANSI_RESET);
+            if (recorded != null) {
+                System.out.println(ANSI_WHITE + "Pay as recorded when " + period + " was closed" + ANSI_RESET);
+                int missing = recorded.getResults().size() - generator.getPayslips();
+                if (missing > 0) {
+                    System.out.println(ANSI_YELLOW + missing + " paid employee(s) no longer on file; no payslip written" + ANSI_RESET);
+                }
+            }
+            System.out.println(ANSI_WHITE + "Time: " + String.format("%.2f s", generator.getElapsedSeconds()) +
+                    "  Throughput: " + ANSI_CYAN + String.format("%,.0f payslips/s", generator.getPayslipsPerSecond()) + ANSI_RESET);
+            return true;
+        } catch (IllegalArgumentException e) {
+            System.out.println(ANSI_RED + "✗ Invalid payslip template: " + e.getMessage() + ANSI_RESET);
+        } catch (IOException e) {
+            System.out.println(ANSI_RED + "✗ Error writing payslips: " + e.getMessage() + ANSI_RESET);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println(ANSI_RED + "✗ Payslip generation interrupted." + ANSI_RESET);
+        }
+        return false;
+    }
+    
+    private PayslipTemplate loadPayslipTemplate() throws IOException {
+        File html = new File(TEMPLATE_DIR + "payslip.html");
+        if (html.exists()) {
+            return PayslipTemplate.compile(new String(java.nio.file.Files.readAllBytes(html.toPath()),
+                    java.nio.charset.StandardCharsets.UTF_8), true);
+        }
+        File text = new File(TEMPLATE_DIR + "payslip.txt");
+        if (text.exists()) {
+            return PayslipTemplate.compile(new String(java.nio.file.Files.readAllBytes(text.toPath()),
+                    java.nio.charset.StandardCharsets.UTF_8), false);
+        }
+        return PayslipTemplate.compile(PayslipTemplate.DEFAULT_TEXT, false);
+    }
+    
+    /**
+     * Get payroll totals for all active employees
+     * @return totals of gross, tax, net, hours and overtime
+     */
+    public PayTotals getPayrollTotals() {
+        if (OFF_HEAP_STORE) {
+            OffHeapEmployeeStore store = getOffHeapStore();
+            if (store != null) {
+                return store.getPayrollTotals();
+            }
+        }
+        if (COLUMNAR_KERNEL) {
+            PayrollKernel kernel = PayrollKernel.gather(getEmployees());
+            kernel.compute();
+            return kernel.getTotals();
+        }
+        return getPayrollBatch().compute().getTotals();
+    }
+    
+    /**
+     * Run the monthly leave accrual for all full-time employees, apply the leave taken
+     * and save the balances
+     * @param period Pay period to accrue
+     * @param deductionsFile File of leave taken, one "employeeId,VACATION|SICK,days" line each, where
+     *                       days may be a "yyyy-MM-dd..yyyy-MM-dd" range of working days, or null
+     * @return true if the leave file could be read and the balances were saved
+     */
+    public boolean runLeaveAccrual(YearMonth period, String deductionsFile) {
+        List<LeaveAccrual.Deduction> deductions = new ArrayList<>();
+        if (deductionsFile != null) {
+            try {
+                for (String line : java.nio.file.Files.readAllLines(new File(deductionsFile).toPath())) {
+                    line = line.replaceFirst("#.*", "").trim();
+                    if (!line.isEmpty()) {
+                        deductions.add(LeaveAccrual.Deduction.parse(line));
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println(ANSI_RED + "✗ Error reading leave file: " + e.getMessage() + ANSI_RESET);
+                return false;
+            }
+        }
+        
+        synchronized (this) {
+            if (leavePolicy == null) {
+                leavePolicy = LeavePolicy.load();
+            }
+        }
+        // Accrue on copies of the full-time employees and publish them together, so reports
+        // see the period's balances either all accrued or not at all
+        LeaveAccrual accrual = new LeaveAccrual(leavePolicy);
+        synchronized (this) {
+            Map<Employee, Employee> edits = new IdentityHashMap<>();
+            List<Employee> employees = getEmployees();
+            for (int i = 0; i < employees.size(); i++) {
+                Employee current = employees.get(i);
+                if (current instanceof FullTimeEmployee) {
+                    Employee emp = current.copy();
+                    edits.put(current, emp);
+                    employees.set(i, emp);
+                }
+            }
+            accrual.run(period, employees, employeeId -> {
+                Employee current = findEmployee(employeeId);
+                Employee copy = current != null ? edits.get(current) : null;
+                return copy != null ? copy : current;
+            }, deductions);
+            commitEdits(edits);
+        }
+        
+        System.out.println(ANSI_CYAN + "\n" + "═".repeat(60));
+        System.out.println(ANSI_BOLD + "            LEAVE ACCRUAL (" + period + ")" + ANSI_RESET);
+        System.out.println(ANSI_CYAN + "═".repeat(60) + ANSI_RESET);
+        System.out.println(ANSI_WHITE + "Employees Accrued: " + ANSI_CYAN + accrual.getEmployeesAccrued()
+                + (accrual.getAlreadyAccrued() > 0 ? ANSI_YELLOW + " (" + accrual.getAlreadyAccrued() + " already accrued)" : ""));
+        System.out.println(ANSI_WHITE + "Vacation Accrued: " + ANSI_GREEN + String.format("%.2f days", accrual.getVacationAccrued()));
+        System.out.println(ANSI_WHITE + "Sick Leave Accrued: " + ANSI_GREEN + String.format("%.2f days", accrual.getSickAccrued()));
+        if (accrual.getVacationForfeited() > 0 || accrual.getSickForfeited() > 0) {
+            System.out.println(ANSI_WHITE + "Forfeited at Carryover: " + ANSI_YELLOW
+                    + String.format("%.2f vacation, %.2f sick days", accrual.getVacationForfeited(), accrual.getSickForfeited()));
+        }
+        System.out.println(ANSI_WHITE + "Leave Deductions Applied: " + ANSI_CYAN + accrual.getDeductionsApplied()
+                + (accrual.getAlreadyDeducted() > 0 ? ANSI_YELLOW + " (" + accrual.getAlreadyDeducted() + " already deducted)" : "") + ANSI_RESET);
+        for (String rejected : accrual.getRejectedDeductions()) {
+            System.out.println(ANSI_RED + "✗ Rejected: " + rejected + ANSI_RESET);
+        }
+        System.out.printf(ANSI_WHITE + "Completed in %.2f s%n" + ANSI_RESET, accrual.getElapsedSeconds());
+        return saveData();
+    }
+    
+    /**
+     * Price what-if compensation scenarios against the current month's payroll.
+     * The employee records are not changed.
+     * @param scenarioFile Scenario file (see CompensationScenario)
+     * @return false if the scenario file could not be read or the evaluation was interrupted
+     */
+    public boolean runScenarios(String scenarioFile) {
+        List<CompensationScenario> scenarios;
+        try {
+            scenarios = CompensationScenario.load(new File(scenarioFile).toPath());
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println(ANSI_RED + "✗ Error reading scenario file: " + e.getMessage() + ANSI_RESET);
+            return false;
+        }
+        if (scenarios.isEmpty()) {
+            System.out.println(ANSI_YELLOW + "No scenarios in " + scenarioFile + "." + ANSI_RESET);
+            return true;
+        }
+        
+        long start = System.nanoTime();
+        ScenarioEngine engine = new ScenarioEngine(getEmployees(), YearMonth.now());
+        List<ScenarioEngine.Result> results;
+        try {
+            results = engine.evaluate(scenarios);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println(ANSI_RED + "✗ Scenario evaluation interrupted" + ANSI_RESET);
+            return false;
+        }
+        
+        PayTotals baseline = engine.getBaseline();
+        System.out.println(ANSI_CYAN + "\n" + "═".repeat(90));
+        System.out.println(ANSI_BOLD + "              WHAT-IF SCENARIOS (" + engine.getPeriod() + ", monthly cost)" + ANSI_RESET);
+        System.out.println(ANSI_CYAN + "═".repeat(90) + ANSI_RESET);
+        System.out.printf(ANSI_WHITE + "Baseline: %d employees, Gross $%.2f, Tax $%.2f, Net $%.2f%n" + ANSI_RESET,
+                baseline.getCount(), baseline.getGrossSalary(), baseline.getTax(), baseline.getNetSalary());
+        System.out.printf(ANSI_BOLD + "%-30s %-10s %-15s %-15s %-15s %-8s%n" + ANSI_RESET,
+                "Scenario", "Affected", "Gross Delta", "Tax Delta", "Net Delta", "Change");
+        System.out.println(ANSI_BLUE + "-".repeat(90) + ANSI_RESET);
+        for (ScenarioEngine.Result result : results) {
+            PayTotals delta = result.getDelta();
+            double percent = baseline.getGrossSalary() == 0 ? 0 : delta.getGrossSalary() / baseline.getGrossSalary() * 100;
+            System.out.printf(ANSI_WHITE + "%-30s %-10d $%-14.2f $%-14.2f $%-14.2f %+.2f%%%n" + ANSI_RESET,
+                    result.getName(), result.getEmployeesAffected(), delta.getGrossSalary(), delta.getTax(),
+                    delta.getNetSalary(), percent);
+            for (Map.Entry<String, PayTotals> department : result.getDepartmentDeltas().entrySet()) {
+                System.out.printf(ANSI_CYAN + "  %-28s %-10d $%-14.2f%n" + ANSI_RESET, department.getKey(),
+                        department.getValue().getCount(), department.getValue().getGrossSalary());
+            }
+        }
+        System.out.printf(ANSI_WHITE + "%d scenario(s) evaluated in %.2f s%n" + ANSI_RESET,
+                results.size(), (System.nanoTime() - start) / 1e9);
+        return true;
+    }
+    
+    /**
+     * Compute payroll for all active employees and record it in the pay-period history.
+     * Tax is withheld on the cumulative year-to-date basis.
+     * @param period Pay period to close
+     * @return false if the period could not be recorded
+     */
+    public boolean closePayPeriod(YearMonth period) {
+        try {
+            boolean rerun = historyStore.readSummary(period) != null;
+            PayrollRun run = runPayPeriod(period);
+            if (run.getResults().isEmpty()) {
+                System.out.println(ANSI_YELLOW + "\nNo active employees to pay." + ANSI_RESET);
+                return true;
+            }
+            
+            PayTotals totals = run.getTotals();
+            
+            System.out.println(ANSI_GREEN + "✓ Pay period " + period + (rerun ? " re-recorded" : " recorded") +
+                    " (" + totals.getCount() + " employees)" + ANSI_RESET);
+            System.out.println(ANSI_WHITE + "Total Gross: " + ANSI_GREEN + "$" + String.format("%.2f", totals.getGrossSalary()));
+            System.out.println(ANSI_WHITE + "Total Tax: " + ANSI_RED + "$" + String.format("%.2f", totals.getTax()));
+            System.out.println(ANSI_WHITE + "Total Net: " + ANSI_GREEN + "$" + String.format("%.2f", totals.getNetSalary()) + ANSI_RESET);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            System.out.println(ANSI_RED + "✗ Error recording pay period: " + e.getMessage() + ANSI_RESET);
+            return false;
+        }
+    }
+    
+    /**
+     * Compute payroll for all active employees and record it in the pay-period history,
+     * without printing anything
+     * @param period Pay period to close
+     * @return the run; it is not recorded when nobody is paid
+     * @throws IOException if the history cannot be read or written
+     * @throws IllegalStateException if an active employee's timesheet is for another period
+     */
+    public PayrollRun runPayPeriod(YearMonth period) throws IOException {
+        flushTimeClock();
+        PayrollRun run = ytdLedger.runPeriod(period, getEmployees());
+        if (!run.getResults().isEmpty()) {
+            historyStore.append(run);
+            rollTimesheets(period);
+        }
+        return run;
+    }
+    
+    /**
+     * Display year-to-date totals for an employee from the pay-period history
+     * @param employeeId Employee ID
+     * @param through Last period to include
+     */
+    public void displayYearToDate(String employeeId, YearMonth through) {
+        Employee emp = findEmployee(employeeId);
+        if (emp == null) {
+            System.out.println(ANSI_RED + "✗ Employee not found!" + ANSI_RESET);
+            return;
+        }
+        
+        try {
+            PayTotals ytd = historyStore.getYearToDate(emp.getEmployeeId(), through);
+            
+            System.out.println(ANSI_CYAN + "\n" + "═".repeat(60));
+            System.out.println(ANSI_BOLD + "          YEAR-TO-DATE SUMMARY (" + through.getYear() + ")" + ANSI_RESET);
+            System.out.println(ANSI_CYAN + "═".repeat(60) + ANSI_RESET);
+            System.out.println(ANSI_WHITE + "Employee: " + ANSI_CYAN + emp.getFullName() + " (" + emp.getEmployeeId() + ")");
+            System.out.println(ANSI_WHITE + "Periods Paid: " + ANSI_CYAN + ytd.getCount() + " (through " + through + ")");
+            System.out.println(ANSI_WHITE + "Hours Worked: " + ANSI_CYAN + String.format("%.1f", ytd.getHoursWorked()));
+            System.out.println(ANSI_WHITE + "Gross YTD: " + ANSI_GREEN + "$" + String.format("%.2f", ytd.getGrossSalary()));
+            System.out.println(ANSI_WHITE + "Tax YTD: " + ANSI_RED + "$" + String.format("%.2f", ytd.getTax()));
+            System.out.println(ANSI_WHITE + "Net YTD: " + ANSI_GREEN + "$" + String.format("%.2f", ytd.getNetSalary()) + ANSI_RESET);
+            
+            if (emp instanceof FullTimeEmployee) {
+                double annual = ((FullTimeEmployee) emp).getAnnualSalary(historyStore, through.getYear());
+                System.out.println(ANSI_WHITE + "Projected Annual Salary: " + ANSI_GREEN + "$" + String.format("%.2f", annual) + ANSI_RESET);
+            }
+        } catch (IOException e) {
+            System.out.println(ANSI_RED + "✗ Error reading payroll history: " + e.getMessage() + ANSI_RESET);
+        }
+    }
+    
+    /**
+     * Run the month-end pipeline (validate, compute, aggregate, export, persist) for a period.
+     * A failed run is checkpointed and resumes from the last exported batch when run again.
+     * @param period Pay period
+     */
+    public void runMonthEndPipeline(YearMonth period) {
+        createDirectories();
+        // Punches still buffered in the clock are paid, as in runPayPeriod()
+        flushTimeClock();
+        EmployeeStore.Snapshot snapshot = employeeStore.snapshot();
+        PayrollPipeline pipeline = new PayrollPipeline(period, snapshot.getEmployees(), ytdLedger, historyStore,
+                exportDir, () -> {
+                    rollTimesheets(period);
+                    saveData();
+                });
+        
+        System.out.println(ANSI_CYAN + "\n" + "═".repeat(60));
+        System.out.println(ANSI_BOLD + "          MONTH-END PIPELINE (" + period + ")" + ANSI_RESET);
+        System.out.println(ANSI_CYAN + "═".repeat(60) + ANSI_RESET);
+        
+        try {
+            boolean completed = pipeline.run();
+            pipeline.printMetrics();
+            if (completed) {
+                PayTotals totals = pipeline.getTotals();
+                System.out.println(ANSI_GREEN + "✓ Pay period " + period + " completed (" + totals.getCount() +
+                        " employees, " + pipeline.getRejected() + " rejected)" + ANSI_RESET);
+                System.out.println(ANSI_WHITE + "Total Net: " + ANSI_GREEN + "$" + String.format("%.2f", totals.getNetSalary()));
+                System.out.println(ANSI_WHITE + "Export: " + ANSI_CYAN + pipeline.getExportFile() + ANSI_RESET);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println(ANSI_RED + "✗ Pipeline interrupted." + ANSI_RESET);
+        } finally {
+            snapshot.close();
+        }
+    }
+    
+    /**
+     * Apply a back-dated pay change: report and post adjustments to the closed periods it
+     * affects, then update the employee records for pay going forward
+     * @param change Retroactive change
+     */
+    public void applyRetroChange(RetroChange change) {
+        RetroPayEngine engine = new RetroPayEngine(historyStore);
+        List<RetroChange> changes = List.of(change);
+        
+        try {
+            List<Employee> employees = getEmployees();
+            List<RetroAdjustment> adjustments = engine.calculate(employees, changes, YearMonth.now());
+            
+            System.out.println(ANSI_CYAN + "\n" + "═".repeat(80));
+            System.out.println(ANSI_BOLD + "                    RETROACTIVE PAY ADJUSTMENTS" + ANSI_RESET);
+            System.out.println(ANSI_CYAN + "═".repeat(80) + ANSI_RESET);
+            System.out.println(ANSI_WHITE + "Change: " + ANSI_CYAN + change + ANSI_RESET);
+            
+            if (adjustments.isEmpty()) {
+                System.out.println(ANSI_YELLOW + "No closed periods are affected by this change." + ANSI_RESET);
+            } else {
+                System.out.printf(ANSI_BOLD + "%-15s %-10s %-15s %-15s %-12s%n" + ANSI_RESET,
+                        "Employee ID", "Period", "Gross Delta", "Tax Delta", "Net Delta");
+                System.out.println(ANSI_BLUE + "-".repeat(80) + ANSI_RESET);
+                
+                PayTotals totals = new PayTotals();
+                for (RetroAdjustment adj : adjustments) {
+                    System.out.printf(ANSI_WHITE + "%-15s %-10s $%-14.2f $%-14.2f $%-11.2f%n" + ANSI_RESET,
+                            adj.getEmployeeId(), adj.getPeriod(), adj.getGrossDelta(), adj.getTaxDelta(), adj.getNetDelta());
+                    totals.add(new PayTotals(1, adj.getGrossDelta(), adj.getTaxDelta(), adj.getNetDelta(), 0, 0));
+                }
+                
+                System.out.println(ANSI_BLUE + "-".repeat(80) + ANSI_RESET);
+                System.out.printf(ANSI_BOLD + ANSI_GREEN + "%-26s $%-14.2f $%-14.2f $%-11.2f%n" + ANSI_RESET,
+                        "TOTAL (" + totals.getCount() + " adjustments):",
+                        totals.getGrossSalary(), totals.getTax(), totals.getNetSalary());
+                
+                // Later cumulative withholding must count the back pay
+                int periods = engine.post(adjustments);
+                ytdLedger.clear();
+                System.out.println(ANSI_GREEN + "✓ Adjustments posted to " + periods + " closed period(s)." + ANSI_RESET);
+            }
+            
+            Map<Employee, Employee> edits = new LinkedHashMap<>();
+            int changed;
+            synchronized (this) {
+                for (Employee emp : getEmployees()) {
+                    if (change.appliesTo(emp)) edits.put(emp, emp.copy());
+                }
+                changed = engine.apply(new ArrayList<>(edits.values()), changes);
+                commitEdits(edits);
+            }
+            for (Map.Entry<Employee, Employee> entry : edits.entrySet()) {
+                publishChange(EmployeeChange.Type.UPDATED, entry.getKey().getEmployeeId(),
+                        EmployeeChange.snapshot(entry.getKey()), EmployeeChange.snapshot(entry.getValue()));
+            }
+            System.out.println(ANSI_GREEN + "✓ " + changed + " employee record(s) updated going forward." + ANSI_RESET);
+        } catch (IOException e) {
+            System.out.println(ANSI_RED + "✗ Error posting retroactive adjustments: " + e.getMessage() + ANSI_RESET);
+        }
+    }
+    
+    /**
+     * Process overtime for all eligible employees under the active overtime rules
      */
     public void processOvertime() {
+        readSnapshot(this::processOvertime);
+    }
+    
+    private void processOvertime(List<Employee> employeeList) {
         System.out.println(ANSI_CYAN + "\n" + "═".repeat(80));
         System.out.println(ANSI_BOLD + "                    OVERTIME REPORT" + ANSI_RESET);
         System.out.println(ANSI_CYAN + "═".repeat(80) + ANSI_RESET);
         
         boolean hasOvertime = false;
+        OvertimePlan plan = OvertimePlan.active();
         
         for (Employee emp : employeeList) {
-            if (emp.isActive() && emp.getHoursWorked() > 40) {
+            if (!emp.isActive()) continue;
+            OvertimePlan.Result overtime = plan.evaluate(emp);
+            if (overtime.hasOvertime()) {
                 if (!hasOvertime) {
                     System.out.printf(ANSI_BOLD + "%-15s %-20s %-12s %-15s %-15s%n" + ANSI_RESET,
                             "Employee ID", "Name", "Total Hours", "Overtime Hours", "Overtime Pay");
@@ -448,15 +1293,12 @@ public class PayrollSystem {
                     hasOvertime = true;
                 }
                 
-                double overtimeHours = emp.getHoursWorked() - 40;
-                double overtimePay = emp.calculateOvertime();
-                
                 System.out.printf(ANSI_WHITE + "%-15s %-20s %-12.1f %-15.1f $%-14.2f%n" + ANSI_RESET,
                         emp.getEmployeeId(),
                         emp.getFullName().length() > 20 ? emp.getFullName().substring(0, 17) + "..." : emp.getFullName(),
                         emp.getHoursWorked(),
-                        overtimeHours,
-                        overtimePay);
+                        overtime.getHours(),
+                        overtime.getPay());
             }
         }
         
@@ -471,6 +1313,10 @@ public class PayrollSystem {
      * Generate department-wise report
      */
     public void generateDepartmentReport() {
+        readSnapshot(this::generateDepartmentReport);
+    }
+    
+    private void generateDepartmentReport(List<Employee> employeeList) {
         Map<String, List<Employee>> departmentMap = employeeList.stream()
                 .filter(Employee::isActive)
                 .collect(Collectors.groupingBy(Employee::getDepartment));
@@ -503,96 +1349,167 @@ public class PayrollSystem {
      * Generate employee type analysis report
      */
     public void generateEmployeeTypeReport() {
-        Map<String, List<Employee>> typeMap = employeeList.stream()
-                .filter(Employee::isActive)
-                .collect(Collectors.groupingBy(Employee::getEmployeeType));
+        PayrollCube cube = currentPayrollCube();
         
         System.out.println(ANSI_CYAN + "\n" + "═".repeat(80));
         System.out.println(ANSI_BOLD + "                    EMPLOYEE TYPE ANALYSIS" + ANSI_RESET);
         System.out.println(ANSI_CYAN + "═".repeat(80) + ANSI_RESET);
         
-        int totalEmployees = (int) employeeList.stream().filter(Employee::isActive).count();
+        int totalEmployees = cube.get(null, null, null).getCount();
         
-        for (Map.Entry<String, List<Employee>> entry : typeMap.entrySet()) {
+        for (Map.Entry<String, PayTotals> entry : cube.byType(null, null).entrySet()) {
             String type = entry.getKey();
-            List<Employee> employees = entry.getValue();
+            PayTotals totals = entry.getValue();
             
-            double totalSalary = employees.stream()
-                    .mapToDouble(Employee::calculateSalary)
-                    .sum();
-            
-            double percentage = (employees.size() * 100.0) / totalEmployees;
+            double percentage = (totals.getCount() * 100.0) / totalEmployees;
             
             System.out.println(ANSI_YELLOW + "\nEmployee Type: " + ANSI_BOLD + type + ANSI_RESET);
-            System.out.println(ANSI_WHITE + "Count: " + ANSI_CYAN + employees.size() + " (" + String.format("%.1f", percentage) + "%)");
-            System.out.println(ANSI_WHITE + "Total Salary Cost: " + ANSI_GREEN + "$" + String.format("%.2f", totalSalary));
-            System.out.println(ANSI_WHITE + "Average Salary: " + ANSI_GREEN + "$" + String.format("%.2f", totalSalary / employees.size()) + ANSI_RESET);
+            System.out.println(ANSI_WHITE + "Count: " + ANSI_CYAN + totals.getCount() + " (" + String.format("%.1f", percentage) + "%)");
+            System.out.println(ANSI_WHITE + "Total Salary Cost: " + ANSI_GREEN + "$" + String.format("%.2f", totals.getGrossSalary()));
+            System.out.println(ANSI_WHITE + "Average Salary: " + ANSI_GREEN + "$" + String.format("%.2f", totals.getGrossSalary() / totals.getCount()) + ANSI_RESET);
         }
     }
     
     /**
-     * Generate salary statistics
+     * Generate a department × employee type breakdown of gross pay, plus the trend over
+     * closed pay periods, from the payroll cube
+     * @param period Pay period to break down, or null for all periods
      */
-    public void generateSalaryStatistics() {
-        List<Employee> activeEmployees = employeeList.stream()
-                .filter(Employee::isActive)
-                .collect(Collectors.toList());
-        
-        if (activeEmployees.isEmpty()) {
-            System.out.println(ANSI_YELLOW + "No active employees found." + ANSI_RESET);
+    public void generateCubeReport(YearMonth period) {
+        long start = System.nanoTime();
+        PayrollCube cube;
+        try {
+            cube = buildPayrollCube();
+        } catch (IOException e) {
+            System.out.println(ANSI_RED + "✗ Error reading payroll history: " + e.getMessage() + ANSI_RESET);
             return;
         }
+        long buildMicros = (System.nanoTime() - start) / 1000;
         
-        double totalSalary = activeEmployees.stream()
-                .mapToDouble(Employee::calculateSalary)
-                .sum();
+        System.out.println(ANSI_CYAN + "\n" + "═".repeat(100));
+        System.out.println(ANSI_BOLD + "              PAYROLL CUBE - " + (period == null ? "ALL PERIODS" : period.toString()) + ANSI_RESET);
+        System.out.println(ANSI_CYAN + "═".repeat(100) + ANSI_RESET);
         
-        double avgSalary = totalSalary / activeEmployees.size();
+        // Department x type cross-tab of gross pay
+        List<String> types = cube.getTypes();
+        System.out.printf(ANSI_BOLD + "%-20s", "Department");
+        for (String type : types) System.out.printf(" %-15s", type);
+        System.out.printf(" %-15s%n" + ANSI_RESET, "Total");
+        System.out.println(ANSI_BLUE + "-".repeat(100) + ANSI_RESET);
         
-        double maxSalary = activeEmployees.stream()
-                .mapToDouble(Employee::calculateSalary)
-                .max()
-                .orElse(0);
+        for (String department : cube.getDepartments()) {
+            if (cube.get(department, null, period).getCount() == 0) continue;
+            System.out.printf(ANSI_WHITE + "%-20s", department);
+            for (String type : types) System.out.printf(" $%-14.2f", cube.get(department, type, period).getGrossSalary());
+            System.out.printf(" $%-14.2f%n" + ANSI_RESET, cube.get(department, null, period).getGrossSalary());
+        }
+        System.out.println(ANSI_BLUE + "-".repeat(100) + ANSI_RESET);
+        System.out.printf(ANSI_BOLD + ANSI_GREEN + "%-20s", "Total");
+        for (String type : types) System.out.printf(" $%-14.2f", cube.get(null, type, period).getGrossSalary());
+        System.out.printf(" $%-14.2f%n" + ANSI_RESET, cube.get(null, null, period).getGrossSalary());
         
-        double minSalary = activeEmployees.stream()
-                .mapToDouble(Employee::calculateSalary)
-                .min()
-                .orElse(0);
+        // Trend over periods
+        System.out.println(ANSI_CYAN + "\n" + "═".repeat(100));
+        System.out.printf(ANSI_BOLD + "%-10s %-10s %-15s %-15s %-15s %-15s%n" + ANSI_RESET,
+                "Period", "Employees", "Gross", "Tax", "Net", "Overtime");
+        System.out.println(ANSI_BLUE + "-".repeat(100) + ANSI_RESET);
+        for (Map.Entry<YearMonth, PayTotals> entry : cube.byPeriod(null, null).entrySet()) {
+            PayTotals totals = entry.getValue();
+            System.out.printf(ANSI_WHITE + "%-10s %-10d $%-14.2f $%-14.2f $%-14.2f $%-14.2f%n" + ANSI_RESET,
+                    entry.getKey(), totals.getCount(), totals.getGrossSalary(), totals.getTax(),
+                    totals.getNetSalary(), totals.getOvertimePay());
+        }
+        System.out.println(ANSI_CYAN + "═".repeat(100) + ANSI_RESET);
+        System.out.println(ANSI_WHITE + "Cube built in " + buildMicros + " µs over " + cube.getPeriods().size() +
+                " period(s)" + ANSI_RESET);
+    }
+    
+    /**
+     * Build a payroll cube over every closed pay period in the history, plus the
+     * current month from the live employee data if it has not been closed yet
+     * @return cube over all recorded payroll
+     * @throws IOException if the history cannot be read
+     */
+    public PayrollCube buildPayrollCube() throws IOException {
+        Map<YearMonth, PayrollRun> runs = new TreeMap<>();
+        for (YearMonth period : historyStore.getPeriods()) {
+            PayrollRun run = historyStore.readRun(period);
+            if (run != null) runs.put(period, run);
+        }
+        runs.putIfAbsent(YearMonth.now(), PayrollRun.compute(YearMonth.now(), getPayrollBatch()));
+        return PayrollCube.build(runs.values());
+    }
+    
+    /**
+     * Build a payroll cube over the current employee data only
+     * @return cube with a single period (the current month)
+     */
+    public PayrollCube currentPayrollCube() {
+        return PayrollCube.build(Collections.singletonList(PayrollRun.compute(YearMonth.now(), getPayrollBatch())));
+    }
+    
+    /**
+     * Generate salary statistics
+     */
+    public void generateSalaryStatistics() {
+        SalaryStatistics stats = SalaryStatistics.compute(getEmployees(), 3);
+        SalaryStatistics.Group overall = stats.getOverall();
+        
+        if (overall.getCount() == 0) {
+            System.out.println(ANSI_YELLOW + "No active employees found." + ANSI_RESET);
+            return;
+        }
         
         System.out.println(ANSI_CYAN + "\n" + "═".repeat(60));
         System.out.println(ANSI_BOLD + "                SALARY STATISTICS" + ANSI_RESET);
         System.out.println(ANSI_CYAN + "═".repeat(60) + ANSI_RESET);
         
-        System.out.println(ANSI_WHITE + "Total Employees: " + ANSI_CYAN + activeEmployees.size());
-        System.out.println(ANSI_WHITE + "Total Salary Cost: " + ANSI_GREEN + "$" + String.format("%.2f", totalSalary));
-        System.out.println(ANSI_WHITE + "Average Salary: " + ANSI_GREEN + "$" + String.format("%.2f", avgSalary));
-        System.out.println(ANSI_WHITE + "Highest Salary: " + ANSI_GREEN + "$" + String.format("%.2f", maxSalary));
-        System.out.println(ANSI_WHITE + "Lowest Salary: " + ANSI_GREEN + "$" + String.format("%.2f", minSalary) + ANSI_RESET);
+        System.out.println(ANSI_WHITE + "Total Employees: " + ANSI_CYAN + overall.getCount());
+        System.out.println(ANSI_WHITE + "Total Salary Cost: " + ANSI_GREEN + "$" + String.format("%.2f", overall.getTotal()));
+        System.out.println(ANSI_WHITE + "Average Salary: " + ANSI_GREEN + "$" + String.format("%.2f", overall.getAverage()));
+        System.out.println(ANSI_WHITE + "Median Salary: " + ANSI_GREEN + "$" + String.format("%.2f", overall.getMedian()));
+        System.out.println(ANSI_WHITE + "90th Percentile: " + ANSI_GREEN + "$" + String.format("%.2f", overall.getPercentile(0.9)));
+        System.out.println(ANSI_WHITE + "99th Percentile: " + ANSI_GREEN + "$" + String.format("%.2f", overall.getPercentile(0.99)));
+        System.out.println(ANSI_WHITE + "Highest Salary: " + ANSI_GREEN + "$" + String.format("%.2f", overall.getMax()));
+        System.out.println(ANSI_WHITE + "Lowest Salary: " + ANSI_GREEN + "$" + String.format("%.2f", overall.getMin()) + ANSI_RESET);
         
-        // Find employees with highest and lowest salaries
-        Employee highestPaid = activeEmployees.stream()
-                .max((e1, e2) -> Double.compare(e1.calculateSalary(), e2.calculateSalary()))
-                .orElse(null);
+        TopK.Entry<Employee> highestPaid = overall.getHighestPaid().get(0);
+        TopK.Entry<Employee> lowestPaid = stats.getLowestPaid().get(0);
+        System.out.println(ANSI_YELLOW + "\nHighest Paid: " + ANSI_WHITE + highestPaid.getItem().getFullName() + 
+                " (" + highestPaid.getItem().getEmployeeId() + ") - $" + String.format("%.2f", highestPaid.getScore()) + ANSI_RESET);
+        System.out.println(ANSI_YELLOW + "Lowest Paid: " + ANSI_WHITE + lowestPaid.getItem().getFullName() + 
+                " (" + lowestPaid.getItem().getEmployeeId() + ") - $" + String.format("%.2f", lowestPaid.getScore()) + ANSI_RESET);
         
-        Employee lowestPaid = activeEmployees.stream()
-                .min((e1, e2) -> Double.compare(e1.calculateSalary(), e2.calculateSalary()))
-                .orElse(null);
-        
-        if (highestPaid != null) {
-            System.out.println(ANSI_YELLOW + "\nHighest Paid: " + ANSI_WHITE + highestPaid.getFullName() + 
-                    " (" + highestPaid.getEmployeeId() + ") - $" + String.format("%.2f", highestPaid.calculateSalary()) + ANSI_RESET);
-        }
-        
-        if (lowestPaid != null) {
-            System.out.println(ANSI_YELLOW + "Lowest Paid: " + ANSI_WHITE + lowestPaid.getFullName() + 
-                    " (" + lowestPaid.getEmployeeId() + ") - $" + String.format("%.2f", lowestPaid.calculateSalary()) + ANSI_RESET);
+        // Per-department percentiles and top earners
+        System.out.println(ANSI_CYAN + "\n" + "═".repeat(100));
+        System.out.printf(ANSI_BOLD + "%-18s %-8s %-13s %-13s %-13s %-13s%n" + ANSI_RESET,
+                "Department", "Count", "Average", "Median", "P90", "P99");
+        System.out.println(ANSI_BLUE + "-".repeat(100) + ANSI_RESET);
+        for (Map.Entry<String, SalaryStatistics.Group> entry : stats.getDepartments().entrySet()) {
+            SalaryStatistics.Group dept = entry.getValue();
+            System.out.printf(ANSI_WHITE + "%-18s %-8d $%-12.2f $%-12.2f $%-12.2f $%-12.2f%n" + ANSI_RESET,
+                    entry.getKey(), dept.getCount(), dept.getAverage(), dept.getMedian(),
+                    dept.getPercentile(0.9), dept.getPercentile(0.99));
+            StringBuilder top = new StringBuilder("    Top earners: ");
+            List<TopK.Entry<Employee>> ranked = dept.getHighestPaid();
+            for (int i = 0; i < ranked.size(); i++) {
+                if (i > 0) top.append(", ");
+                top.append(ranked.get(i).getItem().getFullName())
+                        .append(" ($").append(String.format("%.2f", ranked.get(i).getScore())).append(')');
+            }
+            System.out.println(ANSI_CYAN + top + ANSI_RESET);
         }
+        System.out.println(ANSI_CYAN + "═".repeat(100) + ANSI_RESET);
     }
     
     /**
      * Generate tax summary report
      */
     public void generateTaxReport() {
+        readSnapshot(this::generateTaxReport);
+    }
+    
+    private void generateTaxReport(List<Employee> employeeList) {
         List<Employee> activeEmployees = employeeList.stream()
                 .filter(Employee::isActive)
                 .collect(Collectors.toList());
@@ -632,24 +1549,32 @@ public class PayrollSystem {
     
     /**
      * Export all reports to files
+     * @return true if every report was written
      */
-    public void exportReports() {
+    public boolean exportReports() {
+        createDirectories();
+        // All three files are written from the same version of the employee list
+        EmployeeStore.Snapshot snapshot = employeeStore.snapshot();
         try {
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            List<Employee> employees = snapshot.getEmployees();
             
             // Export employee list
-            exportEmployeeList(EXPORT_DIR + "employees_" + timestamp + ".txt");
+            exportEmployeeList(exportDir + "employees_" + timestamp + ".txt", employees);
             
             // Export payroll report
-            exportPayrollReport(EXPORT_DIR + "payroll_" + timestamp + ".txt");
+            exportPayrollReport(exportDir + "payroll_" + timestamp + ".txt", employees);
             
             // Export statistics
-            exportStatistics(EXPORT_DIR + "statistics_" + timestamp + ".txt");
-            
-            System.out.println(ANSI_GREEN + "✓ Reports exported successfully to " + EXPORT_DIR + ANSI_RESET);
+            exportStatistics(exportDir + "statistics_" + timestamp + ".txt", employees);
             
+            System.out.println(ANSI_GREEN + "✓ Reports exported successfully to " + exportDir + ANSI_RESET);
+            return true;
         } catch (Exception e) {
             System.out.println(ANSI_RED + "✗ Error exporting reports: " + e.getMessage() + ANSI_RESET);
+            return false;
+        } finally {
+            snapshot.close();
         }
     }
     
@@ -657,13 +1582,48 @@ public class PayrollSystem {
     
     /**
      * Save employee data to file
+     * @return true if the data was saved
      */
-    public void saveData() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(DATA_FILE))) {
-            oos.writeObject(employeeList);
+    public boolean saveData() {
+        flushTimeClock();
+        createParentDirectory(dataFile);
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(dataFile))) {
+            oos.writeObject(getEmployees());
+            saveTimesheets();
             System.out.println(ANSI_GREEN + "✓ Data saved successfully!" + ANSI_RESET);
+            return true;
         } catch (IOException e) {
             System.out.println(ANSI_RED + "✗ Error saving data: " + e.getMessage() + ANSI_RESET);
+            return false;
+        }
+    }
+    
+    /**
+     * Save the timesheets held back for the next period, or delete the file when there are none
+     */
+    private void saveTimesheets() throws IOException {
+        Map<YearMonth, Map<String, Timesheet>> pending = new TreeMap<>(pendingTimesheets);
+        if (pending.isEmpty()) {
+            new File(timesheetsFile).delete();
+            return;
+        }
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(timesheetsFile))) {
+            oos.writeObject(pending);
+        }
+    }
+    
+    /**
+     * Load the timesheets held back for the next period, if any were saved
+     */
+    @SuppressWarnings("unchecked")
+    private void loadTimesheets() throws IOException, ClassNotFoundException {
+        pendingTimesheets.clear();
+        if (!new File(timesheetsFile).exists()) return;
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(timesheetsFile))) {
+            for (Map.Entry<YearMonth, Map<String, Timesheet>> entry
+                    : ((Map<YearMonth, Map<String, Timesheet>>) ois.readObject()).entrySet()) {
+                pendingTimesheets.put(entry.getKey(), new ConcurrentHashMap<>(entry.getValue()));
+            }
         }
     }
     
@@ -672,18 +1632,19 @@ public class PayrollSystem {
      */
     @SuppressWarnings("unchecked")
     public void loadData() {
-        File dataFile = new File(DATA_FILE);
-        if (!dataFile.exists()) {
+        if (!new File(dataFile).exists()) {
             System.out.println(ANSI_YELLOW + "No existing data file found. Starting with empty system." + ANSI_RESET);
             return;
         }
         
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(DATA_FILE))) {
-            employeeList = (ArrayList<Employee>) ois.readObject();
-            System.out.println(ANSI_GREEN + "✓ Data loaded successfully! (" + employeeList.size() + " employees)" + ANSI_RESET);
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(dataFile))) {
+            replaceEmployees((ArrayList<Employee>) ois.readObject());
+            loadTimesheets();
+            System.out.println(ANSI_GREEN + "✓ Data loaded successfully! (" +
+                    (DEFAULT_COMPANY.equals(company) ? "" : company + ", ") + employeeStore.size() + " employees)" + ANSI_RESET);
         } catch (IOException | ClassNotFoundException e) {
             System.out.println(ANSI_RED + "✗ Error loading data: " + e.getMessage() + ANSI_RESET);
-            employeeList = new ArrayList<>();
+            replaceEmployees(new ArrayList<>());
         }
     }
     
@@ -691,8 +1652,9 @@ public class PayrollSystem {
      * Backup current data
      */
     public void backupData() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(BACKUP_FILE))) {
-            oos.writeObject(employeeList);
+        createParentDirectory(backupFile);
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(backupFile))) {
+            oos.writeObject(getEmployees());
             System.out.println(ANSI_GREEN + "✓ Data backed up successfully!" + ANSI_RESET);
         } catch (IOException e) {
             System.out.println(ANSI_RED + "✗ Error creating backup: " + e.getMessage() + ANSI_RESET);
@@ -704,14 +1666,13 @@ public class PayrollSystem {
      */
     @SuppressWarnings("unchecked")
     public void restoreData() {
-        File backupFile = new File(BACKUP_FILE);
-        if (!backupFile.exists()) {
+        if (!new File(backupFile).exists()) {
             System.out.println(ANSI_YELLOW + "No backup file found." + ANSI_RESET);
             return;
         }
         
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(BACKUP_FILE))) {
-            employeeList = (ArrayList<Employee>) ois.readObject();
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(backupFile))) {
+            replaceEmployees((ArrayList<Employee>) ois.readObject());
             System.out.println(ANSI_GREEN + "✓ Data restored from backup successfully!" + ANSI_RESET);
         } catch (IOException | ClassNotFoundException e) {
             System.out.println(ANSI_RED + "✗ Error restoring data: " + e.getMessage() + ANSI_RESET);
@@ -722,14 +1683,158 @@ public class PayrollSystem {
      * Reset all data
      */
     public void resetAllData() {
-        employeeList.clear();
+        replaceEmployees(new ArrayList<>());
         // Delete data files
-        new File(DATA_FILE).delete();
-        new File(BACKUP_FILE).delete();
+        new File(dataFile).delete();
+        new File(backupFile).delete();
+        new File(timesheetsFile).delete();
+        pendingTimesheets.clear();
+        historyStore.clear();
+        ytdLedger.clear();
     }
     
     // Utility Methods
     
+    /**
+     * Replace the whole employee list and rebuild the ID index and the value dictionary
+     */
+    private synchronized void replaceEmployees(ArrayList<Employee> employees) {
+        dictionary = new SharedDictionary();
+        for (Employee emp : employees) {
+            emp.shareValues(dictionary);
+        }
+        employeeStore.reset(employees);
+        employeeIndex.clear();
+        for (Employee emp : employees) {
+            employeeIndex.put(indexKey(emp.getEmployeeId()), emp);
+        }
+        queryIndex = null;
+        payrollBatch = null;
+    }
+    
+    /**
+     * Display the employee changes logged after a sequence number
+     * @param afterSequence Show changes after this sequence number (0 for all)
+     */
+    public void displayChanges(long afterSequence) {
+        try {
+            List<EmployeeChange> changes = changeLog.read(afterSequence, 1000);
+            if (changes.isEmpty()) {
+                System.out.println(ANSI_YELLOW + "No employee changes after sequence " + afterSequence + "." + ANSI_RESET);
+                return;
+            }
+            for (EmployeeChange change : changes) {
+                System.out.printf(ANSI_WHITE + "%-8d %-20s %-12s %-12s %s%n" + ANSI_RESET,
+                        change.getSequence(), java.time.Instant.ofEpochMilli(change.getEpochMillis()),
+                        change.getType(), change.getEmployeeId(), String.join(", ", change.getChangedFields()));
+            }
+            if (changes.size() == 1000) {
+                System.out.println(ANSI_YELLOW + "Showing the first 1000 changes; continue from sequence "
+                        + changes.get(changes.size() - 1).getSequence() + "." + ANSI_RESET);
+            }
+        } catch (IOException e) {
+            System.out.println(ANSI_RED + "✗ Error reading change log: " + e.getMessage() + ANSI_RESET);
+        }
+    }
+    
+    /**
+     * Record an employee change in the change log; a change that left the master data
+     * as it was (such as new hours worked) is not an event
+     */
+    private void publishChange(EmployeeChange.Type type, String employeeId,
+                               Map<String, String> before, Map<String, String> after) {
+        if (before != null && before.equals(after)) return;
+        changeLog.publish(type, employeeId, before, after);
+    }
+    
+    /**
+     * Remove one employee from the list and the ID index
+     */
+    private synchronized void removeEmployee(Employee emp) {
+        Employee current = employeeIndex.remove(indexKey(emp.getEmployeeId()));
+        if (current != null) {
+            employeeStore.remove(current);
+        }
+        queryIndex = null;
+        payrollBatch = null;
+    }
+    
+    /**
+     * Publish an edited copy of an employee in place of the record it was copied from
+     * @return false if the record was replaced or removed since it was copied
+     */
+    private synchronized boolean commitEdit(Employee current, Employee updated) {
+        Map<Employee, Employee> edits = new IdentityHashMap<>(2);
+        edits.put(current, updated);
+        return commitEdits(edits);
+    }
+    
+    /**
+     * Publish edited copies of employees, all in one version of the employee list
+     * @param edits Records and their edited copies
+     * @return false if any record was replaced or removed since it was copied; nothing is published then
+     */
+    private synchronized boolean commitEdits(Map<Employee, Employee> edits) {
+        for (Employee updated : edits.values()) {
+            updated.shareValues(dictionary);
+        }
+        if (!employeeStore.replaceAll(edits)) return false;
+        for (Employee updated : edits.values()) {
+            employeeIndex.put(indexKey(updated.getEmployeeId()), updated);
+        }
+        queryIndex = null;
+        payrollBatch = null;
+        return true;
+    }
+    
+    /**
+     * Get the query indexes, rebuilding them after the employees have changed
+     */
+    private synchronized EmployeeIndex getQueryIndex() {
+        if (queryIndex == null) {
+            queryIndex = new EmployeeIndex(getEmployees());
+        }
+        return queryIndex;
+    }
+    
+    /**
+     * Get the employees partitioned by type, repartitioning after employees were added or removed
+     */
+    private synchronized PayrollBatch getPayrollBatch() {
+        if (payrollBatch == null) {
+            payrollBatch = PayrollBatch.partition(getEmployees());
+        }
+        return payrollBatch;
+    }
+    
+    /**
+     * Get the off-heap copy of the employees, reloading it after the list or the overtime plan changed
+     * @return the store, or null if an employee is of a type the store cannot hold
+     */
+    private synchronized OffHeapEmployeeStore getOffHeapStore() {
+        long version = employeeStore.getVersion();
+        OvertimePlan plan = OvertimePlan.active();
+        if (version != offHeapVersion || plan != offHeapPlan) {
+            // The previous store is left to the collector rather than closed, since another
+            // thread may still be totalling it
+            try {
+                offHeapStore = OffHeapEmployeeStore.of(getEmployees());
+            } catch (IllegalArgumentException e) {
+                offHeapStore = null;
+            }
+            offHeapVersion = version;
+            offHeapPlan = plan;
+        }
+        return offHeapStore;
+    }
+    
+    /**
+     * IDs are matched case-insensitively
+     */
+    private static String indexKey(String employeeId) {
+        return employeeId.toUpperCase(Locale.ROOT);
+    }
+    
     /**
      * Display a list of employees in table format
      */
@@ -751,7 +1856,7 @@ public class PayrollSystem {
     /**
      * Export employee list to text file
      */
-    private void exportEmployeeList(String filename) throws IOException {
+    private void exportEmployeeList(String filename, List<Employee> employeeList) throws IOException {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
             writer.println("EMPLOYEE LIST REPORT");
             writer.println("Generated on: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
@@ -773,7 +1878,7 @@ public class PayrollSystem {
     /**
      * Export payroll report to text file
      */
-    private void exportPayrollReport(String filename) throws IOException {
+    private void exportPayrollReport(String filename, List<Employee> employeeList) throws IOException {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
             writer.println("MONTHLY PAYROLL REPORT");
             writer.println("Generated on: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
@@ -805,41 +1910,30 @@ public class PayrollSystem {
     /**
      * Export statistics to text file
      */
-    private void exportStatistics(String filename) throws IOException {
-        List<Employee> activeEmployees = employeeList.stream()
-                .filter(Employee::isActive)
-                .collect(Collectors.toList());
+    private void exportStatistics(String filename, List<Employee> employees) throws IOException {
+        PayrollCube cube = PayrollCube.build(Collections.singletonList(PayrollRun.compute(YearMonth.now(), employees)));
+        PayTotals all = cube.get(null, null, null);
         
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
             writer.println("PAYROLL STATISTICS REPORT");
             writer.println("Generated on: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
             writer.println("=".repeat(60));
             
-            if (!activeEmployees.isEmpty()) {
-                double totalSalary = activeEmployees.stream()
-                        .mapToDouble(Employee::calculateSalary)
-                        .sum();
-                
-                writer.println("Total Employees: " + activeEmployees.size());
-                writer.println("Total Salary Cost: $" + String.format("%.2f", totalSalary));
-                writer.println("Average Salary: $" + String.format("%.2f", totalSalary / activeEmployees.size()));
+            if (all.getCount() > 0) {
+                writer.println("Total Employees: " + all.getCount());
+                writer.println("Total Salary Cost: $" + String.format("%.2f", all.getGrossSalary()));
+                writer.println("Average Salary: $" + String.format("%.2f", all.getGrossSalary() / all.getCount()));
                 
                 // Department breakdown
-                Map<String, List<Employee>> departmentMap = activeEmployees.stream()
-                        .collect(Collectors.groupingBy(Employee::getDepartment));
-                
                 writer.println("\nDEPARTMENT BREAKDOWN:");
-                for (Map.Entry<String, List<Employee>> entry : departmentMap.entrySet()) {
-                    writer.printf("%-20s: %d employees%n", entry.getKey(), entry.getValue().size());
+                for (Map.Entry<String, PayTotals> entry : cube.byDepartment(null, null).entrySet()) {
+                    writer.printf("%-20s: %d employees%n", entry.getKey(), entry.getValue().getCount());
                 }
                 
                 // Employee type breakdown
-                Map<String, List<Employee>> typeMap = activeEmployees.stream()
-                        .collect(Collectors.groupingBy(Employee::getEmployeeType));
-                
                 writer.println("\nEMPLOYEE TYPE BREAKDOWN:");
-                for (Map.Entry<String, List<Employee>> entry : typeMap.entrySet()) {
-                    writer.printf("%-15s: %d employees%n", entry.getKey(), entry.getValue().size());
+                for (Map.Entry<String, PayTotals> entry : cube.byType(null, null).entrySet()) {
+                    writer.printf("%-15s: %d employees%n", entry.getKey(), entry.getValue().getCount());
                 }
             } else {
                 writer.println("No active employees found.");
@@ -850,10 +1944,31 @@ public class PayrollSystem {
     // Getter methods for system information
     
     public int getTotalEmployees() {
-        return employeeList.size();
+        return employeeStore.size();
     }
     
     public int getActiveEmployees() {
-        return (int) employeeList.stream().filter(Employee::isActive).count();
+        EmployeeStore.Snapshot snapshot = employeeStore.snapshot();
+        try {
+            return (int) snapshot.getEmployees().stream().filter(Employee::isActive).count();
+        } finally {
+            snapshot.close();
+        }
+    }
+    
+    public PayrollHistoryStore getHistoryStore() {
+        return historyStore;
+    }
+    
+    /**
+     * Get the company's employee change log
+     * @return change log
+     */
+    public EmployeeChangeLog getChangeLog() {
+        return changeLog;
+    }
+    
+    public String getCompany() {
+        return company;
     }
 }
@@ -0,0 +1,165 @@
+package advancepayrollmanagementsystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * PayrollWorker computes pay for partitions of employees sent by a DistributedPayroll
+ * coordinator. Each worker is its own JVM listening on a loopback port, so several workers
+ * run side by side on one host.
+ *
+ * A connection carries any number of requests, answered in order:
+ *   request:  [REQUEST_MAGIC][partition id][as-of epoch day][overtime plan][serialized employee list]
+ *   response: [RESPONSE_MAGIC][partition id][count][gross, tax, overtime per employee]
+ *   or:       [ERROR_MAGIC][partition id][message]
+ * Results are fixed-width doubles in the order of the request, so the coordinator matches
+ * them to its own employees by position. Net pay and hours are not sent; the coordinator
+ * derives them exactly as PayrollResult.of does.
+ *
+ * Each request is computed with the coordinator's as-of date and overtime plan pinned, not
+ * this process's calendar date or rules file, so every partition is paid as the coordinator
+ * would pay it.
+ */
+public class PayrollWorker {
+    static final int REQUEST_MAGIC = 0x50525131;  // "PRQ1"
+    static final int RESPONSE_MAGIC = 0x50525331; // "PRS1"
+    static final int ERROR_MAGIC = 0x50524531;    // "PRE1"
+
+    // Only employee data may be deserialized from the socket
+    private static final ObjectInputFilter REQUEST_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=20;advancepayrollmanagementsystem.*;java.util.ArrayList;java.time.*;java.lang.*;!*");
+
+    private final ServerSocket serverSocket;
+    private volatile boolean running = true;
+
+    /**
+     * Constructor for PayrollWorker
+     * @param port Loopback TCP port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public PayrollWorker(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Accept coordinator connections until the worker is stopped; each connection is served
+     * on its own thread
+     */
+    public void run() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread thread = new Thread(() -> serve(socket), "payroll-worker");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("✗ Worker accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop accepting connections
+     */
+    public void stop() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Answer requests on one connection until the coordinator closes it
+     */
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            s.setTcpNoDelay(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream(), 1 << 16));
+            ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+            in.setObjectInputFilter(REQUEST_FILTER);
+
+            while (true) {
+                int magic;
+                try {
+                    magic = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (magic != REQUEST_MAGIC) {
+                    throw new IOException("Bad request header");
+                }
+                int partition = in.readInt();
+                LocalDate asOf = LocalDate.ofEpochDay(in.readLong());
+                OvertimePlan plan = OvertimePlan.readFrom(in);
+                List<Employee> employees = readEmployees(in);
+
+                double[] results;
+                BusinessCalendar.Pin calendar = BusinessCalendar.pin(asOf);
+                OvertimePlan.Pin overtime = OvertimePlan.pin(plan);
+                try {
+                    results = compute(employees);
+                } catch (RuntimeException e) {
+                    out.writeInt(ERROR_MAGIC);
+                    out.writeInt(partition);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                    out.flush();
+                    continue;
+                } finally {
+                    overtime.close();
+                    calendar.close();
+                }
+
+                out.writeInt(RESPONSE_MAGIC);
+                out.writeInt(partition);
+                out.writeInt(employees.size());
+                for (double value : results) {
+                    out.writeDouble(value);
+                }
+                out.flush();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            // The coordinator reassigns the partition
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Employee> readEmployees(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        Object value = in.readObject();
+        if (!(value instanceof List)) {
+            throw new IOException("Bad request body");
+        }
+        return (List<Employee>) value;
+    }
+
+    /**
+     * Compute gross, tax and overtime for each employee, three values per employee
+     */
+    private static double[] compute(List<Employee> employees) {
+        double[] results = new double[employees.size() * 3];
+        int i = 0;
+        for (Employee emp : employees) {
+            results[i++] = emp.calculateSalary();
+            results[i++] = emp.calculateTax();
+            results[i++] = emp.getOvertimePay();
+        }
+        return results;
+    }
+}
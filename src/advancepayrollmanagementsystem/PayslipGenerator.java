@@ -0,0 +1,316 @@
+package advancepayrollmanagementsystem;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * PayslipGenerator renders one payslip per active employee and writes them out. For a
+ * closed pay period the payslips show the pay recorded in the period's run, with its
+ * year-to-date withholding, and go to the employees paid in that run.
+ *
+ * Employees are split into chunks that are rendered in parallel with a compiled
+ * PayslipTemplate. Payslips are written either into a single zip archive, fed by the
+ * calling thread in employee order while later chunks are still rendering, or as one file
+ * per employee in a directory per department, written by the rendering threads themselves.
+ * At most a few chunks are in flight at once, so memory stays bounded for large payrolls.
+ *
+ * File and directory names keep letters, digits, '-' and '_' of the employee ID and the
+ * department and replace anything else with '_'. Names that would then clash, ignoring case,
+ * get a numeric suffix in employee order, so no payslip overwrites another.
+ */
+public class PayslipGenerator {
+    public enum Output { ZIP, DEPARTMENT_DIRECTORIES }
+
+    private static final int CHUNK_SIZE = 512;
+
+    private final PayslipTemplate template;
+    private final int threads;
+
+    // Results of the last generate()
+    private int payslips;
+    private long bytesWritten;
+    private long elapsedNanos;
+
+    /**
+     * Constructor for PayslipGenerator, using one rendering thread per processor
+     * @param template Compiled payslip template
+     */
+    public PayslipGenerator(PayslipTemplate template) {
+        this(template, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for PayslipGenerator
+     * @param template Compiled payslip template
+     * @param threads Number of rendering threads
+     */
+    public PayslipGenerator(PayslipTemplate template, int threads) {
+        this.template = template;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Render and write the payslips of all active employees
+     * @param employees Employees (inactive employees are skipped)
+     * @param period Pay period printed on the payslips
+     * @param output Zip archive or per-department directories
+     * @param target Zip file, or root directory for the department directories
+     * @throws IOException if a payslip cannot be written
+     * @throws InterruptedException if interrupted while rendering
+     */
+    public void generate(List<Employee> employees, YearMonth period, Output output, Path target)
+            throws IOException, InterruptedException {
+        generate(employees, period, null, output, target);
+    }
+
+    /**
+     * Render and write the payslips of a pay period
+     * @param employees Employees
+     * @param period Pay period printed on the payslips
+     * @param run Recorded run of the closed period, whose paid employees get a payslip showing
+     *            the recorded pay; null for the current pay of the active employees
+     * @param output Zip archive or per-department directories
+     * @param target Zip file, or root directory for the department directories
+     * @throws IOException if a payslip cannot be written
+     * @throws InterruptedException if interrupted while rendering
+     */
+    public void generate(List<Employee> employees, YearMonth period, PayrollRun run, Output output, Path target)
+            throws IOException, InterruptedException {
+        payslips = 0;
+        bytesWritten = 0;
+        long start = System.nanoTime();
+
+        Map<String, PayrollResult> recorded = null;
+        if (run != null) {
+            recorded = new HashMap<>();
+            for (PayrollResult result : run.getResults()) {
+                recorded.put(result.getEmployeeId(), result);
+            }
+        }
+
+        // Names are given out here, in employee order, so the same data always gets the same names
+        Map<String, String> directories = new HashMap<>();
+        Set<String> directoriesTaken = new HashSet<>();
+        Map<String, Set<String>> filesTaken = new HashMap<>();
+        List<List<Payee>> chunks = new ArrayList<>();
+        List<Payee> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (Employee emp : employees) {
+            PayrollResult result = null;
+            if (recorded != null) {
+                result = recorded.get(emp.getEmployeeId());
+                if (result == null) continue;
+            } else if (!emp.isActive()) {
+                continue;
+            }
+            String department = result != null ? result.getDepartment() : emp.getDepartment();
+            String directory = directories.computeIfAbsent(department == null ? "Unassigned" : department,
+                    value -> uniqueName(value, directoriesTaken));
+            String file = uniqueName(emp.getEmployeeId(), filesTaken.computeIfAbsent(directory, d -> new HashSet<>()));
+            chunk.add(new Payee(emp, result, directory, file));
+            if (chunk.size() == CHUNK_SIZE) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) chunks.add(chunk);
+
+        // Payslips show pay as of the last day of the period
+        BusinessCalendar.Pin pin = BusinessCalendar.pin(period);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "payslip-renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            if (output == Output.ZIP) {
+                writeZip(chunks, period, target, executor);
+            } else {
+                writeDirectories(chunks, period, target, executor);
+            }
+        } finally {
+            executor.shutdownNow();
+            pin.close();
+            elapsedNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Render chunks in parallel and add them to the archive in order,
+     * keeping at most two chunks per thread in flight
+     */
+    private void writeZip(List<List<Payee>> chunks, YearMonth period, Path target, ExecutorService executor)
+            throws IOException, InterruptedException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        String extension = extension();
+
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            // Payslips are small and repetitive; the fastest level compresses them nearly as
+            // well and keeps the single archive writer from becoming the bottleneck
+            zip.setLevel(Deflater.BEST_SPEED);
+            Deque<Future<List<Rendered>>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            while (next < chunks.size() || !inFlight.isEmpty()) {
+                while (next < chunks.size() && inFlight.size() < threads * 2) {
+                    List<Payee> chunk = chunks.get(next++);
+                    inFlight.add(executor.submit(() -> renderChunk(chunk, period)));
+                }
+                for (Rendered payslip : await(inFlight.poll())) {
+                    zip.putNextEntry(new ZipEntry(payslip.directory + "/" + payslip.file + extension));
+                    zip.write(payslip.content);
+                    zip.closeEntry();
+                    payslips++;
+                    bytesWritten += payslip.content.length;
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Render chunks in parallel, each thread writing its own payslip files
+     */
+    private void writeDirectories(List<List<Payee>> chunks, YearMonth period, Path root, ExecutorService executor)
+            throws IOException, InterruptedException {
+        Map<String, Path> directories = new ConcurrentHashMap<>();
+        String extension = extension();
+        List<Future<long[]>> futures = new ArrayList<>(chunks.size());
+
+        for (List<Payee> chunk : chunks) {
+            futures.add(executor.submit(() -> {
+                long bytes = 0;
+                for (Rendered payslip : renderChunk(chunk, period)) {
+                    Path directory = directories.computeIfAbsent(payslip.directory, name -> {
+                        try {
+                            return Files.createDirectories(root.resolve(name));
+                        } catch (IOException e) {
+                            throw new java.io.UncheckedIOException(e);
+                        }
+                    });
+                    Files.write(directory.resolve(payslip.file + extension), payslip.content);
+                    bytes += payslip.content.length;
+                }
+                return new long[] { chunk.size(), bytes };
+            }));
+        }
+
+        for (Future<long[]> future : futures) {
+            long[] written = await(future);
+            payslips += (int) written[0];
+            bytesWritten += written[1];
+        }
+    }
+
+    private List<Rendered> renderChunk(List<Payee> chunk, YearMonth period) {
+        List<Rendered> rendered = new ArrayList<>(chunk.size());
+        StringBuilder buffer = new StringBuilder(template.getSizeHint());
+        for (Payee payee : chunk) {
+            buffer.setLength(0);
+            template.render(payee.emp, payee.recorded != null ? payee.recorded : PayrollResult.of(payee.emp),
+                    period, buffer);
+            rendered.add(new Rendered(payee.directory, payee.file, buffer.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        return rendered;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof java.io.UncheckedIOException) throw ((java.io.UncheckedIOException) cause).getCause();
+            throw new IOException("Payslip rendering failed", cause);
+        }
+    }
+
+    private String extension() {
+        return template.isHtml() ? ".html" : ".txt";
+    }
+
+    /**
+     * Make a value safe to use as a file or directory name
+     */
+    private static String fileName(String value) {
+        StringBuilder name = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            name.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' ? c : '_');
+        }
+        return name.length() == 0 ? "_" : name.toString();
+    }
+
+    /**
+     * Make a value safe to use as a name, adding a numeric suffix if the name is already taken
+     * @param taken Names taken so far, in lower case; the new name is added
+     */
+    private static String uniqueName(String value, Set<String> taken) {
+        String base = fileName(value);
+        String name = base;
+        for (int suffix = 2; !taken.add(name.toLowerCase(Locale.ROOT)); suffix++) {
+            name = base + "_" + suffix;
+        }
+        return name;
+    }
+
+    // Results of the last generate()
+    public int getPayslips() { return payslips; }
+    public long getBytesWritten() { return bytesWritten; }
+    public double getElapsedSeconds() { return elapsedNanos / 1e9; }
+    public double getPayslipsPerSecond() { return elapsedNanos == 0 ? 0 : payslips / (elapsedNanos / 1e9); }
+
+    /**
+     * Employee to render a payslip for, with the names of its file and directory
+     */
+    private static final class Payee {
+        final Employee emp;
+        final PayrollResult recorded; // null for the current pay
+        final String directory;
+        final String file;
+
+        Payee(Employee emp, PayrollResult recorded, String directory, String file) {
+            this.emp = emp;
+            this.recorded = recorded;
+            this.directory = directory;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Rendered payslip waiting to be written
+     */
+    private static final class Rendered {
+        final String directory;
+        final String file;
+        final byte[] content;
+
+        Rendered(String directory, String file, byte[] content) {
+            this.directory = directory;
+            this.file = file;
+            this.content = content;
+        }
+    }
+}
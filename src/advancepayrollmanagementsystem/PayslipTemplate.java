@@ -0,0 +1,350 @@
+package advancepayrollmanagementsystem;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * PayslipTemplate is a payslip layout compiled once into a render plan.
+ *
+ * Template syntax:
+ *   {{field}}               value of a payslip field, e.g. {{name}}, {{gross}}, {{period}}
+ *   {{#section}}..{{/section}}  included only when the section applies, e.g. {{#fulltime}}
+ *
+ * Compilation resolves every placeholder to a field accessor and splits the text into
+ * literal segments, so rendering is a straight walk over the plan: no parsing, regex or
+ * reflection per payslip. A compiled template is immutable and can render from many threads.
+ *
+ * Pay, hours, department and type come from the PayrollResult rendered with the employee,
+ * so a payslip for a closed period shows what was recorded; the pay components and the
+ * other details are the employee's current ones.
+ */
+public class PayslipTemplate {
+    /** Plain-text payslip matching the console salary breakdown */
+    public static final String DEFAULT_TEXT =
+            "========================================\n" +
+            "                PAYSLIP\n" +
+            "========================================\n" +
+            "Pay Period:     {{period}}\n" +
+            "Employee ID:    {{id}}\n" +
+            "Name:           {{name}}\n" +
+            "Department:     {{department}}\n" +
+            "Type:           {{type}}\n" +
+            "----------------------------------------\n" +
+            "{{#fulltime}}Base Salary:    ${{baseSalary}}\n" +
+            "Benefits:       ${{benefits}}\n" +
+            "Monthly Bonus:  ${{bonus}}\n{{/fulltime}}" +
+            "{{#parttime}}Hourly Rate:    ${{hourlyRate}}\n" +
+            "Hours Worked:   {{hoursWorked}}\n" +
+            "Regular Pay:    ${{regularPay}}\n{{/parttime}}" +
+            "{{#contract}}Contract Amount: ${{contractAmount}}\n" +
+            "Project:        {{project}}\n" +
+            "Contract End:   {{contractEnd}}\n{{/contract}}" +
+            "{{#overtime}}Overtime Pay:   ${{overtimePay}}\n{{/overtime}}" +
+            "----------------------------------------\n" +
+            "Gross Salary:   ${{gross}}\n" +
+            "Tax Deduction:  ${{tax}}\n" +
+            "----------------------------------------\n" +
+            "Net Salary:     ${{net}}\n" +
+            "========================================\n";
+
+    private final Segment[] plan;
+    private final boolean html;
+    private final int sizeHint;
+
+    private PayslipTemplate(Segment[] plan, boolean html, int sizeHint) {
+        this.plan = plan;
+        this.html = html;
+        this.sizeHint = sizeHint;
+    }
+
+    /**
+     * Compile a template into a render plan
+     * @param source Template text
+     * @param html true to HTML-escape text values
+     * @return compiled template
+     * @throws IllegalArgumentException if the template has an unknown field or unbalanced section
+     */
+    public static PayslipTemplate compile(String source, boolean html) {
+        List<Segment> plan = new ArrayList<>();
+        int end = compile(source, 0, null, plan);
+        if (end != source.length()) {
+            throw new IllegalArgumentException("Unexpected section end at offset " + end);
+        }
+        return new PayslipTemplate(plan.toArray(new Segment[0]), html, source.length() + 256);
+    }
+
+    /**
+     * Compile the template text from a position until the end of the text or of the open section
+     * @return position after the section end tag, or the end of the text
+     */
+    private static int compile(String source, int position, String section, List<Segment> plan) {
+        while (position < source.length()) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                plan.add(new Literal(source.substring(position)));
+                position = source.length();
+                break;
+            }
+            if (open > position) {
+                plan.add(new Literal(source.substring(position, open)));
+            }
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            String tag = source.substring(open + 2, close).trim();
+            position = close + 2;
+
+            if (tag.startsWith("#")) {
+                String name = tag.substring(1);
+                Predicate<Context> condition = sectionCondition(name);
+                List<Segment> body = new ArrayList<>();
+                position = compile(source, position, name, body);
+                plan.add(new Section(condition, body.toArray(new Segment[0])));
+            } else if (tag.startsWith("/")) {
+                if (!tag.substring(1).equals(section)) {
+                    throw new IllegalArgumentException("Unexpected section end {{" + tag + "}}");
+                }
+                return position;
+            } else {
+                plan.add(field(tag));
+            }
+        }
+        if (section != null) {
+            throw new IllegalArgumentException("Unclosed section {{#" + section + "}}");
+        }
+        return position;
+    }
+
+    /**
+     * Render a payslip
+     * @param emp Employee
+     * @param result Computed pay of the employee
+     * @param period Pay period
+     * @param out Buffer to append to
+     */
+    public void render(Employee emp, PayrollResult result, YearMonth period, StringBuilder out) {
+        Context context = new Context(emp, result, period, html);
+        for (Segment segment : plan) {
+            segment.render(context, out);
+        }
+    }
+
+    /**
+     * Render a payslip with the employee's current pay to a new string
+     * @param emp Employee
+     * @param period Pay period
+     * @return rendered payslip
+     */
+    public String render(Employee emp, YearMonth period) {
+        StringBuilder out = new StringBuilder(sizeHint);
+        render(emp, PayrollResult.of(emp), period, out);
+        return out.toString();
+    }
+
+    public boolean isHtml() { return html; }
+    public int getSizeHint() { return sizeHint; }
+
+    // Fields and sections
+
+    private static Predicate<Context> sectionCondition(String name) {
+        switch (name) {
+            case "fulltime":
+                return ctx -> ctx.emp instanceof FullTimeEmployee;
+            case "parttime":
+                return ctx -> ctx.emp instanceof PartTimeEmployee;
+            case "contract":
+                return ctx -> ctx.emp instanceof ContractEmployee;
+            case "overtime":
+                return ctx -> ctx.result.getOvertimePay() > 0;
+            default:
+                throw new IllegalArgumentException("Unknown section {{#" + name + "}}");
+        }
+    }
+
+    private static Segment field(String name) {
+        switch (name) {
+            case "id":
+                return new TextField((emp, ctx) -> emp.getEmployeeId());
+            case "name":
+                return new TextField((emp, ctx) -> emp.getFullName());
+            case "department":
+                return new TextField((emp, ctx) -> ctx.result.getDepartment());
+            case "type":
+                return new TextField((emp, ctx) -> ctx.result.getEmployeeType());
+            case "email":
+                return new TextField((emp, ctx) -> emp.getEmail());
+            case "period":
+                return new TextField((emp, ctx) -> ctx.periodText);
+            case "project":
+                return new TextField((emp, ctx) -> emp instanceof ContractEmployee
+                        ? ((ContractEmployee) emp).getProjectName() : "");
+            case "contractEnd":
+                return new TextField((emp, ctx) -> emp instanceof ContractEmployee
+                        ? String.valueOf(((ContractEmployee) emp).getContractEndDate()) : "");
+            case "baseSalary":
+                return new MoneyField((emp, ctx) -> emp.getBaseSalary());
+            case "benefits":
+                return new MoneyField((emp, ctx) -> emp instanceof FullTimeEmployee
+                        ? ((FullTimeEmployee) emp).getBenefits() : 0);
+            case "bonus":
+                return new MoneyField((emp, ctx) -> emp instanceof FullTimeEmployee
+                        ? ((FullTimeEmployee) emp).getMonthlyBonus() : 0);
+            case "hourlyRate":
+                return new MoneyField((emp, ctx) -> emp.getHourlyRate());
+            case "hoursWorked":
+                return new HoursField((emp, ctx) -> ctx.result.getHoursWorked());
+            case "regularPay":
+                return new MoneyField((emp, ctx) -> ctx.result.getGrossSalary() - ctx.result.getOvertimePay());
+            case "overtimePay":
+                return new MoneyField((emp, ctx) -> ctx.result.getOvertimePay());
+            case "contractAmount":
+                return new MoneyField((emp, ctx) -> emp instanceof ContractEmployee
+                        ? ((ContractEmployee) emp).getContractAmount() : 0);
+            case "gross":
+                return new MoneyField((emp, ctx) -> ctx.result.getGrossSalary());
+            case "tax":
+                return new MoneyField((emp, ctx) -> ctx.result.getTax());
+            case "net":
+                return new MoneyField((emp, ctx) -> ctx.result.getNetSalary());
+            default:
+                throw new IllegalArgumentException("Unknown field {{" + name + "}}");
+        }
+    }
+
+    // Render plan
+
+    /**
+     * Per-render state shared by the segments
+     */
+    private static final class Context {
+        final Employee emp;
+        final PayrollResult result;
+        final String periodText;
+        final boolean html;
+
+        Context(Employee emp, PayrollResult result, YearMonth period, boolean html) {
+            this.emp = emp;
+            this.result = result;
+            this.periodText = period.toString();
+            this.html = html;
+        }
+    }
+
+    private interface Segment {
+        void render(Context context, StringBuilder out);
+    }
+
+    private static final class Literal implements Segment {
+        private final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(Context context, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    private static final class Section implements Segment {
+        private final Predicate<Context> condition;
+        private final Segment[] body;
+
+        Section(Predicate<Context> condition, Segment[] body) {
+            this.condition = condition;
+            this.body = body;
+        }
+
+        @Override
+        public void render(Context context, StringBuilder out) {
+            if (condition.test(context)) {
+                for (Segment segment : body) {
+                    segment.render(context, out);
+                }
+            }
+        }
+    }
+
+    private static final class TextField implements Segment {
+        private final BiFunction<Employee, Context, String> value;
+
+        TextField(BiFunction<Employee, Context, String> value) {
+            this.value = value;
+        }
+
+        @Override
+        public void render(Context context, StringBuilder out) {
+            String text = value.apply(context.emp, context);
+            if (text == null) return;
+            if (!context.html) {
+                out.append(text);
+                return;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '<': out.append("&lt;"); break;
+                    case '>': out.append("&gt;"); break;
+                    case '&': out.append("&amp;"); break;
+                    case '"': out.append("&quot;"); break;
+                    case '\'': out.append("&#39;"); break;
+                    default: out.append(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Amount with two decimals, formatted without String.format
+     */
+    private static final class MoneyField implements Segment {
+        private final ToDoubleBiFunction<Employee, Context> value;
+
+        MoneyField(ToDoubleBiFunction<Employee, Context> value) {
+            this.value = value;
+        }
+
+        @Override
+        public void render(Context context, StringBuilder out) {
+            appendFixed(out, value.applyAsDouble(context.emp, context), 100);
+        }
+    }
+
+    /**
+     * Hours with one decimal
+     */
+    private static final class HoursField implements Segment {
+        private final ToDoubleBiFunction<Employee, Context> value;
+
+        HoursField(ToDoubleBiFunction<Employee, Context> value) {
+            this.value = value;
+        }
+
+        @Override
+        public void render(Context context, StringBuilder out) {
+            appendFixed(out, value.applyAsDouble(context.emp, context), 10);
+        }
+    }
+
+    /**
+     * Append a value rounded to a fixed number of decimals
+     * @param scale 10 for one decimal, 100 for two
+     */
+    private static void appendFixed(StringBuilder out, double value, int scale) {
+        long units = Math.round(value * scale);
+        if (units < 0) {
+            out.append('-');
+            units = -units;
+        }
+        out.append(units / scale).append('.');
+        long fraction = units % scale;
+        if (scale == 100 && fraction < 10) out.append('0');
+        out.append(fraction);
+    }
+}
@@ -0,0 +1,48 @@
+package advancepayrollmanagementsystem;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * PeriodSummary is the footer of a pay period in the history store.
+ * It carries the period totals and per-employee totals, so year-to-date and
+ * annual queries never have to re-read the detail rows.
+ */
+public class PeriodSummary {
+    private final YearMonth period;
+    private final LocalDateTime runAt;
+    private final PayTotals totals;
+    private final Map<String, PayTotals> employeeTotals;
+    
+    /**
+     * Constructor for PeriodSummary
+     * @param period Pay period
+     * @param runAt Time of the payroll run
+     * @param totals Totals over all employees
+     * @param employeeTotals Totals per employee ID
+     */
+    public PeriodSummary(YearMonth period, LocalDateTime runAt, PayTotals totals,
+                         Map<String, PayTotals> employeeTotals) {
+        this.period = period;
+        this.runAt = runAt;
+        this.totals = totals;
+        this.employeeTotals = Collections.unmodifiableMap(employeeTotals);
+    }
+    
+    /**
+     * Get the totals recorded for one employee
+     * @param employeeId Employee ID
+     * @return totals, or null if the employee was not paid in this period
+     */
+    public PayTotals getEmployeeTotals(String employeeId) {
+        return employeeTotals.get(employeeId);
+    }
+    
+    // Getters
+    public YearMonth getPeriod() { return period; }
+    public LocalDateTime getRunAt() { return runAt; }
+    public PayTotals getTotals() { return totals; }
+    public Map<String, PayTotals> getAllEmployeeTotals() { return employeeTotals; }
+}
@@ -0,0 +1,53 @@
+package advancepayrollmanagementsystem;
+
+import java.time.YearMonth;
+
+/**
+ * RetroAdjustment is the difference between what an employee was paid for a closed
+ * period and what they should have been paid after a retroactive change.
+ */
+public class RetroAdjustment {
+    private final String employeeId;
+    private final YearMonth period;
+    private final double originalGross;
+    private final double recomputedGross;
+    private final double taxDelta;
+    
+    /**
+     * Constructor for RetroAdjustment
+     * @param employeeId Employee ID
+     * @param period Closed pay period being adjusted
+     * @param originalGross Gross salary recorded for the period
+     * @param recomputedGross Gross salary after the change
+     * @param taxDelta Additional tax due for the period (negative for a refund)
+     */
+    public RetroAdjustment(String employeeId, YearMonth period, double originalGross,
+                           double recomputedGross, double taxDelta) {
+        this.employeeId = employeeId;
+        this.period = period;
+        this.originalGross = originalGross;
+        this.recomputedGross = recomputedGross;
+        this.taxDelta = taxDelta;
+    }
+    
+    public double getGrossDelta() {
+        return recomputedGross - originalGross;
+    }
+    
+    public double getNetDelta() {
+        return getGrossDelta() - taxDelta;
+    }
+    
+    // Getters
+    public String getEmployeeId() { return employeeId; }
+    public YearMonth getPeriod() { return period; }
+    public double getOriginalGross() { return originalGross; }
+    public double getRecomputedGross() { return recomputedGross; }
+    public double getTaxDelta() { return taxDelta; }
+    
+    @Override
+    public String toString() {
+        return String.format("RetroAdjustment{ID='%s', Period=%s, Gross%+.2f, Tax%+.2f}",
+                employeeId, period, getGrossDelta(), taxDelta);
+    }
+}
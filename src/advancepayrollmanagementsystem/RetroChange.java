@@ -0,0 +1,124 @@
+package advancepayrollmanagementsystem;
+
+import java.time.YearMonth;
+
+/**
+ * RetroChange is an effective-dated pay change that may lie in already closed periods.
+ * A change targets either a single employee (new absolute value) or a whole
+ * department (percentage raise of the current value).
+ */
+public class RetroChange {
+    /**
+     * Pay fields that can be changed retroactively
+     */
+    public enum Field {
+        BASE_SALARY, HOURLY_RATE, BENEFITS, CONTRACT_AMOUNT
+    }
+    
+    private final String employeeId;
+    private final String department;
+    private final Field field;
+    private final double amount;
+    private final boolean percentage;
+    private final YearMonth effectiveFrom;
+    
+    private RetroChange(String employeeId, String department, Field field, double amount,
+                        boolean percentage, YearMonth effectiveFrom) {
+        this.employeeId = employeeId;
+        this.department = department;
+        this.field = field;
+        this.amount = amount;
+        this.percentage = percentage;
+        this.effectiveFrom = effectiveFrom;
+    }
+    
+    /**
+     * Set a new value for one employee
+     * @param employeeId Employee ID
+     * @param field Field to change
+     * @param newValue New value
+     * @param effectiveFrom First period the new value applies to
+     * @return change
+     */
+    public static RetroChange forEmployee(String employeeId, Field field, double newValue, YearMonth effectiveFrom) {
+        return new RetroChange(employeeId, null, field, newValue, false, effectiveFrom);
+    }
+    
+    /**
+     * Raise a field by a percentage for every employee of a department
+     * @param department Department name (case-insensitive)
+     * @param field Field to change
+     * @param percent Raise in percent (e.g. 4 for 4%)
+     * @param effectiveFrom First period the raise applies to
+     * @return change
+     */
+    public static RetroChange forDepartment(String department, Field field, double percent, YearMonth effectiveFrom) {
+        return new RetroChange(null, department, field, percent, true, effectiveFrom);
+    }
+    
+    /**
+     * Check whether this change targets an employee
+     * @param emp Employee to check
+     * @return true if the employee is in scope and has the changed field
+     */
+    public boolean appliesTo(Employee emp) {
+        boolean inScope = employeeId != null
+                ? employeeId.equalsIgnoreCase(emp.getEmployeeId())
+                : department.equalsIgnoreCase(emp.getDepartment());
+        if (!inScope) return false;
+        
+        switch (field) {
+            case BASE_SALARY:
+            case BENEFITS:
+                return emp instanceof FullTimeEmployee;
+            case CONTRACT_AMOUNT:
+                return emp instanceof ContractEmployee;
+            case HOURLY_RATE:
+                return emp instanceof PartTimeEmployee;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Apply the change to an employee record
+     * @param emp Employee to modify
+     */
+    public void applyTo(Employee emp) {
+        switch (field) {
+            case BASE_SALARY:
+                emp.setBaseSalary(newValue(emp.getBaseSalary()));
+                break;
+            case HOURLY_RATE:
+                emp.setHourlyRate(newValue(emp.getHourlyRate()));
+                break;
+            case BENEFITS:
+                FullTimeEmployee ftEmp = (FullTimeEmployee) emp;
+                ftEmp.setBenefits(newValue(ftEmp.getBenefits()));
+                break;
+            case CONTRACT_AMOUNT:
+                ContractEmployee ctEmp = (ContractEmployee) emp;
+                ctEmp.setContractAmount(newValue(ctEmp.getContractAmount()));
+                break;
+        }
+    }
+    
+    private double newValue(double current) {
+        return percentage ? current * (1 + amount / 100) : amount;
+    }
+    
+    // Getters
+    public String getEmployeeId() { return employeeId; }
+    public String getDepartment() { return department; }
+    public Field getField() { return field; }
+    public double getAmount() { return amount; }
+    public boolean isPercentage() { return percentage; }
+    public YearMonth getEffectiveFrom() { return effectiveFrom; }
+    
+    @Override
+    public String toString() {
+        String target = employeeId != null ? "employee " + employeeId : "department " + department;
+        String value = percentage ? String.format("%+.2f%%", amount) : String.format("%.2f", amount);
+        return String.format("RetroChange{%s %s=%s from %s}", target, field, value, effectiveFrom);
+    }
+}
@@ -0,0 +1,195 @@
+package advancepayrollmanagementsystem;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RetroPayEngine turns back-dated pay changes into adjustment deltas.
+ *
+ * Only employees targeted by a change are considered, and only the closed periods
+ * from the change's effective date onwards are recomputed. Recorded amounts come from
+ * the period footers of the history store, so unaffected employees and periods are
+ * never read or recomputed.
+ *
+ * Posted adjustments become part of the periods they adjust, so year-to-date totals,
+ * cumulative tax withholding and later retroactive changes all count the back pay.
+ */
+public class RetroPayEngine {
+    private static final double CENT = 0.005;
+    
+    private final PayrollHistoryStore history;
+    
+    /**
+     * Constructor for RetroPayEngine
+     * @param history History store with the closed periods
+     */
+    public RetroPayEngine(PayrollHistoryStore history) {
+        this.history = history;
+    }
+    
+    /**
+     * Calculate adjustments for a set of retroactive changes
+     * @param employees Current employee records
+     * @param changes Retroactive changes
+     * @param through Last closed period to adjust
+     * @return adjustments ordered by employee and period
+     * @throws IOException if the history cannot be read
+     */
+    public List<RetroAdjustment> calculate(List<Employee> employees, List<RetroChange> changes,
+                                           YearMonth through) throws IOException {
+        // Resolve the affected employees once
+        Map<Employee, List<RetroChange>> affected = new LinkedHashMap<>();
+        YearMonth earliest = null;
+        for (Employee emp : employees) {
+            for (RetroChange change : changes) {
+                if (change.appliesTo(emp)) {
+                    affected.computeIfAbsent(emp, e -> new ArrayList<>()).add(change);
+                    if (earliest == null || change.getEffectiveFrom().isBefore(earliest)) {
+                        earliest = change.getEffectiveFrom();
+                    }
+                }
+            }
+        }
+        
+        List<RetroAdjustment> adjustments = new ArrayList<>();
+        if (affected.isEmpty()) return adjustments;
+        
+        // Only closed periods within the retro window
+        List<YearMonth> periods = new ArrayList<>();
+        for (YearMonth period : history.getPeriods()) {
+            if (!period.isBefore(earliest) && !period.isAfter(through)) {
+                periods.add(period);
+            }
+        }
+        
+        for (Map.Entry<Employee, List<RetroChange>> entry : affected.entrySet()) {
+            recompute(entry.getKey(), entry.getValue(), periods, adjustments);
+        }
+        return adjustments;
+    }
+    
+    /**
+     * Post adjustments to the history of the periods they adjust. Each adjusted period gets
+     * a new block: its latest run with the adjusted employees' gross, tax and net corrected,
+     * superseding the earlier block, which stays in the segment as an audit trail.
+     * @param adjustments Adjustments from calculate()
+     * @return number of periods posted
+     * @throws IOException if the history cannot be read or written
+     */
+    public int post(List<RetroAdjustment> adjustments) throws IOException {
+        Map<YearMonth, Map<String, RetroAdjustment>> byPeriod = new LinkedHashMap<>();
+        for (RetroAdjustment adj : adjustments) {
+            byPeriod.computeIfAbsent(adj.getPeriod(), p -> new LinkedHashMap<>()).put(adj.getEmployeeId(), adj);
+        }
+        
+        LocalDateTime postedAt = LocalDateTime.now();
+        for (Map.Entry<YearMonth, Map<String, RetroAdjustment>> entry : byPeriod.entrySet()) {
+            PayrollRun run = history.readRun(entry.getKey());
+            if (run == null) {
+                throw new IOException("No payroll recorded for " + entry.getKey());
+            }
+            List<PayrollResult> results = new ArrayList<>(run.getResults().size());
+            for (PayrollResult result : run.getResults()) {
+                RetroAdjustment adj = entry.getValue().get(result.getEmployeeId());
+                results.add(adj == null ? result : new PayrollResult(result.getEmployeeId(),
+                        result.getDepartment(), result.getEmployeeType(),
+                        result.getGrossSalary() + adj.getGrossDelta(), result.getTax() + adj.getTaxDelta(),
+                        result.getNetSalary() + adj.getNetDelta(), result.getHoursWorked(), result.getOvertimePay()));
+            }
+            history.append(new PayrollRun(entry.getKey(), postedAt, results));
+        }
+        return byPeriod.size();
+    }
+    
+    /**
+     * Apply changes to the live employee records, for pay going forward
+     * @param employees Current employee records
+     * @param changes Changes to apply
+     * @return number of employees changed
+     */
+    public int apply(List<Employee> employees, List<RetroChange> changes) {
+        int changed = 0;
+        for (Employee emp : employees) {
+            boolean touched = false;
+            for (RetroChange change : changes) {
+                if (change.appliesTo(emp)) {
+                    change.applyTo(emp);
+                    touched = true;
+                }
+            }
+            if (touched) changed++;
+        }
+        return changed;
+    }
+    
+    /**
+     * Recompute one employee's affected periods.
+     * Gross is recomputed at the hours recorded for each period; the difference between the
+     * old and new terms is added to what was actually paid. Tax is adjusted on the same
+     * cumulative year-to-date basis used when the periods were closed.
+     */
+    private void recompute(Employee emp, List<RetroChange> changes, List<YearMonth> periods,
+                           List<RetroAdjustment> adjustments) throws IOException {
+        changes.sort(Comparator.comparing(RetroChange::getEffectiveFrom));
+        YearMonth first = changes.get(0).getEffectiveFrom();
+        
+        Employee before = emp.copy();
+        Employee after = emp.copy();
+        int applied = 0;
+        int year = 0;
+        double originalCumulative = 0;
+        double recomputedCumulative = 0;
+        double taxDeltaToDate = 0;
+        
+        for (YearMonth period : periods) {
+            if (period.isBefore(first)) continue;
+            
+            PeriodSummary summary = history.readSummary(period);
+            PayTotals paid = summary != null ? summary.getEmployeeTotals(emp.getEmployeeId()) : null;
+            if (paid == null) continue;
+            
+            while (applied < changes.size() && !changes.get(applied).getEffectiveFrom().isAfter(period)) {
+                changes.get(applied++).applyTo(after);
+            }
+            
+            if (period.getYear() != year) {
+                // Open the year with what was paid before the first affected period
+                year = period.getYear();
+                PayTotals opening = period.getMonthValue() == 1 ? new PayTotals()
+                        : history.getYearToDate(emp.getEmployeeId(), period.minusMonths(1));
+                originalCumulative = opening.getGrossSalary();
+                recomputedCumulative = opening.getGrossSalary();
+                taxDeltaToDate = 0;
+            }
+            
+            before.setHoursWorked(paid.getHoursWorked());
+            after.setHoursWorked(paid.getHoursWorked());
+            double recomputedGross;
+            BusinessCalendar.Pin pin = BusinessCalendar.pin(period);
+            try {
+                recomputedGross = paid.getGrossSalary() + after.calculateSalary() - before.calculateSalary();
+            } finally {
+                pin.close();
+            }
+            
+            originalCumulative += paid.getGrossSalary();
+            recomputedCumulative += recomputedGross;
+            int month = period.getMonthValue();
+            double cumulativeTaxDelta = after.calculateTax(recomputedCumulative, month)
+                    - before.calculateTax(originalCumulative, month);
+            double taxDelta = cumulativeTaxDelta - taxDeltaToDate;
+            taxDeltaToDate = cumulativeTaxDelta;
+            
+            if (Math.abs(recomputedGross - paid.getGrossSalary()) >= CENT || Math.abs(taxDelta) >= CENT) {
+                adjustments.add(new RetroAdjustment(emp.getEmployeeId(), period,
+                        paid.getGrossSalary(), recomputedGross, taxDelta));
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package advancepayrollmanagementsystem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SalaryStatistics summarizes gross salaries in a single pass over the employees:
+ * count, total, min and max, quantiles from a KllSketch, and the top and bottom earners
+ * from bounded heaps, both overall and per department.
+ *
+ * Each employee's salary is computed once. Statistics over separate partitions merge,
+ * so large payrolls are summarized in parallel.
+ */
+public class SalaryStatistics {
+    private final int topN;
+    private final Group overall;
+    private final TopK<Employee> lowest;
+    private final Map<String, Group> departments = new TreeMap<>();
+
+    /**
+     * Constructor for SalaryStatistics
+     * @param topN Number of top earners to keep overall and per department
+     */
+    public SalaryStatistics(int topN) {
+        this.topN = topN;
+        this.overall = new Group(topN);
+        this.lowest = new TopK<>(topN, false);
+    }
+
+    /**
+     * Summarize the active employees, in parallel partitions for large lists
+     * @param employees Employees (inactive employees are skipped)
+     * @param topN Number of top earners to keep overall and per department
+     * @return statistics
+     */
+    public static SalaryStatistics compute(List<Employee> employees, int topN) {
+        return employees.parallelStream()
+                .filter(Employee::isActive)
+                .collect(() -> new SalaryStatistics(topN), SalaryStatistics::accept, SalaryStatistics::merge);
+    }
+
+    /**
+     * Add one employee
+     * @param emp Employee to add
+     */
+    public void accept(Employee emp) {
+        double salary = emp.calculateSalary();
+        overall.add(emp, salary);
+        lowest.offer(salary, emp);
+        departments.computeIfAbsent(emp.getDepartment(), d -> new Group(topN)).add(emp, salary);
+    }
+
+    /**
+     * Merge statistics over another partition into this one
+     * @param other Statistics to merge
+     */
+    public void merge(SalaryStatistics other) {
+        overall.merge(other.overall);
+        lowest.merge(other.lowest);
+        for (Map.Entry<String, Group> entry : other.departments.entrySet()) {
+            departments.computeIfAbsent(entry.getKey(), d -> new Group(topN)).merge(entry.getValue());
+        }
+    }
+
+    // Getters
+    public Group getOverall() { return overall; }
+    public List<TopK.Entry<Employee>> getLowestPaid() { return lowest.getRanked(); }
+    public Map<String, Group> getDepartments() { return departments; }
+
+    /**
+     * Statistics of one group of employees
+     */
+    public static final class Group {
+        private long count;
+        private double total;
+        private final KllSketch sketch = new KllSketch();
+        private final TopK<Employee> highest;
+
+        Group(int topN) {
+            this.highest = new TopK<>(topN, true);
+        }
+
+        void add(Employee emp, double salary) {
+            count++;
+            total += salary;
+            sketch.update(salary);
+            highest.offer(salary, emp);
+        }
+
+        void merge(Group other) {
+            count += other.count;
+            total += other.total;
+            sketch.merge(other.sketch);
+            highest.merge(other.highest);
+        }
+
+        // Getters
+        public long getCount() { return count; }
+        public double getTotal() { return total; }
+        public double getAverage() { return count == 0 ? 0 : total / count; }
+        public double getMin() { return sketch.getMin(); }
+        public double getMax() { return sketch.getMax(); }
+        public double getMedian() { return sketch.quantile(0.5); }
+        public double getPercentile(double q) { return sketch.quantile(q); }
+        public List<TopK.Entry<Employee>> getHighestPaid() { return highest.getRanked(); }
+    }
+}
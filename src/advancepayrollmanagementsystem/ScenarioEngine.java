@@ -0,0 +1,208 @@
+package advancepayrollmanagementsystem;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * ScenarioEngine prices what-if compensation scenarios against the current payroll.
+ *
+ * The engine takes the active employees and their baseline pay for one period once. Each
+ * scenario then runs on its own copy-on-write overlay of those employees: an adjustment
+ * copies an employee the first time it changes them and edits the copy, so a scenario holds
+ * copies of the employees it touches only and the live records are never modified. The cost
+ * delta is recomputed for the copied employees alone, since every other employee's pay is
+ * the baseline. Scenarios are independent and are evaluated in parallel.
+ *
+ * Scenario scopes (department, type, ID) are never adjusted, so employees are matched on the
+ * baseline records.
+ */
+public class ScenarioEngine {
+    private final YearMonth period;
+    private final Employee[] employees;
+    private final double[] baselineGross;
+    private final double[] baselineTax;
+    private final double[] baselineOvertime;
+    private final PayTotals baseline;
+
+    /**
+     * Constructor for ScenarioEngine; computes the baseline pay
+     * @param employees Employees (only active employees are paid)
+     * @param period Pay period the scenarios are priced for
+     */
+    public ScenarioEngine(List<Employee> employees, YearMonth period) {
+        this.period = period;
+        this.employees = employees.stream().filter(Employee::isActive).toArray(Employee[]::new);
+        int count = this.employees.length;
+        this.baselineGross = new double[count];
+        this.baselineTax = new double[count];
+        this.baselineOvertime = new double[count];
+
+        BusinessCalendar.Pin pin = BusinessCalendar.pin(period);
+        try {
+            IntStream.range(0, count).parallel().forEach(i -> {
+                Employee emp = this.employees[i];
+                baselineGross[i] = emp.calculateSalary();
+                baselineTax[i] = emp.calculateTax();
+                baselineOvertime[i] = emp.getOvertimePay();
+            });
+        } finally {
+            pin.close();
+        }
+
+        PayTotals totals = new PayTotals();
+        for (int i = 0; i < count; i++) {
+            totals.add(new PayTotals(1, baselineGross[i], baselineTax[i], baselineGross[i] - baselineTax[i],
+                    this.employees[i].getHoursWorked(), baselineOvertime[i]));
+        }
+        this.baseline = totals;
+    }
+
+    /**
+     * Evaluate scenarios in parallel
+     * @param scenarios Scenarios to price
+     * @return one result per scenario, in the same order
+     * @throws InterruptedException if interrupted while waiting for the evaluations
+     */
+    public List<Result> evaluate(List<CompensationScenario> scenarios) throws InterruptedException {
+        if (scenarios.isEmpty()) return Collections.emptyList();
+        int threads = Math.min(scenarios.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "scenario-evaluator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        BusinessCalendar.Pin pin = BusinessCalendar.pin(period);
+        try {
+            List<Future<Result>> futures = new ArrayList<>(scenarios.size());
+            for (CompensationScenario scenario : scenarios) {
+                futures.add(executor.submit(() -> price(scenario)));
+            }
+            List<Result> results = new ArrayList<>(scenarios.size());
+            for (Future<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    throw new IllegalStateException("Scenario evaluation failed", cause);
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+            pin.close();
+        }
+    }
+
+    /**
+     * Apply one scenario to its overlay and price the employees it changed
+     */
+    private Result price(CompensationScenario scenario) {
+        long start = System.nanoTime();
+        Overlay overlay = new Overlay(employees);
+        for (CompensationScenario.Adjustment adjustment : scenario.getAdjustments()) {
+            for (int i = 0; i < employees.length; i++) {
+                if (adjustment.appliesTo(employees[i])) {
+                    adjustment.applyTo(overlay.edit(i));
+                }
+            }
+        }
+
+        PayTotals delta = new PayTotals();
+        Map<String, PayTotals> byDepartment = new TreeMap<>();
+        for (Map.Entry<Integer, Employee> entry : overlay.copies.entrySet()) {
+            int i = entry.getKey();
+            Employee emp = entry.getValue();
+            double gross = emp.calculateSalary() - baselineGross[i];
+            double tax = emp.calculateTax() - baselineTax[i];
+            PayTotals change = new PayTotals(1, gross, tax, gross - tax, 0, emp.getOvertimePay() - baselineOvertime[i]);
+            delta.add(change);
+            byDepartment.computeIfAbsent(emp.getDepartment() != null ? emp.getDepartment() : "(none)",
+                    department -> new PayTotals()).add(change);
+        }
+        return new Result(scenario.getName(), baseline, delta, byDepartment, System.nanoTime() - start);
+    }
+
+    // Getters
+    public YearMonth getPeriod() { return period; }
+    public PayTotals getBaseline() { return baseline; }
+    public int getEmployeeCount() { return employees.length; }
+
+    /**
+     * Copy-on-write view of the baseline employees for one scenario
+     */
+    private static final class Overlay {
+        private final Employee[] base;
+        // Position in base -> the scenario's private copy
+        private final Map<Integer, Employee> copies = new HashMap<>();
+
+        Overlay(Employee[] base) {
+            this.base = base;
+        }
+
+        /**
+         * Get the scenario's copy of an employee for editing, copying it on first use
+         */
+        Employee edit(int index) {
+            Employee copy = copies.get(index);
+            if (copy == null) {
+                copy = base[index].copy();
+                copies.put(index, copy);
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * Cost of one scenario against the baseline
+     */
+    public static final class Result {
+        private final String name;
+        private final PayTotals baseline;
+        private final PayTotals delta;
+        private final Map<String, PayTotals> departmentDeltas;
+        private final long elapsedNanos;
+
+        private Result(String name, PayTotals baseline, PayTotals delta, Map<String, PayTotals> departmentDeltas,
+                       long elapsedNanos) {
+            this.name = name;
+            this.baseline = baseline;
+            this.delta = delta;
+            this.departmentDeltas = Collections.unmodifiableMap(departmentDeltas);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Get the scenario's payroll totals
+         * @return baseline totals plus the delta (the employee count is the baseline's)
+         */
+        public PayTotals getScenarioTotals() {
+            return new PayTotals(baseline.getCount(), baseline.getGrossSalary() + delta.getGrossSalary(),
+                    baseline.getTax() + delta.getTax(), baseline.getNetSalary() + delta.getNetSalary(),
+                    baseline.getHoursWorked(), baseline.getOvertimePay() + delta.getOvertimePay());
+        }
+
+        // Getters
+        public String getName() { return name; }
+        public int getEmployeesAffected() { return delta.getCount(); }
+        public PayTotals getDelta() { return delta; }
+        public Map<String, PayTotals> getDepartmentDeltas() { return departmentDeltas; }
+        public double getElapsedSeconds() { return elapsedNanos / 1e9; }
+
+        @Override
+        public String toString() {
+            return String.format("ScenarioEngine.Result{Name='%s', Affected=%d, GrossDelta=%.2f, NetDelta=%.2f}",
+                    name, delta.getCount(), delta.getGrossSalary(), delta.getNetSalary());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package advancepayrollmanagementsystem;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SharedDictionary deduplicates values that repeat across employees, so that every employee
+ * keeps a reference to one canonical instance instead of its own copy.
+ *
+ * The static pool is process-wide and never shrinks, so it holds only genuinely
+ * low-cardinality values: departments, employee types, project names and dates, of which a
+ * payroll has a small, bounded set.
+ *
+ * Names and bank routing numbers repeat too, but their distinct values grow with every
+ * employee ever loaded. They go into a dictionary instance owned by one employee store,
+ * which builds a new one whenever it reloads its employees, so values of deleted employees
+ * are dropped with the old dictionary. Unique values such as e-mail addresses or employee
+ * IDs are left alone.
+ */
+public final class SharedDictionary {
+    private static final ConcurrentHashMap<String, String> STRINGS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<LocalDate, LocalDate> DATES = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the dictionary of one employee store
+     */
+    public SharedDictionary() {
+    }
+
+    /**
+     * Get the canonical instance of a low-cardinality string
+     * @param value String to deduplicate (may be null)
+     * @return shared instance equal to value, or null
+     */
+    public static String intern(String value) {
+        if (value == null) return null;
+        String existing = STRINGS.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Get the canonical instance of a date
+     * @param value Date to deduplicate (may be null)
+     * @return shared instance equal to value, or null
+     */
+    public static LocalDate intern(LocalDate value) {
+        if (value == null) return null;
+        LocalDate existing = DATES.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Get the number of distinct values held by the process-wide pool
+     * @return number of pooled strings and dates
+     */
+    public static int size() {
+        return STRINGS.size() + DATES.size();
+    }
+
+    /**
+     * Get this store's canonical instance of a string
+     * @param value String to deduplicate (may be null)
+     * @return shared instance equal to value, or null
+     */
+    public String share(String value) {
+        if (value == null) return null;
+        String existing = values.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Get the number of distinct values held by this store's dictionary
+     * @return number of shared strings
+     */
+    public int getSharedCount() {
+        return values.size();
+    }
+}
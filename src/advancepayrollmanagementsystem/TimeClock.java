@@ -0,0 +1,523 @@
+package advancepayrollmanagementsystem;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * TimeClock ingests clock-in and clock-out punches from badge readers and turns them into
+ * the hours worked of each pay period.
+ *
+ * Readers on any number of threads publish punches into a fixed-size ring buffer without
+ * locking. A single "time-clock" thread drains the ring in batches, pairs each employee's
+ * clock-in with the next clock-out, and adds the shift to the employee's daily hours, split
+ * at local midnight. Every day is credited to the pay period (month) it falls in, so one
+ * clock serves every month: a shift across midnight at month end is split between the two
+ * months, and a clock-in stays open across the change of month. Each employee's hours are
+ * kept for the latest period and the one before it, so late punches for the previous month
+ * still count.
+ *
+ * Employees whose hours changed get a new day-by-day Timesheet (which also sets hours
+ * worked) at most once per flush interval or when flush() is called. The timesheets are
+ * handed over in one batch per period, oldest period first, by default set on the employees
+ * directly. An employee's hours for a period start from its opening timesheet, by default
+ * the employee's own timesheet when it is for that period and has daily hours, so a restarted
+ * clock adds to the hours recorded before instead of replacing them.
+ *
+ * Punches that cannot be paired are counted and dropped: a clock-out without a clock-in, a
+ * second clock-in (the earlier one is dropped), a shift longer than a day or one that
+ * overlaps the previous shift. Hours before the clock's first period, or more than one
+ * period before an employee's latest, are counted and dropped.
+ */
+public class TimeClock {
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int BATCH = 4096;
+    private static final long FLUSH_INTERVAL_NANOS = 1_000_000_000L;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+    private static final long MAX_SHIFT_MILLIS = 24 * 3_600_000L;
+
+    private final PunchRing ring;
+    private final Function<String, Employee> employees;
+    private final Consumer<Map<String, Timesheet>> timesheets;
+    private final BiFunction<String, YearMonth, Timesheet> openingTimesheets;
+    private final YearMonth period;
+    private final ZoneId zone;
+    private final long periodStartDay;
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    // Drainer thread state
+    private final Map<String, EmployeeClock> clocks = new HashMap<>();
+    private final List<PeriodHours> dirty = new ArrayList<>();
+    private long midnightDay = Long.MIN_VALUE;
+    private long midnightMillis;
+    // Latest period a day was credited to, so most days map to their period without date arithmetic
+    private volatile YearMonth latestPeriod;
+    private long latestStartDay = Long.MAX_VALUE;
+    private long latestEndDay = Long.MIN_VALUE;
+
+    // Flush handshake: callers raise the flag and wait for appliedSequence to pass their punches
+    private volatile boolean flushRequested;
+    private volatile long appliedSequence;
+
+    // Counters, written by the drainer thread only (rejected by producers)
+    private volatile long pairedShifts;
+    private volatile long unpairedPunches;
+    private volatile long unknownPunches;
+    private volatile double outsidePeriodHours;
+    private volatile long employeesUpdated;
+    private final AtomicLong rejectedPunches = new AtomicLong();
+
+    /**
+     * Constructor for TimeClock; starts the draining thread
+     * @param employees Employee lookup by ID
+     * @param period First pay period hours are accepted for
+     * @param zone Time zone of the working days
+     */
+    public TimeClock(Function<String, Employee> employees, YearMonth period, ZoneId zone) {
+        this(employees, period, zone, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for TimeClock; starts the draining thread
+     * @param employees Employee lookup by ID
+     * @param timesheets Receives each flush's new timesheets of one period by employee ID
+     * @param period First pay period hours are accepted for
+     * @param zone Time zone of the working days
+     */
+    public TimeClock(Function<String, Employee> employees, Consumer<Map<String, Timesheet>> timesheets,
+                     YearMonth period, ZoneId zone) {
+        this(employees, timesheets, period, zone, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for TimeClock; starts the draining thread
+     * @param employees Employee lookup by ID
+     * @param timesheets Receives each flush's new timesheets of one period by employee ID
+     * @param openingTimesheets Timesheet an employee's hours for a period start from, or null
+     * @param period First pay period hours are accepted for
+     * @param zone Time zone of the working days
+     */
+    public TimeClock(Function<String, Employee> employees, Consumer<Map<String, Timesheet>> timesheets,
+                     BiFunction<String, YearMonth, Timesheet> openingTimesheets, YearMonth period, ZoneId zone) {
+        this(employees, timesheets, openingTimesheets, period, zone, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for TimeClock; starts the draining thread
+     * @param employees Employee lookup by ID
+     * @param period First pay period hours are accepted for
+     * @param zone Time zone of the working days
+     * @param capacity Ring buffer slots, rounded up to a power of two
+     */
+    public TimeClock(Function<String, Employee> employees, YearMonth period, ZoneId zone, int capacity) {
+        this(employees, updates -> updates.forEach((id, sheet) -> {
+            Employee emp = employees.apply(id);
+            emp.setTimesheet(sheet.continuing(emp.getTimesheet()));
+        }), period, zone, capacity);
+    }
+
+    /**
+     * Constructor for TimeClock; starts the draining thread
+     * @param employees Employee lookup by ID
+     * @param timesheets Receives each flush's new timesheets of one period by employee ID
+     * @param period First pay period hours are accepted for
+     * @param zone Time zone of the working days
+     * @param capacity Ring buffer slots, rounded up to a power of two
+     */
+    public TimeClock(Function<String, Employee> employees, Consumer<Map<String, Timesheet>> timesheets,
+                     YearMonth period, ZoneId zone, int capacity) {
+        this(employees, timesheets, (employeeId, sheetPeriod) -> {
+            Employee emp = employees.apply(employeeId);
+            return emp != null ? emp.getTimesheet() : null;
+        }, period, zone, capacity);
+    }
+
+    /**
+     * Constructor for TimeClock; starts the draining thread
+     * @param employees Employee lookup by ID
+     * @param timesheets Receives each flush's new timesheets of one period by employee ID
+     * @param openingTimesheets Timesheet an employee's hours for a period start from, or null;
+     *        used only when it is for that period and has daily hours
+     * @param period First pay period hours are accepted for
+     * @param zone Time zone of the working days
+     * @param capacity Ring buffer slots, rounded up to a power of two
+     */
+    public TimeClock(Function<String, Employee> employees, Consumer<Map<String, Timesheet>> timesheets,
+                     BiFunction<String, YearMonth, Timesheet> openingTimesheets, YearMonth period, ZoneId zone,
+                     int capacity) {
+        this.ring = new PunchRing(capacity);
+        this.employees = employees;
+        this.timesheets = timesheets;
+        this.openingTimesheets = openingTimesheets;
+        this.period = period;
+        this.zone = zone;
+        this.periodStartDay = period.atDay(1).toEpochDay();
+        this.drainer = new Thread(this::drain, "time-clock");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Publish a punch, waiting for space while the buffer is full
+     * @param employeeId Employee ID from the badge
+     * @param epochMillis Time of the punch
+     * @param clockIn true for clock-in, false for clock-out
+     * @return false if the clock has been closed
+     */
+    public boolean punch(String employeeId, long epochMillis, boolean clockIn) {
+        while (!ring.offer(employeeId, epochMillis, clockIn)) {
+            if (!running) return false;
+            LockSupport.parkNanos(IDLE_PARK_NANOS / 10);
+        }
+        return true;
+    }
+
+    /**
+     * Publish a punch unless the buffer is full
+     * @param employeeId Employee ID from the badge
+     * @param epochMillis Time of the punch
+     * @param clockIn true for clock-in, false for clock-out
+     * @return true if the punch was accepted
+     */
+    public boolean tryPunch(String employeeId, long epochMillis, boolean clockIn) {
+        if (running && ring.offer(employeeId, epochMillis, clockIn)) {
+            return true;
+        }
+        rejectedPunches.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Wait until every punch published before this call has been paired and applied to the employees
+     */
+    public void flush() {
+        long target = ring.published();
+        while (appliedSequence < target && drainer.isAlive()) {
+            flushRequested = true;
+            LockSupport.unpark(drainer);
+            LockSupport.parkNanos(IDLE_PARK_NANOS / 10);
+        }
+    }
+
+    /**
+     * Apply the remaining punches and stop the draining thread
+     */
+    public void close() {
+        flush();
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Getters
+    public YearMonth getPeriod() { return period; }
+    public YearMonth getLatestPeriod() { return latestPeriod != null ? latestPeriod : period; }
+    public long getPairedShifts() { return pairedShifts; }
+    public long getUnpairedPunches() { return unpairedPunches; }
+    public long getUnknownPunches() { return unknownPunches; }
+    public double getOutsidePeriodHours() { return outsidePeriodHours; }
+    public long getEmployeesUpdated() { return employeesUpdated; }
+    public long getRejectedPunches() { return rejectedPunches.get(); }
+    public long getPendingPunches() { return ring.published() - appliedSequence; }
+
+    /**
+     * Drainer thread: pair punches batch by batch and apply the hours periodically
+     */
+    private void drain() {
+        long nextFlush = System.nanoTime() + FLUSH_INTERVAL_NANOS;
+        while (true) {
+            int drained = ring.drain(BATCH, this::accept);
+            long now = System.nanoTime();
+            if (flushRequested || now >= nextFlush) {
+                flushRequested = false;
+                applyHours();
+                appliedSequence = ring.consumed();
+                nextFlush = now + FLUSH_INTERVAL_NANOS;
+            }
+            if (drained == 0) {
+                if (!running) {
+                    applyHours();
+                    appliedSequence = ring.consumed();
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Pair one punch with the employee's open clock-in
+     */
+    private void accept(String employeeId, long epochMillis, boolean clockIn) {
+        EmployeeClock clock = clocks.get(employeeId);
+        if (clock == null) {
+            Employee emp = employees.apply(employeeId);
+            if (emp == null) {
+                unknownPunches++;
+                return;
+            }
+            clock = new EmployeeClock(emp.getEmployeeId());
+            clocks.put(employeeId, clock);
+        }
+
+        if (clockIn) {
+            if (clock.openSince != EmployeeClock.CLOSED) unpairedPunches++;
+            if (epochMillis < clock.lastOut) {
+                unpairedPunches++;
+                clock.openSince = EmployeeClock.CLOSED;
+            } else {
+                clock.openSince = epochMillis;
+            }
+            return;
+        }
+
+        long in = clock.openSince;
+        clock.openSince = EmployeeClock.CLOSED;
+        if (in == EmployeeClock.CLOSED || epochMillis <= in || epochMillis - in > MAX_SHIFT_MILLIS) {
+            unpairedPunches += in == EmployeeClock.CLOSED ? 1 : 2;
+            return;
+        }
+        clock.lastOut = epochMillis;
+        pairedShifts++;
+        addShift(clock, in, epochMillis);
+    }
+
+    /**
+     * Credit a shift to the days it covers, splitting it at local midnight
+     */
+    private void addShift(EmployeeClock clock, long in, long out) {
+        long day = LocalDate.ofInstant(Instant.ofEpochMilli(in), zone).toEpochDay();
+        long from = in;
+        while (true) {
+            long midnight = midnightAfter(day);
+            long to = Math.min(out, midnight);
+            credit(clock, day, (to - from) / 3_600_000.0);
+            if (out <= midnight) return;
+            from = midnight;
+            day++;
+        }
+    }
+
+    private long midnightAfter(long epochDay) {
+        if (epochDay != midnightDay) {
+            midnightMillis = LocalDate.ofEpochDay(epochDay + 1).atStartOfDay(zone).toInstant().toEpochMilli();
+            midnightDay = epochDay;
+        }
+        return midnightMillis;
+    }
+
+    /**
+     * Add hours to one day of an employee's period
+     */
+    private void credit(EmployeeClock clock, long epochDay, double hours) {
+        PeriodHours sheet = clock.latest;
+        if (sheet == null || epochDay < sheet.startDay || epochDay >= sheet.endDay) {
+            sheet = periodHours(clock, epochDay);
+            if (sheet == null) {
+                outsidePeriodHours += hours;
+                return;
+            }
+        }
+        sheet.days[(int) (epochDay - sheet.startDay)] += hours;
+        if (!sheet.dirty) {
+            sheet.dirty = true;
+            dirty.add(sheet);
+        }
+    }
+
+    /**
+     * Find or open an employee's hours for the period of a day. A later period becomes the
+     * employee's latest and the latest becomes the previous one, if it is the month before.
+     * @return hours of the period, or null if the day is outside the periods kept
+     */
+    private PeriodHours periodHours(EmployeeClock clock, long epochDay) {
+        if (epochDay < periodStartDay) return null;
+        YearMonth dayPeriod = periodOf(epochDay);
+        PeriodHours latest = clock.latest;
+        if (latest == null || dayPeriod.isAfter(latest.period)) {
+            // Hours not applied yet stay in the dirty list after they are let go here
+            clock.previous = latest != null && latest.period.plusMonths(1).equals(dayPeriod) ? latest : null;
+            clock.latest = open(clock.employeeId, dayPeriod);
+            return clock.latest;
+        }
+        if (clock.previous == null && latest.period.minusMonths(1).equals(dayPeriod)) {
+            clock.previous = open(clock.employeeId, dayPeriod);
+        }
+        return clock.previous != null && clock.previous.period.equals(dayPeriod) ? clock.previous : null;
+    }
+
+    private YearMonth periodOf(long epochDay) {
+        if (epochDay >= latestStartDay && epochDay < latestEndDay) return latestPeriod;
+        YearMonth dayPeriod = YearMonth.from(LocalDate.ofEpochDay(epochDay));
+        if (latestPeriod == null || dayPeriod.isAfter(latestPeriod)) {
+            latestStartDay = dayPeriod.atDay(1).toEpochDay();
+            latestEndDay = latestStartDay + dayPeriod.lengthOfMonth();
+            latestPeriod = dayPeriod;
+        }
+        return dayPeriod;
+    }
+
+    /**
+     * Start an employee's hours for a period from the opening timesheet
+     */
+    private PeriodHours open(String employeeId, YearMonth sheetPeriod) {
+        PeriodHours hours = new PeriodHours(employeeId, sheetPeriod);
+        Timesheet opening = openingTimesheets != null ? openingTimesheets.apply(employeeId, sheetPeriod) : null;
+        if (opening != null && opening.hasDailyHours() && opening.getPeriod().equals(sheetPeriod)) {
+            System.arraycopy(opening.dailyHours(), 0, hours.days, 0, hours.days.length);
+        }
+        return hours;
+    }
+
+    /**
+     * Give every employee whose hours changed a new timesheet, one batch per period, oldest first
+     */
+    private void applyHours() {
+        if (dirty.isEmpty()) return;
+        Map<YearMonth, Map<String, Timesheet>> updates = new TreeMap<>();
+        for (PeriodHours hours : dirty) {
+            hours.dirty = false;
+            updates.computeIfAbsent(hours.period, p -> new LinkedHashMap<>())
+                    .put(hours.employeeId, Timesheet.ofDays(hours.period, hours.days));
+        }
+        for (Map<String, Timesheet> batch : updates.values()) {
+            timesheets.accept(batch);
+        }
+        employeesUpdated += dirty.size();
+        dirty.clear();
+    }
+
+    /**
+     * Pairing state of one employee and their hours of the latest and previous period;
+     * drainer thread only
+     */
+    private static final class EmployeeClock {
+        static final long CLOSED = Long.MIN_VALUE;
+
+        final String employeeId;
+        PeriodHours latest;
+        PeriodHours previous;
+        long openSince = CLOSED;
+        long lastOut = Long.MIN_VALUE;
+
+        EmployeeClock(String employeeId) {
+            this.employeeId = employeeId;
+        }
+    }
+
+    /**
+     * Daily hours of one employee in one period; drainer thread only
+     */
+    private static final class PeriodHours {
+        final String employeeId;
+        final YearMonth period;
+        final long startDay;
+        final long endDay;
+        final double[] days;
+        boolean dirty;
+
+        PeriodHours(String employeeId, YearMonth period) {
+            this.employeeId = employeeId;
+            this.period = period;
+            this.startDay = period.atDay(1).toEpochDay();
+            this.days = new double[period.lengthOfMonth()];
+            this.endDay = startDay + days.length;
+        }
+    }
+
+    /**
+     * Receives drained punches
+     */
+    private interface PunchHandler {
+        void accept(String employeeId, long epochMillis, boolean clockIn);
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer ring of punches. A producer claims a slot by
+     * advancing the shared tail with compare-and-set, writes the punch into the slot's
+     * columns and publishes it by setting the slot's sequence number; the consumer reads a
+     * slot once its sequence shows it is published and hands it back one lap ahead.
+     */
+    private static final class PunchRing {
+        private final int mask;
+        private final String[] employeeIds;
+        private final long[] times;
+        private final boolean[] clockIns;
+        // sequence[i] == position + 1: published for the consumer; == position: free for producers
+        private final AtomicLongArray sequence;
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head;
+
+        PunchRing(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+            this.mask = size - 1;
+            this.employeeIds = new String[size];
+            this.times = new long[size];
+            this.clockIns = new boolean[size];
+            this.sequence = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequence.set(i, i);
+            }
+        }
+
+        boolean offer(String employeeId, long epochMillis, boolean clockIn) {
+            long position = tail.get();
+            while (true) {
+                int slot = (int) position & mask;
+                long difference = sequence.get(slot) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        employeeIds[slot] = employeeId;
+                        times[slot] = epochMillis;
+                        clockIns[slot] = clockIn;
+                        sequence.lazySet(slot, position + 1);
+                        return true;
+                    }
+                    position = tail.get();
+                } else if (difference < 0) {
+                    return false;
+                } else {
+                    position = tail.get();
+                }
+            }
+        }
+
+        int drain(int max, PunchHandler handler) {
+            long position = head;
+            int count = 0;
+            while (count < max) {
+                int slot = (int) position & mask;
+                if (sequence.get(slot) != position + 1) break;
+                String employeeId = employeeIds[slot];
+                employeeIds[slot] = null;
+                handler.accept(employeeId, times[slot], clockIns[slot]);
+                sequence.lazySet(slot, position + mask + 1);
+                position++;
+                count++;
+            }
+            head = position;
+            return count;
+        }
+
+        long published() { return tail.get(); }
+        long consumed() { return head; }
+    }
+}
@@ -0,0 +1,159 @@
+package advancepayrollmanagementsystem;
+
+import java.io.Serializable;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * Timesheet holds the hours an employee worked in one pay period, by day or by week.
+ *
+ * Weeks run Monday to Sunday; the first and last week of a month are usually partial, so a
+ * month has four to six weeks. A timesheet entered by day gives both daily and weekly hours;
+ * one entered by week gives weekly hours only, and daily overtime rules do not apply to it.
+ * Every week holds the hours worked in this month only.
+ *
+ * A week that starts in the previous month is one week for overtime: the timesheet carries
+ * the hours already worked in it before the 1st (the prior week hours), and weekly thresholds
+ * count them first. Each month pays the overtime of its own days, so the week is neither
+ * paid twice nor split into two short weeks. See continuing().
+ *
+ * Timesheets are immutable.
+ */
+public final class Timesheet implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final YearMonth period;
+    // Hours per day of the month, or null when entered by week
+    private final double[] days;
+    private final double[] weeks;
+    private final double totalHours;
+    // Hours of the first week worked in the previous month; not part of the total
+    private final double priorWeekHours;
+
+    private Timesheet(YearMonth period, double[] days, double[] weeks, double priorWeekHours) {
+        this.period = period;
+        this.days = days;
+        this.weeks = weeks;
+        this.priorWeekHours = priorWeekHours;
+        double total = 0;
+        for (double hours : weeks) total += hours;
+        this.totalHours = total;
+    }
+
+    /**
+     * Create a timesheet from daily hours
+     * @param period Pay period
+     * @param hoursByDay Hours for each day of the month, day 1 first
+     * @return timesheet
+     */
+    public static Timesheet ofDays(YearMonth period, double[] hoursByDay) {
+        if (hoursByDay.length != period.lengthOfMonth()) {
+            throw new IllegalArgumentException(period + " has " + period.lengthOfMonth() + " days, got " + hoursByDay.length);
+        }
+        double[] days = hoursByDay.clone();
+        double[] weeks = new double[weeksIn(period)];
+        int offset = firstWeekOffset(period);
+        for (int day = 0; day < days.length; day++) {
+            // A day has 25 hours when the clocks go back
+            checkHours(days[day], 25);
+            weeks[(day + offset) / 7] += days[day];
+        }
+        return new Timesheet(period, days, weeks, 0);
+    }
+
+    /**
+     * Create a timesheet from weekly hours
+     * @param period Pay period
+     * @param hoursByWeek Hours for each Monday-to-Sunday week that overlaps the month
+     * @return timesheet
+     */
+    public static Timesheet ofWeeks(YearMonth period, double[] hoursByWeek) {
+        if (hoursByWeek.length != weeksIn(period)) {
+            throw new IllegalArgumentException(period + " has " + weeksIn(period) + " weeks, got " + hoursByWeek.length);
+        }
+        for (double hours : hoursByWeek) checkHours(hours, 24 * 7);
+        return new Timesheet(period, null, hoursByWeek.clone(), 0);
+    }
+
+    /**
+     * Get this timesheet with the hours its first week already had in the previous month
+     * @param hours Hours worked in the first week before the 1st
+     * @return timesheet with those prior week hours
+     */
+    public Timesheet withPriorWeekHours(double hours) {
+        checkHours(hours, 24 * 6);
+        if (firstWeekOffset(period) == 0 && hours > 0) {
+            throw new IllegalArgumentException(period + " starts on a Monday; its first week has no prior hours");
+        }
+        return new Timesheet(period, days, weeks, hours);
+    }
+
+    /**
+     * Carry the previous month's part of the first week over from the timesheet this one
+     * replaces: its trailing week when it is of the month before, or its prior week hours
+     * when it is of the same month
+     * @param previous Timesheet the employee had before this one (may be null)
+     * @return this timesheet with the carried prior week hours, or this one unchanged when
+     *         there are none or it already has its own
+     */
+    public Timesheet continuing(Timesheet previous) {
+        if (previous == null || priorWeekHours > 0) return this;
+        double carried = previous.period.equals(period) ? previous.priorWeekHours
+                : previous.period.plusMonths(1).equals(period) ? previous.getTrailingWeekHours() : 0;
+        return carried > 0 ? withPriorWeekHours(carried) : this;
+    }
+
+    /**
+     * Count the Monday-to-Sunday weeks that overlap a month
+     * @param period Pay period
+     * @return number of weeks, 4 to 6
+     */
+    public static int weeksIn(YearMonth period) {
+        return (firstWeekOffset(period) + period.lengthOfMonth() + 6) / 7;
+    }
+
+    // Getters
+    public YearMonth getPeriod() { return period; }
+    public double getTotalHours() { return totalHours; }
+    public int getWeekCount() { return weeks.length; }
+    public double getWeekHours(int week) { return weeks[week]; }
+    public boolean hasDailyHours() { return days != null; }
+    public double getPriorWeekHours() { return priorWeekHours; }
+
+    /**
+     * Hours of the last week when it runs on into the next month
+     * @return hours of the month's part of that week, or 0 when the month ends on a Sunday
+     */
+    public double getTrailingWeekHours() {
+        if ((firstWeekOffset(period) + period.lengthOfMonth()) % 7 == 0) return 0;
+        return weeks[weeks.length - 1];
+    }
+
+    /**
+     * Hours per day of the month, or null when entered by week; not copied
+     */
+    double[] dailyHours() { return days; }
+
+    /**
+     * Hours per week; not copied
+     */
+    double[] weeklyHours() { return weeks; }
+
+    /**
+     * Days of the month's first week that fall in the previous month (0 when the month starts on a Monday)
+     */
+    static int firstWeekOffset(YearMonth period) {
+        return period.atDay(1).getDayOfWeek().getValue() - 1;
+    }
+
+    private static void checkHours(double hours, double max) {
+        if (!(hours >= 0 && hours <= max)) {
+            throw new IllegalArgumentException("Hours must be between 0 and " + (int) max + ", got " + hours);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Timesheet{Period=%s, Hours=%.1f, Weeks=%s}", period, totalHours, Arrays.toString(weeks));
+    }
+}
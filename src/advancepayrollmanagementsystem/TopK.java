@@ -0,0 +1,89 @@
+package advancepayrollmanagementsystem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * TopK keeps the k highest (or lowest) scoring items of a stream in a bounded heap.
+ *
+ * The heap root is the weakest item kept, so each new item costs one comparison when it does
+ * not qualify and O(log k) when it does; the stream is never sorted. Two TopK over separate
+ * partitions merge into the TopK of the combined stream.
+ *
+ * @param <T> Type of the ranked items
+ */
+public class TopK<T> {
+    private final int k;
+    private final boolean highest;
+    private final PriorityQueue<Entry<T>> heap;
+
+    /**
+     * Constructor for TopK
+     * @param k Number of items to keep
+     * @param highest true to keep the highest scores, false to keep the lowest
+     */
+    public TopK(int k, boolean highest) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive");
+        this.k = k;
+        this.highest = highest;
+        // Weakest kept item at the root
+        Comparator<Entry<T>> byScore = Comparator.comparingDouble(Entry::getScore);
+        this.heap = new PriorityQueue<>(k + 1, highest ? byScore : byScore.reversed());
+    }
+
+    /**
+     * Offer an item to the ranking
+     * @param score Score of the item
+     * @param item Item
+     */
+    public void offer(double score, T item) {
+        if (heap.size() < k) {
+            heap.add(new Entry<>(score, item));
+        } else if (highest ? score > heap.peek().score : score < heap.peek().score) {
+            heap.poll();
+            heap.add(new Entry<>(score, item));
+        }
+    }
+
+    /**
+     * Merge another ranking into this one
+     * @param other Ranking over another partition
+     */
+    public void merge(TopK<T> other) {
+        for (Entry<T> entry : other.heap) {
+            offer(entry.score, entry.item);
+        }
+    }
+
+    /**
+     * Get the kept items, best first
+     * @return ranked entries
+     */
+    public List<Entry<T>> getRanked() {
+        List<Entry<T>> ranked = new ArrayList<>(heap);
+        Comparator<Entry<T>> byScore = Comparator.comparingDouble(Entry::getScore);
+        ranked.sort(highest ? byScore.reversed() : byScore);
+        return ranked;
+    }
+
+    public int size() { return heap.size(); }
+
+    /**
+     * Scored item
+     * @param <T> Type of the item
+     */
+    public static final class Entry<T> {
+        private final double score;
+        private final T item;
+
+        Entry(double score, T item) {
+            this.score = score;
+            this.item = item;
+        }
+
+        public double getScore() { return score; }
+        public T getItem() { return item; }
+    }
+}
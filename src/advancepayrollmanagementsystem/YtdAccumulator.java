@@ -0,0 +1,92 @@
+package advancepayrollmanagementsystem;
+
+import java.time.YearMonth;
+
+/**
+ * YtdAccumulator holds one employee's year-to-date gross, tax withheld and hours.
+ * Each pay period is posted once; tax is withheld on the cumulative basis, i.e.
+ * tax due on the year-to-date gross minus what has already been withheld.
+ * Re-posting the latest period replaces its earlier contribution.
+ */
+public class YtdAccumulator {
+    private final int year;
+    private YearMonth lastPeriod;
+    private int periodsPaid;
+    private double grossSalary;
+    private double taxWithheld;
+    private double hoursWorked;
+    
+    // Contribution of lastPeriod, kept so the period can be re-posted
+    private double lastGross;
+    private double lastTax;
+    private double lastHours;
+    
+    /**
+     * Constructor for YtdAccumulator
+     * @param year Tax year
+     * @param through Last period already included in the opening balances (may be null)
+     * @param opening Opening balances for the year
+     */
+    public YtdAccumulator(int year, YearMonth through, PayTotals opening) {
+        this.year = year;
+        this.lastPeriod = through;
+        this.periodsPaid = opening.getCount();
+        this.grossSalary = opening.getGrossSalary();
+        this.taxWithheld = opening.getTax();
+        this.hoursWorked = opening.getHoursWorked();
+    }
+    
+    /**
+     * Check whether a period can be posted without rebuilding the balances
+     * @param period Period to post
+     * @return true if period is the latest posted period or the one after it
+     */
+    public boolean canPost(YearMonth period) {
+        if (period.getYear() != year) return false;
+        if (lastPeriod == null) return period.getMonthValue() == 1;
+        return period.equals(lastPeriod) || period.equals(lastPeriod.plusMonths(1));
+    }
+    
+    /**
+     * Post one pay period for the employee and compute the tax to withhold
+     * @param emp Employee being paid
+     * @param period Pay period
+     * @return payroll result with cumulative tax withholding
+     */
+    public PayrollResult post(Employee emp, YearMonth period) {
+        if (!canPost(period)) {
+            throw new IllegalStateException("Cannot post " + period + " after " + lastPeriod);
+        }
+        if (period.equals(lastPeriod)) {
+            // Re-run of the latest period: back out its previous contribution
+            grossSalary -= lastGross;
+            taxWithheld -= lastTax;
+            hoursWorked -= lastHours;
+            periodsPaid--;
+        }
+        
+        double gross = emp.calculateSalary();
+        double cumulativeGross = grossSalary + gross;
+        double tax = emp.calculateTax(cumulativeGross, period.getMonthValue()) - taxWithheld;
+        
+        grossSalary = cumulativeGross;
+        taxWithheld += tax;
+        hoursWorked += emp.getHoursWorked();
+        periodsPaid++;
+        lastPeriod = period;
+        lastGross = gross;
+        lastTax = tax;
+        lastHours = emp.getHoursWorked();
+        
+        return new PayrollResult(emp.getEmployeeId(), emp.getDepartment(), emp.getEmployeeType(),
+                gross, tax, gross - tax, emp.getHoursWorked(), emp.getOvertimePay());
+    }
+    
+    // Getters
+    public int getYear() { return year; }
+    public YearMonth getLastPeriod() { return lastPeriod; }
+    public int getPeriodsPaid() { return periodsPaid; }
+    public double getGrossSalary() { return grossSalary; }
+    public double getTaxWithheld() { return taxWithheld; }
+    public double getHoursWorked() { return hoursWorked; }
+}
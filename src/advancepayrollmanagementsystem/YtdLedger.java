@@ -0,0 +1,94 @@
+package advancepayrollmanagementsystem;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * YtdLedger keeps a year-to-date accumulator per employee and updates it incrementally
+ * as each pay period is run, so cumulative tax costs O(1) per employee per period.
+ *
+ * Accumulators are built on first use from the period footers of the history store
+ * (never the detail rows) and are rebuilt the same way if periods are run out of order.
+ */
+public class YtdLedger {
+    private final PayrollHistoryStore history;
+    private final Map<String, YtdAccumulator> accumulators = new ConcurrentHashMap<>();
+    
+    /**
+     * Constructor for YtdLedger
+     * @param history History store used to open year-to-date balances
+     */
+    public YtdLedger(PayrollHistoryStore history) {
+        this.history = history;
+    }
+    
+    /**
+     * Run payroll for a period with cumulative tax withholding
+     * @param period Pay period
+     * @param employees Employees to include (inactive employees are skipped)
+     * @return payroll run
+     * @throws IOException if opening balances cannot be read from history
+     * @throws IllegalStateException if an active employee's timesheet is for another period
+     */
+    public PayrollRun runPeriod(YearMonth period, List<Employee> employees) throws IOException {
+        for (Employee emp : employees) {
+            Timesheet sheet = emp.getTimesheet();
+            if (emp.isActive() && sheet != null && !sheet.getPeriod().equals(period)) {
+                throw new IllegalStateException("Timesheet of " + emp.getEmployeeId() + " is for " +
+                        sheet.getPeriod() + ", not " + period);
+            }
+        }
+        List<PayrollResult> results = new ArrayList<>();
+        // Everyone is paid as of the last day of the period
+        BusinessCalendar.Pin pin = BusinessCalendar.pin(period);
+        try {
+            for (Employee emp : employees) {
+                if (emp.isActive()) {
+                    results.add(accumulatorFor(emp.getEmployeeId(), period).post(emp, period));
+                }
+            }
+        } finally {
+            pin.close();
+        }
+        return new PayrollRun(period, LocalDateTime.now(), results);
+    }
+    
+    /**
+     * Get the accumulator for an employee, ready to post the given period
+     * @param employeeId Employee ID
+     * @param period Period about to be posted
+     * @return accumulator
+     * @throws IOException if opening balances cannot be read from history
+     */
+    public YtdAccumulator accumulatorFor(String employeeId, YearMonth period) throws IOException {
+        YtdAccumulator accumulator = accumulators.get(employeeId);
+        if (accumulator == null || !accumulator.canPost(period)) {
+            accumulator = open(employeeId, period);
+            accumulators.put(employeeId, accumulator);
+        }
+        return accumulator;
+    }
+    
+    /**
+     * Forget all accumulators so they are reopened from history
+     */
+    public void clear() {
+        accumulators.clear();
+    }
+    
+    /**
+     * Open an accumulator with balances from January up to the period before the given one
+     */
+    private YtdAccumulator open(String employeeId, YearMonth period) throws IOException {
+        if (period.getMonthValue() == 1) {
+            return new YtdAccumulator(period.getYear(), null, new PayTotals());
+        }
+        YearMonth previous = period.minusMonths(1);
+        return new YtdAccumulator(period.getYear(), previous, history.getYearToDate(employeeId, previous));
+    }
+}
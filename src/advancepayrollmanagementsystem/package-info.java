@@ -12,6 +12,7 @@
  * - ContractEmployee: Represents contract workers with project-based payments
  * - PayrollSystem: Core business logic for payroll processing and management
  * - Main: User interface and application entry point
+ * - PayrollHistoryStore: Period-partitioned history of payroll runs
  * 
  * Features:
  * - Multiple employee types with different payment structures